@@ -0,0 +1,7 @@
+-- Indexes behind the filters of the transaction history endpoints.
+-- Built concurrently so the table keeps taking writes, run it outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS banking_transactions_account_type_idx ON public.banking_transactions USING btree (banking_account_id, transaction_type, created_at DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS banking_transactions_account_amount_idx ON public.banking_transactions USING btree (banking_account_id, amount);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS banking_transactions_card_amount_idx ON public.banking_transactions USING btree (banking_card_id, amount);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS banking_transactions_account_open_status_idx ON public.banking_transactions USING btree (banking_account_id, transaction_status, created_at DESC, id DESC) WHERE transaction_status <> 'COMPLETED';
+CREATE INDEX CONCURRENTLY IF NOT EXISTS banking_transactions_card_open_status_idx ON public.banking_transactions USING btree (banking_card_id, transaction_status, created_at DESC, id DESC) WHERE transaction_status <> 'COMPLETED';
@@ -0,0 +1,49 @@
+-- Creates the ledger tables of schema.sql on an existing database and opens the journal
+-- with one entry per account, so replaying it gives the current balances.
+
+CREATE SEQUENCE public.ledger_entries_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE public.ledger_entries (
+	id int4 DEFAULT nextval('public.ledger_entries_seq') NOT NULL,
+	description text NULL,
+	created_at timestamp DEFAULT CURRENT_TIMESTAMP NULL,
+	CONSTRAINT ledger_entries_pkey PRIMARY KEY (id)
+);
+
+CREATE TYPE public."ledger_account_type" AS ENUM (
+	'BANKING_ACCOUNT',
+	'EXTERNAL'
+);
+
+CREATE CAST (varchar as ledger_account_type) WITH INOUT AS IMPLICIT;
+
+CREATE SEQUENCE public.ledger_postings_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE public.ledger_postings (
+	id int4 DEFAULT nextval('public.ledger_postings_seq') NOT NULL,
+	ledger_entry_id int4 NOT NULL,
+	ledger_account public."ledger_account_type" NOT NULL,
+	banking_account_id int4 NULL,
+	banking_transaction_id int4 NULL,
+	amount numeric(15, 2) NOT NULL,
+	CONSTRAINT ledger_postings_pkey PRIMARY KEY (id),
+	CONSTRAINT ledger_postings_ledger_entry_id_fkey FOREIGN KEY (ledger_entry_id) REFERENCES public.ledger_entries(id),
+	CONSTRAINT ledger_postings_banking_account_id_fkey FOREIGN KEY (banking_account_id) REFERENCES public.banking_accounts(id) ON DELETE CASCADE,
+	CONSTRAINT ledger_postings_banking_transaction_id_fkey FOREIGN KEY (banking_transaction_id) REFERENCES public.banking_transactions(id) ON DELETE CASCADE
+);
+
+CREATE INDEX ledger_postings_banking_account_idx ON public.ledger_postings USING btree (banking_account_id);
+
+-- opening balance of every account with money, against the external account
+DO $$
+DECLARE
+	account record;
+	entry_id int4;
+BEGIN
+	FOR account IN SELECT id, balance FROM public.banking_accounts WHERE balance <> 0 LOOP
+		INSERT INTO public.ledger_entries (description) VALUES ('Opening balance') RETURNING id INTO entry_id;
+		INSERT INTO public.ledger_postings (ledger_entry_id, ledger_account, banking_account_id, amount) VALUES
+			(entry_id, 'BANKING_ACCOUNT', account.id, account.balance),
+			(entry_id, 'EXTERNAL', NULL, -account.balance);
+	END LOOP;
+END $$;
@@ -0,0 +1,5 @@
+-- Postings are the journal and are never deleted, so deleting an account that has
+-- postings must fail instead of taking its postings with it.
+ALTER TABLE public.ledger_postings
+	DROP CONSTRAINT ledger_postings_banking_account_id_fkey,
+	ADD CONSTRAINT ledger_postings_banking_account_id_fkey FOREIGN KEY (banking_account_id) REFERENCES public.banking_accounts(id) ON DELETE RESTRICT;
@@ -0,0 +1,79 @@
+-- Moves banking_transactions to a table partitioned by month of created_at.
+-- The rows are copied into a new table and the names swapped, the table must not take
+-- writes meanwhile: stop the application before running it. It runs in one transaction.
+BEGIN;
+
+LOCK TABLE public.banking_transactions IN ACCESS EXCLUSIVE MODE;
+
+-- the key of a partitioned table must hold created_at, the postings cannot point to it anymore
+ALTER TABLE public.ledger_postings DROP CONSTRAINT IF EXISTS ledger_postings_banking_transaction_id_fkey;
+UPDATE public.banking_transactions SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+
+ALTER TABLE public.banking_transactions RENAME TO banking_transactions_old;
+ALTER TABLE public.banking_transactions_old RENAME CONSTRAINT banking_transactions_pkey TO banking_transactions_old_pkey;
+ALTER TABLE public.banking_transactions_old RENAME CONSTRAINT banking_transactions_banking_card_id_fkey TO banking_transactions_old_banking_card_id_fkey;
+ALTER TABLE public.banking_transactions_old RENAME CONSTRAINT banking_transactions_banking_account_id_fkey TO banking_transactions_old_banking_account_id_fkey;
+ALTER INDEX IF EXISTS public.banking_transactions_account_history_idx RENAME TO banking_transactions_old_account_history_idx;
+ALTER INDEX IF EXISTS public.banking_transactions_card_history_idx RENAME TO banking_transactions_old_card_history_idx;
+ALTER INDEX IF EXISTS public.banking_transactions_account_type_idx RENAME TO banking_transactions_old_account_type_idx;
+ALTER INDEX IF EXISTS public.banking_transactions_account_amount_idx RENAME TO banking_transactions_old_account_amount_idx;
+ALTER INDEX IF EXISTS public.banking_transactions_card_amount_idx RENAME TO banking_transactions_old_card_amount_idx;
+ALTER INDEX IF EXISTS public.banking_transactions_account_open_status_idx RENAME TO banking_transactions_old_account_open_status_idx;
+ALTER INDEX IF EXISTS public.banking_transactions_card_open_status_idx RENAME TO banking_transactions_old_card_open_status_idx;
+ALTER INDEX IF EXISTS public.banking_transactions_search_idx RENAME TO banking_transactions_old_search_idx;
+
+CREATE TABLE public.banking_transactions (
+	id int4 DEFAULT nextval('public.banking_transactions_seq') NOT NULL,
+	banking_account_id int4 NOT NULL,
+	banking_card_id int4 NULL,
+	account_balance numeric(15, 2) NOT NULL,
+	transaction_type public."banking_transaction_type" NOT NULL,
+	amount numeric(15, 2) NOT NULL,
+	description text NULL,
+	transaction_status public."banking_transaction_status_type" DEFAULT 'PENDING'::banking_transaction_status_type NOT NULL,
+	created_at timestamp DEFAULT CURRENT_TIMESTAMP NOT NULL,
+	updated_at timestamp DEFAULT CURRENT_TIMESTAMP NULL,
+	search_vector tsvector GENERATED ALWAYS AS (to_tsvector('simple', coalesce(description, ''))) STORED,
+	CONSTRAINT banking_transactions_pkey PRIMARY KEY (id, created_at),
+	CONSTRAINT banking_transactions_banking_card_id_fkey FOREIGN KEY (banking_card_id) REFERENCES public.banking_cards(id) ON DELETE SET NULL,
+	CONSTRAINT banking_transactions_banking_account_id_fkey FOREIGN KEY (banking_account_id) REFERENCES public.banking_accounts(id) ON DELETE CASCADE
+) PARTITION BY RANGE (created_at);
+
+-- every month with rows up to 3 months ahead, the application creates the following ones
+DO $$
+DECLARE
+	month date;
+BEGIN
+	FOR month IN
+		SELECT generate_series(
+			date_trunc('month', coalesce((SELECT min(created_at) FROM public.banking_transactions_old), now())),
+			date_trunc('month', now()) + interval '3 months',
+			interval '1 month'
+		)
+	LOOP
+		EXECUTE format(
+			'CREATE TABLE public.banking_transactions_y%sm%s PARTITION OF public.banking_transactions FOR VALUES FROM (%L) TO (%L)',
+			to_char(month, 'YYYY'), to_char(month, 'MM'), month, month + interval '1 month'
+		);
+	END LOOP;
+END $$;
+
+INSERT INTO public.banking_transactions (id, banking_account_id, banking_card_id, account_balance, transaction_type, amount, description, transaction_status, created_at, updated_at)
+SELECT id, banking_account_id, banking_card_id, account_balance, transaction_type, amount, description, transaction_status, created_at, updated_at
+FROM public.banking_transactions_old;
+
+-- in case the sequence belonged to the old table, so it is not dropped with it
+ALTER SEQUENCE public.banking_transactions_seq OWNED BY public.banking_transactions.id;
+DROP TABLE public.banking_transactions_old;
+
+-- built after the copy, each one on every partition
+CREATE INDEX banking_transactions_account_history_idx ON public.banking_transactions USING btree (banking_account_id, created_at DESC, id DESC);
+CREATE INDEX banking_transactions_card_history_idx ON public.banking_transactions USING btree (banking_card_id, created_at DESC, id DESC);
+CREATE INDEX banking_transactions_account_type_idx ON public.banking_transactions USING btree (banking_account_id, transaction_type, created_at DESC, id DESC);
+CREATE INDEX banking_transactions_account_amount_idx ON public.banking_transactions USING btree (banking_account_id, amount);
+CREATE INDEX banking_transactions_card_amount_idx ON public.banking_transactions USING btree (banking_card_id, amount);
+CREATE INDEX banking_transactions_account_open_status_idx ON public.banking_transactions USING btree (banking_account_id, transaction_status, created_at DESC, id DESC) WHERE transaction_status <> 'COMPLETED';
+CREATE INDEX banking_transactions_card_open_status_idx ON public.banking_transactions USING btree (banking_card_id, transaction_status, created_at DESC, id DESC) WHERE transaction_status <> 'COMPLETED';
+CREATE INDEX banking_transactions_search_idx ON public.banking_transactions USING gin (banking_account_id, search_vector);
+
+COMMIT;
@@ -0,0 +1,30 @@
+-- Moves an existing database from identity ids to the pooled sequences of schema.sql.
+-- Each sequence starts one block of 50 after the highest id in use.
+
+DO $$
+DECLARE
+	t text;
+BEGIN
+	FOREACH t IN ARRAY ARRAY[
+		'customers',
+		'customer_profiles',
+		'customer_auth',
+		'banking_accounts',
+		'banking_cards',
+		'banking_transactions'
+	]
+	LOOP
+		EXECUTE format('ALTER TABLE public.%I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+		EXECUTE format('CREATE SEQUENCE IF NOT EXISTS public.%I START WITH 1 INCREMENT BY 50', t || '_seq');
+		EXECUTE format(
+			'SELECT setval(%L, COALESCE((SELECT max(id) FROM public.%I), 0) + 50, false)',
+			'public.' || t || '_seq',
+			t
+		);
+		EXECUTE format(
+			'ALTER TABLE public.%I ALTER COLUMN id SET DEFAULT nextval(%L)',
+			t,
+			'public.' || t || '_seq'
+		);
+	END LOOP;
+END $$;
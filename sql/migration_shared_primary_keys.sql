@@ -0,0 +1,19 @@
+-- Keys customer_profiles and customer_auth by the customer id, as in schema.sql,
+-- so both can be loaded by primary key along with their customer.
+-- The customer_id columns were already unique, so no rows change.
+
+BEGIN;
+
+ALTER TABLE public.customer_profiles DROP CONSTRAINT profiles_pkey;
+ALTER TABLE public.customer_profiles DROP CONSTRAINT profiles_customer_id_key;
+ALTER TABLE public.customer_profiles DROP COLUMN id;
+ALTER TABLE public.customer_profiles ADD CONSTRAINT profiles_pkey PRIMARY KEY (customer_id);
+DROP SEQUENCE IF EXISTS public.customer_profiles_seq;
+
+ALTER TABLE public.customer_auth DROP CONSTRAINT auth_pkey;
+ALTER TABLE public.customer_auth DROP CONSTRAINT auth_customer_id_key;
+ALTER TABLE public.customer_auth DROP COLUMN id;
+ALTER TABLE public.customer_auth ADD CONSTRAINT auth_pkey PRIMARY KEY (customer_id);
+DROP SEQUENCE IF EXISTS public.customer_auth_seq;
+
+COMMIT;
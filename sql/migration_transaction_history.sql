@@ -0,0 +1,6 @@
+-- Adds the indexes of schema.sql behind the cursor pages of the transaction history
+-- endpoints to an existing database. The partitioned table of migration_partitioning.sql
+-- already has them.
+-- Built concurrently so the table keeps taking writes, run it outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS banking_transactions_account_history_idx ON public.banking_transactions USING btree (banking_account_id, created_at DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS banking_transactions_card_history_idx ON public.banking_transactions USING btree (banking_card_id, created_at DESC, id DESC);
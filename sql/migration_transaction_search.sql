@@ -0,0 +1,12 @@
+-- Adds the description search of schema.sql to an existing database.
+-- Adding a stored generated column rewrites the table under an exclusive lock,
+-- run it in a maintenance window. The index is built concurrently, outside a transaction.
+
+CREATE EXTENSION IF NOT EXISTS btree_gin SCHEMA public;
+
+ALTER TABLE public.banking_transactions
+	ADD COLUMN IF NOT EXISTS search_vector tsvector
+	GENERATED ALWAYS AS (to_tsvector('simple', coalesce(description, ''))) STORED;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS banking_transactions_search_idx
+	ON public.banking_transactions USING gin (banking_account_id, search_vector);
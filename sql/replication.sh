@@ -0,0 +1,3 @@
+#!/bin/bash
+# lets the replica stream the changes of the primary (see compose.replica.yaml)
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
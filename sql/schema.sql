@@ -4,6 +4,9 @@ CREATE SCHEMA public AUTHORIZATION pg_database_owner;
 
 COMMENT ON SCHEMA public IS 'standard public schema';
 
+-- lets the description search index start with the account id
+CREATE EXTENSION IF NOT EXISTS btree_gin SCHEMA public;
+
 
 CREATE TYPE public."customer_role_type" AS ENUM (
 	'CUSTOMER',
@@ -12,8 +15,12 @@ CREATE TYPE public."customer_role_type" AS ENUM (
 
 CREATE CAST (varchar as customer_role_type) WITH INOUT AS IMPLICIT;
 
+-- ids are taken by hibernate in blocks of 50 (pooled optimizer), the column default
+-- takes a whole block for rows inserted from sql
+CREATE SEQUENCE public.customers_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE public.customers (
-	id int4 GENERATED ALWAYS AS IDENTITY NOT NULL,
+	id int4 DEFAULT nextval('public.customers_seq') NOT NULL,
 	email varchar(80) NOT NULL,
 	"role" public."customer_role_type" DEFAULT 'CUSTOMER'::customer_role_type NOT NULL,
 	created_at timestamp DEFAULT CURRENT_TIMESTAMP NULL,
@@ -29,8 +36,8 @@ CREATE TYPE public."customer_gender_type" AS ENUM (
 
 CREATE CAST (varchar as customer_gender_type) WITH INOUT AS IMPLICIT;
 
+-- keyed by the customer id, there is one profile per customer
 CREATE TABLE public.customer_profiles (
-	id int4 GENERATED ALWAYS AS IDENTITY NOT NULL,
 	customer_id int4 NOT NULL,
 	first_name varchar(20) NOT NULL,
 	last_name varchar(40) NOT NULL,
@@ -43,9 +50,8 @@ CREATE TABLE public.customer_profiles (
 	country varchar(12) NOT NULL,
 	national_id varchar(12) NOT NULL,
 	updated_at timestamp DEFAULT CURRENT_TIMESTAMP NULL,
-	CONSTRAINT profiles_customer_id_key UNIQUE (customer_id),
 	CONSTRAINT profiles_national_id_key UNIQUE (national_id),
-	CONSTRAINT profiles_pkey PRIMARY KEY (id),
+	CONSTRAINT profiles_pkey PRIMARY KEY (customer_id),
 	CONSTRAINT profiles_customer_id_fkey FOREIGN KEY (customer_id) REFERENCES public.customers(id) ON DELETE CASCADE
 );
 
@@ -63,15 +69,14 @@ CREATE TYPE public."email_verification_status_type" AS ENUM (
 
 CREATE CAST (varchar as email_verification_status_type) WITH INOUT AS IMPLICIT;
 
+-- keyed by the customer id, there is one auth per customer
 CREATE TABLE public.customer_auth (
-	id int4 GENERATED ALWAYS AS IDENTITY NOT NULL,
 	customer_id int4 NOT NULL,
 	password_hash varchar(60) NOT NULL,
 	auth_account_status public."auth_status_type" DEFAULT 'ENABLED'::auth_status_type NOT NULL,
 	"email_verification_status" public."email_verification_status_type" DEFAULT 'NOT_VERIFIED'::email_verification_status_type NOT NULL,
 	updated_at timestamp DEFAULT CURRENT_TIMESTAMP NULL,
-	CONSTRAINT auth_customer_id_key UNIQUE (customer_id),
-	CONSTRAINT auth_pkey PRIMARY KEY (id),
+	CONSTRAINT auth_pkey PRIMARY KEY (customer_id),
 	CONSTRAINT auth_customer_id_fkey FOREIGN KEY (customer_id) REFERENCES public.customers(id) ON DELETE CASCADE
 );
 
@@ -97,8 +102,10 @@ CREATE TYPE public."banking_account_type" AS ENUM (
 
 CREATE CAST (varchar as banking_account_type) WITH INOUT AS IMPLICIT;
 
+CREATE SEQUENCE public.banking_accounts_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE public.banking_accounts (
-	id int4 GENERATED ALWAYS AS IDENTITY NOT NULL,
+	id int4 DEFAULT nextval('public.banking_accounts_seq') NOT NULL,
 	customer_id int4 NOT NULL,
 	alias varchar(64) NULL,
 	account_number varchar(32) NOT NULL,
@@ -135,8 +142,10 @@ CREATE TYPE public."banking_card_type" AS ENUM (
 
 CREATE CAST (varchar as banking_card_type) WITH INOUT AS IMPLICIT;
 
+CREATE SEQUENCE public.banking_cards_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE public.banking_cards (
-	id int4 GENERATED ALWAYS AS IDENTITY NOT NULL,
+	id int4 DEFAULT nextval('public.banking_cards_seq') NOT NULL,
 	banking_account_id int4 NOT NULL,
 	card_type public."banking_card_type" NOT NULL,
 	card_status public."banking_card_status_type" DEFAULT 'DISABLED'::banking_card_status_type NOT NULL,
@@ -172,8 +181,13 @@ CREATE TYPE public."banking_transaction_type" AS ENUM (
 
 CREATE CAST (varchar as banking_transaction_type) WITH INOUT AS IMPLICIT;
 
+CREATE SEQUENCE public.banking_transactions_seq START WITH 1 INCREMENT BY 50;
+
+-- partitioned by month of created_at, so history queries bounded in time only read their
+-- months and old months can be detached and archived (see BankingTransactionPartitionManager).
+-- the primary key must hold the partition key, ids stay unique through the sequence.
 CREATE TABLE public.banking_transactions (
-	id int4 GENERATED ALWAYS AS IDENTITY NOT NULL,
+	id int4 DEFAULT nextval('public.banking_transactions_seq') NOT NULL,
 	banking_account_id int4 NOT NULL,
 	banking_card_id int4 NULL,
 	account_balance numeric(15, 2) NOT NULL,
@@ -181,9 +195,74 @@ CREATE TABLE public.banking_transactions (
 	amount numeric(15, 2) NOT NULL,
 	description text NULL,
 	transaction_status public."banking_transaction_status_type" DEFAULT 'PENDING'::banking_transaction_status_type NOT NULL,
-	created_at timestamp DEFAULT CURRENT_TIMESTAMP NULL,
+	created_at timestamp DEFAULT CURRENT_TIMESTAMP NOT NULL,
 	updated_at timestamp DEFAULT CURRENT_TIMESTAMP NULL,
-	CONSTRAINT banking_transactions_pkey PRIMARY KEY (id),
+	-- words of the description for the search, computed by postgres on every insert and update
+	search_vector tsvector GENERATED ALWAYS AS (to_tsvector('simple', coalesce(description, ''))) STORED,
+	CONSTRAINT banking_transactions_pkey PRIMARY KEY (id, created_at),
 	CONSTRAINT banking_transactions_banking_card_id_fkey FOREIGN KEY (banking_card_id) REFERENCES public.banking_cards(id) ON DELETE SET NULL,
 	CONSTRAINT banking_transactions_banking_account_id_fkey FOREIGN KEY (banking_account_id) REFERENCES public.banking_accounts(id) ON DELETE CASCADE
+) PARTITION BY RANGE (created_at);
+
+-- the last year and the next 3 months, the application creates the following ones
+DO $$
+DECLARE
+	month date;
+BEGIN
+	FOR month IN
+		SELECT generate_series(date_trunc('month', now()) - interval '12 months', date_trunc('month', now()) + interval '3 months', interval '1 month')
+	LOOP
+		EXECUTE format(
+			'CREATE TABLE public.banking_transactions_y%sm%s PARTITION OF public.banking_transactions FOR VALUES FROM (%L) TO (%L)',
+			to_char(month, 'YYYY'), to_char(month, 'MM'), month, month + interval '1 month'
+		);
+	END LOOP;
+END $$;
+
+CREATE INDEX banking_transactions_account_history_idx ON public.banking_transactions USING btree (banking_account_id, created_at DESC, id DESC);
+CREATE INDEX banking_transactions_card_history_idx ON public.banking_transactions USING btree (banking_card_id, created_at DESC, id DESC);
+-- history filters. the type and amount filters have their own indexes; the status filter
+-- only has partial indexes over the statuses other than COMPLETED, which are few and the
+-- ones looked for, COMPLETED falls back to the history indexes.
+CREATE INDEX banking_transactions_account_type_idx ON public.banking_transactions USING btree (banking_account_id, transaction_type, created_at DESC, id DESC);
+CREATE INDEX banking_transactions_account_amount_idx ON public.banking_transactions USING btree (banking_account_id, amount);
+CREATE INDEX banking_transactions_card_amount_idx ON public.banking_transactions USING btree (banking_card_id, amount);
+CREATE INDEX banking_transactions_account_open_status_idx ON public.banking_transactions USING btree (banking_account_id, transaction_status, created_at DESC, id DESC) WHERE transaction_status <> 'COMPLETED';
+CREATE INDEX banking_transactions_card_open_status_idx ON public.banking_transactions USING btree (banking_card_id, transaction_status, created_at DESC, id DESC) WHERE transaction_status <> 'COMPLETED';
+-- description search, per account or over all the accounts of a customer
+CREATE INDEX banking_transactions_search_idx ON public.banking_transactions USING gin (banking_account_id, search_vector);
+
+CREATE SEQUENCE public.ledger_entries_seq START WITH 1 INCREMENT BY 50;
+
+-- append-only journal, one row per money movement
+CREATE TABLE public.ledger_entries (
+	id int4 DEFAULT nextval('public.ledger_entries_seq') NOT NULL,
+	description text NULL,
+	created_at timestamp DEFAULT CURRENT_TIMESTAMP NULL,
+	CONSTRAINT ledger_entries_pkey PRIMARY KEY (id)
 );
+
+CREATE TYPE public."ledger_account_type" AS ENUM (
+	'BANKING_ACCOUNT',
+	'EXTERNAL'
+);
+
+CREATE CAST (varchar as ledger_account_type) WITH INOUT AS IMPLICIT;
+
+CREATE SEQUENCE public.ledger_postings_seq START WITH 1 INCREMENT BY 50;
+
+-- legs of each entry, credits positive and debits negative, they add up to zero per entry
+CREATE TABLE public.ledger_postings (
+	id int4 DEFAULT nextval('public.ledger_postings_seq') NOT NULL,
+	ledger_entry_id int4 NOT NULL,
+	ledger_account public."ledger_account_type" NOT NULL,
+	banking_account_id int4 NULL,
+	banking_transaction_id int4 NULL,
+	amount numeric(15, 2) NOT NULL,
+	CONSTRAINT ledger_postings_pkey PRIMARY KEY (id),
+	CONSTRAINT ledger_postings_ledger_entry_id_fkey FOREIGN KEY (ledger_entry_id) REFERENCES public.ledger_entries(id),
+	-- no foreign key to banking_transactions, its key includes created_at and archived months are dropped
+	CONSTRAINT ledger_postings_banking_account_id_fkey FOREIGN KEY (banking_account_id) REFERENCES public.banking_accounts(id) ON DELETE RESTRICT
+);
+
+CREATE INDEX ledger_postings_banking_account_idx ON public.ledger_postings USING btree (banking_account_id);
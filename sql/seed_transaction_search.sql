@@ -0,0 +1,65 @@
+-- Seeds 10M transactions over 10k accounts to check the description search latency.
+-- Run on a copy of schema.sql, never on a real database.
+--
+-- Targets, warm cache, 20 results per page:
+--   one account, relevance or recency          p95 < 20 ms
+--   every account of a customer (up to 5)      p95 < 50 ms
+--   next page with the cursor                  same as the first page
+-- Check them with the EXPLAIN ANALYZE queries at the end, the plans must use
+-- banking_transactions_search_idx and never a sequential scan.
+
+INSERT INTO public.customers (email)
+SELECT 'seed' || c || '@test.com'
+FROM generate_series(1, 2000) c;
+
+-- five accounts per customer
+WITH seed_customers AS (
+	SELECT id, row_number() OVER (ORDER BY id) - 1 AS n FROM public.customers WHERE email LIKE 'seed%'
+)
+INSERT INTO public.banking_accounts (customer_id, account_number, account_currency, account_status)
+SELECT sc.id, 'SEED' || lpad(a::text, 20, '0'), 'EUR', 'OPEN'
+FROM generate_series(0, 9999) a
+JOIN seed_customers sc ON sc.n = a / 5;
+
+WITH seed_accounts AS (
+	SELECT id, row_number() OVER (ORDER BY id) - 1 AS n FROM public.banking_accounts WHERE account_number LIKE 'SEED%'
+)
+INSERT INTO public.banking_transactions
+	(banking_account_id, account_balance, transaction_type, amount, description, transaction_status, created_at)
+SELECT
+	sa.id,
+	0,
+	'CARD_CHARGE',
+	(random() * 500)::numeric(15, 2),
+	(ARRAY['Amazon', 'Mercadona', 'Netflix', 'Spotify', 'Uber', 'Repsol', 'Zara', 'Ikea', 'Renfe', 'Iberia'])[1 + t % 10]
+		|| ' order ' || t
+		|| ' ' || (ARRAY['madrid', 'barcelona', 'valencia', 'sevilla', 'bilbao'])[1 + t % 5],
+	'COMPLETED',
+	now() - (t % 3650) * interval '1 day'
+FROM generate_series(1, 10000000) t
+JOIN seed_accounts sa ON sa.n = t % 10000;
+
+ANALYZE public.banking_transactions;
+
+-- one account, by relevance
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, created_at, search_rank FROM (
+	SELECT t.id, t.created_at, ts_rank(t.search_vector, q.query) AS search_rank
+	FROM banking_transactions t, websearch_to_tsquery('simple', 'netflix madrid') AS q(query)
+	WHERE t.search_vector @@ q.query AND t.banking_account_id IN (
+		SELECT id FROM banking_accounts WHERE account_number = 'SEED00000000000000000042'
+	)
+) hits
+ORDER BY search_rank DESC, id DESC LIMIT 21;
+
+-- every account of a customer, by recency
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, created_at, search_rank FROM (
+	SELECT t.id, t.created_at, ts_rank(t.search_vector, q.query) AS search_rank
+	FROM banking_transactions t, websearch_to_tsquery('simple', 'uber') AS q(query)
+	WHERE t.search_vector @@ q.query AND t.banking_account_id IN (
+		SELECT ba.id FROM banking_accounts ba JOIN customers c ON c.id = ba.customer_id
+		WHERE c.email = 'seed42@test.com'
+	)
+) hits
+ORDER BY created_at DESC, id DESC LIMIT 21;
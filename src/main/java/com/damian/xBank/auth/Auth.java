@@ -2,17 +2,20 @@ package com.damian.xBank.auth;
 
 import com.damian.xBank.customer.Customer;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.Instant;
 
 @Entity
+@BatchSize(size = 50)
 @Table(name = "customer_auth")
 public class Auth {
+    // same as the id of the customer
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", referencedColumnName = "id")
     private Customer customer;
 
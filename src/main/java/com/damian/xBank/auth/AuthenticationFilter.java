@@ -5,6 +5,7 @@ import com.damian.xBank.auth.exception.JwtAuthenticationException;
 import com.damian.xBank.common.utils.JWTUtil;
 import com.damian.xBank.customer.CustomerDetails;
 import com.damian.xBank.customer.CustomerDetailsService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -72,9 +73,10 @@ public class AuthenticationFilter extends OncePerRequestFilter {
         // Extract the JWT from the Authorization header.
         final String jwtToken = authHeader.substring(7);
 
-        // Check if the token has expired.
+        // Verify the token once and keep its claims.
+        final Claims claims;
         try {
-            jwtUtil.isTokenExpired(jwtToken);
+            claims = jwtUtil.verifyToken(jwtToken);
         } catch (ExpiredJwtException e) {
             // If the token has expired, then we need to send back a 401
             // Unauthorized response.
@@ -83,7 +85,7 @@ public class AuthenticationFilter extends OncePerRequestFilter {
         }
 
         // Extract the email from the JWT.
-        final String email = jwtUtil.extractEmail(jwtToken);
+        final String email = claims.getSubject();
 
         // If the email is not null and there is no Authentication object
         // currently in the SecurityContext, then we can go ahead and
@@ -94,7 +96,7 @@ public class AuthenticationFilter extends OncePerRequestFilter {
 
             // If the token is valid, then we can go ahead and
             // authenticate the user.
-            if (jwtUtil.isTokenValid(jwtToken, customerDetails)) {
+            if (jwtUtil.isTokenValid(claims, customerDetails)) {
                 // Create an Authentication object.
                 var authToken = new UsernamePasswordAuthenticationToken(
                         customerDetails,
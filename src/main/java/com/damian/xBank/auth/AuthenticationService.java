@@ -9,6 +9,7 @@ import com.damian.xBank.common.exception.PasswordMismatchException;
 import com.damian.xBank.common.utils.AuthHelper;
 import com.damian.xBank.common.utils.JWTUtil;
 import com.damian.xBank.customer.Customer;
+import com.damian.xBank.customer.CustomerPrincipalCache;
 import com.damian.xBank.customer.CustomerService;
 import com.damian.xBank.customer.exception.CustomerNotFoundException;
 import com.damian.xBank.customer.http.request.CustomerPasswordUpdateRequest;
@@ -29,19 +30,22 @@ public class AuthenticationService {
     private final CustomerService customerService;
     private final BCryptPasswordEncoder bCryptPasswordEncoder;
     private final AuthenticationRepository authenticationRepository;
+    private final CustomerPrincipalCache customerPrincipalCache;
 
     public AuthenticationService(
             JWTUtil jwtUtil,
             AuthenticationManager authenticationManager,
             CustomerService customerService,
             BCryptPasswordEncoder bCryptPasswordEncoder,
-            AuthenticationRepository authenticationRepository
+            AuthenticationRepository authenticationRepository,
+            CustomerPrincipalCache customerPrincipalCache
     ) {
         this.jwtUtil = jwtUtil;
         this.authenticationManager = authenticationManager;
         this.customerService = customerService;
         this.bCryptPasswordEncoder = bCryptPasswordEncoder;
         this.authenticationRepository = authenticationRepository;
+        this.customerPrincipalCache = customerPrincipalCache;
     }
 
     /**
@@ -132,6 +136,9 @@ public class AuthenticationService {
 
         // save the changes
         authenticationRepository.save(customerAuth);
+
+        // the cached principal still holds the old password
+        customerPrincipalCache.evict(customerId);
     }
 
     /**
@@ -146,7 +153,7 @@ public class AuthenticationService {
         final Customer loggedCustomer = AuthHelper.getLoggedCustomer();
 
         // Before making any changes we check that the password sent by the customer matches the one in the entity
-        AuthHelper.validatePassword(loggedCustomer, request.currentPassword());
+        AuthHelper.validatePassword(loggedCustomer, request.currentPassword(), bCryptPasswordEncoder);
 
         // update the password
         this.updatePassword(loggedCustomer.getId(), request.newPassword());
@@ -4,6 +4,7 @@ import com.damian.xBank.banking.card.BankingCard;
 import com.damian.xBank.banking.transactions.BankingTransaction;
 import com.damian.xBank.customer.Customer;
 import jakarta.persistence.*;
+import org.hibernate.Hibernate;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -14,19 +15,18 @@ import java.util.Set;
 @Table(name = "banking_accounts")
 public class BankingAccount {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "banking_accounts_seq")
+    @SequenceGenerator(name = "banking_accounts_seq", sequenceName = "banking_accounts_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
     @JoinColumn(name = "customer_id", referencedColumnName = "id", nullable = false)
     private Customer customer;
 
-    // FIXME switch to LAZY?
-    @OneToMany(mappedBy = "bankingAccount", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "bankingAccount", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<BankingTransaction> accountTransactions;
 
-    // FIXME switch to LAZY?
-    @OneToMany(mappedBy = "bankingAccount", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "bankingAccount", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<BankingCard> bankingCards;
 
     @Column(length = 64)
@@ -35,7 +35,9 @@ public class BankingAccount {
     @Column(length = 32, nullable = false)
     private String accountNumber;
 
-    @Column(precision = 15, scale = 2)
+    // balance is only written through the atomic updates in BankingAccountBalanceRepository,
+    // so dirty checking an account can never overwrite a concurrent debit.
+    @Column(precision = 15, scale = 2, updatable = false)
     private BigDecimal balance;
 
     @Enumerated(EnumType.STRING)
@@ -156,7 +158,11 @@ public class BankingAccount {
         if (transaction.getAssociatedBankingAccount() != this) {
             transaction.setAssociatedBankingAccount(this);
         }
-        this.accountTransactions.add(transaction);
+
+        // do not load the whole history from the database just to append a transaction to it
+        if (Hibernate.isInitialized(this.accountTransactions)) {
+            this.accountTransactions.add(transaction);
+        }
     }
 
     public Set<BankingCard> getBankingCards() {
@@ -192,16 +198,4 @@ public class BankingAccount {
         // if its 1 then balance is greater than the amount willing to spend
         return this.getBalance().compareTo(amount) >= 0;
     }
-
-    public BigDecimal subtractAmount(BigDecimal amount) {
-        if (this.hasEnoughFunds(amount)) {
-            this.setBalance(this.getBalance().subtract(amount));
-        }
-        return this.getBalance();
-    }
-
-    public BigDecimal deposit(BigDecimal amount) {
-        this.setBalance(this.getBalance().add(amount));
-        return this.getBalance();
-    }
 }
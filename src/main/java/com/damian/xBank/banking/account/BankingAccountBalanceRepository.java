@@ -0,0 +1,37 @@
+package com.damian.xBank.banking.account;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+public interface BankingAccountBalanceRepository {
+    /**
+     * Subtracts the amount from the account balance in a single conditional statement
+     * that only succeeds when the account has enough funds.
+     * <p>
+     * The row stays locked until the current transaction ends.
+     *
+     * @param bankingAccountId the id of the account to debit
+     * @param amount           the amount to subtract
+     * @return the new balance, or empty if the account does not exist or has not enough funds
+     */
+    Optional<BigDecimal> debitBalance(Long bankingAccountId, BigDecimal amount);
+
+    /**
+     * Adds the amount to the account balance in a single statement.
+     * <p>
+     * The row stays locked until the current transaction ends.
+     *
+     * @param bankingAccountId the id of the account to credit
+     * @param amount           the amount to add
+     * @return the new balance, or empty if the account does not exist
+     */
+    Optional<BigDecimal> creditBalance(Long bankingAccountId, BigDecimal amount);
+
+    /**
+     * Sets the account balance to the sum of its ledger postings, replaying the journal.
+     *
+     * @param bankingAccountId the id of the account to rebuild
+     * @return the new balance, or empty if the account does not exist
+     */
+    Optional<BigDecimal> rebuildBalance(Long bankingAccountId);
+}
@@ -0,0 +1,63 @@
+package com.damian.xBank.banking.account;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Optional;
+
+public class BankingAccountBalanceRepositoryImpl implements BankingAccountBalanceRepository {
+    private static final String DEBIT_SQL =
+            "UPDATE banking_accounts SET balance = balance - ? WHERE id = ? AND balance >= ?";
+    private static final String CREDIT_SQL =
+            "UPDATE banking_accounts SET balance = balance + ? WHERE id = ?";
+    private static final String REBUILD_SQL =
+            "UPDATE banking_accounts SET balance ="
+            + " (SELECT COALESCE(SUM(p.amount), 0) FROM ledger_postings p WHERE p.banking_account_id = ?)"
+            + " WHERE id = ?";
+    private static final String[] RETURNING_COLUMNS = {"balance"};
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<BigDecimal> debitBalance(Long bankingAccountId, BigDecimal amount) {
+        return this.updateBalance(DEBIT_SQL, amount, bankingAccountId, amount);
+    }
+
+    @Override
+    public Optional<BigDecimal> creditBalance(Long bankingAccountId, BigDecimal amount) {
+        return this.updateBalance(CREDIT_SQL, amount, bankingAccountId);
+    }
+
+    @Override
+    public Optional<BigDecimal> rebuildBalance(Long bankingAccountId) {
+        return this.updateBalance(REBUILD_SQL, bankingAccountId, bankingAccountId);
+    }
+
+    // runs the update and reads the new balance in the same round trip.
+    // the postgres driver turns the requested generated columns into a RETURNING clause.
+    private Optional<BigDecimal> updateBalance(String sql, Object... parameters) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql, RETURNING_COLUMNS)) {
+                for (int i = 0; i < parameters.length; i++) {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+
+                if (statement.executeUpdate() == 0) {
+                    return Optional.empty();
+                }
+
+                try (ResultSet result = statement.getGeneratedKeys()) {
+                    if (!result.next()) {
+                        throw new IllegalStateException("The updated balance was not returned.");
+                    }
+                    return Optional.of(result.getBigDecimal(1));
+                }
+            }
+        });
+    }
+}
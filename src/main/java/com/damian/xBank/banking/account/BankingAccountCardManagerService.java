@@ -2,6 +2,7 @@ package com.damian.xBank.banking.account;
 
 import com.damian.xBank.banking.account.exception.BankingAccountNotFoundException;
 import com.damian.xBank.banking.card.BankingCard;
+import com.damian.xBank.banking.card.BankingCardRepository;
 import com.damian.xBank.banking.card.BankingCardService;
 import com.damian.xBank.banking.card.BankingCardStatus;
 import com.damian.xBank.banking.card.exception.BankingCardMaximumCardsPerAccountLimitReached;
@@ -16,12 +17,15 @@ public class BankingAccountCardManagerService {
     private final int MAX_CARDS_PER_ACCOUNT = 5;
     private final BankingCardService bankingCardService;
     private final BankingAccountRepository bankingAccountRepository;
+    private final BankingCardRepository bankingCardRepository;
 
     public BankingAccountCardManagerService(
             BankingAccountRepository bankingAccountRepository,
+            BankingCardRepository bankingCardRepository,
             BankingCardService bankingCardService
     ) {
         this.bankingAccountRepository = bankingAccountRepository;
+        this.bankingCardRepository = bankingCardRepository;
         this.bankingCardService = bankingCardService;
     }
 
@@ -29,23 +33,20 @@ public class BankingAccountCardManagerService {
         // Customer logged
         final Customer customerLogged = AuthHelper.getLoggedCustomer();
 
-        // we get the BankingAccount to associate the card created.
-        final BankingAccount bankingAccount = bankingAccountRepository
-                .findById(bankingAccountId)
+        // we get the BankingAccount to associate the card created,
+        // customers only get their own accounts.
+        final BankingAccount bankingAccount = (AuthHelper.isAdmin(customerLogged)
+                ? bankingAccountRepository.findWithBankingCardsById(bankingAccountId)
+                : bankingAccountRepository.findWithBankingCardsByIdAndCustomer_Id(
+                        bankingAccountId,
+                        customerLogged.getId()
+                ))
                 .orElseThrow(
                         () -> new BankingAccountNotFoundException(
                                 Exceptions.ACCOUNT.NOT_FOUND
                         )
                 );
 
-        // if the logged customer is not admin
-        if (!AuthHelper.isAdmin(customerLogged)) {
-            // check if the account belongs to this customer.
-            BankingAccountAuthorizationHelper
-                    .authorize(customerLogged, bankingAccount)
-                    .checkOwner();
-        }
-
         // if customer has reached the maximum amount of cards per account.
         if (countActiveCards(bankingAccount) >= MAX_CARDS_PER_ACCOUNT) {
             throw new BankingCardMaximumCardsPerAccountLimitReached(
@@ -58,11 +59,10 @@ public class BankingAccountCardManagerService {
     }
 
     // It counts how many active (ENABLED) cards has this account
-    private int countActiveCards(BankingAccount bankingAccount) {
-        return (int) bankingAccount
-                .getBankingCards()
-                .stream()
-                .filter(bankingCard -> bankingCard.getCardStatus().equals(BankingCardStatus.ENABLED))
-                .count();
+    private long countActiveCards(BankingAccount bankingAccount) {
+        return bankingCardRepository.countByBankingAccountIdAndCardStatus(
+                bankingAccount.getId(),
+                BankingCardStatus.ENABLED
+        );
     }
 }
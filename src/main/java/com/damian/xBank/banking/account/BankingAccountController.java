@@ -34,8 +34,7 @@ public class BankingAccountController {
     // return all the accounts from the logged customer
     @GetMapping("/customers/me/banking/accounts")
     public ResponseEntity<?> getCustomerBankingAccounts() {
-        Set<BankingAccount> bankingAccounts = bankingAccountService.getLoggedCustomerBankingAccounts();
-        Set<BankingAccountDTO> bankingAccountDTO = BankingAccountDTOMapper.toBankingAccountSetDTO(bankingAccounts);
+        Set<BankingAccountDTO> bankingAccountDTO = bankingAccountService.getLoggedCustomerBankingAccounts();
 
         return ResponseEntity
                 .status(HttpStatus.OK)
@@ -41,11 +41,22 @@ public class BankingAccountDTOMapper {
         );
     }
 
-    public static Set<BankingAccountDTO> toBankingAccountSetDTO(Set<BankingAccount> bankingAccounts) {
-        return bankingAccounts.stream().map(
-                BankingAccountDTOMapper::toBankingAccountDTO
-        ).collect(Collectors.toSet());
+    public static BankingAccountDTO toBankingAccountDTO(
+            BankingAccountSummary bankingAccount,
+            Set<BankingCardDTO> bankingCards
+    ) {
+        return new BankingAccountDTO(
+                bankingAccount.id(),
+                bankingAccount.alias(),
+                bankingAccount.accountNumber(),
+                bankingAccount.balance(),
+                bankingAccount.accountType(),
+                bankingAccount.accountCurrency(),
+                bankingAccount.accountStatus(),
+                Collections.emptySet(),
+                bankingCards,
+                bankingAccount.createdAt(),
+                bankingAccount.updatedAt()
+        );
     }
-
-
 }
@@ -1,15 +1,67 @@
 package com.damian.xBank.banking.account;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 @Repository
-public interface BankingAccountRepository extends JpaRepository<BankingAccount, Long> {
+public interface BankingAccountRepository extends JpaRepository<BankingAccount, Long>, BankingAccountBalanceRepository {
+    // cards are fetched in the same query since they are always mapped along with the accounts,
+    // and the profile of the owner since it names the holder of the cards
+    @EntityGraph(attributePaths = {"customer.profile", "bankingCards"})
     Set<BankingAccount> findByCustomer_Id(Long customerId);
 
+    // the account with everything BankingAccountDTO needs, see findByCustomer_Id
+    @EntityGraph(attributePaths = {"customer.profile", "bankingCards"})
+    Optional<BankingAccount> findWithBankingCardsById(Long id);
+
+    // same as findWithBankingCardsById, but only when the account belongs to the customer
+    @EntityGraph(attributePaths = {"customer.profile", "bankingCards"})
+    @Query("SELECT a FROM BankingAccount a WHERE a.id = :id AND a.customer.id = :customerId")
+    Optional<BankingAccount> findWithBankingCardsByIdAndCustomer_Id(
+            @Param("id") Long id,
+            @Param("customerId") Long customerId
+    );
+
+    // the account only when it belongs to the customer, the account of someone else is never loaded.
+    // The owner is matched on the customer_id column and fetched in the same query, like findById does.
+    @EntityGraph(attributePaths = "customer")
+    @Query("SELECT a FROM BankingAccount a WHERE a.id = :id AND a.customer.id = :customerId")
+    Optional<BankingAccount> findByIdAndCustomer_Id(@Param("id") Long id, @Param("customerId") Long customerId);
+
+    // whether the account belongs to the customer, without loading it
+    @Query("SELECT COUNT(a) > 0 FROM BankingAccount a WHERE a.id = :id AND a.customer.id = :customerId")
+    boolean existsByIdAndCustomer_Id(@Param("id") Long id, @Param("customerId") Long customerId);
+
+    // the accounts of a customer straight into summaries, their cards are read apart
+    @Query("SELECT new com.damian.xBank.banking.account.BankingAccountSummary("
+           + "a.id, a.alias, a.accountNumber, a.balance, a.accountType, a.accountCurrency,"
+           + " a.accountStatus, a.createdAt, a.updatedAt)"
+           + " FROM BankingAccount a WHERE a.customer.id = :customerId")
+    List<BankingAccountSummary> findSummariesByCustomerId(@Param("customerId") Long customerId);
+
     Optional<BankingAccount> findByAccountNumber(String accountNumber);
-}
 
+    @Query("SELECT a.id FROM BankingAccount a WHERE a.customer.id = :customerId")
+    List<Long> findIdsByCustomerId(@Param("customerId") Long customerId);
+
+    List<BankingAccount> findByAccountNumberIn(Collection<String> accountNumbers);
+
+    // bounds of the account ids, to split the accounts in id ranges
+    @Query("SELECT MIN(a.id) FROM BankingAccount a")
+    Optional<Long> findMinId();
+
+    @Query("SELECT MAX(a.id) FROM BankingAccount a")
+    Optional<Long> findMaxId();
+
+    // accounts in [fromId, toId)
+    @Query("SELECT COUNT(a) FROM BankingAccount a WHERE a.id >= :fromId AND a.id < :toId")
+    long countInIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
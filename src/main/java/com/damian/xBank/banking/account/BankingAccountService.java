@@ -5,35 +5,53 @@ import com.damian.xBank.banking.account.http.request.BankingAccountAliasUpdateRe
 import com.damian.xBank.banking.account.http.request.BankingAccountCloseRequest;
 import com.damian.xBank.banking.account.http.request.BankingAccountCreateRequest;
 import com.damian.xBank.banking.account.http.request.BankingAccountOpenRequest;
+import com.damian.xBank.banking.card.BankingCardAuthorizationCache;
+import com.damian.xBank.banking.card.BankingCardDTO;
+import com.damian.xBank.banking.card.BankingCardRepository;
 import com.damian.xBank.common.exception.Exceptions;
 import com.damian.xBank.common.utils.AuthHelper;
 import com.damian.xBank.customer.Customer;
 import com.damian.xBank.customer.CustomerRepository;
 import com.damian.xBank.customer.exception.CustomerNotFoundException;
 import net.datafaker.Faker;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class BankingAccountService {
     private final CustomerRepository customerRepository;
     private final BankingAccountRepository bankingAccountRepository;
+    private final BankingCardRepository bankingCardRepository;
+    private final BankingCardAuthorizationCache bankingCardAuthorizationCache;
     private final Faker faker;
+    private final BCryptPasswordEncoder bCryptPasswordEncoder;
 
     public BankingAccountService(
             BankingAccountRepository bankingAccountRepository,
             CustomerRepository customerRepository,
-            Faker faker
+            BankingCardRepository bankingCardRepository,
+            BankingCardAuthorizationCache bankingCardAuthorizationCache,
+            Faker faker,
+            BCryptPasswordEncoder bCryptPasswordEncoder
     ) {
         this.bankingAccountRepository = bankingAccountRepository;
+        this.bankingCardRepository = bankingCardRepository;
         this.customerRepository = customerRepository;
+        this.bankingCardAuthorizationCache = bankingCardAuthorizationCache;
         this.faker = faker;
+        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
     }
 
     // return all the BankingAccounts that belongs to the logged customer.
-    public Set<BankingAccount> getLoggedCustomerBankingAccounts() {
+    @Transactional(readOnly = true)
+    public Set<BankingAccountDTO> getLoggedCustomerBankingAccounts() {
         // we extract the customer logged from the SecurityContext
         final Customer customerLogged = AuthHelper.getLoggedCustomer();
 
@@ -41,8 +59,22 @@ public class BankingAccountService {
     }
 
     // return all the BankingAccounts that belongs to customerId.
-    public Set<BankingAccount> getCustomerBankingAccounts(Long customerId) {
-        return bankingAccountRepository.findByCustomer_Id(customerId);
+    @Transactional(readOnly = true)
+    public Set<BankingAccountDTO> getCustomerBankingAccounts(Long customerId) {
+        // the cards of all the accounts in one query, grouped by account
+        final Map<Long, Set<BankingCardDTO>> bankingCards = bankingCardRepository
+                .findCardDTOsByCustomerId(customerId)
+                .stream()
+                .collect(Collectors.groupingBy(BankingCardDTO::bankingAccountId, Collectors.toSet()));
+
+        return bankingAccountRepository
+                .findSummariesByCustomerId(customerId)
+                .stream()
+                .map(bankingAccount -> BankingAccountDTOMapper.toBankingAccountDTO(
+                        bankingAccount,
+                        bankingCards.getOrDefault(bankingAccount.id(), Collections.emptySet())
+                ))
+                .collect(Collectors.toSet());
     }
 
     private BankingAccount createBankingAccount(
@@ -60,6 +92,7 @@ public class BankingAccountService {
     }
 
     // (admin) create a BankingAccount for a specific customer
+    @Transactional
     public BankingAccount createBankingAccount(Long customerId, BankingAccountCreateRequest request) {
         // we get the Customer entity so we can save at the end
         final Customer customer = customerRepository.findById(customerId).orElseThrow(
@@ -72,6 +105,7 @@ public class BankingAccountService {
     }
 
     // create a BankingAccount for the logged customer
+    @Transactional
     public BankingAccount createBankingAccount(BankingAccountCreateRequest request) {
         // we extract the customer logged from the SecurityContext
         final Customer customerLogged = AuthHelper.getLoggedCustomer();
@@ -90,13 +124,18 @@ public class BankingAccountService {
         bankingAccount.setUpdatedAt(Instant.now());
 
         // save the data and return BankingAccount
-        return bankingAccountRepository.save(bankingAccount);
+        final BankingAccount savedBankingAccount = bankingAccountRepository.save(bankingAccount);
+
+        // the cards of the account are authorized with the account status
+        bankingCardAuthorizationCache.evictByBankingAccount(bankingAccount.getId());
+        return savedBankingAccount;
     }
 
     // (admin) open a BankingAccount
+    @Transactional
     public BankingAccount openBankingAccount(Long bankingAccountId) {
         // Banking account to to open
-        final BankingAccount bankingAccount = bankingAccountRepository.findById(bankingAccountId).orElseThrow(
+        final BankingAccount bankingAccount = bankingAccountRepository.findWithBankingCardsById(bankingAccountId).orElseThrow(
                 () -> new BankingAccountNotFoundException(
                         Exceptions.ACCOUNT.NOT_FOUND
                 ) // Banking account not found
@@ -106,6 +145,7 @@ public class BankingAccountService {
     }
 
     // Logged customer open a BankingAccount
+    @Transactional
     public BankingAccount openBankingAccount(
             Long bankingAccountId,
             BankingAccountOpenRequest request
@@ -114,27 +154,29 @@ public class BankingAccountService {
         final Customer customerLogged = AuthHelper.getLoggedCustomer();
 
         // Banking account to be open
-        final BankingAccount bankingAccount = bankingAccountRepository.findById(bankingAccountId).orElseThrow(
-                () -> new BankingAccountNotFoundException(
-                        Exceptions.ACCOUNT.NOT_FOUND
-                ) // Banking account not found
-        );
-
-        // check if the account belongs to this customer.
+        final BankingAccount bankingAccount = bankingAccountRepository
+                .findWithBankingCardsByIdAndCustomer_Id(bankingAccountId, customerLogged.getId())
+                .orElseThrow(
+                        () -> new BankingAccountNotFoundException(
+                                Exceptions.ACCOUNT.NOT_FOUND
+                        ) // Banking account not found or not owned by the customer
+                );
+
+        // check the account can be operated
         BankingAccountAuthorizationHelper
                 .authorize(customerLogged, bankingAccount)
-                .checkOwner()
                 .checkAccountStatus();
 
-        AuthHelper.validatePassword(customerLogged, request.password());
+        AuthHelper.validatePassword(customerLogged, request.password(), bCryptPasswordEncoder);
 
         return this.updateBankingAccountStatus(bankingAccount, BankingAccountStatus.OPEN);
     }
 
     // (admin) close a BankingAccount
+    @Transactional
     public BankingAccount closeBankingAccount(Long bankingAccountId) {
         // Banking account to to close
-        final BankingAccount bankingAccount = bankingAccountRepository.findById(bankingAccountId).orElseThrow(
+        final BankingAccount bankingAccount = bankingAccountRepository.findWithBankingCardsById(bankingAccountId).orElseThrow(
                 () -> new BankingAccountNotFoundException(
                         Exceptions.ACCOUNT.NOT_FOUND
                 ) // Banking account not found
@@ -144,6 +186,7 @@ public class BankingAccountService {
     }
 
     // Logged customer close a BankingAccount
+    @Transactional
     public BankingAccount closeBankingAccount(
             Long bankingAccountId,
             BankingAccountCloseRequest request
@@ -152,19 +195,20 @@ public class BankingAccountService {
         final Customer customerLogged = AuthHelper.getLoggedCustomer();
 
         // Banking account to be closed
-        final BankingAccount bankingAccount = bankingAccountRepository.findById(bankingAccountId).orElseThrow(
-                () -> new BankingAccountNotFoundException(
-                        Exceptions.ACCOUNT.NOT_FOUND
-                ) // Banking account not found
-        );
-
-        // check if the account belongs to this customer.
+        final BankingAccount bankingAccount = bankingAccountRepository
+                .findWithBankingCardsByIdAndCustomer_Id(bankingAccountId, customerLogged.getId())
+                .orElseThrow(
+                        () -> new BankingAccountNotFoundException(
+                                Exceptions.ACCOUNT.NOT_FOUND
+                        ) // Banking account not found or not owned by the customer
+                );
+
+        // check the account can be operated
         BankingAccountAuthorizationHelper
                 .authorize(customerLogged, bankingAccount)
-                .checkOwner()
                 .checkAccountStatus();
 
-        AuthHelper.validatePassword(customerLogged, request.password());
+        AuthHelper.validatePassword(customerLogged, request.password(), bCryptPasswordEncoder);
 
         return this.updateBankingAccountStatus(bankingAccount, BankingAccountStatus.CLOSED);
     }
@@ -182,13 +226,14 @@ public class BankingAccountService {
     }
 
     // (admin) set an alias for an account
+    @Transactional
     public BankingAccount setBankingAccountAlias(
             Long bankingAccountId,
             String alias
     ) {
 
         // Banking account to set an alias
-        final BankingAccount bankingAccount = bankingAccountRepository.findById(bankingAccountId).orElseThrow(
+        final BankingAccount bankingAccount = bankingAccountRepository.findWithBankingCardsById(bankingAccountId).orElseThrow(
                 () -> new BankingAccountNotFoundException(
                         Exceptions.ACCOUNT.NOT_FOUND
                 ) // Banking account not found
@@ -198,6 +243,7 @@ public class BankingAccountService {
     }
 
     // Logged customer set an alias for an account
+    @Transactional
     public BankingAccount setBankingAccountAlias(
             Long bankingAccountId,
             BankingAccountAliasUpdateRequest request
@@ -206,18 +252,15 @@ public class BankingAccountService {
         final Customer customerLogged = AuthHelper.getLoggedCustomer();
 
         // Banking account to set alias
-        final BankingAccount bankingAccount = bankingAccountRepository.findById(bankingAccountId).orElseThrow(
-                () -> new BankingAccountNotFoundException(
-                        Exceptions.ACCOUNT.NOT_FOUND
-                ) // Banking account not found
-        );
-
-        // check if the account belongs to this customer.
-        BankingAccountAuthorizationHelper
-                .authorize(customerLogged, bankingAccount)
-                .checkOwner();
-
-        AuthHelper.validatePassword(customerLogged, request.password());
+        final BankingAccount bankingAccount = bankingAccountRepository
+                .findWithBankingCardsByIdAndCustomer_Id(bankingAccountId, customerLogged.getId())
+                .orElseThrow(
+                        () -> new BankingAccountNotFoundException(
+                                Exceptions.ACCOUNT.NOT_FOUND
+                        ) // Banking account not found or not owned by the customer
+                );
+
+        AuthHelper.validatePassword(customerLogged, request.password(), bCryptPasswordEncoder);
 
         return this.setBankingAccountAlias(bankingAccount, request.alias());
     }
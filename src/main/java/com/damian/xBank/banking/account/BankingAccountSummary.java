@@ -0,0 +1,18 @@
+package com.damian.xBank.banking.account;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// columns of an account, read without loading the entity
+public record BankingAccountSummary(
+        Long id,
+        String alias,
+        String accountNumber,
+        BigDecimal balance,
+        BankingAccountType accountType,
+        BankingAccountCurrency accountCurrency,
+        BankingAccountStatus accountStatus,
+        Instant createdAt,
+        Instant updatedAt
+) {
+}
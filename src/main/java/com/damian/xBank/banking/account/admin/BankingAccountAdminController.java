@@ -31,12 +31,9 @@ public class BankingAccountAdminController {
             @PathVariable @Positive
             Long id
     ) {
-        Set<BankingAccount> bankingAccounts = bankingAccountService
+        Set<BankingAccountDTO> bankingAccountsDTO = bankingAccountService
                 .getCustomerBankingAccounts(id);
 
-        Set<BankingAccountDTO> bankingAccountsDTO = BankingAccountDTOMapper
-                .toBankingAccountSetDTO(bankingAccounts);
-
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(bankingAccountsDTO);
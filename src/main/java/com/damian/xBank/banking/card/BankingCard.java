@@ -12,7 +12,8 @@ import java.time.LocalDate;
 @Table(name = "banking_cards")
 public class BankingCard {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "banking_cards_seq")
+    @SequenceGenerator(name = "banking_cards_seq", sequenceName = "banking_cards_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -179,10 +180,6 @@ public class BankingCard {
         return this.getAssociatedBankingAccount().hasEnoughFunds(amount);
     }
 
-    public BigDecimal chargeAmount(BigDecimal amount) {
-        return this.getAssociatedBankingAccount().subtractAmount(amount);
-    }
-
     public String getHolderName() {
         return this.getAssociatedBankingAccount().getOwner().getFullName();
     }
@@ -0,0 +1,99 @@
+package com.damian.xBank.banking.card;
+
+import com.damian.xBank.banking.card.exception.BankingCardNotFoundException;
+import com.damian.xBank.common.datasource.ReadFromPrimary;
+import com.damian.xBank.common.exception.Exceptions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Keeps the authorization snapshot of the cards used in card operations, keyed by card id.
+ * <p>
+ * Anything that changes the status, lock, PIN or limit of a card must call {@link #evict(Long)},
+ * and anything that changes the status of an account must call {@link #evictByBankingAccount(Long)}.
+ * Inside a transaction the entries are evicted again once it commits, and snapshots are always
+ * loaded from the primary, so a replica that lags behind cannot put the old card back.
+ * Entries also expire after a TTL. Hits and misses are published as the "cache.gets" metric
+ * tagged cache=bankingCardAuthorizations.
+ */
+@Component
+public class BankingCardAuthorizationCache {
+    private final BankingCardRepository bankingCardRepository;
+    private final Cache<Long, BankingCardAuthorizationSnapshot> snapshots;
+    private final TransactionTemplate primaryTransaction;
+
+    public BankingCardAuthorizationCache(
+            BankingCardRepository bankingCardRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${banking.cards.authorization-cache.max-size:10000}")
+            long maxSize,
+            @Value("${banking.cards.authorization-cache.ttl:10m}")
+            Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.bankingCardRepository = bankingCardRepository;
+        // read-only, the load is sent to the primary with ReadFromPrimary
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setReadOnly(true);
+        this.snapshots = Caffeine.newBuilder()
+                                 .maximumSize(maxSize)
+                                 .expireAfterWrite(ttl)
+                                 .recordStats()
+                                 .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "bankingCardAuthorizations");
+    }
+
+    // returns the snapshot of the card, loading it with a single query if it is not cached
+    public BankingCardAuthorizationSnapshot get(Long bankingCardId) {
+        final BankingCardAuthorizationSnapshot snapshot = snapshots.get(
+                bankingCardId,
+                id -> ReadFromPrimary.call(() -> primaryTransaction.execute(
+                        status -> bankingCardRepository.findAuthorizationSnapshot(id).orElse(null)
+                ))
+        );
+
+        if (snapshot == null) {
+            throw new BankingCardNotFoundException(
+                    Exceptions.CARD.NOT_FOUND
+            );
+        }
+        return snapshot;
+    }
+
+    // removes the card, so the next operation loads it again
+    public void evict(Long bankingCardId) {
+        this.evictNowAndAfterCommit(() -> snapshots.invalidate(bankingCardId));
+    }
+
+    // removes all the cards of the account
+    public void evictByBankingAccount(Long bankingAccountId) {
+        this.evictNowAndAfterCommit(() -> snapshots.asMap().values().removeIf(
+                snapshot -> snapshot.getBankingAccountId().equals(bankingAccountId)
+        ));
+    }
+
+    // a load between the eviction and the commit would still see the old card, so evict once more
+    private void evictNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
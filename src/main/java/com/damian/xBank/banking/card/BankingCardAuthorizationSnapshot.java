@@ -0,0 +1,123 @@
+package com.damian.xBank.banking.card;
+
+import com.damian.xBank.banking.account.BankingAccountStatus;
+import com.damian.xBank.banking.card.exception.BankingCardAuthorizationException;
+import com.damian.xBank.common.exception.Exceptions;
+import com.damian.xBank.customer.Customer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Immutable copy of what is needed to authorize a card operation, so a charge can be checked
+ * without loading the card, its account and the owner.
+ * <p>
+ * The PIN is kept as a SHA-256 verifier and never in clear.
+ */
+public final class BankingCardAuthorizationSnapshot {
+    private final Long bankingCardId;
+    private final Long bankingAccountId;
+    private final Long ownerId;
+    private final BankingCardStatus cardStatus;
+    private final BankingCardLockStatus lockStatus;
+    private final BankingAccountStatus accountStatus;
+    private final byte[] pinVerifier;
+    private final BigDecimal dailyLimit;
+
+    public BankingCardAuthorizationSnapshot(
+            Long bankingCardId,
+            Long bankingAccountId,
+            Long ownerId,
+            BankingCardStatus cardStatus,
+            BankingCardLockStatus lockStatus,
+            BankingAccountStatus accountStatus,
+            String cardPin,
+            BigDecimal dailyLimit
+    ) {
+        this.bankingCardId = bankingCardId;
+        this.bankingAccountId = bankingAccountId;
+        this.ownerId = ownerId;
+        this.cardStatus = cardStatus;
+        this.lockStatus = lockStatus;
+        this.accountStatus = accountStatus;
+        this.pinVerifier = cardPin == null ? null : pinVerifier(bankingCardId, cardPin);
+        this.dailyLimit = dailyLimit;
+    }
+
+    private static byte[] pinVerifier(Long bankingCardId, String pin) {
+        try {
+            return MessageDigest
+                    .getInstance("SHA-256")
+                    .digest((bankingCardId + ":" + pin).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Long getBankingCardId() {
+        return bankingCardId;
+    }
+
+    public Long getBankingAccountId() {
+        return bankingAccountId;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public BigDecimal getDailyLimit() {
+        return dailyLimit;
+    }
+
+    // check if the card belongs to this customer
+    public BankingCardAuthorizationSnapshot checkOwner(Customer customer) {
+        if (!ownerId.equals(customer.getId())) {
+            throw new BankingCardAuthorizationException(
+                    Exceptions.CARD.ACCESS_FORBIDDEN
+            );
+        }
+        return this;
+    }
+
+    // check if the card is not disabled or locked and its account can be used
+    public BankingCardAuthorizationSnapshot checkStatus() {
+        if (cardStatus == BankingCardStatus.DISABLED) {
+            throw new BankingCardAuthorizationException(
+                    Exceptions.CARD.DISABLED
+            );
+        }
+
+        if (lockStatus == BankingCardLockStatus.LOCKED) {
+            throw new BankingCardAuthorizationException(
+                    Exceptions.CARD.LOCKED
+            );
+        }
+
+        if (accountStatus == BankingAccountStatus.CLOSED) {
+            throw new BankingCardAuthorizationException(
+                    Exceptions.ACCOUNT.CLOSED
+            );
+        }
+
+        if (accountStatus == BankingAccountStatus.SUSPENDED) {
+            throw new BankingCardAuthorizationException(
+                    Exceptions.ACCOUNT.SUSPENDED
+            );
+        }
+        return this;
+    }
+
+    // check the card pin, in constant time
+    public BankingCardAuthorizationSnapshot checkPIN(String pin) {
+        if (pinVerifier == null || pin == null
+            || !MessageDigest.isEqual(pinVerifier, pinVerifier(bankingCardId, pin))) {
+            throw new BankingCardAuthorizationException(
+                    Exceptions.CARD.INVALID_PIN
+            );
+        }
+        return this;
+    }
+}
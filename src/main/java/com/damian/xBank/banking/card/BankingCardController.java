@@ -28,8 +28,7 @@ public class BankingCardController {
     // endpoint to fetch all cards of logged customer
     @GetMapping("/customers/me/banking/cards")
     public ResponseEntity<?> getCustomerBankingCards() {
-        Set<BankingCard> bankingCards = bankingCardService.getCustomerBankingCards();
-        Set<BankingCardDTO> bankingCardsDTO = BankingCardDTOMapper.toBankingCardSetDTO(bankingCards);
+        Set<BankingCardDTO> bankingCardsDTO = bankingCardService.getCustomerBankingCards();
 
         return ResponseEntity
                 .status(HttpStatus.OK)
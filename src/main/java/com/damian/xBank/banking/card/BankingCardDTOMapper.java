@@ -1,8 +1,5 @@
 package com.damian.xBank.banking.card;
 
-import java.util.Set;
-import java.util.stream.Collectors;
-
 public class BankingCardDTOMapper {
     public static BankingCardDTO toBankingCardDTO(BankingCard bankingCard) {
         return new BankingCardDTO(
@@ -21,10 +18,4 @@ public class BankingCardDTOMapper {
                 bankingCard.getUpdatedAt()
         );
     }
-
-    public static Set<BankingCardDTO> toBankingCardSetDTO(Set<BankingCard> bankingCards) {
-        return bankingCards.stream().map(
-                BankingCardDTOMapper::toBankingCardDTO
-        ).collect(Collectors.toSet());
-    }
 }
@@ -1,18 +1,49 @@
 package com.damian.xBank.banking.card;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
 import java.util.Set;
 
 @Repository
 public interface BankingCardRepository extends JpaRepository<BankingCard, Long> {
+    // the holder profile is needed to map the card once the session is closed
+    @Override
+    @EntityGraph(attributePaths = "bankingAccount.customer.profile")
+    Optional<BankingCard> findById(Long id);
+
+    // the card only when it belongs to the customer, the card of someone else is never loaded
+    @EntityGraph(attributePaths = "bankingAccount.customer.profile")
+    @Query("SELECT c FROM BankingCard c WHERE c.id = :id AND c.bankingAccount.customer.id = :customerId")
+    Optional<BankingCard> findByIdAndBankingAccount_Customer_Id(
+            @Param("id") Long id,
+            @Param("customerId") Long customerId
+    );
+
     Set<BankingCard> findByBankingAccountId(Long bankingAccountId);
 
-    @Query("SELECT cards FROM BankingCard cards WHERE cards.bankingAccount.customer.id = :customerId")
-    Set<BankingCard> findCardsByCustomerId(@Param("customerId") Long customerId);
+    long countByBankingAccountIdAndCardStatus(Long bankingAccountId, BankingCardStatus cardStatus);
+
+    // the columns of BankingCardDTO, the holder is named after the profile of the account owner
+    String DTO_SELECT_JPQL = "SELECT new com.damian.xBank.banking.card.BankingCardDTO("
+                             + "c.id, a.id, CONCAT(p.firstName, ' ', p.lastName), c.cardNumber, c.cardCvv,"
+                             + " c.cardPin, c.dailyLimit, c.expiredDate, c.cardType, c.cardStatus, c.lockStatus,"
+                             + " c.createdAt, c.updatedAt)"
+                             + " FROM BankingCard c JOIN c.bankingAccount a JOIN a.customer cu JOIN cu.profile p";
+
+    // the cards of a customer straight into DTOs
+    @Query(DTO_SELECT_JPQL + " WHERE cu.id = :customerId")
+    Set<BankingCardDTO> findCardDTOsByCustomerId(@Param("customerId") Long customerId);
+
+    // only the columns needed to authorize a card operation, without loading any entity
+    @Query("SELECT new com.damian.xBank.banking.card.BankingCardAuthorizationSnapshot("
+           + "c.id, a.id, a.customer.id, c.cardStatus, c.lockStatus, a.accountStatus, c.cardPin, c.dailyLimit)"
+           + " FROM BankingCard c JOIN c.bankingAccount a WHERE c.id = :bankingCardId")
+    Optional<BankingCardAuthorizationSnapshot> findAuthorizationSnapshot(@Param("bankingCardId") Long bankingCardId);
 }
 
 
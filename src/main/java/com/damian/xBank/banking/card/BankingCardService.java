@@ -10,7 +10,9 @@ import com.damian.xBank.common.exception.Exceptions;
 import com.damian.xBank.common.utils.AuthHelper;
 import com.damian.xBank.customer.Customer;
 import net.datafaker.Faker;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -21,18 +23,25 @@ import java.util.Set;
 public class BankingCardService {
 
     private final BankingCardRepository bankingCardRepository;
+    private final BankingCardAuthorizationCache bankingCardAuthorizationCache;
     private final Faker faker;
+    private final BCryptPasswordEncoder bCryptPasswordEncoder;
 
     public BankingCardService(
             BankingCardRepository bankingCardRepository,
-            Faker faker
+            BankingCardAuthorizationCache bankingCardAuthorizationCache,
+            Faker faker,
+            BCryptPasswordEncoder bCryptPasswordEncoder
     ) {
         this.bankingCardRepository = bankingCardRepository;
+        this.bankingCardAuthorizationCache = bankingCardAuthorizationCache;
         this.faker = faker;
+        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
     }
 
     // return the cards of the logged customer
-    public Set<BankingCard> getCustomerBankingCards() {
+    @Transactional(readOnly = true)
+    public Set<BankingCardDTO> getCustomerBankingCards() {
         // Customer logged
         final Customer customerLogged = AuthHelper.getLoggedCustomer();
 
@@ -40,11 +49,13 @@ public class BankingCardService {
     }
 
     // return the cards of a customer
-    public Set<BankingCard> getCustomerBankingCards(Long customerId) {
-        return bankingCardRepository.findCardsByCustomerId(customerId);
+    @Transactional(readOnly = true)
+    public Set<BankingCardDTO> getCustomerBankingCards(Long customerId) {
+        return bankingCardRepository.findCardDTOsByCustomerId(customerId);
     }
 
     // create a new card and associate to the account
+    @Transactional
     public BankingCard createBankingCard(
             BankingAccount bankingAccount,
             BankingCardType cardType
@@ -76,10 +87,13 @@ public class BankingCardService {
         card.setUpdatedAt(Instant.now());
 
         // save the data and return BankingAccount
-        return bankingCardRepository.save(card);
+        final BankingCard savedCard = bankingCardRepository.save(card);
+        bankingCardAuthorizationCache.evict(card.getId());
+        return savedCard;
     }
 
     // (admin) set the lock status of the card.
+    @Transactional
     public BankingCard setCardLockStatus(
             Long bankingCardId,
             BankingCardLockStatus cardLockStatus
@@ -95,26 +109,24 @@ public class BankingCardService {
     }
 
     // set the lock status of the card for customers logged
+    @Transactional
     public BankingCard setCardLockStatus(
             Long bankingCardId,
             BankingCardSetLockStatusRequest request
     ) {
-        // Banking account to be closed
-        final BankingCard bankingCard = bankingCardRepository.findById(bankingCardId).orElseThrow(
-                // Banking card not found
-                () -> new BankingCardNotFoundException(
-                        Exceptions.CARD.NOT_FOUND
-                ));
-
         // Customer logged
         final Customer customerLogged = AuthHelper.getLoggedCustomer();
 
-        // check if customer is the owner
-        BankingCardAuthorizationHelper
-                .authorize(customerLogged, bankingCard)
-                .checkOwner();
+        // Banking card to set lock status
+        final BankingCard bankingCard = bankingCardRepository
+                .findByIdAndBankingAccount_Customer_Id(bankingCardId, customerLogged.getId())
+                .orElseThrow(
+                        // Banking card not found or not owned by the customer
+                        () -> new BankingCardNotFoundException(
+                                Exceptions.CARD.NOT_FOUND
+                        ));
 
-        AuthHelper.validatePassword(customerLogged, request.password());
+        AuthHelper.validatePassword(customerLogged, request.password(), bCryptPasswordEncoder);
 
         return this.setCardLockStatus(bankingCard, request.lockStatus());
     }
@@ -131,10 +143,13 @@ public class BankingCardService {
         bankingCard.setUpdatedAt(Instant.now());
 
         // save the data and return BankingCard
-        return bankingCardRepository.save(bankingCard);
+        final BankingCard savedCard = bankingCardRepository.save(bankingCard);
+        bankingCardAuthorizationCache.evict(bankingCard.getId());
+        return savedCard;
     }
 
     // (admin) set the limit of the card
+    @Transactional
     public BankingCard setDailyLimit(
             Long bankingCardId,
             BigDecimal dailyLimit
@@ -150,6 +165,7 @@ public class BankingCardService {
     }
 
     // set the limit of the card for customers logged
+    @Transactional
     public BankingCard setDailyLimit(
             Long bankingCardId,
             BankingCardSetDailyLimitRequest request
@@ -158,18 +174,15 @@ public class BankingCardService {
         final Customer customerLogged = AuthHelper.getLoggedCustomer();
 
         // Banking card to be closed
-        final BankingCard bankingCard = bankingCardRepository.findById(bankingCardId).orElseThrow(
-                // Banking card not found
-                () -> new BankingCardNotFoundException(
-                        Exceptions.CARD.NOT_FOUND
-                ));
-
-        // check if customer is the owner
-        BankingCardAuthorizationHelper
-                .authorize(customerLogged, bankingCard)
-                .checkOwner();
+        final BankingCard bankingCard = bankingCardRepository
+                .findByIdAndBankingAccount_Customer_Id(bankingCardId, customerLogged.getId())
+                .orElseThrow(
+                        // Banking card not found or not owned by the customer
+                        () -> new BankingCardNotFoundException(
+                                Exceptions.CARD.NOT_FOUND
+                        ));
 
-        AuthHelper.validatePassword(customerLogged, request.password());
+        AuthHelper.validatePassword(customerLogged, request.password(), bCryptPasswordEncoder);
 
         return this.setDailyLimit(bankingCard, request.dailyLimit());
     }
@@ -183,10 +196,13 @@ public class BankingCardService {
         bankingCard.setUpdatedAt(Instant.now());
 
         // save the data and return BankingCard
-        return bankingCardRepository.save(bankingCard);
+        final BankingCard savedCard = bankingCardRepository.save(bankingCard);
+        bankingCardAuthorizationCache.evict(bankingCard.getId());
+        return savedCard;
     }
 
     // (admin) cancel the card
+    @Transactional
     public BankingCard cancelCard(Long bankingCardId) {
         // Banking card to cancel
         final BankingCard bankingCard = bankingCardRepository.findById(bankingCardId).orElseThrow(
@@ -199,6 +215,7 @@ public class BankingCardService {
     }
 
     // cancel the card for customers logged
+    @Transactional
     public BankingCard cancelCard(
             Long bankingCardId,
             PasswordConfirmationRequest request
@@ -207,18 +224,15 @@ public class BankingCardService {
         final Customer customerLogged = AuthHelper.getLoggedCustomer();
 
         // Banking card to be cancel
-        final BankingCard bankingCard = bankingCardRepository.findById(bankingCardId).orElseThrow(
-                // Banking card not found
-                () -> new BankingCardNotFoundException(
-                        Exceptions.CARD.NOT_FOUND
-                ));
-
-        // check if customer is the owner
-        BankingCardAuthorizationHelper
-                .authorize(customerLogged, bankingCard)
-                .checkOwner();
+        final BankingCard bankingCard = bankingCardRepository
+                .findByIdAndBankingAccount_Customer_Id(bankingCardId, customerLogged.getId())
+                .orElseThrow(
+                        // Banking card not found or not owned by the customer
+                        () -> new BankingCardNotFoundException(
+                                Exceptions.CARD.NOT_FOUND
+                        ));
 
-        AuthHelper.validatePassword(customerLogged, request.password());
+        AuthHelper.validatePassword(customerLogged, request.password(), bCryptPasswordEncoder);
 
         return this.cancelCard(bankingCard);
     }
@@ -232,10 +246,13 @@ public class BankingCardService {
         bankingCard.setUpdatedAt(Instant.now());
 
         // save the data and return BankingAccount
-        return bankingCardRepository.save(bankingCard);
+        final BankingCard savedCard = bankingCardRepository.save(bankingCard);
+        bankingCardAuthorizationCache.evict(bankingCard.getId());
+        return savedCard;
     }
 
     // (admin) set the pin
+    @Transactional
     public BankingCard setBankingCardPin(Long bankingCardId, String pin) {
         // Banking card to set pin
         final BankingCard bankingCard = bankingCardRepository.findById(bankingCardId).orElseThrow(
@@ -248,23 +265,21 @@ public class BankingCardService {
     }
 
     // set the pin for customers logged
+    @Transactional
     public BankingCard setBankingCardPin(Long bankingCardId, BankingCardSetPinRequest request) {
         // Customer logged
         final Customer customerLogged = AuthHelper.getLoggedCustomer();
 
         // Banking card to set pin on
-        final BankingCard bankingCard = bankingCardRepository.findById(bankingCardId).orElseThrow(
-                // Banking card not found
-                () -> new BankingCardNotFoundException(
-                        Exceptions.CARD.NOT_FOUND
-                ));
-
-        // check if customer is the owner
-        BankingCardAuthorizationHelper
-                .authorize(customerLogged, bankingCard)
-                .checkOwner();
-
-        AuthHelper.validatePassword(customerLogged, request.password());
+        final BankingCard bankingCard = bankingCardRepository
+                .findByIdAndBankingAccount_Customer_Id(bankingCardId, customerLogged.getId())
+                .orElseThrow(
+                        // Banking card not found or not owned by the customer
+                        () -> new BankingCardNotFoundException(
+                                Exceptions.CARD.NOT_FOUND
+                        ));
+
+        AuthHelper.validatePassword(customerLogged, request.password(), bCryptPasswordEncoder);
 
         return this.setBankingCardPin(bankingCard, request.pin());
     }
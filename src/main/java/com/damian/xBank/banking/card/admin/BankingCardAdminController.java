@@ -35,8 +35,7 @@ public class BankingCardAdminController {
             @PathVariable @Positive
             Long id
     ) {
-        Set<BankingCard> bankingCards = bankingCardService.getCustomerBankingCards(id);
-        Set<BankingCardDTO> bankingCardsDTO = BankingCardDTOMapper.toBankingCardSetDTO(bankingCards);
+        Set<BankingCardDTO> bankingCardsDTO = bankingCardService.getCustomerBankingCards(id);
 
         return ResponseEntity
                 .status(HttpStatus.OK)
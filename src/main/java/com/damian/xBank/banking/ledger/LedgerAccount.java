@@ -0,0 +1,8 @@
+package com.damian.xBank.banking.ledger;
+
+public enum LedgerAccount {
+    // a customer banking account
+    BANKING_ACCOUNT,
+    // money coming from or going out of the bank: deposits, card payments, ATM withdrawals
+    EXTERNAL
+}
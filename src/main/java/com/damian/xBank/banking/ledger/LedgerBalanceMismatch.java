@@ -0,0 +1,11 @@
+package com.damian.xBank.banking.ledger;
+
+import java.math.BigDecimal;
+
+// an account whose balance column does not match the sum of its postings
+public record LedgerBalanceMismatch(
+        Long bankingAccountId,
+        BigDecimal balance,
+        BigDecimal ledgerBalance
+) {
+}
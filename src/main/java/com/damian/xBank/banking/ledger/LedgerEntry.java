@@ -0,0 +1,72 @@
+package com.damian.xBank.banking.ledger;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One money movement in the journal. Its postings always add up to zero.
+ * <p>
+ * Entries are only ever inserted, never updated nor deleted.
+ */
+@Entity
+@Immutable
+@Table(name = "ledger_entries")
+public class LedgerEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entries_seq")
+    @SequenceGenerator(name = "ledger_entries_seq", sequenceName = "ledger_entries_seq", allocationSize = 50)
+    private Long id;
+
+    @Column
+    private String description;
+
+    @OneToMany(mappedBy = "ledgerEntry", cascade = CascadeType.PERSIST)
+    private List<LedgerPosting> postings;
+
+    @Column
+    private Instant createdAt;
+
+    public LedgerEntry() {
+        this.postings = new ArrayList<>();
+    }
+
+    public LedgerEntry(String description) {
+        this();
+        this.description = description;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public List<LedgerPosting> getPostings() {
+        return Collections.unmodifiableList(postings);
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void addPosting(LedgerPosting posting) {
+        posting.setLedgerEntry(this);
+        this.postings.add(posting);
+    }
+
+    // sum of all the postings, zero when the entry is balanced
+    public BigDecimal getTotal() {
+        return postings.stream()
+                       .map(LedgerPosting::getAmount)
+                       .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
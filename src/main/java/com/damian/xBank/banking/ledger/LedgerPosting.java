@@ -0,0 +1,96 @@
+package com.damian.xBank.banking.ledger;
+
+import com.damian.xBank.banking.account.BankingAccount;
+import com.damian.xBank.banking.transactions.BankingTransaction;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/**
+ * One leg of a {@link LedgerEntry}: the amount credited (positive) or debited (negative)
+ * to a ledger account.
+ */
+@Entity
+@Immutable
+@Table(
+        name = "ledger_postings",
+        indexes = {
+                @Index(name = "ledger_postings_banking_account_idx", columnList = "banking_account_id")
+        }
+)
+public class LedgerPosting {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_postings_seq")
+    @SequenceGenerator(name = "ledger_postings_seq", sequenceName = "ledger_postings_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ledger_entry_id", referencedColumnName = "id", nullable = false)
+    private LedgerEntry ledgerEntry;
+
+    @Enumerated(EnumType.STRING)
+    private LedgerAccount ledgerAccount;
+
+    // only for BANKING_ACCOUNT postings
+    @ManyToOne(fetch = FetchType.LAZY)
+    // the journal is never deleted, so an account with postings cannot be deleted either
+    @JoinColumn(name = "banking_account_id", referencedColumnName = "id", nullable = true)
+    private BankingAccount bankingAccount;
+
+    // the customer facing transaction of this leg, if any
+    @ManyToOne(fetch = FetchType.LAZY)
+    // no foreign key, banking_transactions is partitioned and its archived months are dropped
+    @JoinColumn(
+            name = "banking_transaction_id",
+            referencedColumnName = "id",
+            nullable = true,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT)
+    )
+    private BankingTransaction bankingTransaction;
+
+    @Column(precision = 15, scale = 2)
+    private BigDecimal amount;
+
+    public LedgerPosting() {
+    }
+
+    public LedgerPosting(LedgerAccount ledgerAccount, BigDecimal amount) {
+        this.ledgerAccount = ledgerAccount;
+        this.amount = amount;
+    }
+
+    public LedgerPosting(BankingTransaction bankingTransaction, BigDecimal amount) {
+        this(LedgerAccount.BANKING_ACCOUNT, amount);
+        this.bankingAccount = bankingTransaction.getAssociatedBankingAccount();
+        this.bankingTransaction = bankingTransaction;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LedgerEntry getLedgerEntry() {
+        return ledgerEntry;
+    }
+
+    void setLedgerEntry(LedgerEntry ledgerEntry) {
+        this.ledgerEntry = ledgerEntry;
+    }
+
+    public LedgerAccount getLedgerAccount() {
+        return ledgerAccount;
+    }
+
+    public BankingAccount getBankingAccount() {
+        return bankingAccount;
+    }
+
+    public BankingTransaction getBankingTransaction() {
+        return bankingTransaction;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+}
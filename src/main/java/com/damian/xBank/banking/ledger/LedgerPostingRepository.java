@@ -0,0 +1,49 @@
+package com.damian.xBank.banking.ledger;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface LedgerPostingRepository extends JpaRepository<LedgerPosting, Long> {
+    // the balance of the account replayed from the journal
+    @Query(
+            "SELECT COALESCE(SUM(p.amount), 0) FROM LedgerPosting p"
+            + " WHERE p.bankingAccount.id = :bankingAccountId"
+    )
+    BigDecimal sumByBankingAccountId(@Param("bankingAccountId") Long bankingAccountId);
+
+    // whether any account of the customer has postings in the journal
+    @Query(
+            "SELECT COUNT(p) > 0 FROM LedgerPosting p"
+            + " WHERE p.bankingAccount.customer.id = :customerId"
+    )
+    boolean existsByBankingAccountCustomerId(@Param("customerId") Long customerId);
+
+    // the postings of the entry that holds the transaction, including its own
+    @Query(
+            "SELECT p FROM LedgerPosting p WHERE p.ledgerEntry.id ="
+            + " (SELECT t.ledgerEntry.id FROM LedgerPosting t WHERE t.bankingTransaction.id = :bankingTransactionId)"
+    )
+    List<LedgerPosting> findEntryPostingsByBankingTransactionId(
+            @Param("bankingTransactionId") Long bankingTransactionId
+    );
+
+    // accounts in [fromId, toId) whose balance is not the sum of their postings, in one aggregate query
+    @Query(
+            "SELECT new com.damian.xBank.banking.ledger.LedgerBalanceMismatch("
+            + "a.id, a.balance, COALESCE(SUM(p.amount), 0))"
+            + " FROM BankingAccount a LEFT JOIN LedgerPosting p ON p.bankingAccount = a"
+            + " WHERE a.id >= :fromId AND a.id < :toId"
+            + " GROUP BY a.id, a.balance"
+            + " HAVING a.balance <> COALESCE(SUM(p.amount), 0)"
+    )
+    List<LedgerBalanceMismatch> findBalanceMismatches(
+            @Param("fromId") Long fromId,
+            @Param("toId") Long toId
+    );
+}
@@ -0,0 +1,98 @@
+package com.damian.xBank.banking.ledger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress and result of one reconciliation run. It is updated by the workers while the run
+ * goes on, so it can be read at any time.
+ */
+public class LedgerReconciliation {
+    private final Long id;
+    private final Instant startedAt;
+    private final int maxReportedMismatches;
+    private final LongAdder accountsChecked;
+    private final AtomicLong mismatchCount;
+    private final List<LedgerBalanceMismatch> mismatches;
+    private volatile Instant finishedAt;
+    private volatile LedgerReconciliationStatus status;
+
+    public LedgerReconciliation(Long id, int maxReportedMismatches) {
+        this.id = id;
+        this.startedAt = Instant.now();
+        this.maxReportedMismatches = maxReportedMismatches;
+        this.accountsChecked = new LongAdder();
+        this.mismatchCount = new AtomicLong();
+        this.mismatches = Collections.synchronizedList(new ArrayList<>());
+        this.status = LedgerReconciliationStatus.RUNNING;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public LedgerReconciliationStatus getStatus() {
+        return status;
+    }
+
+    public boolean isRunning() {
+        return status == LedgerReconciliationStatus.RUNNING;
+    }
+
+    public long getAccountsChecked() {
+        return accountsChecked.sum();
+    }
+
+    public long getMismatchCount() {
+        return mismatchCount.get();
+    }
+
+    // the first mismatches found, up to the max reported
+    public List<LedgerBalanceMismatch> getMismatches() {
+        synchronized (mismatches) {
+            return List.copyOf(mismatches);
+        }
+    }
+
+    // accounts checked per second, until now or until the run finished
+    public double getAccountsPerSecond() {
+        final Instant end = finishedAt != null ? finishedAt : Instant.now();
+        final long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return this.getAccountsChecked() * 1000d / millis;
+    }
+
+    // adds the result of one chunk
+    public void addChunk(long accounts, List<LedgerBalanceMismatch> chunkMismatches) {
+        accountsChecked.add(accounts);
+        mismatchCount.addAndGet(chunkMismatches.size());
+
+        synchronized (mismatches) {
+            chunkMismatches.stream()
+                           .limit(Math.max(0, maxReportedMismatches - mismatches.size()))
+                           .forEach(mismatches::add);
+        }
+    }
+
+    public void complete() {
+        this.finishedAt = Instant.now();
+        this.status = LedgerReconciliationStatus.COMPLETED;
+    }
+
+    public void fail() {
+        this.finishedAt = Instant.now();
+        this.status = LedgerReconciliationStatus.FAILED;
+    }
+}
@@ -0,0 +1,16 @@
+package com.damian.xBank.banking.ledger;
+
+import java.time.Instant;
+import java.util.List;
+
+public record LedgerReconciliationDTO(
+        Long id,
+        LedgerReconciliationStatus status,
+        Instant startedAt,
+        Instant finishedAt,
+        long accountsChecked,
+        double accountsPerSecond,
+        long mismatchCount,
+        List<LedgerBalanceMismatch> mismatches
+) {
+}
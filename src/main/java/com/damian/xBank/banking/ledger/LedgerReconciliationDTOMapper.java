@@ -0,0 +1,17 @@
+package com.damian.xBank.banking.ledger;
+
+public class LedgerReconciliationDTOMapper {
+
+    public static LedgerReconciliationDTO toLedgerReconciliationDTO(LedgerReconciliation reconciliation) {
+        return new LedgerReconciliationDTO(
+                reconciliation.getId(),
+                reconciliation.getStatus(),
+                reconciliation.getStartedAt(),
+                reconciliation.getFinishedAt(),
+                reconciliation.getAccountsChecked(),
+                reconciliation.getAccountsPerSecond(),
+                reconciliation.getMismatchCount(),
+                reconciliation.getMismatches()
+        );
+    }
+}
@@ -0,0 +1,170 @@
+package com.damian.xBank.banking.ledger;
+
+import com.damian.xBank.banking.account.BankingAccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks that the balance of every account matches the sum of its ledger postings.
+ * <p>
+ * The account ids are split in ranges of "chunk-size" that are reconciled in parallel on a
+ * fork-join pool of "parallelism" workers. Each range costs two aggregate queries, a count and
+ * the accounts whose balance differs, so no entity is loaded. Only one run goes on at a time;
+ * it can be started from the admin endpoint or on the "cron" schedule.
+ * <p>
+ * The accounts checked are published as "banking.ledger.reconciliation.accounts".
+ */
+@Service
+public class LedgerReconciliationService implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(LedgerReconciliationService.class);
+
+    private final BankingAccountRepository bankingAccountRepository;
+    private final LedgerPostingRepository ledgerPostingRepository;
+    private final long chunkSize;
+    private final int maxReportedMismatches;
+    private final ForkJoinPool pool;
+    private final Counter accountsChecked;
+    private final AtomicLong runIds;
+    private final AtomicReference<LedgerReconciliation> latest;
+
+    public LedgerReconciliationService(
+            BankingAccountRepository bankingAccountRepository,
+            LedgerPostingRepository ledgerPostingRepository,
+            @Value("${banking.ledger.reconciliation.chunk-size:10000}")
+            long chunkSize,
+            @Value("${banking.ledger.reconciliation.parallelism:4}")
+            int parallelism,
+            @Value("${banking.ledger.reconciliation.max-reported-mismatches:1000}")
+            int maxReportedMismatches,
+            MeterRegistry meterRegistry
+    ) {
+        this.bankingAccountRepository = bankingAccountRepository;
+        this.ledgerPostingRepository = ledgerPostingRepository;
+        this.chunkSize = chunkSize;
+        this.maxReportedMismatches = maxReportedMismatches;
+        this.pool = new ForkJoinPool(parallelism);
+        this.accountsChecked = Counter.builder("banking.ledger.reconciliation.accounts")
+                                      .description("Accounts checked against the ledger")
+                                      .register(meterRegistry);
+        this.runIds = new AtomicLong();
+        this.latest = new AtomicReference<>();
+    }
+
+    /**
+     * Starts a reconciliation in the background.
+     *
+     * @return the new run, or the one already running
+     */
+    public LedgerReconciliation start() {
+        final LedgerReconciliation current = latest.get();
+        if (current != null && current.isRunning()) {
+            return current;
+        }
+
+        final LedgerReconciliation reconciliation = new LedgerReconciliation(
+                runIds.incrementAndGet(),
+                maxReportedMismatches
+        );
+
+        // another caller started one in between
+        if (!latest.compareAndSet(current, reconciliation)) {
+            return latest.get();
+        }
+
+        pool.execute(() -> this.reconcile(reconciliation));
+        return reconciliation;
+    }
+
+    // disabled unless a cron is set
+    @Scheduled(cron = "${banking.ledger.reconciliation.cron:-}")
+    public void scheduledStart() {
+        this.start();
+    }
+
+    // the last run, finished or not
+    public Optional<LedgerReconciliation> getLatest() {
+        return Optional.ofNullable(latest.get());
+    }
+
+    private void reconcile(LedgerReconciliation reconciliation) {
+        try {
+            final Optional<Long> minId = bankingAccountRepository.findMinId();
+            final Optional<Long> maxId = bankingAccountRepository.findMaxId();
+
+            if (minId.isPresent() && maxId.isPresent()) {
+                new ReconcileRange(reconciliation, minId.get(), maxId.get() + 1).invoke();
+            }
+
+            reconciliation.complete();
+            log.info(
+                    "Reconciliation {} checked {} accounts at {} accounts/s, {} mismatches.",
+                    reconciliation.getId(),
+                    reconciliation.getAccountsChecked(),
+                    Math.round(reconciliation.getAccountsPerSecond()),
+                    reconciliation.getMismatchCount()
+            );
+        } catch (RuntimeException e) {
+            reconciliation.fail();
+            log.error("Reconciliation {} failed.", reconciliation.getId(), e);
+        }
+    }
+
+    // reconciles the accounts in one chunk of ids
+    private void reconcileChunk(LedgerReconciliation reconciliation, long fromId, long toId) {
+        final long accounts = bankingAccountRepository.countInIdRange(fromId, toId);
+        if (accounts == 0) {
+            return;
+        }
+
+        final List<LedgerBalanceMismatch> mismatches = ledgerPostingRepository.findBalanceMismatches(fromId, toId);
+        reconciliation.addChunk(accounts, mismatches);
+        accountsChecked.increment(accounts);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        pool.shutdownNow();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    // splits the ids [fromId, toId) in halves until they fit in a chunk
+    private class ReconcileRange extends RecursiveAction {
+        private final LedgerReconciliation reconciliation;
+        private final long fromId;
+        private final long toId;
+
+        ReconcileRange(LedgerReconciliation reconciliation, long fromId, long toId) {
+            this.reconciliation = reconciliation;
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        @Override
+        protected void compute() {
+            if (toId - fromId <= chunkSize) {
+                reconcileChunk(reconciliation, fromId, toId);
+                return;
+            }
+
+            final long middle = fromId + (toId - fromId) / 2;
+            invokeAll(
+                    new ReconcileRange(reconciliation, fromId, middle),
+                    new ReconcileRange(reconciliation, middle, toId)
+            );
+        }
+    }
+}
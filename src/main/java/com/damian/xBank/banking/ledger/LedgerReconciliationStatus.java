@@ -0,0 +1,7 @@
+package com.damian.xBank.banking.ledger;
+
+public enum LedgerReconciliationStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,107 @@
+package com.damian.xBank.banking.ledger;
+
+import com.damian.xBank.banking.account.BankingAccountRepository;
+import com.damian.xBank.banking.transactions.BankingTransaction;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Append-only double-entry journal of every money movement.
+ * <p>
+ * Each movement is one {@link LedgerEntry} with a posting per banking transaction involved.
+ * Transfers are balanced by their two legs. Deposits, card charges and withdrawals move money
+ * in or out of the bank, so they are balanced against the {@link LedgerAccount#EXTERNAL} account.
+ * <p>
+ * The balance column of an account is a projection of its postings, kept up to date by the
+ * conditional balance updates in the same database transaction. It can be checked or rebuilt
+ * from the journal at any time.
+ */
+@Service
+public class LedgerService {
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerPostingRepository ledgerPostingRepository;
+    private final BankingAccountRepository bankingAccountRepository;
+
+    public LedgerService(
+            LedgerEntryRepository ledgerEntryRepository,
+            LedgerPostingRepository ledgerPostingRepository,
+            BankingAccountRepository bankingAccountRepository
+    ) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.ledgerPostingRepository = ledgerPostingRepository;
+        this.bankingAccountRepository = bankingAccountRepository;
+    }
+
+    /**
+     * Builds the balanced entry for the movement made by the transactions.
+     *
+     * @param description  what the movement is
+     * @param transactions the legs of the movement, already persisted
+     * @return the entry, not stored yet
+     * @throws IllegalStateException if the transfer legs do not cancel each other
+     */
+    public LedgerEntry createEntry(String description, BankingTransaction... transactions) {
+        final LedgerEntry entry = new LedgerEntry(description);
+        BigDecimal external = BigDecimal.ZERO;
+
+        for (BankingTransaction transaction : transactions) {
+            final BigDecimal amount = signedAmount(transaction);
+            entry.addPosting(new LedgerPosting(transaction, amount));
+
+            // money in or out of the bank has its counterpart outside
+            if (isExternal(transaction)) {
+                external = external.subtract(amount);
+            }
+        }
+
+        if (external.signum() != 0) {
+            entry.addPosting(new LedgerPosting(LedgerAccount.EXTERNAL, external));
+        }
+
+        if (entry.getTotal().signum() != 0) {
+            throw new IllegalStateException("Unbalanced ledger entry: " + description);
+        }
+        return entry;
+    }
+
+    // stores the entry of the movement, in the transaction of the caller
+    public LedgerEntry record(String description, BankingTransaction... transactions) {
+        return ledgerEntryRepository.save(this.createEntry(description, transactions));
+    }
+
+    // stores many entries, their inserts go out in JDBC batches
+    public List<LedgerEntry> recordAll(List<LedgerEntry> entries) {
+        return ledgerEntryRepository.saveAll(entries);
+    }
+
+    // the balance of the account replayed from the journal
+    public BigDecimal replayBalance(Long bankingAccountId) {
+        return ledgerPostingRepository.sumByBankingAccountId(bankingAccountId);
+    }
+
+    // overwrites the balance of the account with the one replayed from the journal
+    @Transactional
+    public BigDecimal rebuildBalance(Long bankingAccountId) {
+        return bankingAccountRepository
+                .rebuildBalance(bankingAccountId)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found: " + bankingAccountId));
+    }
+
+    // credits are positive and debits negative
+    private static BigDecimal signedAmount(BankingTransaction transaction) {
+        return switch (transaction.getTransactionType()) {
+            case DEPOSIT, TRANSFER_FROM -> transaction.getAmount();
+            case CARD_CHARGE, WITHDRAWAL, TRANSFER_TO -> transaction.getAmount().negate();
+        };
+    }
+
+    private static boolean isExternal(BankingTransaction transaction) {
+        return switch (transaction.getTransactionType()) {
+            case DEPOSIT, CARD_CHARGE, WITHDRAWAL -> true;
+            case TRANSFER_FROM, TRANSFER_TO -> false;
+        };
+    }
+}
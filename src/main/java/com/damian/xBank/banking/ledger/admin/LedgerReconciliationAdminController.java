@@ -0,0 +1,48 @@
+package com.damian.xBank.banking.ledger.admin;
+
+import com.damian.xBank.banking.ledger.LedgerReconciliation;
+import com.damian.xBank.banking.ledger.LedgerReconciliationDTO;
+import com.damian.xBank.banking.ledger.LedgerReconciliationDTOMapper;
+import com.damian.xBank.banking.ledger.LedgerReconciliationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RequestMapping("/api/v1")
+@RestController
+public class LedgerReconciliationAdminController {
+    private final LedgerReconciliationService ledgerReconciliationService;
+
+    @Autowired
+    public LedgerReconciliationAdminController(LedgerReconciliationService ledgerReconciliationService) {
+        this.ledgerReconciliationService = ledgerReconciliationService;
+    }
+
+    // endpoint to start a balance reconciliation, or get the one already running
+    @PostMapping("/admin/banking/reconciliations")
+    public ResponseEntity<?> startReconciliation() {
+        LedgerReconciliation reconciliation = ledgerReconciliationService.start();
+        LedgerReconciliationDTO reconciliationDTO = LedgerReconciliationDTOMapper
+                .toLedgerReconciliationDTO(reconciliation);
+
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(reconciliationDTO);
+    }
+
+    // endpoint to follow the last reconciliation, with its throughput and mismatches
+    @GetMapping("/admin/banking/reconciliations/latest")
+    public ResponseEntity<?> getLatestReconciliation() {
+        return ledgerReconciliationService
+                .getLatest()
+                .map(LedgerReconciliationDTOMapper::toLedgerReconciliationDTO)
+                .<ResponseEntity<?>>map(reconciliationDTO -> ResponseEntity
+                        .status(HttpStatus.OK)
+                        .body(reconciliationDTO))
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+}
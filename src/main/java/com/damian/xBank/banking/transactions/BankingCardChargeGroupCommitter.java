@@ -0,0 +1,366 @@
+package com.damian.xBank.banking.transactions;
+
+import com.damian.xBank.banking.account.BankingAccountRepository;
+import com.damian.xBank.banking.card.BankingCardRepository;
+import com.damian.xBank.banking.card.exception.BankingCardAuthorizationException;
+import com.damian.xBank.banking.ledger.LedgerService;
+import com.damian.xBank.banking.transactions.exception.BankingTransactionBusyException;
+import com.damian.xBank.common.exception.Exceptions;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Optional group commit for card charges.
+ * <p>
+ * When enabled, the charges are queued in a bounded buffer and a single writer thread takes
+ * them in batches of up to "batch-size", waiting at most "max-linger" for a batch to fill.
+ * Each batch runs in one database transaction: the balance of each account is debited once
+ * with the sum of its charges (charge by charge if the sum does not fit) and all the
+ * transactions and their journal entries are inserted in JDBC batches. The callers get
+ * their transaction once the batch is committed. When the buffer is full the charge fails
+ * right away with
+ * {@link BankingTransactionBusyException}, and so does a caller that waits longer than
+ * "charge-timeout" for its batch, as long as the writer has not claimed the charge yet.
+ * Each charge is claimed by exactly one side: the writer before committing it or the caller
+ * that gives up on it. A charge the writer claimed is always completed with its real result,
+ * so a caller that times out after that keeps waiting for it.
+ * <p>
+ * The batch sizes are published as "banking.cards.group-commit.batch.size" and the time
+ * taken by each batch as "banking.cards.group-commit.commit".
+ */
+@Component
+public class BankingCardChargeGroupCommitter implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(BankingCardChargeGroupCommitter.class);
+
+    private final BankingAccountRepository bankingAccountRepository;
+    private final BankingCardRepository bankingCardRepository;
+    private final BankingTransactionService bankingTransactionService;
+    private final LedgerService ledgerService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxLingerNanos;
+    private final long chargeTimeoutNanos;
+    private final BlockingQueue<PendingCharge> queue;
+    private final DistributionSummary batchSizes;
+    private final Timer commits;
+    private final Thread writer;
+    private volatile boolean running;
+
+    public BankingCardChargeGroupCommitter(
+            BankingAccountRepository bankingAccountRepository,
+            BankingCardRepository bankingCardRepository,
+            BankingTransactionService bankingTransactionService,
+            LedgerService ledgerService,
+            TransactionTemplate transactionTemplate,
+            @Value("${banking.cards.group-commit.enabled:false}")
+            boolean enabled,
+            @Value("${banking.cards.group-commit.batch-size:100}")
+            int batchSize,
+            @Value("${banking.cards.group-commit.max-linger:5ms}")
+            Duration maxLinger,
+            @Value("${banking.cards.group-commit.queue-capacity:10000}")
+            int queueCapacity,
+            @Value("${banking.cards.group-commit.charge-timeout:10s}")
+            Duration chargeTimeout,
+            MeterRegistry meterRegistry
+    ) {
+        this.bankingAccountRepository = bankingAccountRepository;
+        this.bankingCardRepository = bankingCardRepository;
+        this.bankingTransactionService = bankingTransactionService;
+        this.ledgerService = ledgerService;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxLingerNanos = maxLinger.toNanos();
+        this.chargeTimeoutNanos = chargeTimeout.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.batchSizes = DistributionSummary.builder("banking.cards.group-commit.batch.size")
+                                             .description("Card charges committed together")
+                                             .register(meterRegistry);
+        this.commits = Timer.builder("banking.cards.group-commit.commit")
+                            .description("Time to debit and store a batch of card charges")
+                            .register(meterRegistry);
+        Gauge.builder("banking.cards.group-commit.queue", queue, Collection::size)
+             .description("Card charges waiting for the writer")
+             .register(meterRegistry);
+
+        this.running = enabled;
+        this.writer = new Thread(this::drain, "card-charge-writer");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            this.writer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a card charge and waits until the batch holding it is committed.
+     *
+     * @param bankingCardId    the card charged
+     * @param bankingAccountId the account of the card
+     * @param amount           the amount to charge
+     * @param description      the description of the charge
+     * @return the stored transaction
+     * @throws BankingCardAuthorizationException if the account has not enough funds
+     * @throws BankingTransactionBusyException   if too many charges are waiting or the batch
+     *                                           is not committed in time
+     */
+    public BankingTransaction charge(
+            Long bankingCardId,
+            Long bankingAccountId,
+            BigDecimal amount,
+            String description
+    ) {
+        final PendingCharge charge = new PendingCharge(
+                bankingCardId,
+                bankingAccountId,
+                amount,
+                description,
+                new AtomicReference<>(ChargeState.QUEUED),
+                new CompletableFuture<>()
+        );
+
+        if (!running || !queue.offer(charge)) {
+            throw new BankingTransactionBusyException(
+                    Exceptions.TRANSACTION.BUSY
+            );
+        }
+
+        try {
+            try {
+                return charge.result().get(chargeTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // still queued or taken but not claimed yet, the writer will skip it
+                if (queue.remove(charge) || charge.abandon()) {
+                    throw new BankingTransactionBusyException(
+                            Exceptions.TRANSACTION.BUSY
+                    );
+                }
+
+                // the writer claimed it, its batch decides whether it is stored
+                return charge.result().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the card charge.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // writer loop, takes the next batch and commits it
+    private void drain() {
+        final List<PendingCharge> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                final PendingCharge first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                // wait for more charges until the batch is full or the linger time is over
+                batch.add(first);
+                final long deadline = System.nanoTime() + maxLingerNanos;
+                while (batch.size() < batchSize) {
+                    final long remaining = deadline - System.nanoTime();
+                    final PendingCharge next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                // charges whose callers already gave up are left out
+                batch.removeIf(charge -> !charge.claim());
+                if (!batch.isEmpty()) {
+                    this.commit(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                batch.forEach(charge -> charge.result().completeExceptionally(
+                        new BankingTransactionBusyException(
+                                Exceptions.TRANSACTION.BUSY
+                        )
+                ));
+            } catch (Throwable e) {
+                // only this batch fails, the writer keeps taking charges
+                log.error("Card charge writer failed on a batch of {}.", batch.size(), e);
+                batch.forEach(charge -> charge.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // debits and stores the batch in one transaction, then completes every charge
+    private void commit(List<PendingCharge> batch) {
+        final Map<PendingCharge, BankingTransaction> transactions = new IdentityHashMap<>();
+        batchSizes.record(batch.size());
+
+        try {
+            commits.record(() -> transactionTemplate.executeWithoutResult(
+                    status -> {
+                        this.debit(batch, transactions);
+                        this.store(batch, transactions);
+                    }
+            ));
+        } catch (Throwable e) {
+            log.warn("Card charge batch of {} failed.", batch.size(), e);
+            batch.forEach(charge -> charge.result().completeExceptionally(e));
+            return;
+        }
+
+        batch.forEach(charge -> {
+            final BankingTransaction transaction = transactions.get(charge);
+            if (transaction == null) {
+                charge.result().completeExceptionally(
+                        new BankingCardAuthorizationException(
+                                Exceptions.CARD.INSUFFICIENT_FUNDS
+                        )
+                );
+                return;
+            }
+            charge.result().complete(transaction);
+        });
+    }
+
+    // the charges that could be debited end up in transactions
+    private void debit(List<PendingCharge> batch, Map<PendingCharge, BankingTransaction> transactions) {
+        // charges of each account, accounts sorted by id so batches lock them in the same order
+        final Map<Long, List<PendingCharge>> chargesByAccount = new TreeMap<>();
+        batch.forEach(charge -> chargesByAccount
+                .computeIfAbsent(charge.bankingAccountId(), id -> new ArrayList<>())
+                .add(charge)
+        );
+
+        chargesByAccount.forEach((bankingAccountId, charges) -> {
+            final BigDecimal total = charges.stream()
+                                            .map(PendingCharge::amount)
+                                            .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+            final Optional<BigDecimal> balance = bankingAccountRepository.debitBalance(bankingAccountId, total);
+            if (balance.isPresent()) {
+                // balance after each charge, going backwards from the final balance
+                BigDecimal runningBalance = balance.get();
+                for (int i = charges.size() - 1; i >= 0; i--) {
+                    transactions.put(charges.get(i), this.createTransaction(charges.get(i), runningBalance));
+                    runningBalance = runningBalance.add(charges.get(i).amount());
+                }
+                return;
+            }
+
+            // the account cannot pay all of them, charge them one by one in order
+            charges.forEach(charge -> bankingAccountRepository
+                    .debitBalance(bankingAccountId, charge.amount())
+                    .ifPresent(newBalance -> transactions.put(charge, this.createTransaction(charge, newBalance)))
+            );
+        });
+
+    }
+
+    // stores the transactions in the order the charges were queued
+    private void store(List<PendingCharge> batch, Map<PendingCharge, BankingTransaction> transactions) {
+        final List<BankingTransaction> stored = batch.stream()
+                                                     .map(transactions::get)
+                                                     .filter(Objects::nonNull)
+                                                     .toList();
+
+        if (!stored.isEmpty()) {
+            bankingTransactionService.persistTransactions(stored);
+            ledgerService.recordAll(stored.stream()
+                                          .map(transaction -> ledgerService.createEntry(
+                                                  transaction.getDescription(),
+                                                  transaction
+                                          ))
+                                          .toList());
+        }
+    }
+
+    private BankingTransaction createTransaction(PendingCharge charge, BigDecimal accountBalance) {
+        BankingTransaction transaction = new BankingTransaction(
+                bankingAccountRepository.getReferenceById(charge.bankingAccountId())
+        );
+        transaction.setBankingCard(bankingCardRepository.getReferenceById(charge.bankingCardId()));
+        transaction.setTransactionType(BankingTransactionType.CARD_CHARGE);
+        transaction.setAmount(charge.amount());
+        transaction.setDescription(charge.description());
+        transaction.setAccountBalance(accountBalance);
+        transaction.setTransactionStatus(BankingTransactionStatus.COMPLETED);
+        return transaction;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // the writer commits the batch in progress and stops
+        running = false;
+        if (enabled) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        // charges that were never taken by the writer
+        PendingCharge charge;
+        while ((charge = queue.poll()) != null) {
+            charge.result().completeExceptionally(
+                    new BankingTransactionBusyException(
+                            Exceptions.TRANSACTION.BUSY
+                    )
+            );
+        }
+    }
+
+    private record PendingCharge(
+            Long bankingCardId,
+            Long bankingAccountId,
+            BigDecimal amount,
+            String description,
+            AtomicReference<ChargeState> state,
+            CompletableFuture<BankingTransaction> result
+    ) {
+        // the writer takes the charge, it will be completed with the result of its batch
+        boolean claim() {
+            return state.compareAndSet(ChargeState.QUEUED, ChargeState.CLAIMED);
+        }
+
+        // the caller gives up on the charge, the writer will not commit it
+        boolean abandon() {
+            return state.compareAndSet(ChargeState.QUEUED, ChargeState.ABANDONED);
+        }
+    }
+
+    private enum ChargeState {
+        QUEUED,
+        CLAIMED,
+        ABANDONED
+    }
+}
@@ -0,0 +1,127 @@
+package com.damian.xBank.banking.transactions;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps how much has been spent today with each card (CARD_CHARGE and WITHDRAWAL), so the
+ * daily limit can be checked without summing the transactions of the day.
+ * <p>
+ * A counter is updated atomically when an operation is reserved, and starts again from zero
+ * on the first operation of a new day. If the database transaction that reserved the amount
+ * rolls back, the amount is released. The counters are rebuilt from the completed
+ * transactions of the day when the application starts.
+ */
+@Component
+public class BankingCardDailySpendCounters {
+    private static final List<BankingTransactionType> CARD_SPEND_TYPES = List.of(
+            BankingTransactionType.CARD_CHARGE,
+            BankingTransactionType.WITHDRAWAL
+    );
+
+    private final BankingTransactionRepository bankingTransactionRepository;
+    private final Clock clock;
+    private final Map<Long, DailySpend> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BankingCardDailySpendCounters(BankingTransactionRepository bankingTransactionRepository) {
+        this(bankingTransactionRepository, Clock.systemDefaultZone());
+    }
+
+    public BankingCardDailySpendCounters(BankingTransactionRepository bankingTransactionRepository, Clock clock) {
+        this.bankingTransactionRepository = bankingTransactionRepository;
+        this.clock = clock;
+    }
+
+    // loads what each card has spent since the start of the day
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        final LocalDate today = LocalDate.now(clock);
+
+        counters.clear();
+        bankingTransactionRepository
+                .sumCardSpendSince(
+                        CARD_SPEND_TYPES,
+                        BankingTransactionStatus.COMPLETED,
+                        today.atStartOfDay(clock.getZone()).toInstant()
+                )
+                .forEach(spend -> counters.put(spend.bankingCardId(), new DailySpend(today, spend.amount())));
+    }
+
+    // amount spent today with the card
+    public BigDecimal getSpentToday(Long bankingCardId) {
+        final DailySpend spend = counters.get(bankingCardId);
+        if (spend == null || !spend.day().equals(LocalDate.now(clock))) {
+            return BigDecimal.ZERO;
+        }
+        return spend.amount();
+    }
+
+    /**
+     * Adds the amount to the card spend of the day if it stays within the limit.
+     * <p>
+     * When called inside a transaction the amount is released again if it rolls back.
+     *
+     * @param bankingCardId the card spending the amount
+     * @param amount        the amount to spend
+     * @param dailyLimit    the daily limit of the card, null for no limit
+     * @return false if the amount would go over the limit, nothing is added then
+     */
+    public boolean tryReserve(Long bankingCardId, BigDecimal amount, BigDecimal dailyLimit) {
+        final LocalDate today = LocalDate.now(clock);
+        final boolean[] reserved = {false};
+
+        counters.compute(bankingCardId, (id, spend) -> {
+            final BigDecimal spent = spend == null || !spend.day().equals(today)
+                    ? BigDecimal.ZERO
+                    : spend.amount();
+
+            if (dailyLimit != null && spent.add(amount).compareTo(dailyLimit) > 0) {
+                return spend;
+            }
+
+            reserved[0] = true;
+            return new DailySpend(today, spent.add(amount));
+        });
+
+        if (reserved[0] && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(bankingCardId, amount, today);
+                    }
+                }
+            });
+        }
+
+        return reserved[0];
+    }
+
+    // gives back an amount reserved today, for operations that failed outside a transaction
+    public void release(Long bankingCardId, BigDecimal amount) {
+        this.release(bankingCardId, amount, LocalDate.now(clock));
+    }
+
+    // gives back an amount reserved on that day, if the counter was not reset since
+    private void release(Long bankingCardId, BigDecimal amount, LocalDate day) {
+        counters.computeIfPresent(bankingCardId, (id, spend) -> spend.day().equals(day)
+                ? new DailySpend(day, spend.amount().subtract(amount))
+                : spend
+        );
+    }
+
+    private record DailySpend(LocalDate day, BigDecimal amount) {
+    }
+}
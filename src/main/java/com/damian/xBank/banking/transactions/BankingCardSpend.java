@@ -0,0 +1,10 @@
+package com.damian.xBank.banking.transactions;
+
+import java.math.BigDecimal;
+
+// total amount spent with a card
+public record BankingCardSpend(
+        Long bankingCardId,
+        BigDecimal amount
+) {
+}
@@ -8,10 +8,36 @@ import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
-@Table(name = "banking_transactions")
+@Table(
+        name = "banking_transactions",
+        indexes = {
+                @Index(
+                        name = "banking_transactions_account_history_idx",
+                        columnList = "banking_account_id, created_at DESC, id DESC"
+                ),
+                @Index(
+                        name = "banking_transactions_card_history_idx",
+                        columnList = "banking_card_id, created_at DESC, id DESC"
+                ),
+                // history filters, the partial indexes on the status are only in schema.sql
+                @Index(
+                        name = "banking_transactions_account_type_idx",
+                        columnList = "banking_account_id, transaction_type, created_at DESC, id DESC"
+                ),
+                @Index(
+                        name = "banking_transactions_account_amount_idx",
+                        columnList = "banking_account_id, amount"
+                ),
+                @Index(
+                        name = "banking_transactions_card_amount_idx",
+                        columnList = "banking_card_id, amount"
+                )
+        }
+)
 public class BankingTransaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "banking_transactions_seq")
+    @SequenceGenerator(name = "banking_transactions_seq", sequenceName = "banking_transactions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -37,7 +63,8 @@ public class BankingTransaction {
     @Enumerated(EnumType.STRING)
     private BankingTransactionStatus transactionStatus;
 
-    @Column
+    // partition key of the table, a row never moves to another month
+    @Column(nullable = false, updatable = false)
     private Instant createdAt;
 
     @Column
@@ -5,39 +5,59 @@ import com.damian.xBank.banking.account.BankingAccountAuthorizationHelper;
 import com.damian.xBank.banking.account.BankingAccountRepository;
 import com.damian.xBank.banking.account.exception.BankingAccountAuthorizationException;
 import com.damian.xBank.banking.account.exception.BankingAccountNotFoundException;
+import com.damian.xBank.banking.ledger.LedgerEntry;
+import com.damian.xBank.banking.ledger.LedgerService;
 import com.damian.xBank.banking.transactions.exception.BankingTransactionException;
+import com.damian.xBank.banking.transactions.http.BankingAccountBatchTransferItem;
+import com.damian.xBank.banking.transactions.http.BankingAccountBatchTransferRequest;
 import com.damian.xBank.banking.transactions.http.BankingAccountTransactionRequest;
 import com.damian.xBank.common.exception.Exceptions;
 import com.damian.xBank.common.utils.AuthHelper;
 import com.damian.xBank.customer.Customer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class BankingTransactionAccountService {
     private final BankingAccountRepository bankingAccountRepository;
     private final BankingTransactionService bankingTransactionService;
+    private final LedgerService ledgerService;
+    private final BCryptPasswordEncoder bCryptPasswordEncoder;
 
     public BankingTransactionAccountService(
             BankingAccountRepository bankingAccountRepository,
-            BankingTransactionService bankingTransactionService
+            BankingTransactionService bankingTransactionService,
+            LedgerService ledgerService,
+            BCryptPasswordEncoder bCryptPasswordEncoder
     ) {
         this.bankingAccountRepository = bankingAccountRepository;
         this.bankingTransactionService = bankingTransactionService;
+        this.ledgerService = ledgerService;
+        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
     }
 
     // handle request BankingTransactionType and determine what to do.
+    @Transactional
     public BankingTransaction processTransactionRequest(
             Long fromAccountId,
             BankingAccountTransactionRequest request
     ) {
-        // BankingAccount to operate
-        BankingAccount bankingAccount = bankingAccountRepository.findById(fromAccountId).orElseThrow(
-                () -> new BankingAccountNotFoundException(
-                        Exceptions.ACCOUNT.NOT_FOUND
-                )
-        );
+        final Customer customer = AuthHelper.getLoggedCustomer();
+
+        // BankingAccount to operate, only if it belongs to the logged customer
+        BankingAccount bankingAccount = bankingAccountRepository
+                .findByIdAndCustomer_Id(fromAccountId, customer.getId())
+                .orElseThrow(
+                        () -> new BankingAccountNotFoundException(
+                                Exceptions.ACCOUNT.NOT_FOUND
+                        )
+                );
 
         return switch (request.transactionType()) {
             case TRANSFER_TO -> this.transferTo(
@@ -105,6 +125,7 @@ public class BankingTransactionAccountService {
     }
 
     // validates account status and does the transaction
+    @Transactional
     public BankingTransaction transferTo(
             BankingAccount fromBankingAccount,
             String toBankingAccountNumber,
@@ -123,13 +144,12 @@ public class BankingTransactionAccountService {
 
         final Customer customer = AuthHelper.getLoggedCustomer();
 
-        // check if the account belongs to this customer.
+        // the account is already scoped to this customer, check it can be operated
         BankingAccountAuthorizationHelper
                 .authorize(customer, fromBankingAccount)
-                .checkOwner()
                 .checkAccountStatus();
 
-        AuthHelper.validatePassword(customer, password);
+        AuthHelper.validatePassword(customer, password, bCryptPasswordEncoder);
 
         // check transfer is valid
         this.validateTransferOrElseThrow(fromBankingAccount, toBankingAccount, amount);
@@ -137,6 +157,17 @@ public class BankingTransactionAccountService {
         return this.transferTo(fromBankingAccount, toBankingAccount, amount, description);
     }
 
+    /**
+     * Moves the funds between both accounts in a single database transaction.
+     * <p>
+     * Each balance is changed with one conditional update, applied in ascending account id
+     * order, so two transfers going in opposite directions between the same accounts queue
+     * behind each other instead of deadlocking.
+     *
+     * @return the TRANSFER_TO transaction of the sender account
+     * @throws BankingAccountAuthorizationException if the sender has not enough funds
+     */
+    @Transactional
     public BankingTransaction transferTo(
             BankingAccount fromBankingAccount,
             BankingAccount toBankingAccount,
@@ -150,10 +181,6 @@ public class BankingTransactionAccountService {
                 description
         );
 
-        fromBankingAccount.subtractAmount(amount);
-        fromTransaction.setTransactionStatus(BankingTransactionStatus.COMPLETED);
-        this.bankingTransactionService.persistTransaction(fromTransaction);
-
         // create transfer transaction for the receiver of the funds
         BankingTransaction toTransaction = this.bankingTransactionService.createTransaction(
                 toBankingAccount,
@@ -162,14 +189,242 @@ public class BankingTransactionAccountService {
                 "Transfer from " + fromBankingAccount.getOwner().getFullName()
         );
 
-        toBankingAccount.deposit(amount);
+        // if the debit fails after the credit, the whole transaction is rolled back
+        if (fromBankingAccount.getId() < toBankingAccount.getId()) {
+            this.debit(fromBankingAccount, amount);
+            this.credit(toBankingAccount, amount);
+        } else {
+            this.credit(toBankingAccount, amount);
+            this.debit(fromBankingAccount, amount);
+        }
+
+        // each transaction keeps the balance of its account after the transfer
+        fromTransaction.setAccountBalance(fromBankingAccount.getBalance());
+        fromTransaction.setTransactionStatus(BankingTransactionStatus.COMPLETED);
+        this.bankingTransactionService.persistTransaction(fromTransaction);
+
+        toTransaction.setAccountBalance(toBankingAccount.getBalance());
         toTransaction.setTransactionStatus(BankingTransactionStatus.COMPLETED);
         this.bankingTransactionService.persistTransaction(toTransaction);
 
+        // both legs are one entry in the journal
+        this.ledgerService.record(description, fromTransaction, toTransaction);
+
         return fromTransaction;
     }
 
+    /**
+     * Transfers funds from one account to many accounts in a single database transaction.
+     * <p>
+     * The password is checked once, the destinations are loaded with one query and the sender
+     * is debited once with the total of the valid transfers. Each destination is credited once,
+     * in ascending account id order along with the sender. The transfers that cannot be done
+     * (unknown, closed or same account, other currency) are returned as FAILED and the rest
+     * still go through.
+     *
+     * @return the result of each transfer, in the same order as the request
+     * @throws BankingAccountAuthorizationException if the sender has not enough funds for the total
+     */
+    @Transactional
+    public BankingTransactionBatchDTO transferBatch(
+            Long fromAccountId,
+            BankingAccountBatchTransferRequest request
+    ) {
+        final Customer customer = AuthHelper.getLoggedCustomer();
+
+        // the sender account, only if it belongs to the logged customer
+        final BankingAccount fromBankingAccount = bankingAccountRepository
+                .findByIdAndCustomer_Id(fromAccountId, customer.getId())
+                .orElseThrow(
+                        () -> new BankingAccountNotFoundException(
+                                Exceptions.ACCOUNT.NOT_FOUND
+                        )
+                );
+
+        BankingAccountAuthorizationHelper
+                .authorize(customer, fromBankingAccount)
+                .checkAccountStatus();
+
+        AuthHelper.validatePassword(customer, request.password(), bCryptPasswordEncoder);
+
+        // all the destination accounts in one query
+        final Map<String, BankingAccount> toBankingAccounts = bankingAccountRepository
+                .findByAccountNumberIn(
+                        request.transfers()
+                               .stream()
+                               .map(BankingAccountBatchTransferItem::toBankingAccountNumber)
+                               .collect(Collectors.toSet())
+                )
+                .stream()
+                .collect(Collectors.toMap(BankingAccount::getAccountNumber, Function.identity()));
+
+        // amount credited to each destination, sorted by account id
+        final Map<BankingAccount, BigDecimal> credits = new TreeMap<>(Comparator.comparing(BankingAccount::getId));
+        final List<BankingTransaction> transactions = new ArrayList<>();
+        // per transfer, its TRANSFER_TO transaction or the reason it failed
+        final List<BankingTransaction> fromTransactions = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (BankingAccountBatchTransferItem transfer : request.transfers()) {
+            final BankingAccount toBankingAccount = toBankingAccounts.get(transfer.toBankingAccountNumber());
+            final String error = this.checkBatchTransfer(fromBankingAccount, toBankingAccount);
+
+            errors.add(error);
+
+            if (error != null) {
+                fromTransactions.add(null);
+                continue;
+            }
+
+            BankingTransaction fromTransaction = this.bankingTransactionService.createTransaction(
+                    fromBankingAccount,
+                    BankingTransactionType.TRANSFER_TO,
+                    transfer.amount(),
+                    request.description()
+            );
+
+            BankingTransaction toTransaction = this.bankingTransactionService.createTransaction(
+                    toBankingAccount,
+                    BankingTransactionType.TRANSFER_FROM,
+                    transfer.amount(),
+                    "Transfer from " + fromBankingAccount.getOwner().getFullName()
+            );
+
+            fromTransaction.setTransactionStatus(BankingTransactionStatus.COMPLETED);
+            toTransaction.setTransactionStatus(BankingTransactionStatus.COMPLETED);
+            transactions.add(fromTransaction);
+            transactions.add(toTransaction);
+            fromTransactions.add(fromTransaction);
+
+            credits.merge(toBankingAccount, transfer.amount(), BigDecimal::add);
+            total = total.add(transfer.amount());
+        }
+
+        if (!transactions.isEmpty()) {
+            this.checkFunds(fromBankingAccount, total);
+
+            // the sender is debited in its place in the id order, see transferTo
+            boolean debited = false;
+            for (Map.Entry<BankingAccount, BigDecimal> credit : credits.entrySet()) {
+                if (!debited && fromBankingAccount.getId() < credit.getKey().getId()) {
+                    this.debit(fromBankingAccount, total);
+                    debited = true;
+                }
+                this.credit(credit.getKey(), credit.getValue());
+            }
+
+            if (!debited) {
+                this.debit(fromBankingAccount, total);
+            }
+
+            this.setRunningBalances(transactions);
+            this.bankingTransactionService.persistTransactions(transactions);
+
+            // one entry per transfer, with its TRANSFER_TO and TRANSFER_FROM legs
+            final List<LedgerEntry> entries = new ArrayList<>();
+            for (int i = 0; i < transactions.size(); i += 2) {
+                entries.add(this.ledgerService.createEntry(
+                        request.description(),
+                        transactions.get(i),
+                        transactions.get(i + 1)
+                ));
+            }
+            this.ledgerService.recordAll(entries);
+        }
+
+        final List<BankingTransactionBatchItemDTO> results = new ArrayList<>();
+        for (int i = 0; i < request.transfers().size(); i++) {
+            final BankingAccountBatchTransferItem transfer = request.transfers().get(i);
+            final BankingTransaction fromTransaction = fromTransactions.get(i);
+
+            results.add(new BankingTransactionBatchItemDTO(
+                    transfer.toBankingAccountNumber(),
+                    transfer.amount(),
+                    fromTransaction == null ? BankingTransactionStatus.FAILED : fromTransaction.getTransactionStatus(),
+                    fromTransaction == null ? null : fromTransaction.getId(),
+                    errors.get(i)
+            ));
+        }
+
+        return new BankingTransactionBatchDTO(
+                fromBankingAccount.getId(),
+                fromBankingAccount.getBalance(),
+                results
+        );
+    }
+
+    // sets on each transaction the balance its account had right after it, going backwards
+    // from the final balance of each account
+    private void setRunningBalances(List<BankingTransaction> transactions) {
+        final Map<BankingAccount, BigDecimal> balances = new HashMap<>();
+
+        for (int i = transactions.size() - 1; i >= 0; i--) {
+            final BankingTransaction transaction = transactions.get(i);
+            final BankingAccount bankingAccount = transaction.getAssociatedBankingAccount();
+            final BigDecimal balance = balances.getOrDefault(bankingAccount, bankingAccount.getBalance());
+
+            transaction.setAccountBalance(balance);
+            balances.put(
+                    bankingAccount,
+                    transaction.getTransactionType() == BankingTransactionType.TRANSFER_TO
+                            ? balance.add(transaction.getAmount())
+                            : balance.subtract(transaction.getAmount())
+            );
+        }
+    }
+
+    // checks one transfer of a batch, returns why it cannot be done or null if it can
+    private String checkBatchTransfer(BankingAccount fromBankingAccount, BankingAccount toBankingAccount) {
+        if (toBankingAccount == null) {
+            return Exceptions.ACCOUNT.NOT_FOUND;
+        }
+
+        if (fromBankingAccount.getId().equals(toBankingAccount.getId())) {
+            return Exceptions.ACCOUNT.SAME_DESTINATION;
+        }
+
+        try {
+            this.checkCurrency(fromBankingAccount, toBankingAccount);
+
+            BankingAccountAuthorizationHelper
+                    .authorize(null, toBankingAccount)
+                    .checkAccountStatus();
+        } catch (BankingAccountAuthorizationException e) {
+            return e.getMessage();
+        }
+
+        return null;
+    }
+
+    // subtracts the amount from the account only if it has enough funds at the time of the update
+    private void debit(BankingAccount bankingAccount, BigDecimal amount) {
+        final BigDecimal balance = bankingAccountRepository
+                .debitBalance(bankingAccount.getId(), amount)
+                .orElseThrow(
+                        () -> new BankingAccountAuthorizationException(
+                                Exceptions.ACCOUNT.INSUFFICIENT_FUNDS
+                        )
+                );
+
+        bankingAccount.setBalance(balance);
+    }
+
+    // adds the amount to the account
+    private void credit(BankingAccount bankingAccount, BigDecimal amount) {
+        final BigDecimal balance = bankingAccountRepository
+                .creditBalance(bankingAccount.getId(), amount)
+                .orElseThrow(
+                        () -> new BankingAccountNotFoundException(
+                                Exceptions.ACCOUNT.NOT_FOUND
+                        )
+                );
+
+        bankingAccount.setBalance(balance);
+    }
+
     // validates account status and does the transaction
+    @Transactional
     public BankingTransaction deposit(
             BankingAccount account,
             String password,
@@ -184,19 +439,21 @@ public class BankingTransactionAccountService {
 
         final Customer customer = AuthHelper.getLoggedCustomer();
 
-        // check if the account belongs to this customer.
+        // the account is already scoped to this customer, check it can be operated
         BankingAccountAuthorizationHelper
                 .authorize(customer, account)
-                .checkOwner()
                 .checkAccountStatus();
 
-        // if the transaction is created, deduce the amount from balance
-        account.deposit(amount);
+        // if the transaction is created, add the amount to the balance
+        this.credit(account, amount);
 
         // transaction is completed
+        transaction.setAccountBalance(account.getBalance());
         transaction.setTransactionStatus(BankingTransactionStatus.COMPLETED);
 
-        // save the transaction
-        return bankingTransactionService.persistTransaction(transaction);
+        // save the transaction and its entry in the journal
+        final BankingTransaction storedTransaction = bankingTransactionService.persistTransaction(transaction);
+        ledgerService.record(storedTransaction.getDescription(), storedTransaction);
+        return storedTransaction;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+package com.damian.xBank.banking.transactions;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record BankingTransactionBatchDTO(
+        Long bankingAccountId,
+        BigDecimal accountBalance,
+        List<BankingTransactionBatchItemDTO> transfers
+) {
+}
@@ -0,0 +1,13 @@
+package com.damian.xBank.banking.transactions;
+
+import java.math.BigDecimal;
+
+// result of one transfer of a batch, transactionId is the TRANSFER_TO transaction when completed
+public record BankingTransactionBatchItemDTO(
+        String toBankingAccountNumber,
+        BigDecimal amount,
+        BankingTransactionStatus transactionStatus,
+        Long transactionId,
+        String error
+) {
+}
@@ -1,16 +1,19 @@
 package com.damian.xBank.banking.transactions;
 
-import com.damian.xBank.banking.card.BankingCard;
-import com.damian.xBank.banking.card.BankingCardAuthorizationHelper;
+import com.damian.xBank.banking.account.BankingAccountRepository;
+import com.damian.xBank.banking.card.BankingCardAuthorizationCache;
+import com.damian.xBank.banking.card.BankingCardAuthorizationSnapshot;
 import com.damian.xBank.banking.card.BankingCardRepository;
 import com.damian.xBank.banking.card.exception.BankingCardAuthorizationException;
-import com.damian.xBank.banking.card.exception.BankingCardNotFoundException;
+import com.damian.xBank.banking.ledger.LedgerService;
 import com.damian.xBank.banking.transactions.exception.BankingTransactionException;
 import com.damian.xBank.banking.transactions.http.BankingCardTransactionRequest;
 import com.damian.xBank.common.exception.Exceptions;
 import com.damian.xBank.common.utils.AuthHelper;
 import com.damian.xBank.customer.Customer;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 
@@ -18,117 +21,200 @@ import java.math.BigDecimal;
 public class BankingTransactionCardService {
 
     private final BankingCardRepository bankingCardRepository;
+    private final BankingAccountRepository bankingAccountRepository;
     private final BankingTransactionService bankingTransactionService;
+    private final BankingCardDailySpendCounters bankingCardDailySpendCounters;
+    private final BankingCardAuthorizationCache bankingCardAuthorizationCache;
+    private final BankingCardChargeGroupCommitter bankingCardChargeGroupCommitter;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerService ledgerService;
 
     public BankingTransactionCardService(
             BankingCardRepository bankingCardRepository,
-            BankingTransactionService bankingTransactionService
+            BankingAccountRepository bankingAccountRepository,
+            BankingTransactionService bankingTransactionService,
+            BankingCardDailySpendCounters bankingCardDailySpendCounters,
+            BankingCardAuthorizationCache bankingCardAuthorizationCache,
+            BankingCardChargeGroupCommitter bankingCardChargeGroupCommitter,
+            TransactionTemplate transactionTemplate,
+            LedgerService ledgerService
     ) {
         this.bankingCardRepository = bankingCardRepository;
+        this.bankingAccountRepository = bankingAccountRepository;
         this.bankingTransactionService = bankingTransactionService;
+        this.bankingCardDailySpendCounters = bankingCardDailySpendCounters;
+        this.bankingCardAuthorizationCache = bankingCardAuthorizationCache;
+        this.bankingCardChargeGroupCommitter = bankingCardChargeGroupCommitter;
+        this.transactionTemplate = transactionTemplate;
+        this.ledgerService = ledgerService;
     }
 
     // handle request BankingTransactionType and determine what to do.
+    // card charges go through the group commit when enabled, so the caller does not hold a
+    // connection while it waits. The rest runs in its own transaction.
     public BankingTransaction processTransactionRequest(
             Long cardId,
             BankingCardTransactionRequest request
     ) {
-        // BankingCard to operate
-        BankingCard bankingCard = bankingCardRepository.findById(cardId).orElseThrow(
-                () -> new BankingCardNotFoundException(
-                        Exceptions.CARD.NOT_FOUND
-                )
-        );
+        // what is needed to authorize the operation, the card itself is not loaded
+        BankingCardAuthorizationSnapshot bankingCard = bankingCardAuthorizationCache.get(cardId);
+
+        if (request.transactionType() == BankingTransactionType.CARD_CHARGE
+            && bankingCardChargeGroupCommitter.isEnabled()) {
+            return this.spendGrouped(bankingCard, request.cardPin(), request.amount(), request.description());
+        }
 
-        return switch (request.transactionType()) {
+        return transactionTemplate.execute(status -> switch (request.transactionType()) {
             case CARD_CHARGE -> this.spend(bankingCard, request.cardPin(), request.amount(), request.description());
             case WITHDRAWAL -> this.withdrawal(bankingCard, request.cardPin(), request.amount());
             default -> throw new BankingTransactionException(
                     Exceptions.TRANSACTION.INVALID_TYPE
             );
-        };
+        });
     }
 
     private void canCarryOperationOrElseThrow(
-            BankingCard card,
+            BankingCardAuthorizationSnapshot card,
             Customer customerLogged,
             String cardPIN,
             BigDecimal amount
     ) {
-        BankingCardAuthorizationHelper
-                .authorize(customerLogged, card)
+        card
                 // check customer authorization
-                .checkOwner()
+                .checkOwner(customerLogged)
                 // check if card is not disabled or locked
                 .checkStatus()
                 .checkPIN(cardPIN);
 
-        // check balance
-        this.checkFunds(card, amount);
+        // check the daily limit, the funds are checked by the debit
+        this.checkDailyLimit(card, amount);
     }
 
-    public void checkFunds(BankingCard card, BigDecimal amount) {
-        if (!card.hasEnoughFundsToSpend(amount)) {
+    // adds the amount to what the card spent today, or throws if it goes over the daily limit
+    private void checkDailyLimit(BankingCardAuthorizationSnapshot card, BigDecimal amount) {
+        if (!bankingCardDailySpendCounters.tryReserve(card.getBankingCardId(), amount, card.getDailyLimit())) {
             throw new BankingCardAuthorizationException(
-                    Exceptions.CARD.INSUFFICIENT_FUNDS
+                    Exceptions.CARD.DAILY_LIMIT_EXCEEDED
             );
         }
     }
 
+    // subtracts the amount from the card account only if it has enough funds at the time of the update
+    private BigDecimal chargeAmount(BankingCardAuthorizationSnapshot card, BigDecimal amount) {
+        return bankingAccountRepository
+                .debitBalance(card.getBankingAccountId(), amount)
+                .orElseThrow(
+                        () -> new BankingCardAuthorizationException(
+                                Exceptions.CARD.INSUFFICIENT_FUNDS
+                        )
+                );
+    }
+
+    // creates the transaction of the card with references to the card and its account, none is loaded
+    private BankingTransaction createTransaction(
+            BankingCardAuthorizationSnapshot card,
+            BankingTransactionType transactionType,
+            BigDecimal amount,
+            String description,
+            BigDecimal accountBalance
+    ) {
+        BankingTransaction transaction = new BankingTransaction(
+                bankingAccountRepository.getReferenceById(card.getBankingAccountId())
+        );
+        transaction.setBankingCard(bankingCardRepository.getReferenceById(card.getBankingCardId()));
+        transaction.setTransactionType(transactionType);
+        transaction.setAmount(amount);
+        transaction.setDescription(description);
+        transaction.setAccountBalance(accountBalance);
+        return transaction;
+    }
+
     // validates card status and does the transaction
+    @Transactional
     public BankingTransaction spend(
-            BankingCard card,
+            BankingCardAuthorizationSnapshot card,
             String cardPIN,
             BigDecimal amount,
             String description
     ) {
-        BankingTransaction transaction = this.bankingTransactionService.createTransaction(
-                card,
-                BankingTransactionType.CARD_CHARGE,
-                amount,
-                description
-        );
         final Customer customerLogged = AuthHelper.getLoggedCustomer();
 
         // run validations and throw if any throw exception
         this.canCarryOperationOrElseThrow(card, customerLogged, cardPIN, amount);
 
-        // if the transaction is created, deduce the amount from balance
-        card.chargeAmount(amount);
+        // deduce the amount from balance
+        final BigDecimal balance = this.chargeAmount(card, amount);
+
+        BankingTransaction transaction = this.createTransaction(
+                card,
+                BankingTransactionType.CARD_CHARGE,
+                amount,
+                description,
+                balance
+        );
 
         // transaction is completed
         transaction.setTransactionStatus(BankingTransactionStatus.COMPLETED);
 
-        // save the transaction
-        return bankingTransactionService.persistTransaction(transaction);
+        // save the transaction and its entry in the journal
+        final BankingTransaction storedTransaction = bankingTransactionService.persistTransaction(transaction);
+        ledgerService.record(storedTransaction.getDescription(), storedTransaction);
+        return storedTransaction;
+    }
+
+    // validates card status and queues the charge to be committed with others
+    public BankingTransaction spendGrouped(
+            BankingCardAuthorizationSnapshot card,
+            String cardPIN,
+            BigDecimal amount,
+            String description
+    ) {
+        final Customer customerLogged = AuthHelper.getLoggedCustomer();
+
+        // run validations and throw if any throw exception
+        this.canCarryOperationOrElseThrow(card, customerLogged, cardPIN, amount);
+
+        try {
+            return bankingCardChargeGroupCommitter.charge(
+                    card.getBankingCardId(),
+                    card.getBankingAccountId(),
+                    amount,
+                    description
+            );
+        } catch (RuntimeException e) {
+            // there is no transaction to roll back the daily spend
+            bankingCardDailySpendCounters.release(card.getBankingCardId(), amount);
+            throw e;
+        }
     }
 
     // withdraws money
+    @Transactional
     public BankingTransaction withdrawal(
-            BankingCard card,
+            BankingCardAuthorizationSnapshot card,
             String cardPIN,
             BigDecimal amount
     ) {
-        BankingTransaction transaction = this.bankingTransactionService.createTransaction(
-                card,
-                BankingTransactionType.WITHDRAWAL,
-                amount,
-                "ATM withdrawal."
-        );
-
         final Customer customerLogged = AuthHelper.getLoggedCustomer();
         this.canCarryOperationOrElseThrow(card, customerLogged, cardPIN, amount);
 
-        // check balance
-        this.checkFunds(card, amount);
+        // deduce the amount from balance
+        final BigDecimal balance = this.chargeAmount(card, amount);
 
-        // if the transaction is created, deduce the amount from balance
-        card.chargeAmount(amount);
+        BankingTransaction transaction = this.createTransaction(
+                card,
+                BankingTransactionType.WITHDRAWAL,
+                amount,
+                "ATM withdrawal.",
+                balance
+        );
 
         // transaction is completed
         transaction.setTransactionStatus(BankingTransactionStatus.COMPLETED);
 
-        // save the transaction
-        return bankingTransactionService.persistTransaction(transaction);
+        // save the transaction and its entry in the journal
+        final BankingTransaction storedTransaction = bankingTransactionService.persistTransaction(transaction);
+        ledgerService.record(storedTransaction.getDescription(), storedTransaction);
+        return storedTransaction;
     }
 }
@@ -1,35 +1,60 @@
 package com.damian.xBank.banking.transactions;
 
+import com.damian.xBank.banking.transactions.http.BankingAccountBatchTransferRequest;
 import com.damian.xBank.banking.transactions.http.BankingAccountTransactionRequest;
 import com.damian.xBank.banking.transactions.http.BankingCardTransactionRequest;
+import com.damian.xBank.banking.transactions.http.BankingTransactionHistoryFilterRequest;
+import com.damian.xBank.common.utils.AuthHelper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
 @RequestMapping("/api/v1")
 @RestController
 public class BankingTransactionController {
     private final BankingTransactionService bankingTransactionService;
     private final BankingTransactionAccountService bankingTransactionAccountService;
     private final BankingTransactionCardService bankingTransactionCardService;
+    private final BankingTransactionIdempotencyStore bankingTransactionIdempotencyStore;
+    private final BankingTransactionExportService bankingTransactionExportService;
+    private final BankingTransactionSearchService bankingTransactionSearchService;
 
     @Autowired
     public BankingTransactionController(
             BankingTransactionService bankingTransactionService,
             BankingTransactionAccountService bankingTransactionAccountService,
-            BankingTransactionCardService bankingTransactionCardService
+            BankingTransactionCardService bankingTransactionCardService,
+            BankingTransactionIdempotencyStore bankingTransactionIdempotencyStore,
+            BankingTransactionExportService bankingTransactionExportService,
+            BankingTransactionSearchService bankingTransactionSearchService
     ) {
         this.bankingTransactionService = bankingTransactionService;
         this.bankingTransactionAccountService = bankingTransactionAccountService;
         this.bankingTransactionCardService = bankingTransactionCardService;
+        this.bankingTransactionIdempotencyStore = bankingTransactionIdempotencyStore;
+        this.bankingTransactionExportService = bankingTransactionExportService;
+        this.bankingTransactionSearchService = bankingTransactionSearchService;
     }
 
     // endpoint for logged customer to get all transactions of a BankingCard
@@ -40,9 +65,7 @@ public class BankingTransactionController {
             @PageableDefault(size = 2, sort = "createdAt", direction = Sort.Direction.DESC)
             Pageable pageable
     ) {
-        Page<BankingTransaction> transactions = bankingTransactionService.getBankingCardTransactions(id, pageable);
-        Page<BankingTransactionDTO> transactionDTOS = BankingTransactionDTOMapper
-                .toBankingTransactionPageDTO(transactions);
+        Page<BankingTransactionDTO> transactionDTOS = bankingTransactionService.getBankingCardTransactions(id, pageable);
 
         return ResponseEntity
                 .status(HttpStatus.OK)
@@ -57,25 +80,160 @@ public class BankingTransactionController {
             @PageableDefault(size = 2, sort = "createdAt", direction = Sort.Direction.DESC)
             Pageable pageable
     ) {
-        Page<BankingTransaction> transactions = bankingTransactionService.getBankingAccountTransactions(id, pageable);
-        Page<BankingTransactionDTO> transactionDTOS = BankingTransactionDTOMapper
-                .toBankingTransactionPageDTO(transactions);
+        Page<BankingTransactionDTO> transactionDTOS = bankingTransactionService.getBankingAccountTransactions(id, pageable);
 
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(transactionDTOS);
     }
 
+    // endpoint for logged customer to browse the transactions of a BankingCard using a cursor
+    // optionally filtered by date range, type, status and amount range
+    @GetMapping("/customers/me/banking/cards/{id}/transactions/history")
+    public ResponseEntity<?> getBankingCardTransactionHistory(
+            @PathVariable @NotNull @Positive
+            Long id,
+            @RequestParam(required = false)
+            String cursor,
+            @RequestParam(defaultValue = "20") @Positive @Max(100)
+            int size,
+            @Validated
+            BankingTransactionHistoryFilterRequest filter
+    ) {
+        Slice<BankingTransactionDTO> transactions = bankingTransactionService
+                .getBankingCardTransactionHistory(id, filter.toFilter(), cursor, size);
+        BankingTransactionHistoryDTO historyDTO = BankingTransactionDTOMapper
+                .toBankingTransactionHistoryDTO(transactions);
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(historyDTO);
+    }
+
+    // endpoint for logged customer to browse the transactions of a BankingAccount using a cursor
+    // optionally filtered by date range, type, status and amount range
+    @GetMapping("/customers/me/banking/accounts/{id}/transactions/history")
+    public ResponseEntity<?> getBankingAccountTransactionHistory(
+            @PathVariable @NotNull @Positive
+            Long id,
+            @RequestParam(required = false)
+            String cursor,
+            @RequestParam(defaultValue = "20") @Positive @Max(100)
+            int size,
+            @Validated
+            BankingTransactionHistoryFilterRequest filter
+    ) {
+        Slice<BankingTransactionDTO> transactions = bankingTransactionService
+                .getBankingAccountTransactionHistory(id, filter.toFilter(), cursor, size);
+        BankingTransactionHistoryDTO historyDTO = BankingTransactionDTOMapper
+                .toBankingTransactionHistoryDTO(transactions);
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(historyDTO);
+    }
+
+    // endpoint for logged customer to search the descriptions of the transactions of a BankingAccount
+    @GetMapping("/customers/me/banking/accounts/{id}/transactions/search")
+    public ResponseEntity<?> searchBankingAccountTransactions(
+            @PathVariable @NotNull @Positive
+            Long id,
+            @RequestParam @NotBlank @Size(max = 200)
+            String q,
+            @RequestParam(defaultValue = "RELEVANCE")
+            BankingTransactionSearchOrder order,
+            @RequestParam(required = false)
+            String cursor,
+            @RequestParam(defaultValue = "20") @Positive @Max(100)
+            int size
+    ) {
+        BankingTransactionSearchResult result = bankingTransactionSearchService
+                .searchBankingAccountTransactions(id, q, order, cursor, size);
+        BankingTransactionHistoryDTO searchDTO = BankingTransactionDTOMapper
+                .toBankingTransactionSearchDTO(result);
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(searchDTO);
+    }
+
+    // endpoint for logged customer to search the descriptions of the transactions of all their accounts
+    @GetMapping("/customers/me/banking/transactions/search")
+    public ResponseEntity<?> searchCustomerTransactions(
+            @RequestParam @NotBlank @Size(max = 200)
+            String q,
+            @RequestParam(defaultValue = "RELEVANCE")
+            BankingTransactionSearchOrder order,
+            @RequestParam(required = false)
+            String cursor,
+            @RequestParam(defaultValue = "20") @Positive @Max(100)
+            int size
+    ) {
+        BankingTransactionSearchResult result = bankingTransactionSearchService
+                .searchCustomerTransactions(q, order, cursor, size);
+        BankingTransactionHistoryDTO searchDTO = BankingTransactionDTOMapper
+                .toBankingTransactionSearchDTO(result);
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(searchDTO);
+    }
+
+    // endpoint for logged customer to download the full history of a BankingAccount as CSV or NDJSON
+    // rows are streamed from the database to the response as they are read
+    @GetMapping("/customers/me/banking/accounts/{id}/transactions/export")
+    public void exportBankingAccountTransactions(
+            @PathVariable @NotNull @Positive
+            Long id,
+            @RequestParam(defaultValue = "CSV")
+            BankingTransactionExportFormat format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate to,
+            HttpServletResponse response
+    ) throws IOException {
+        BankingTransactionExport export = bankingTransactionExportService
+                .exportBankingAccountTransactions(id, from, to, format);
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(
+                HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"account-" + id + "-transactions." + format.getExtension() + "\""
+        );
+        export.writeTo(response.getOutputStream());
+    }
+
     // endpoint for logged customer to do card transactions
+    // retries sent with the same Idempotency-Key get the first transaction back
     @PostMapping("/customers/me/banking/cards/{id}/transactions")
     public ResponseEntity<?> customerBankingCardTransaction(
             @PathVariable @NotNull @Positive
             Long id,
+            @RequestHeader(value = "Idempotency-Key", required = false) @Size(max = 255)
+            String idempotencyKey,
             @Validated @RequestBody
             BankingCardTransactionRequest request
     ) {
-        BankingTransaction transaction = bankingTransactionCardService.processTransactionRequest(id, request);
-        BankingTransactionDTO transactionDTO = BankingTransactionDTOMapper.toBankingTransactionDTO(transaction);
+        // the card pin is left out of the fingerprint
+        Object fingerprint = Arrays.asList(
+                "card",
+                id,
+                request.transactionType(),
+                request.description(),
+                fingerprintAmount(request.amount())
+        );
+
+        BankingTransactionDTO transactionDTO = bankingTransactionIdempotencyStore.execute(
+                AuthHelper.getLoggedCustomer().getId(),
+                idempotencyKey,
+                fingerprint,
+                () -> BankingTransactionDTOMapper.toBankingTransactionDTO(
+                        bankingTransactionCardService.processTransactionRequest(id, request)
+                )
+        );
 
         return ResponseEntity
                 .status(HttpStatus.CREATED)
@@ -83,20 +241,58 @@ public class BankingTransactionController {
     }
 
     // endpoint for logged customer to do card transactions
+    // retries sent with the same Idempotency-Key get the first transaction back
     @PostMapping("/customers/me/banking/accounts/{id}/transactions")
     public ResponseEntity<?> customerBankingAccountTransaction(
             @PathVariable @NotNull @Positive
             Long id,
+            @RequestHeader(value = "Idempotency-Key", required = false) @Size(max = 255)
+            String idempotencyKey,
             @Validated @RequestBody
             BankingAccountTransactionRequest request
     ) {
-        BankingTransaction transaction = bankingTransactionAccountService.processTransactionRequest(id, request);
-        BankingTransactionDTO transactionDTO = BankingTransactionDTOMapper.toBankingTransactionDTO(transaction);
+        // the password is left out of the fingerprint
+        Object fingerprint = Arrays.asList(
+                "account",
+                id,
+                request.transactionType(),
+                request.toBankingAccountNumber(),
+                request.description(),
+                fingerprintAmount(request.amount())
+        );
+
+        BankingTransactionDTO transactionDTO = bankingTransactionIdempotencyStore.execute(
+                AuthHelper.getLoggedCustomer().getId(),
+                idempotencyKey,
+                fingerprint,
+                () -> BankingTransactionDTOMapper.toBankingTransactionDTO(
+                        bankingTransactionAccountService.processTransactionRequest(id, request)
+                )
+        );
 
         return ResponseEntity
                 .status(HttpStatus.CREATED)
                 .body(transactionDTO);
     }
 
-}
+    // endpoint for logged customer to transfer from one account to many accounts at once.
+    // each transfer has its own result, the ones that failed did not move any funds.
+    @PostMapping("/customers/me/banking/accounts/{id}/transactions/batch")
+    public ResponseEntity<?> customerBankingAccountBatchTransfer(
+            @PathVariable @NotNull @Positive
+            Long id,
+            @Validated @RequestBody
+            BankingAccountBatchTransferRequest request
+    ) {
+        BankingTransactionBatchDTO batchDTO = bankingTransactionAccountService.transferBatch(id, request);
 
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(batchDTO);
+    }
+
+    // 100, 100.0 and 100.00 are the same amount for a retry
+    private static BigDecimal fingerprintAmount(BigDecimal amount) {
+        return amount == null ? null : amount.stripTrailingZeros();
+    }
+}
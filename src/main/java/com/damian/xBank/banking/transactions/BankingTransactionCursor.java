@@ -0,0 +1,44 @@
+package com.damian.xBank.banking.transactions;
+
+import com.damian.xBank.banking.transactions.exception.BankingTransactionInvalidCursorException;
+import com.damian.xBank.common.exception.Exceptions;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position of the last transaction returned in a history page.
+ * <p>
+ * Transactions are ordered by (createdAt DESC, id DESC), so the next page starts
+ * right after this position. It is sent to clients as an opaque token.
+ */
+public record BankingTransactionCursor(Instant createdAt, Long id) {
+    private static final String SEPARATOR = "_";
+
+    public static BankingTransactionCursor of(BankingTransaction transaction) {
+        return new BankingTransactionCursor(transaction.getCreatedAt(), transaction.getId());
+    }
+
+    public static BankingTransactionCursor of(BankingTransactionDTO transaction) {
+        return new BankingTransactionCursor(transaction.createdAt(), transaction.id());
+    }
+
+    // decodes a token previously generated by encode()
+    public static BankingTransactionCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR);
+            return new BankingTransactionCursor(Instant.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new BankingTransactionInvalidCursorException(
+                    Exceptions.TRANSACTION.INVALID_CURSOR
+            );
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
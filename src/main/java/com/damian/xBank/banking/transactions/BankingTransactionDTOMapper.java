@@ -1,7 +1,8 @@
 package com.damian.xBank.banking.transactions;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -14,7 +15,7 @@ public class BankingTransactionDTOMapper {
                 accountTransaction.getAssociatedBankingAccount().getId(),
                 accountTransaction.getBankingCard() != null ? accountTransaction.getBankingCard().getId() : null,
                 accountTransaction.getAmount(),
-                accountTransaction.getAssociatedBankingAccount().getBalance(),
+                accountTransaction.getAccountBalance(),
                 accountTransaction.getTransactionType(),
                 accountTransaction.getTransactionStatus(),
                 accountTransaction.getDescription(),
@@ -29,10 +30,41 @@ public class BankingTransactionDTOMapper {
         ).collect(Collectors.toSet());
     }
 
-    public static Page<BankingTransactionDTO> toBankingTransactionPageDTO(Page<BankingTransaction> accountTransactions) {
-        return accountTransactions.map(
-                BankingTransactionDTOMapper::toBankingTransactionDTO
+    public static BankingTransactionHistoryDTO toBankingTransactionHistoryDTO(Slice<BankingTransactionDTO> accountTransactions) {
+        // the cursor points to the last transaction returned, only if there is more to fetch
+        String nextCursor = null;
+        if (accountTransactions.hasNext()) {
+            nextCursor = BankingTransactionCursor
+                    .of(accountTransactions.getContent().getLast())
+                    .encode();
+        }
+
+        return new BankingTransactionHistoryDTO(
+                accountTransactions.getContent(),
+                nextCursor
+        );
+    }
+
+    public static BankingTransactionHistoryDTO toBankingTransactionSearchDTO(BankingTransactionSearchResult result) {
+        return new BankingTransactionHistoryDTO(
+                result.transactions().stream().map(BankingTransactionDTOMapper::toBankingTransactionDTO).toList(),
+                result.nextCursor()
         );
     }
 
+    public static BankingTransactionPartitionDTO toBankingTransactionPartitionDTO(BankingTransactionPartition partition) {
+        return new BankingTransactionPartitionDTO(
+                partition.month(),
+                partition.tableName(),
+                partition.archiveFileName()
+        );
+    }
+
+    public static List<BankingTransactionPartitionDTO> toBankingTransactionPartitionListDTO(
+            List<BankingTransactionPartition> partitions
+    ) {
+        return partitions.stream()
+                         .map(BankingTransactionDTOMapper::toBankingTransactionPartitionDTO)
+                         .toList();
+    }
 }
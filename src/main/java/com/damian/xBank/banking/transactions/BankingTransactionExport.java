@@ -0,0 +1,10 @@
+package com.damian.xBank.banking.transactions;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// an authorized export, ready to be written to the response
+@FunctionalInterface
+public interface BankingTransactionExport {
+    void writeTo(OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,162 @@
+package com.damian.xBank.banking.transactions;
+
+import com.damian.xBank.banking.account.BankingAccountRepository;
+import com.damian.xBank.banking.account.exception.BankingAccountNotFoundException;
+import com.damian.xBank.common.exception.Exceptions;
+import com.damian.xBank.common.utils.AuthHelper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Full-history statements of an account as CSV or NDJSON.
+ * <p>
+ * The rows are read through a server-side cursor fetching "fetch-size" rows at a time
+ * and written to the response as they arrive, so the memory used does not depend on
+ * the size of the history.
+ */
+@Service
+public class BankingTransactionExportService {
+    private static final String CSV_HEADER =
+            "id,created_at,transaction_type,transaction_status,amount,account_balance,banking_card_id,description";
+
+    private final BankingAccountRepository bankingAccountRepository;
+    private final BankingTransactionRepository bankingTransactionRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+
+    public BankingTransactionExportService(
+            BankingAccountRepository bankingAccountRepository,
+            BankingTransactionRepository bankingTransactionRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${banking.transactions.export.fetch-size:1000}")
+            int fetchSize
+    ) {
+        this.bankingAccountRepository = bankingAccountRepository;
+        this.bankingTransactionRepository = bankingTransactionRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Checks that the logged customer owns the account and prepares its statement.
+     *
+     * @param accountId the id of the account
+     * @param from      first day included, or null for the whole history
+     * @param to        last day included, or null for up to today
+     * @param format    the format of the rows
+     * @return the export, nothing is read until it is written
+     */
+    public BankingTransactionExport exportBankingAccountTransactions(
+            Long accountId,
+            LocalDate from,
+            LocalDate to,
+            BankingTransactionExportFormat format
+    ) {
+        // only the accounts of the logged customer, the account itself is not loaded
+        if (!bankingAccountRepository.existsByIdAndCustomer_Id(accountId, AuthHelper.getLoggedCustomer().getId())) {
+            throw new BankingAccountNotFoundException(
+                    Exceptions.ACCOUNT.NOT_FOUND
+            );
+        }
+
+        // days are taken in UTC, the upper bound is the start of the next day
+        final Instant fromInstant = from != null ? from.atStartOfDay(ZoneOffset.UTC).toInstant() : null;
+        final Instant toInstant = to != null ? to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant() : null;
+
+        return outputStream -> {
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+            switch (format) {
+                case CSV -> this.writeCsv(accountId, fromInstant, toInstant, writer);
+                case NDJSON -> this.writeNdjson(accountId, fromInstant, toInstant, writer);
+            }
+            writer.flush();
+        };
+    }
+
+    private void writeCsv(Long accountId, Instant from, Instant to, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        this.stream(accountId, from, to, line -> {
+            writer.write(String.valueOf(line.id()));
+            writer.write(',');
+            writer.write(String.valueOf(line.createdAt()));
+            writer.write(',');
+            writer.write(line.transactionType().name());
+            writer.write(',');
+            writer.write(line.transactionStatus().name());
+            writer.write(',');
+            writer.write(line.amount().toPlainString());
+            writer.write(',');
+            writer.write(line.accountBalance() != null ? line.accountBalance().toPlainString() : "");
+            writer.write(',');
+            writer.write(line.bankingCardId() != null ? String.valueOf(line.bankingCardId()) : "");
+            writer.write(',');
+            writer.write(csvField(line.description()));
+            writer.write('\n');
+        });
+    }
+
+    private void writeNdjson(Long accountId, Instant from, Instant to, Writer writer) throws IOException {
+        final ObjectWriter lineWriter = objectMapper.writerFor(BankingTransactionStatementLine.class);
+
+        this.stream(accountId, from, to, line -> {
+            writer.write(lineWriter.writeValueAsString(line));
+            writer.write('\n');
+        });
+    }
+
+    // runs the cursor in a read-only transaction, so the driver fetches the rows in batches
+    private void stream(Long accountId, Instant from, Instant to, LineWriter lineWriter) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> bankingTransactionRepository.streamAccountStatement(
+                    accountId,
+                    from,
+                    to,
+                    fetchSize,
+                    line -> {
+                        try {
+                            lineWriter.write(line);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+            ));
+        } catch (UncheckedIOException e) {
+            // the client went away, stop reading
+            throw e.getCause();
+        }
+    }
+
+    // quotes the field when it holds a separator, a quote or a line break
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface LineWriter {
+        void write(BankingTransactionStatementLine line) throws IOException;
+    }
+}
@@ -0,0 +1,27 @@
+package com.damian.xBank.banking.transactions;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Optional filters of the transaction history, null fields are not applied.
+ *
+ * @param from      first instant included
+ * @param to        first instant excluded
+ * @param type      only transactions of this type
+ * @param status    only transactions in this status
+ * @param minAmount smallest amount included
+ * @param maxAmount largest amount included
+ */
+public record BankingTransactionFilter(
+        Instant from,
+        Instant to,
+        BankingTransactionType type,
+        BankingTransactionStatus status,
+        BigDecimal minAmount,
+        BigDecimal maxAmount
+) {
+    public static BankingTransactionFilter none() {
+        return new BankingTransactionFilter(null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,10 @@
+package com.damian.xBank.banking.transactions;
+
+import java.util.List;
+
+// a page of transactions and the token to request the next one (null on the last page)
+public record BankingTransactionHistoryDTO(
+        List<BankingTransactionDTO> content,
+        String nextCursor
+) {
+}
@@ -0,0 +1,46 @@
+package com.damian.xBank.banking.transactions;
+
+import org.springframework.data.domain.Slice;
+
+public interface BankingTransactionHistoryRepository {
+    // the columns of BankingTransactionDTO, so the transactions are read without loading the entities
+    String DTO_SELECT_JPQL = "SELECT new com.damian.xBank.banking.transactions.BankingTransactionDTO("
+                             + "t.id, t.bankingAccount.id, t.bankingCard.id, t.amount, t.accountBalance,"
+                             + " t.transactionType, t.transactionStatus, t.description, t.createdAt, t.updatedAt)"
+                             + " FROM BankingTransaction t";
+
+    /**
+     * Keyset page of the account transactions, ordered by (createdAt DESC, id DESC).
+     * <p>
+     * Only the transactions of accounts owned by the customer are read, so the page is empty
+     * when the account belongs to someone else.
+     * <p>
+     * Only the filters that are set end up in the query, so each combination gets a plan
+     * that can use the matching index in schema.sql.
+     *
+     * @param bankingAccountId the id of the account
+     * @param customerId       the id of the customer that owns the account
+     * @param filter           the filters to apply
+     * @param after            the position of the last transaction of the previous page, or null
+     * @param size             the size of the page
+     * @return the page
+     */
+    Slice<BankingTransactionDTO> findAccountHistory(
+            Long bankingAccountId,
+            Long customerId,
+            BankingTransactionFilter filter,
+            BankingTransactionCursor after,
+            int size
+    );
+
+    /**
+     * Same as {@link #findAccountHistory} for the transactions of a card.
+     */
+    Slice<BankingTransactionDTO> findCardHistory(
+            Long bankingCardId,
+            Long customerId,
+            BankingTransactionFilter filter,
+            BankingTransactionCursor after,
+            int size
+    );
+}
@@ -0,0 +1,111 @@
+package com.damian.xBank.banking.transactions;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BankingTransactionHistoryRepositoryImpl implements BankingTransactionHistoryRepository {
+    private static final String ORDER_JPQL = " ORDER BY t.createdAt DESC, t.id DESC";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<BankingTransactionDTO> findAccountHistory(
+            Long bankingAccountId,
+            Long customerId,
+            BankingTransactionFilter filter,
+            BankingTransactionCursor after,
+            int size
+    ) {
+        return this.findHistory("t.bankingAccount.id", bankingAccountId, customerId, filter, after, size);
+    }
+
+    @Override
+    public Slice<BankingTransactionDTO> findCardHistory(
+            Long bankingCardId,
+            Long customerId,
+            BankingTransactionFilter filter,
+            BankingTransactionCursor after,
+            int size
+    ) {
+        return this.findHistory("t.bankingCard.id", bankingCardId, customerId, filter, after, size);
+    }
+
+    private Slice<BankingTransactionDTO> findHistory(
+            String ownerPath,
+            Long ownerId,
+            Long customerId,
+            BankingTransactionFilter filter,
+            BankingTransactionCursor after,
+            int size
+    ) {
+        final StringBuilder jpql = new StringBuilder(DTO_SELECT_JPQL)
+                .append(" WHERE ")
+                .append(ownerPath)
+                .append(" = :ownerId")
+                .append(" AND t.bankingAccount.customer.id = :customerId");
+        final Map<String, Object> parameters = new HashMap<>();
+        parameters.put("ownerId", ownerId);
+        parameters.put("customerId", customerId);
+
+        // a condition for each filter set, so the planner never sees an "OR :param IS NULL"
+        if (filter.from() != null) {
+            jpql.append(" AND t.createdAt >= :from");
+            parameters.put("from", filter.from());
+        }
+
+        if (filter.to() != null) {
+            jpql.append(" AND t.createdAt < :to");
+            parameters.put("to", filter.to());
+        }
+
+        if (filter.type() != null) {
+            jpql.append(" AND t.transactionType = :type");
+            parameters.put("type", filter.type());
+        }
+
+        if (filter.status() != null) {
+            jpql.append(" AND t.transactionStatus = :status");
+            parameters.put("status", filter.status());
+        }
+
+        if (filter.minAmount() != null) {
+            jpql.append(" AND t.amount >= :minAmount");
+            parameters.put("minAmount", filter.minAmount());
+        }
+
+        if (filter.maxAmount() != null) {
+            jpql.append(" AND t.amount <= :maxAmount");
+            parameters.put("maxAmount", filter.maxAmount());
+        }
+
+        if (after != null) {
+            jpql.append(" AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id))");
+            parameters.put("createdAt", after.createdAt());
+            parameters.put("id", after.id());
+        }
+        jpql.append(ORDER_JPQL);
+
+        final TypedQuery<BankingTransactionDTO> query = entityManager
+                .createQuery(jpql.toString(), BankingTransactionDTO.class)
+                .setMaxResults(size + 1);
+        parameters.forEach(query::setParameter);
+
+        // one more row than asked tells if there is a next page
+        final List<BankingTransactionDTO> transactions = new ArrayList<>(query.getResultList());
+        final boolean hasNext = transactions.size() > size;
+        if (hasNext) {
+            transactions.remove(size);
+        }
+        return new SliceImpl<>(transactions, PageRequest.ofSize(size), hasNext);
+    }
+}
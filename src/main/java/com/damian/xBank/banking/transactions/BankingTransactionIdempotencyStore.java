@@ -0,0 +1,101 @@
+package com.damian.xBank.banking.transactions;
+
+import com.damian.xBank.banking.transactions.exception.BankingTransactionIdempotencyKeyReusedException;
+import com.damian.xBank.common.exception.Exceptions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the result of the transactions sent with an "Idempotency-Key" header, keyed by
+ * customer and key, so a retried request gets the stored transaction back instead of being
+ * processed (and charged) again.
+ * <p>
+ * Each key is bound to a fingerprint of the request without its credentials. Reusing a key
+ * for a different request is rejected. A retry that arrives while the first request is still
+ * running waits for its result. Failed requests are not stored, so they can be retried with
+ * the same key. Entries expire after a TTL and the store is bounded in size.
+ */
+@Component
+public class BankingTransactionIdempotencyStore {
+    private final Cache<IdempotencyKey, StoredTransaction> transactions;
+
+    public BankingTransactionIdempotencyStore(
+            @Value("${banking.transactions.idempotency.max-size:100000}")
+            long maxSize,
+            @Value("${banking.transactions.idempotency.ttl:24h}")
+            Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.transactions = Caffeine.newBuilder()
+                                    .maximumSize(maxSize)
+                                    .expireAfterWrite(ttl)
+                                    .recordStats()
+                                    .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, transactions, "transactionIdempotencyKeys");
+    }
+
+    // runs the transaction once per customer and key, replays return the stored result.
+    // Without key the transaction just runs.
+    public BankingTransactionDTO execute(
+            Long customerId,
+            String idempotencyKey,
+            Object fingerprint,
+            Supplier<BankingTransactionDTO> transaction
+    ) {
+        if (idempotencyKey == null) {
+            return transaction.get();
+        }
+
+        IdempotencyKey key = new IdempotencyKey(customerId, idempotencyKey);
+        StoredTransaction current = new StoredTransaction(fingerprint, new CompletableFuture<>());
+        StoredTransaction stored = transactions.asMap().putIfAbsent(key, current);
+
+        if (stored != null) {
+            return replay(stored, fingerprint);
+        }
+
+        try {
+            BankingTransactionDTO result = transaction.get();
+            current.result().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            transactions.asMap().remove(key, current);
+            current.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private BankingTransactionDTO replay(StoredTransaction stored, Object fingerprint) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw new BankingTransactionIdempotencyKeyReusedException(
+                    Exceptions.TRANSACTION.IDEMPOTENCY_KEY_REUSED
+            );
+        }
+
+        try {
+            return stored.result().join();
+        } catch (CompletionException e) {
+            // the first request failed while this one was waiting
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private record IdempotencyKey(Long customerId, String key) {
+    }
+
+    private record StoredTransaction(Object fingerprint, CompletableFuture<BankingTransactionDTO> result) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.damian.xBank.banking.transactions;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One month of banking_transactions, stored in the table banking_transactions_yYYYYmMM.
+ */
+public record BankingTransactionPartition(YearMonth month) {
+    private static final Pattern NAME = Pattern.compile("banking_transactions_y(\\d{4})m(\\d{2})");
+
+    // the partition stored in the table, if the name is one of a partition
+    public static Optional<BankingTransactionPartition> fromTableName(String tableName) {
+        final Matcher matcher = NAME.matcher(tableName);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new BankingTransactionPartition(YearMonth.of(
+                Integer.parseInt(matcher.group(1)),
+                Integer.parseInt(matcher.group(2))
+        )));
+    }
+
+    public String tableName() {
+        return String.format("banking_transactions_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+
+    public String archiveFileName() {
+        return this.tableName() + ".csv.gz";
+    }
+
+    // first day included
+    public LocalDate from() {
+        return month.atDay(1);
+    }
+
+    // first day excluded
+    public LocalDate to() {
+        return month.plusMonths(1).atDay(1);
+    }
+}
@@ -0,0 +1,10 @@
+package com.damian.xBank.banking.transactions;
+
+import java.time.YearMonth;
+
+public record BankingTransactionPartitionDTO(
+        YearMonth month,
+        String tableName,
+        String archiveFileName
+) {
+}
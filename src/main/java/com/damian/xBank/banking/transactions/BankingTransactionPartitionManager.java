@@ -0,0 +1,302 @@
+package com.damian.xBank.banking.transactions;
+
+import com.damian.xBank.banking.transactions.exception.BankingTransactionNotFoundException;
+import com.damian.xBank.common.exception.Exceptions;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the monthly partitions of banking_transactions (see schema.sql).
+ * <p>
+ * Every night, and when the application starts, the partitions of the current month and the
+ * next "months-ahead" months are created. Months older than "archive-after-months" are copied
+ * to gzipped CSV files in "archive-dir" and their partitions detached and dropped. A partition
+ * is only dropped once its file is synced to disk and holds as many rows as the partition. An
+ * archived month can be restored on demand, it is attached again and shows up in every query
+ * until the next archival run.
+ * <p>
+ * Only works on PostgreSQL, it is disabled unless "enabled" is set. "archive-dir" must be on
+ * storage that outlives the application host, the dropped months only exist there.
+ */
+@Component
+public class BankingTransactionPartitionManager {
+    private static final Logger log = LoggerFactory.getLogger(BankingTransactionPartitionManager.class);
+    private static final String COLUMNS = "id, banking_account_id, banking_card_id, account_balance, transaction_type,"
+                                          + " amount, description, transaction_status, created_at, updated_at";
+    private static final String PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+            + " WHERE i.inhparent = 'public.banking_transactions'::regclass";
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int archiveAfterMonths;
+    private final Path archiveDir;
+
+    public BankingTransactionPartitionManager(
+            DataSource dataSource,
+            @Value("${banking.transactions.partitions.enabled:false}")
+            boolean enabled,
+            @Value("${banking.transactions.partitions.months-ahead:3}")
+            int monthsAhead,
+            @Value("${banking.transactions.partitions.archive-after-months:24}")
+            int archiveAfterMonths,
+            @Value("${banking.transactions.partitions.archive-dir:archive/transactions}")
+            String archiveDir
+    ) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.archiveAfterMonths = archiveAfterMonths;
+        this.archiveDir = Paths.get(archiveDir);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled) {
+            this.createPartitions();
+        }
+    }
+
+    @Scheduled(cron = "${banking.transactions.partitions.cron:0 30 3 * * *}")
+    public void maintain() {
+        if (enabled) {
+            this.createPartitions();
+            this.archivePartitions();
+        }
+    }
+
+    // creates the partitions of this month and the next ones that do not exist yet
+    public List<BankingTransactionPartition> createPartitions() {
+        final YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        final List<BankingTransactionPartition> created = new ArrayList<>();
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            final List<BankingTransactionPartition> existing = this.findPartitions(statement);
+
+            for (int i = 0; i <= monthsAhead; i++) {
+                final BankingTransactionPartition partition = new BankingTransactionPartition(current.plusMonths(i));
+                if (existing.contains(partition)) {
+                    continue;
+                }
+
+                statement.execute(String.format(
+                        "CREATE TABLE IF NOT EXISTS public.%s PARTITION OF public.banking_transactions"
+                        + " FOR VALUES FROM ('%s') TO ('%s')",
+                        partition.tableName(),
+                        partition.from(),
+                        partition.to()
+                ));
+                created.add(partition);
+                log.info("Created transactions partition {}.", partition.tableName());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create the transactions partitions.", e);
+        }
+        return created;
+    }
+
+    // moves the partitions older than the retention to archive files
+    public List<BankingTransactionPartition> archivePartitions() {
+        final YearMonth oldestKept = YearMonth.now(ZoneOffset.UTC).minusMonths(archiveAfterMonths);
+        final List<BankingTransactionPartition> archived = new ArrayList<>();
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (BankingTransactionPartition partition : this.findPartitions(statement)) {
+                if (!partition.month().isBefore(oldestKept)) {
+                    continue;
+                }
+
+                // the month is not written anymore, the file is complete before the rows are dropped
+                this.copyOut(connection, statement, partition);
+                statement.execute(String.format(
+                        "ALTER TABLE public.banking_transactions DETACH PARTITION public.%s CONCURRENTLY",
+                        partition.tableName()
+                ));
+                statement.execute(String.format("DROP TABLE public.%s", partition.tableName()));
+                archived.add(partition);
+                log.info("Archived transactions partition {}.", partition.tableName());
+            }
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Could not archive the transactions partitions.", e);
+        }
+        return archived;
+    }
+
+    // the months in the archive
+    public List<BankingTransactionPartition> getArchives() {
+        if (!Files.isDirectory(archiveDir)) {
+            return List.of();
+        }
+
+        try (Stream<Path> files = Files.list(archiveDir)) {
+            return files.map(file -> file.getFileName().toString())
+                        .filter(name -> name.endsWith(".csv.gz"))
+                        .map(name -> BankingTransactionPartition.fromTableName(name.replace(".csv.gz", "")))
+                        .flatMap(Optional::stream)
+                        .sorted((a, b) -> a.month().compareTo(b.month()))
+                        .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // loads an archived month back and attaches it, so it is queried again
+    public BankingTransactionPartition restorePartition(YearMonth month) {
+        final BankingTransactionPartition partition = new BankingTransactionPartition(month);
+        final Path file = archiveDir.resolve(partition.archiveFileName());
+
+        if (!Files.exists(file)) {
+            throw new BankingTransactionNotFoundException(
+                    Exceptions.TRANSACTION.ARCHIVE_NOT_FOUND
+            );
+        }
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             InputStream input = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            // all or nothing, a failed restore leaves no table behind
+            connection.setAutoCommit(false);
+            try {
+                statement.execute(String.format(
+                        "CREATE TABLE public.%s (LIKE public.banking_transactions INCLUDING DEFAULTS INCLUDING GENERATED)",
+                        partition.tableName()
+                ));
+
+                this.copyManager(connection).copyIn(String.format(
+                        "COPY public.%s (%s) FROM STDIN (FORMAT csv, HEADER true)",
+                        partition.tableName(),
+                        COLUMNS
+                ), input);
+
+                statement.execute(String.format(
+                        "ALTER TABLE public.banking_transactions ATTACH PARTITION public.%s FOR VALUES FROM ('%s') TO ('%s')",
+                        partition.tableName(),
+                        partition.from(),
+                        partition.to()
+                ));
+                connection.commit();
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                // the connection goes back to the pool, the next borrower expects auto-commit
+                connection.setAutoCommit(true);
+            }
+            log.info("Restored transactions partition {}.", partition.tableName());
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Could not restore the transactions partition " + month + ".", e);
+        }
+        return partition;
+    }
+
+    private List<BankingTransactionPartition> findPartitions(Statement statement) throws SQLException {
+        final List<BankingTransactionPartition> partitions = new ArrayList<>();
+        try (ResultSet result = statement.executeQuery(PARTITIONS_SQL)) {
+            while (result.next()) {
+                BankingTransactionPartition.fromTableName(result.getString(1)).ifPresent(partitions::add);
+            }
+        }
+        return partitions;
+    }
+
+    // writes to a temporary file first, so a failed copy never leaves a partial archive. The file
+    // only replaces the archive once it is on disk and holds every row of the partition.
+    private void copyOut(Connection connection, Statement statement, BankingTransactionPartition partition)
+            throws SQLException, IOException {
+        Files.createDirectories(archiveDir);
+        final Path file = archiveDir.resolve(partition.archiveFileName());
+        final Path temporary = archiveDir.resolve(partition.archiveFileName() + ".tmp");
+        final long rows = this.countRows(statement, partition);
+
+        final long copied;
+        try (OutputStream output = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            copied = this.copyManager(connection).copyOut(String.format(
+                    "COPY public.%s (%s) TO STDOUT (FORMAT csv, HEADER true)",
+                    partition.tableName(),
+                    COLUMNS
+            ), output);
+        }
+        this.sync(temporary);
+
+        final long archived = this.countArchivedRows(temporary);
+        if (copied != rows || archived != rows) {
+            Files.deleteIfExists(temporary);
+            throw new IllegalStateException(String.format(
+                    "The archive of %s has %d rows, %d were copied and the partition has %d.",
+                    partition.tableName(),
+                    archived,
+                    copied,
+                    rows
+            ));
+        }
+
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // the rename is on disk too
+        this.sync(archiveDir);
+    }
+
+    private long countRows(Statement statement, BankingTransactionPartition partition) throws SQLException {
+        try (ResultSet result = statement.executeQuery(
+                String.format("SELECT count(*) FROM public.%s", partition.tableName())
+        )) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    // rows in the archive without the header, reading it to the end also checks the gzip CRC.
+    // Line breaks inside quoted descriptions do not end a row.
+    private long countArchivedRows(Path file) throws IOException {
+        long lines = 0;
+        boolean quoted = false;
+        try (InputStream input = new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file)))) {
+            int c;
+            while ((c = input.read()) != -1) {
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == '\n' && !quoted) {
+                    lines++;
+                }
+            }
+        }
+        return lines - 1;
+    }
+
+    // flushes the file, or the entries of the directory, to the disk
+    private void sync(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private CopyManager copyManager(Connection connection) throws SQLException {
+        return connection.unwrap(PGConnection.class).getCopyAPI();
+    }
+}
@@ -3,13 +3,50 @@ package com.damian.xBank.banking.transactions;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-@Repository
-public interface BankingTransactionRepository extends JpaRepository<BankingTransaction, Long> {
-    //    Set<BankingTransaction> findByBankingCardId(Long bankingCardId);
-    Page<BankingTransaction> findByBankingCardId(Long bankingCardId, Pageable pageable);
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
+@Repository
+public interface BankingTransactionRepository extends JpaRepository<BankingTransaction, Long>,
+        BankingTransactionHistoryRepository, BankingTransactionSearchRepository, BankingTransactionStatementRepository {
     Page<BankingTransaction> findByBankingAccountId(Long bankingAccountId, Pageable pageable);
-}
 
+    // pages of transactions read straight into DTOs, only from the accounts of the customer
+    @Query(value = DTO_SELECT_JPQL + " WHERE t.bankingCard.id = :bankingCardId"
+                   + " AND t.bankingAccount.customer.id = :customerId",
+           countQuery = "SELECT COUNT(t) FROM BankingTransaction t WHERE t.bankingCard.id = :bankingCardId"
+                        + " AND t.bankingAccount.customer.id = :customerId")
+    Page<BankingTransactionDTO> findDTOsByBankingCardIdAndCustomerId(
+            @Param("bankingCardId") Long bankingCardId,
+            @Param("customerId") Long customerId,
+            Pageable pageable
+    );
+
+    @Query(value = DTO_SELECT_JPQL + " WHERE t.bankingAccount.id = :bankingAccountId"
+                   + " AND t.bankingAccount.customer.id = :customerId",
+           countQuery = "SELECT COUNT(t) FROM BankingTransaction t WHERE t.bankingAccount.id = :bankingAccountId"
+                        + " AND t.bankingAccount.customer.id = :customerId")
+    Page<BankingTransactionDTO> findDTOsByBankingAccountIdAndCustomerId(
+            @Param("bankingAccountId") Long bankingAccountId,
+            @Param("customerId") Long customerId,
+            Pageable pageable
+    );
+
+    // amount spent with each card since the given time, used to rebuild the daily spend counters
+    @Query("SELECT new com.damian.xBank.banking.transactions.BankingCardSpend(t.bankingCard.id, SUM(t.amount))"
+           + " FROM BankingTransaction t WHERE t.bankingCard IS NOT NULL"
+           + " AND t.transactionType IN :transactionTypes"
+           + " AND t.transactionStatus = :transactionStatus"
+           + " AND t.createdAt >= :since"
+           + " GROUP BY t.bankingCard.id")
+    List<BankingCardSpend> sumCardSpendSince(
+            @Param("transactionTypes") Collection<BankingTransactionType> transactionTypes,
+            @Param("transactionStatus") BankingTransactionStatus transactionStatus,
+            @Param("since") Instant since
+    );
+}
@@ -0,0 +1,44 @@
+package com.damian.xBank.banking.transactions;
+
+import com.damian.xBank.banking.transactions.exception.BankingTransactionInvalidCursorException;
+import com.damian.xBank.common.exception.Exceptions;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position of the last transaction returned in a search page.
+ * <p>
+ * Results are ordered by (rank DESC, id DESC) or by (createdAt DESC, id DESC),
+ * so both are kept. It is sent to clients as an opaque token.
+ */
+public record BankingTransactionSearchCursor(double rank, Instant createdAt, Long id) {
+    private static final String SEPARATOR = "_";
+
+    public static BankingTransactionSearchCursor of(BankingTransactionSearchHit hit) {
+        return new BankingTransactionSearchCursor(hit.rank(), hit.createdAt(), hit.id());
+    }
+
+    // decodes a token previously generated by encode()
+    public static BankingTransactionSearchCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR);
+            return new BankingTransactionSearchCursor(
+                    Double.parseDouble(parts[0]),
+                    Instant.parse(parts[1]),
+                    Long.parseLong(parts[2])
+            );
+        } catch (RuntimeException e) {
+            throw new BankingTransactionInvalidCursorException(
+                    Exceptions.TRANSACTION.INVALID_CURSOR
+            );
+        }
+    }
+
+    public String encode() {
+        String raw = rank + SEPARATOR + createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
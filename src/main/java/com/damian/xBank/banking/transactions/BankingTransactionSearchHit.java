@@ -0,0 +1,7 @@
+package com.damian.xBank.banking.transactions;
+
+import java.time.Instant;
+
+// a transaction matching the search, with what is needed to order it and resume after it
+public record BankingTransactionSearchHit(Long id, Instant createdAt, double rank) {
+}
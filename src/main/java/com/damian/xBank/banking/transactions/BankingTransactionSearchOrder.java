@@ -0,0 +1,8 @@
+package com.damian.xBank.banking.transactions;
+
+public enum BankingTransactionSearchOrder {
+    // best matches first
+    RELEVANCE,
+    // newest first
+    RECENCY
+}
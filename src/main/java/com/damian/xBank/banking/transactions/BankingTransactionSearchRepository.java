@@ -0,0 +1,28 @@
+package com.damian.xBank.banking.transactions;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BankingTransactionSearchRepository {
+    /**
+     * Finds the transactions of the accounts whose description matches the query.
+     * <p>
+     * On PostgreSQL the query is matched against the "search_vector" column and its GIN index
+     * (see schema.sql) and ranked with ts_rank. Other databases fall back to matching every word
+     * of the query with LIKE, with the same rank for every hit.
+     *
+     * @param bankingAccountIds the accounts to search in, not empty
+     * @param query             the words to look for, in web search syntax on PostgreSQL
+     * @param order             how the hits are ordered
+     * @param after             the position of the last hit of the previous page, or null
+     * @param limit             the max number of hits
+     * @return the hits, in order
+     */
+    List<BankingTransactionSearchHit> searchDescriptions(
+            Collection<Long> bankingAccountIds,
+            String query,
+            BankingTransactionSearchOrder order,
+            BankingTransactionSearchCursor after,
+            int limit
+    );
+}
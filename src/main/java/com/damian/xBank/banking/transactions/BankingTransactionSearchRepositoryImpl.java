@@ -0,0 +1,125 @@
+package com.damian.xBank.banking.transactions;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+public class BankingTransactionSearchRepositoryImpl implements BankingTransactionSearchRepository {
+    // 'simple' does not stem, descriptions are mostly names of people and shops in any language
+    private static final String FULL_TEXT_HITS_SQL =
+            "SELECT t.id, t.created_at, ts_rank(t.search_vector, q.query) AS search_rank"
+            + " FROM banking_transactions t, websearch_to_tsquery('simple', ?) AS q(query)"
+            + " WHERE t.search_vector @@ q.query AND t.banking_account_id IN (%s)";
+    private static final String LIKE_HITS_SQL =
+            "SELECT t.id, t.created_at, 1.0 AS search_rank"
+            + " FROM banking_transactions t WHERE t.banking_account_id IN (%s)";
+    private static final String LIKE_WORD_SQL = " AND LOWER(t.description) LIKE ? ESCAPE '\\'";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Boolean fullText;
+
+    @Override
+    public List<BankingTransactionSearchHit> searchDescriptions(
+            Collection<Long> bankingAccountIds,
+            String query,
+            BankingTransactionSearchOrder order,
+            BankingTransactionSearchCursor after,
+            int limit
+    ) {
+        final String accountIds = String.join(",", Collections.nCopies(bankingAccountIds.size(), "?"));
+        final List<Object> parameters = new ArrayList<>();
+        final StringBuilder hits;
+
+        if (this.isFullText()) {
+            hits = new StringBuilder(String.format(FULL_TEXT_HITS_SQL, accountIds));
+            parameters.add(query);
+            parameters.addAll(bankingAccountIds);
+        } else {
+            hits = new StringBuilder(String.format(LIKE_HITS_SQL, accountIds));
+            parameters.addAll(bankingAccountIds);
+            for (String word : query.toLowerCase(Locale.ROOT).trim().split("\\s+")) {
+                hits.append(LIKE_WORD_SQL);
+                parameters.add("%" + escapeLike(word) + "%");
+            }
+        }
+
+        final StringBuilder sql = new StringBuilder("SELECT id, created_at, search_rank FROM (")
+                .append(hits)
+                .append(") hits");
+
+        switch (order) {
+            case RELEVANCE -> {
+                if (after != null) {
+                    sql.append(" WHERE search_rank < ? OR (search_rank = ? AND id < ?)");
+                    parameters.add(after.rank());
+                    parameters.add(after.rank());
+                    parameters.add(after.id());
+                }
+                sql.append(" ORDER BY search_rank DESC, id DESC");
+            }
+            case RECENCY -> {
+                if (after != null) {
+                    // bound as UTC like Hibernate does, never through the zone of the JVM
+                    final OffsetDateTime createdAt = OffsetDateTime.ofInstant(after.createdAt(), ZoneOffset.UTC);
+                    sql.append(" WHERE created_at < ? OR (created_at = ? AND id < ?)");
+                    parameters.add(createdAt);
+                    parameters.add(createdAt);
+                    parameters.add(after.id());
+                }
+                sql.append(" ORDER BY created_at DESC, id DESC");
+            }
+        }
+        sql.append(" LIMIT ?");
+        parameters.add(limit);
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+
+                final List<BankingTransactionSearchHit> result = new ArrayList<>(limit);
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        result.add(new BankingTransactionSearchHit(
+                                rows.getLong(1),
+                                rows.getObject(2, OffsetDateTime.class).toInstant(),
+                                rows.getDouble(3)
+                        ));
+                    }
+                }
+                return result;
+            }
+        });
+    }
+
+    // the search_vector column only exists in the PostgreSQL schema
+    private boolean isFullText() {
+        if (fullText == null) {
+            fullText = entityManager
+                    .getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect() instanceof PostgreSQLDialect;
+        }
+        return fullText;
+    }
+
+    private static String escapeLike(String word) {
+        return word.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
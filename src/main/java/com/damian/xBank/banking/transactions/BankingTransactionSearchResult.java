@@ -0,0 +1,10 @@
+package com.damian.xBank.banking.transactions;
+
+import java.util.List;
+
+// a page of search results and the token to request the next one (null on the last page)
+public record BankingTransactionSearchResult(
+        List<BankingTransaction> transactions,
+        String nextCursor
+) {
+}
@@ -0,0 +1,98 @@
+package com.damian.xBank.banking.transactions;
+
+import com.damian.xBank.banking.account.BankingAccountRepository;
+import com.damian.xBank.banking.account.exception.BankingAccountNotFoundException;
+import com.damian.xBank.common.exception.Exceptions;
+import com.damian.xBank.common.utils.AuthHelper;
+import com.damian.xBank.customer.Customer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Searches the descriptions of the transactions of one account or of every account of the
+ * logged customer, with keyset pagination over the relevance or the recency order.
+ */
+@Service
+public class BankingTransactionSearchService {
+    private final BankingAccountRepository bankingAccountRepository;
+    private final BankingTransactionRepository bankingTransactionRepository;
+
+    public BankingTransactionSearchService(
+            BankingAccountRepository bankingAccountRepository,
+            BankingTransactionRepository bankingTransactionRepository
+    ) {
+        this.bankingAccountRepository = bankingAccountRepository;
+        this.bankingTransactionRepository = bankingTransactionRepository;
+    }
+
+    // search in one account of the logged customer
+    @Transactional(readOnly = true)
+    public BankingTransactionSearchResult searchBankingAccountTransactions(
+            Long accountId,
+            String query,
+            BankingTransactionSearchOrder order,
+            String cursor,
+            int size
+    ) {
+        // only the accounts of the logged customer, the account itself is not loaded
+        if (!bankingAccountRepository.existsByIdAndCustomer_Id(accountId, AuthHelper.getLoggedCustomer().getId())) {
+            throw new BankingAccountNotFoundException(
+                    Exceptions.ACCOUNT.NOT_FOUND
+            );
+        }
+
+        return this.search(List.of(accountId), query, order, cursor, size);
+    }
+
+    // search in every account of the logged customer
+    @Transactional(readOnly = true)
+    public BankingTransactionSearchResult searchCustomerTransactions(
+            String query,
+            BankingTransactionSearchOrder order,
+            String cursor,
+            int size
+    ) {
+        final Customer customer = AuthHelper.getLoggedCustomer();
+        final List<Long> accountIds = bankingAccountRepository.findIdsByCustomerId(customer.getId());
+
+        if (accountIds.isEmpty()) {
+            return new BankingTransactionSearchResult(List.of(), null);
+        }
+        return this.search(accountIds, query, order, cursor, size);
+    }
+
+    private BankingTransactionSearchResult search(
+            Collection<Long> accountIds,
+            String query,
+            BankingTransactionSearchOrder order,
+            String cursor,
+            int size
+    ) {
+        final BankingTransactionSearchCursor position = cursor != null
+                ? BankingTransactionSearchCursor.decode(cursor)
+                : null;
+
+        // one more hit than asked tells if there is a next page
+        final List<BankingTransactionSearchHit> hits = bankingTransactionRepository
+                .searchDescriptions(accountIds, query, order, position, size + 1);
+        final boolean hasNext = hits.size() > size;
+        final List<BankingTransactionSearchHit> pageHits = hasNext ? hits.subList(0, size) : hits;
+
+        // the hits only carry the ids, the transactions are loaded in one query and put back in order
+        final Map<Long, BankingTransaction> transactions = bankingTransactionRepository
+                .findAllById(pageHits.stream().map(BankingTransactionSearchHit::id).toList())
+                .stream()
+                .collect(Collectors.toMap(BankingTransaction::getId, Function.identity()));
+
+        return new BankingTransactionSearchResult(
+                pageHits.stream().map(hit -> transactions.get(hit.id())).toList(),
+                hasNext ? BankingTransactionSearchCursor.of(pageHits.getLast()).encode() : null
+        );
+    }
+}
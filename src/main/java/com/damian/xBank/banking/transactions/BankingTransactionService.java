@@ -9,12 +9,16 @@ import com.damian.xBank.common.exception.Exceptions;
 import com.damian.xBank.common.utils.AuthHelper;
 import com.damian.xBank.customer.Customer;
 import com.damian.xBank.customer.CustomerRole;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 
 @Service
 public class BankingTransactionService {
@@ -26,12 +30,68 @@ public class BankingTransactionService {
         this.bankingTransactionRepository = bankingTransactionRepository;
     }
 
-    public Page<BankingTransaction> getBankingCardTransactions(Long bankingCardId, Pageable pageable) {
-        return bankingTransactionRepository.findByBankingCardId(bankingCardId, pageable);
+    // transactions of a card of the logged customer
+    @Transactional(readOnly = true)
+    public Page<BankingTransactionDTO> getBankingCardTransactions(Long bankingCardId, Pageable pageable) {
+        final Customer customerLogged = AuthHelper.getLoggedCustomer();
+
+        return bankingTransactionRepository.findDTOsByBankingCardIdAndCustomerId(
+                bankingCardId,
+                customerLogged.getId(),
+                pageable
+        );
+    }
+
+    // transactions of an account of the logged customer
+    @Transactional(readOnly = true)
+    public Page<BankingTransactionDTO> getBankingAccountTransactions(Long accountId, Pageable pageable) {
+        final Customer customerLogged = AuthHelper.getLoggedCustomer();
+
+        return bankingTransactionRepository.findDTOsByBankingAccountIdAndCustomerId(
+                accountId,
+                customerLogged.getId(),
+                pageable
+        );
+    }
+
+    // returns the next page of card transactions of the logged customer after the cursor
+    // (first page if cursor is null)
+    @Transactional(readOnly = true)
+    public Slice<BankingTransactionDTO> getBankingCardTransactionHistory(
+            Long bankingCardId,
+            BankingTransactionFilter filter,
+            String cursor,
+            int size
+    ) {
+        final Customer customerLogged = AuthHelper.getLoggedCustomer();
+        final BankingTransactionCursor position = cursor != null ? BankingTransactionCursor.decode(cursor) : null;
+        return bankingTransactionRepository.findCardHistory(
+                bankingCardId,
+                customerLogged.getId(),
+                filter,
+                position,
+                size
+        );
     }
 
-    public Page<BankingTransaction> getBankingAccountTransactions(Long accountId, Pageable pageable) {
-        return bankingTransactionRepository.findByBankingAccountId(accountId, pageable);
+    // returns the next page of account transactions of the logged customer after the cursor
+    // (first page if cursor is null)
+    @Transactional(readOnly = true)
+    public Slice<BankingTransactionDTO> getBankingAccountTransactionHistory(
+            Long accountId,
+            BankingTransactionFilter filter,
+            String cursor,
+            int size
+    ) {
+        final Customer customerLogged = AuthHelper.getLoggedCustomer();
+        final BankingTransactionCursor position = cursor != null ? BankingTransactionCursor.decode(cursor) : null;
+        return bankingTransactionRepository.findAccountHistory(
+                accountId,
+                customerLogged.getId(),
+                filter,
+                position,
+                size
+        );
     }
 
     public BankingTransaction createTransaction(
@@ -40,12 +100,14 @@ public class BankingTransactionService {
             BigDecimal amount,
             String description
     ) {
-        return this.createTransaction(
+        BankingTransaction transaction = this.createTransaction(
                 fromBankingCard.getAssociatedBankingAccount(),
                 transactionType,
                 amount,
                 description
         );
+        transaction.setBankingCard(fromBankingCard);
+        return transaction;
     }
 
     public BankingTransaction createTransaction(
@@ -63,7 +125,8 @@ public class BankingTransactionService {
     }
 
     /**
-     * Stores a banking account transaction by adding it to the owner's account and persisting the account.
+     * Stores a banking account transaction by adding it to the owner's account and persisting the transaction.
+     * The account transactions are not loaded if they were not loaded already.
      *
      * @param transaction the banking account transaction to store
      * @return the stored banking account transaction
@@ -73,14 +136,33 @@ public class BankingTransactionService {
         transaction.setCreatedAt(Instant.now());
         transaction.setUpdatedAt(Instant.now());
 
-        // Add the transaction to the owners account
-        bankingAccount.addAccountTransaction(transaction);
+        // Add the transaction to the owners account, unless the account is a reference never loaded
+        if (Hibernate.isInitialized(bankingAccount)) {
+            bankingAccount.addAccountTransaction(transaction);
+        }
 
-        // Persist the owner's account with the new transaction
-        // Return the stored transaction
+        // Persist the new transaction and return it
         return bankingTransactionRepository.save(transaction);
     }
 
+    /**
+     * Stores new transactions, Hibernate sends their inserts in JDBC batches on flush.
+     * <p>
+     * Unlike {@link #persistTransaction(BankingTransaction)} the transactions are not added to
+     * their accounts.
+     *
+     * @param transactions the banking account transactions to store
+     * @return the stored transactions with their ids
+     */
+    public List<BankingTransaction> persistTransactions(List<BankingTransaction> transactions) {
+        final Instant now = Instant.now();
+        transactions.forEach(transaction -> {
+            transaction.setCreatedAt(now);
+            transaction.setUpdatedAt(now);
+        });
+
+        return bankingTransactionRepository.saveAll(transactions);
+    }
 
     // it changes the status of the transaction
     public BankingTransaction updateTransactionStatus(
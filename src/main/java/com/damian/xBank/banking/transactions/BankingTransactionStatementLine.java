@@ -0,0 +1,17 @@
+package com.damian.xBank.banking.transactions;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// one row of an account statement, read straight from the cursor without building an entity
+public record BankingTransactionStatementLine(
+        Long id,
+        Instant createdAt,
+        BankingTransactionType transactionType,
+        BankingTransactionStatus transactionStatus,
+        BigDecimal amount,
+        BigDecimal accountBalance,
+        Long bankingCardId,
+        String description
+) {
+}
@@ -0,0 +1,26 @@
+package com.damian.xBank.banking.transactions;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+public interface BankingTransactionStatementRepository {
+    /**
+     * Reads the transactions of the account in chronological order through a server-side
+     * cursor, handing each row to the consumer as soon as it is read.
+     * <p>
+     * Must run inside a transaction, otherwise the driver fetches every row at once.
+     *
+     * @param bankingAccountId the id of the account
+     * @param from             first instant included, or null for no lower bound
+     * @param to               first instant excluded, or null for no upper bound
+     * @param fetchSize        rows fetched from the database in each round trip
+     * @param consumer         receives each row
+     */
+    void streamAccountStatement(
+            Long bankingAccountId,
+            Instant from,
+            Instant to,
+            int fetchSize,
+            Consumer<BankingTransactionStatementLine> consumer
+    );
+}
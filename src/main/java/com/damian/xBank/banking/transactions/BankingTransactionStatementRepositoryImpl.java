@@ -0,0 +1,86 @@
+package com.damian.xBank.banking.transactions;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// created_at is bound and read as UTC, like Hibernate does, never through the zone of the JVM
+public class BankingTransactionStatementRepositoryImpl implements BankingTransactionStatementRepository {
+    private static final String SELECT_SQL =
+            "SELECT id, created_at, transaction_type, transaction_status, amount, account_balance,"
+            + " banking_card_id, description FROM banking_transactions WHERE banking_account_id = ?";
+    private static final String ORDER_SQL = " ORDER BY created_at, id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void streamAccountStatement(
+            Long bankingAccountId,
+            Instant from,
+            Instant to,
+            int fetchSize,
+            Consumer<BankingTransactionStatementLine> consumer
+    ) {
+        final StringBuilder sql = new StringBuilder(SELECT_SQL);
+        final List<Object> parameters = new ArrayList<>();
+        parameters.add(bankingAccountId);
+
+        if (from != null) {
+            sql.append(" AND created_at >= ?");
+            parameters.add(OffsetDateTime.ofInstant(from, ZoneOffset.UTC));
+        }
+
+        if (to != null) {
+            sql.append(" AND created_at < ?");
+            parameters.add(OffsetDateTime.ofInstant(to, ZoneOffset.UTC));
+        }
+        sql.append(ORDER_SQL);
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY
+            )) {
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        consumer.accept(this.toLine(result));
+                    }
+                }
+            }
+        });
+    }
+
+    private BankingTransactionStatementLine toLine(ResultSet result) throws SQLException {
+        final OffsetDateTime createdAt = result.getObject("created_at", OffsetDateTime.class);
+        final long bankingCardId = result.getLong("banking_card_id");
+        final boolean withoutCard = result.wasNull();
+
+        return new BankingTransactionStatementLine(
+                result.getLong("id"),
+                createdAt != null ? createdAt.toInstant() : null,
+                BankingTransactionType.valueOf(result.getString("transaction_type")),
+                BankingTransactionStatus.valueOf(result.getString("transaction_status")),
+                result.getBigDecimal("amount"),
+                result.getBigDecimal("account_balance"),
+                withoutCard ? null : bankingCardId,
+                result.getString("description")
+        );
+    }
+}
@@ -3,6 +3,9 @@ package com.damian.xBank.banking.transactions.admin;
 import com.damian.xBank.banking.transactions.BankingTransaction;
 import com.damian.xBank.banking.transactions.BankingTransactionDTO;
 import com.damian.xBank.banking.transactions.BankingTransactionDTOMapper;
+import com.damian.xBank.banking.transactions.BankingTransactionPartition;
+import com.damian.xBank.banking.transactions.BankingTransactionPartitionDTO;
+import com.damian.xBank.banking.transactions.BankingTransactionPartitionManager;
 import com.damian.xBank.banking.transactions.BankingTransactionService;
 import com.damian.xBank.banking.transactions.http.BankingTransactionUpdateStatusRequest;
 import jakarta.validation.constraints.Positive;
@@ -12,14 +15,22 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.YearMonth;
+import java.util.List;
+
 @RequestMapping("/api/v1")
 @RestController
 public class BankingTransactionAdminController {
     private final BankingTransactionService bankingTransactionService;
+    private final BankingTransactionPartitionManager bankingTransactionPartitionManager;
 
     @Autowired
-    public BankingTransactionAdminController(BankingTransactionService bankingTransactionService) {
+    public BankingTransactionAdminController(
+            BankingTransactionService bankingTransactionService,
+            BankingTransactionPartitionManager bankingTransactionPartitionManager
+    ) {
         this.bankingTransactionService = bankingTransactionService;
+        this.bankingTransactionPartitionManager = bankingTransactionPartitionManager;
     }
 
     //     endpoint to patch a transaction field
@@ -42,5 +53,28 @@ public class BankingTransactionAdminController {
                 .status(HttpStatus.ACCEPTED)
                 .body(bankingTransactionDTO);
     }
-}
 
+    // endpoint to list the archived months of transactions
+    @GetMapping("/admin/banking/transactions/archives")
+    public ResponseEntity<?> getTransactionArchives() {
+        List<BankingTransactionPartitionDTO> archivesDTO = BankingTransactionDTOMapper
+                .toBankingTransactionPartitionListDTO(bankingTransactionPartitionManager.getArchives());
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(archivesDTO);
+    }
+
+    // endpoint to restore an archived month of transactions (month as yyyy-MM)
+    @PostMapping("/admin/banking/transactions/archives/{month}/restore")
+    public ResponseEntity<?> restoreTransactionArchive(
+            @PathVariable
+            YearMonth month
+    ) {
+        BankingTransactionPartition partition = bankingTransactionPartitionManager.restorePartition(month);
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(BankingTransactionDTOMapper.toBankingTransactionPartitionDTO(partition));
+    }
+}
@@ -0,0 +1,9 @@
+package com.damian.xBank.banking.transactions.exception;
+
+import com.damian.xBank.common.exception.ApplicationException;
+
+public class BankingTransactionBusyException extends ApplicationException {
+    public BankingTransactionBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.damian.xBank.banking.transactions.exception;
+
+public class BankingTransactionIdempotencyKeyReusedException extends BankingTransactionException {
+    public BankingTransactionIdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
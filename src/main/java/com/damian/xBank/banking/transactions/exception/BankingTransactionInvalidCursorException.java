@@ -0,0 +1,7 @@
+package com.damian.xBank.banking.transactions.exception;
+
+public class BankingTransactionInvalidCursorException extends BankingTransactionException {
+    public BankingTransactionInvalidCursorException(String message) {
+        super(message);
+    }
+}
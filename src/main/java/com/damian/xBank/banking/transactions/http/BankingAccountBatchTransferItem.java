@@ -0,0 +1,17 @@
+package com.damian.xBank.banking.transactions.http;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+public record BankingAccountBatchTransferItem(
+        @NotBlank(message = "Destination account number must not be blank")
+        String toBankingAccountNumber,
+
+        @NotNull(message = "Amount must not be null")
+        @Positive
+        BigDecimal amount
+) {
+}
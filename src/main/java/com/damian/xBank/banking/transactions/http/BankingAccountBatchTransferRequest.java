@@ -0,0 +1,21 @@
+package com.damian.xBank.banking.transactions.http;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BankingAccountBatchTransferRequest(
+        @NotEmpty(message = "Transfers must not be empty")
+        @Size(max = 500, message = "A batch cannot have more than 500 transfers")
+        List<@Valid BankingAccountBatchTransferItem> transfers,
+
+        @NotNull(message = "Description must not be null")
+        String description,
+
+        @NotNull(message = "Password must not be null")
+        String password
+) {
+}
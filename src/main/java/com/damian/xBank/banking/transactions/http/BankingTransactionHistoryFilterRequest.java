@@ -0,0 +1,42 @@
+package com.damian.xBank.banking.transactions.http;
+
+import com.damian.xBank.banking.transactions.BankingTransactionFilter;
+import com.damian.xBank.banking.transactions.BankingTransactionStatus;
+import com.damian.xBank.banking.transactions.BankingTransactionType;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+// optional query parameters of the history endpoints
+public record BankingTransactionHistoryFilterRequest(
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate from,
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate to,
+
+        BankingTransactionType type,
+
+        BankingTransactionStatus status,
+
+        @PositiveOrZero
+        BigDecimal minAmount,
+
+        @PositiveOrZero
+        BigDecimal maxAmount
+) {
+    // days are taken in UTC, "to" is included up to the end of the day
+    public BankingTransactionFilter toFilter() {
+        return new BankingTransactionFilter(
+                from != null ? from.atStartOfDay(ZoneOffset.UTC).toInstant() : null,
+                to != null ? to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant() : null,
+                type,
+                status,
+                minAmount,
+                maxAmount
+        );
+    }
+}
@@ -0,0 +1,94 @@
+package com.damian.xBank.common.config;
+
+import com.damian.xBank.common.datasource.ReadReplicaRoutingDataSource;
+import com.damian.xBank.common.datasource.ReadYourWritesWindow;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read replica routing, only when "datasource.replica.url" is set. Otherwise the single
+ * data source of spring.datasource is used as usual.
+ * <p>
+ * The primary pool is configured by spring.datasource (and spring.datasource.hikari), the
+ * replica pool by datasource.replica (and datasource.replica.hikari), taking the user and
+ * password of the primary when not given.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.url")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties
+                .initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${datasource.replica.url}")
+            String url,
+            @Value("${datasource.replica.username:${spring.datasource.username:}}")
+            String username,
+            @Value("${datasource.replica.password:${spring.datasource.password:}}")
+            String password
+    ) {
+        HikariDataSource dataSource = DataSourceBuilder
+                .create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesWindow readYourWritesWindow(
+            @Value("${datasource.replica.read-your-writes-window:5s}")
+            Duration window
+    ) {
+        return new ReadYourWritesWindow(window);
+    }
+
+    // the connection is taken on the first statement, once the transaction is known to be read-only
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource")
+            DataSource primaryDataSource,
+            @Qualifier("replicaDataSource")
+            DataSource replicaDataSource,
+            ReadYourWritesWindow readYourWritesWindow,
+            MeterRegistry meterRegistry
+    ) {
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(
+                primaryDataSource,
+                replicaDataSource,
+                readYourWritesWindow,
+                meterRegistry
+        ));
+    }
+}
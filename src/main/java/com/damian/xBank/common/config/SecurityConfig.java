@@ -1,7 +1,10 @@
 package com.damian.xBank.common.config;
 
+import com.damian.xBank.common.utils.BoundedBCryptPasswordEncoder;
 import com.damian.xBank.customer.CustomerDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
 import net.datafaker.Faker;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -19,9 +22,23 @@ public class SecurityConfig {
         return new Faker();
     }
 
+    // password hashing runs on its own bounded pool, see BoundedBCryptPasswordEncoder
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BCryptPasswordEncoder passwordEncoder(
+            @Value("${password-encoder.strength:10}")
+            int strength,
+            @Value("${password-encoder.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+            int poolSize,
+            @Value("${password-encoder.queue-capacity:50}")
+            int queueCapacity,
+            MeterRegistry meterRegistry
+    ) {
+        return new BoundedBCryptPasswordEncoder(
+                strength,
+                poolSize,
+                queueCapacity,
+                meterRegistry
+        );
     }
 
     @Bean
@@ -0,0 +1,7 @@
+package com.damian.xBank.common.datasource;
+
+// where a connection is taken from
+public enum DataSourceTarget {
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,35 @@
+package com.damian.xBank.common.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Sends the reads made inside {@link #call(Supplier)} to the primary without counting them as
+ * writes, so they do not open the {@link ReadYourWritesWindow} of the customer.
+ * <p>
+ * Meant for lookups that cannot use data older than the last commit, like the principal and the
+ * card authorization, which run in read-only transactions of their own.
+ */
+public final class ReadFromPrimary {
+    private static final ThreadLocal<Boolean> REQUESTED = new ThreadLocal<>();
+
+    private ReadFromPrimary() {
+    }
+
+    // runs the read with its connections taken from the primary
+    public static <T> T call(Supplier<T> read) {
+        final Boolean previous = REQUESTED.get();
+        REQUESTED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                REQUESTED.remove();
+            }
+        }
+    }
+
+    // true inside call
+    public static boolean isRequested() {
+        return REQUESTED.get() != null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.damian.xBank.common.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends the connections of read-only transactions to the replica and everything else to the
+ * primary. Reads of a customer that just wrote go to the primary too, see
+ * {@link ReadYourWritesWindow}, and so do the reads asked for with {@link ReadFromPrimary}.
+ * <p>
+ * The transaction is only known to be read-only once it has started, so this data source must
+ * be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * which takes the connection on the first statement.
+ * <p>
+ * The connections taken are counted in "datasource.routing.connections" by target.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private final ReadYourWritesWindow readYourWritesWindow;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+
+    public ReadReplicaRoutingDataSource(
+            DataSource primary,
+            DataSource replica,
+            ReadYourWritesWindow readYourWritesWindow,
+            MeterRegistry meterRegistry
+    ) {
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.primaryConnections = this.connectionCounter(DataSourceTarget.PRIMARY, meterRegistry);
+        this.replicaConnections = this.connectionCounter(DataSourceTarget.REPLICA, meterRegistry);
+
+        this.setTargetDataSources(Map.of(
+                DataSourceTarget.PRIMARY, primary,
+                DataSourceTarget.REPLICA, replica
+        ));
+        this.setDefaultTargetDataSource(primary);
+        this.afterPropertiesSet();
+    }
+
+    private Counter connectionCounter(DataSourceTarget target, MeterRegistry meterRegistry) {
+        return Counter.builder("datasource.routing.connections")
+                      .description("Connections taken from each data source")
+                      .tag("target", target.name().toLowerCase())
+                      .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        final DataSourceTarget target = this.determineTarget();
+        if (target == DataSourceTarget.REPLICA) {
+            replicaConnections.increment();
+        } else {
+            primaryConnections.increment();
+        }
+        return target;
+    }
+
+    private DataSourceTarget determineTarget() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // a read-write transaction, assume it changes something of the customer
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWritesWindow.markWrite();
+            }
+            return DataSourceTarget.PRIMARY;
+        }
+
+        // reads that must see the last commit, they do not open the window
+        if (ReadFromPrimary.isRequested() || readYourWritesWindow.isOpen()) {
+            return DataSourceTarget.PRIMARY;
+        }
+        return DataSourceTarget.REPLICA;
+    }
+}
@@ -0,0 +1,61 @@
+package com.damian.xBank.common.datasource;
+
+import com.damian.xBank.customer.Customer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Customers that changed something in the last "window", their reads stay on the primary
+ * so they see their own changes while the replica catches up.
+ * <p>
+ * Kept in memory, each instance of the application only knows about the writes it served.
+ */
+public class ReadYourWritesWindow {
+    private final Cache<Long, Boolean> writers;
+
+    public ReadYourWritesWindow(Duration window) {
+        this.writers = Caffeine.newBuilder()
+                               .expireAfterWrite(window)
+                               .build();
+    }
+
+    // opens the window for the logged customer once the current transaction commits
+    public void markWrite() {
+        final Long customerId = this.getLoggedCustomerId();
+        if (customerId == null) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writers.put(customerId, Boolean.TRUE);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writers.put(customerId, Boolean.TRUE);
+            }
+        });
+    }
+
+    // true if the logged customer wrote inside the window
+    public boolean isOpen() {
+        final Long customerId = this.getLoggedCustomerId();
+        return customerId != null && writers.getIfPresent(customerId) != null;
+    }
+
+    private Long getLoggedCustomerId() {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof Customer customer)) {
+            return null;
+        }
+        return customer.getId();
+    }
+}
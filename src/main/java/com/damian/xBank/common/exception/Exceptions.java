@@ -20,6 +20,7 @@ public class Exceptions {
         public static final String DISABLED = "Card is disabled.";
         public static final String ACCESS_FORBIDDEN = "You are not the owner of this card.";
         public static final String INSUFFICIENT_FUNDS = "Insufficient funds.";
+        public static final String DAILY_LIMIT_EXCEEDED = "The card daily limit has been exceeded.";
     }
 
     public static class TRANSACTION {
@@ -27,6 +28,10 @@ public class Exceptions {
         public static final String ACCESS_FORBIDDEN = "You are not the owner of this transaction.";
         public static final String INVALID_TYPE = "Invalid transaction type";
         public static final String DIFFERENT_CURRENCY = "Transactions must be in the same currency.";
+        public static final String INVALID_CURSOR = "Invalid transactions cursor.";
+        public static final String IDEMPOTENCY_KEY_REUSED = "Idempotency key already used for a different transaction.";
+        public static final String BUSY = "Too many transactions in progress, try again later.";
+        public static final String ARCHIVE_NOT_FOUND = "Transactions archive not found.";
     }
 
     public static class ACCOUNT {
@@ -10,7 +10,10 @@ import com.damian.xBank.banking.card.exception.BankingCardException;
 import com.damian.xBank.banking.card.exception.BankingCardMaximumCardsPerAccountLimitReached;
 import com.damian.xBank.banking.card.exception.BankingCardNotFoundException;
 import com.damian.xBank.banking.transactions.exception.BankingTransactionAuthorizationException;
+import com.damian.xBank.banking.transactions.exception.BankingTransactionBusyException;
 import com.damian.xBank.banking.transactions.exception.BankingTransactionException;
+import com.damian.xBank.banking.transactions.exception.BankingTransactionIdempotencyKeyReusedException;
+import com.damian.xBank.banking.transactions.exception.BankingTransactionInvalidCursorException;
 import com.damian.xBank.banking.transactions.exception.BankingTransactionNotFoundException;
 import com.damian.xBank.common.utils.ApiResponse;
 import com.damian.xBank.customer.exception.CustomerEmailTakenException;
@@ -20,6 +23,7 @@ import com.damian.xBank.customer.profile.exception.ProfileAuthorizationException
 import com.damian.xBank.customer.profile.exception.ProfileException;
 import com.damian.xBank.customer.profile.exception.ProfileNotFoundException;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -45,6 +49,16 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error("Validation error", errors, HttpStatus.BAD_REQUEST));
     }
 
+    @ExceptionHandler(
+            {
+                    BankingTransactionInvalidCursorException.class
+            }
+    )
+    public ResponseEntity<ApiResponse<String>> handleBadRequestException(ApplicationException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                             .body(ApiResponse.error(ex.getMessage(), HttpStatus.BAD_REQUEST));
+    }
+
     @ExceptionHandler(
             {
                     AuthenticationException.class,
@@ -77,7 +91,8 @@ public class GlobalExceptionHandler {
             {
                     CustomerEmailTakenException.class,
                     BankingAccountInsufficientFundsException.class,
-                    BankingCardMaximumCardsPerAccountLimitReached.class
+                    BankingCardMaximumCardsPerAccountLimitReached.class,
+                    BankingTransactionIdempotencyKeyReusedException.class
             }
     )
     public ResponseEntity<ApiResponse<String>> handleConflitException(ApplicationException ex) {
@@ -85,6 +100,18 @@ public class GlobalExceptionHandler {
                              .body(ApiResponse.error(ex.getMessage(), HttpStatus.CONFLICT));
     }
 
+    @ExceptionHandler(
+            {
+                    PasswordEncoderBusyException.class,
+                    BankingTransactionBusyException.class
+            }
+    )
+    public ResponseEntity<ApiResponse<String>> handleServiceUnavailableException(ApplicationException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                             .header(HttpHeaders.RETRY_AFTER, "1")
+                             .body(ApiResponse.error(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
     @ExceptionHandler(
             {
                     ApplicationException.class,
@@ -0,0 +1,9 @@
+package com.damian.xBank.common.exception;
+
+public class PasswordEncoderBusyException extends ApplicationException {
+    public static final String PASSWORD_ENCODER_BUSY = "Too many password operations in progress, try again later.";
+
+    public PasswordEncoderBusyException(String message) {
+        super(message);
+    }
+}
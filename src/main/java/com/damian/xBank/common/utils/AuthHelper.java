@@ -4,13 +4,13 @@ import com.damian.xBank.common.exception.PasswordMismatchException;
 import com.damian.xBank.customer.Customer;
 import com.damian.xBank.customer.CustomerRole;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 public class AuthHelper {
-    private static final BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
 
-    public static void validatePassword(Customer customer, String rawPassword) {
-        if (!bCryptPasswordEncoder.matches(rawPassword, customer.getAuth().getPassword())) {
+    // the encoder is the application one, injected in the service that asks for the password
+    public static void validatePassword(Customer customer, String rawPassword, PasswordEncoder passwordEncoder) {
+        if (!passwordEncoder.matches(rawPassword, customer.getAuth().getPassword())) {
             throw new PasswordMismatchException(PasswordMismatchException.PASSWORD_MISMATCH);
         }
     }
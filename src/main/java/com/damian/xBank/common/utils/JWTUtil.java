@@ -1,37 +1,126 @@
 package com.damian.xBank.common.utils;
 
 import com.damian.xBank.customer.CustomerDetails;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JWTUtil {
-    @Value("${jwt.secret}")
-    private String SECRET_KEY;
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    // claims of tokens whose signature was already verified, keyed by the token hash.
+    // Each entry expires with its token.
+    private final Cache<String, Claims> verifiedClaims;
+
+    @Autowired
+    public JWTUtil(
+            @Value("${jwt.secret}")
+            String secretKey,
+            @Value("${jwt.cache.max-size:10000}")
+            int verifiedClaimsMaxSize
+    ) {
+        this(secretKey, verifiedClaimsMaxSize, () -> TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()));
+    }
+
+    // the ticker reads the wall clock in nanoseconds since the epoch, as token expirations are
+    public JWTUtil(String secretKey, int verifiedClaimsMaxSize, Ticker ticker) {
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedClaims = Caffeine.newBuilder()
+                                      .maximumSize(verifiedClaimsMaxSize)
+                                      .expireAfter(new TokenExpiry())
+                                      .ticker(ticker)
+                                      .build();
+    }
+
+    // each entry lives until its token expires, reads and updates do not extend it
+    private static class TokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+            final long expiration = TimeUnit.MILLISECONDS.toNanos(claims.getExpiration().getTime());
+            return Math.max(0, expiration - currentTime);
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return this.expireAfterCreate(tokenHash, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 
     public String extractEmail(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        return resolver.apply(getAllClaims(token));
+        return resolver.apply(verifyToken(token));
     }
 
-    private Claims getAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifies the signature and expiration of the token and returns its claims.
+     * <p>
+     * Tokens already verified are served from memory until they expire, so repeated
+     * requests with the same bearer token skip the parsing and signature check.
+     *
+     * @param token the compact JWT
+     * @return the claims of the token
+     * @throws io.jsonwebtoken.ExpiredJwtException if the token has expired
+     * @throws io.jsonwebtoken.JwtException        if the token is not valid
+     */
+    public Claims verifyToken(String token) {
+        final String tokenHash = hash(token);
+        final Claims cachedClaims = verifiedClaims.getIfPresent(tokenHash);
+
+        // expired tokens are no longer in the cache, parsing them again throws ExpiredJwtException
+        if (cachedClaims != null) {
+            return cachedClaims;
+        }
+
+        final Claims claims = parser.parseClaimsJws(token).getBody();
+
+        // tokens without expiration are never cached
+        if (claims.getExpiration() != null) {
+            verifiedClaims.put(tokenHash, claims);
+        }
+        return claims;
+    }
+
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
+    }
+
+    private String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     public String generateToken(CustomerDetails customerDetails) {
@@ -67,19 +156,23 @@ public class JWTUtil {
     }
 
     public boolean isTokenValid(String token, CustomerDetails customerDetails) {
-        final String email = extractEmail(token);
-        return (email.equals(customerDetails.getEmail())) && !isTokenExpired(token);
+        return isTokenValid(verifyToken(token), customerDetails);
+    }
+
+    // the claims must come from verifyToken
+    public boolean isTokenValid(Claims claims, CustomerDetails customerDetails) {
+        return claims.getSubject().equals(customerDetails.getEmail()) && !isExpired(claims);
     }
 
     public boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+        return isExpired(verifyToken(token));
     }
 
     private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+        return signingKey;
     }
 
     public void printToken(String token) {
-        getAllClaims(token).forEach((k, v) -> System.out.println(k + ": " + v));
+        verifyToken(token).forEach((k, v) -> System.out.println(k + ": " + v));
     }
 }
\ No newline at end of file
@@ -1,32 +1,54 @@
 package com.damian.xBank.customer;
 
 import com.damian.xBank.auth.exception.AuthenticationBadCredentialsException;
+import com.damian.xBank.common.datasource.ReadFromPrimary;
 import com.damian.xBank.common.exception.Exceptions;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class CustomerDetailsService implements UserDetailsService {
     private final CustomerRepository customerRepository;
+    private final CustomerPrincipalCache customerPrincipalCache;
+    private final TransactionTemplate primaryTransaction;
 
-    public CustomerDetailsService(CustomerRepository customerRepository) {
+    public CustomerDetailsService(
+            CustomerRepository customerRepository,
+            CustomerPrincipalCache customerPrincipalCache,
+            PlatformTransactionManager transactionManager
+    ) {
         this.customerRepository = customerRepository;
+        this.customerPrincipalCache = customerPrincipalCache;
+        // read-only, the load is sent to the primary with ReadFromPrimary
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setReadOnly(true);
     }
 
+    // used on login, it always reads the customer from the database
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return loadCustomerByEmail(username);
+        return findCustomerByEmail(username);
     }
 
+    // used on every authenticated request, it reads the customer from the principal cache
     public CustomerDetails loadCustomerByEmail(String email) throws UsernameNotFoundException {
-        return customerRepository
-                .findByEmail(email)
-                .orElseThrow(
-                        () -> new AuthenticationBadCredentialsException(
-                                Exceptions.AUTH.BAD_CREDENTIALS
+        return customerPrincipalCache.get(email, this::findCustomerByEmail);
+    }
+
+    // read from the primary, the replica may still have the password or status changed a moment ago
+    private Customer findCustomerByEmail(String email) {
+        return ReadFromPrimary.call(() -> primaryTransaction.execute(
+                status -> customerRepository
+                        .findByEmail(email)
+                        .orElseThrow(
+                                () -> new AuthenticationBadCredentialsException(
+                                        Exceptions.AUTH.BAD_CREDENTIALS
+                                )
                         )
-                );
+        ));
     }
 }
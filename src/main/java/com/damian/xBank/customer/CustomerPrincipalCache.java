@@ -0,0 +1,67 @@
+package com.damian.xBank.customer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Keeps the customers loaded by the authentication filter, keyed by email, so authenticated
+ * requests do not query the customer, its auth and its profile on every call.
+ * <p>
+ * Entries expire after a TTL and the cache is bounded in size. Anything that changes the
+ * email, password, status or existence of a customer must call {@link #evict(Long)}. Inside a
+ * transaction the customer is evicted again once it commits, so a request in between cannot keep
+ * the old customer.
+ * Hits and misses are published as the "cache.gets" metric tagged cache=customerPrincipals.
+ */
+@Component
+public class CustomerPrincipalCache {
+    private final Cache<String, Customer> principals;
+
+    public CustomerPrincipalCache(
+            @Value("${customer.principal-cache.max-size:10000}")
+            long maxSize,
+            @Value("${customer.principal-cache.ttl:5m}")
+            Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.principals = Caffeine.newBuilder()
+                                  .maximumSize(maxSize)
+                                  .expireAfterWrite(ttl)
+                                  .recordStats()
+                                  .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "customerPrincipals");
+    }
+
+    // returns the cached customer or loads it. Nothing is cached if the loader throws.
+    public Customer get(String email, Function<String, Customer> loader) {
+        return principals.get(email, loader);
+    }
+
+    // removes the customer from the cache, so the next request loads it again
+    public void evict(Long customerId) {
+        final Runnable eviction = () -> principals.asMap().values().removeIf(
+                customer -> customer.getId().equals(customerId)
+        );
+        eviction.run();
+
+        // a load between the eviction and the commit would still see the old customer
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -1,12 +1,34 @@
 package com.damian.xBank.customer;
 
+import com.damian.xBank.customer.dto.CustomerDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+    // the customer with its auth and profile in one query, the principal and most endpoints use both
+    @EntityGraph(attributePaths = {"auth", "profile"})
     Optional<Customer> findByEmail(String email);
+
+    // same as findByEmail
+    @Override
+    @EntityGraph(attributePaths = {"auth", "profile"})
+    Optional<Customer> findById(Long id);
+
+    // the customer with its profile, accounts and their cards, everything CustomerWithAllDataDTO needs
+    @EntityGraph(attributePaths = {"profile", "bankingAccounts.bankingCards"})
+    Optional<Customer> findWithBankingAccountsById(Long id);
+
+    // a page of customers straight into DTOs
+    @Query(value = "SELECT new com.damian.xBank.customer.dto.CustomerDTO("
+                   + "c.id, c.email, c.role, c.createdAt, c.updatedAt) FROM Customer c",
+           countQuery = "SELECT COUNT(c) FROM Customer c")
+    Page<CustomerDTO> findAllDTOs(Pageable pageable);
 }
 
@@ -1,8 +1,12 @@
 package com.damian.xBank.customer;
 
+import com.damian.xBank.auth.AuthAccountStatus;
+import com.damian.xBank.banking.account.BankingAccountService;
+import com.damian.xBank.banking.ledger.LedgerPostingRepository;
 import com.damian.xBank.common.exception.Exceptions;
 import com.damian.xBank.common.exception.PasswordMismatchException;
 import com.damian.xBank.common.utils.AuthHelper;
+import com.damian.xBank.customer.dto.CustomerDTO;
 import com.damian.xBank.customer.exception.CustomerEmailTakenException;
 import com.damian.xBank.customer.exception.CustomerException;
 import com.damian.xBank.customer.exception.CustomerNotFoundException;
@@ -12,6 +16,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 
@@ -19,13 +24,22 @@ import java.time.Instant;
 public class CustomerService {
     private final CustomerRepository customerRepository;
     private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final CustomerPrincipalCache customerPrincipalCache;
+    private final LedgerPostingRepository ledgerPostingRepository;
+    private final BankingAccountService bankingAccountService;
 
     public CustomerService(
             CustomerRepository customerRepository,
-            BCryptPasswordEncoder bCryptPasswordEncoder
+            BCryptPasswordEncoder bCryptPasswordEncoder,
+            CustomerPrincipalCache customerPrincipalCache,
+            LedgerPostingRepository ledgerPostingRepository,
+            BankingAccountService bankingAccountService
     ) {
         this.customerRepository = customerRepository;
         this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.customerPrincipalCache = customerPrincipalCache;
+        this.ledgerPostingRepository = ledgerPostingRepository;
+        this.bankingAccountService = bankingAccountService;
     }
 
     /**
@@ -63,12 +77,14 @@ public class CustomerService {
     }
 
     /**
-     * Deletes a customer
+     * Deletes a customer. A customer whose accounts have postings in the journal is kept,
+     * with its accounts closed and its login disabled, because the journal is never deleted.
      *
      * @param customerId the id of the customer to be deleted
-     * @return true if the customer was deleted
+     * @return true if the customer was deleted or closed
      * @throws CustomerException if the customer does not exist or if the logged user is not ADMIN
      */
+    @Transactional
     public boolean deleteCustomer(Long customerId) {
         // if the customer does not exist we throw an exception
         if (!customerRepository.existsById(customerId)) {
@@ -77,22 +93,46 @@ public class CustomerService {
             );
         }
 
-        // we delete the customer
-        customerRepository.deleteById(customerId);
+        if (ledgerPostingRepository.existsByBankingAccountCustomerId(customerId)) {
+            this.closeCustomer(customerId);
+        } else {
+            // we delete the customer
+            customerRepository.deleteById(customerId);
+        }
+
+        // the deleted customer must not be authenticated anymore
+        customerPrincipalCache.evict(customerId);
 
         // if no exception is thrown we return true
         return true;
     }
 
+    // closes every account of the customer and disables its login
+    private void closeCustomer(Long customerId) {
+        final Customer customer = customerRepository.findById(customerId).orElseThrow(
+                () -> new CustomerNotFoundException(
+                        Exceptions.CUSTOMER.NOT_FOUND
+                )
+        );
+
+        customer.getBankingAccounts().forEach(
+                bankingAccount -> bankingAccountService.closeBankingAccount(bankingAccount.getId())
+        );
+
+        customer.getAuth().setAuthAccountStatus(AuthAccountStatus.DISABLED);
+        customerRepository.save(customer);
+    }
+
     /**
      * Returns all the customers
      *
      * @return a list of CustomerDTO
      * @throws CustomerException if the logged user is not ADMIN
      */
-    public Page<Customer> getCustomers(Pageable pageable) {
-        // we return all the customers
-        return customerRepository.findAll(pageable);
+    @Transactional(readOnly = true)
+    public Page<CustomerDTO> getCustomers(Pageable pageable) {
+        // we return all the customers, read straight into DTOs
+        return customerRepository.findAllDTOs(pageable);
     }
 
     /**
@@ -111,6 +151,21 @@ public class CustomerService {
         );
     }
 
+    /**
+     * Returns a customer along with its banking accounts and their cards
+     *
+     * @param customerId the id of the customer to be returned
+     * @return the customer
+     * @throws CustomerException if the customer does not exist
+     */
+    public Customer getCustomerWithBankingAccounts(Long customerId) {
+        return customerRepository.findWithBankingAccountsById(customerId).orElseThrow(
+                () -> new CustomerNotFoundException(
+                        Exceptions.CUSTOMER.NOT_FOUND
+                )
+        );
+    }
+
     // returns the logged customer
     public Customer getCustomer() {
         Customer loggedCustomer = AuthHelper.getLoggedCustomer();
@@ -151,7 +206,12 @@ public class CustomerService {
         customer.setUpdatedAt(Instant.now());
 
         // save the changes
-        return customerRepository.save(customer);
+        Customer updatedCustomer = customerRepository.save(customer);
+
+        // tokens issued for the old email must not be authenticated anymore
+        customerPrincipalCache.evict(customerId);
+
+        return updatedCustomer;
     }
 
     /**
@@ -166,7 +226,7 @@ public class CustomerService {
         final Customer loggedCustomer = AuthHelper.getLoggedCustomer();
 
         // Before making any changes we check that the password sent by the customer matches the one in the entity
-        AuthHelper.validatePassword(loggedCustomer, request.currentPassword());
+        AuthHelper.validatePassword(loggedCustomer, request.currentPassword(), bCryptPasswordEncoder);
 
         return this.updateEmail(loggedCustomer.getId(), request.newEmail());
     }
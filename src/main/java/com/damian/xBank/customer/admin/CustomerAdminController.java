@@ -36,8 +36,7 @@ public class CustomerAdminController {
             @PageableDefault(size = 2, sort = "createdAt", direction = Sort.Direction.DESC)
             Pageable pageable
     ) {
-        Page<Customer> customers = customerService.getCustomers(pageable);
-        Page<CustomerDTO> customerDTO = CustomerDTOMapper.toCustomerDTOPage(customers);
+        Page<CustomerDTO> customerDTO = customerService.getCustomers(pageable);
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(customerDTO);
@@ -49,7 +48,7 @@ public class CustomerAdminController {
             @PathVariable @Positive
             Long id
     ) {
-        Customer customer = customerService.getCustomer(id);
+        Customer customer = customerService.getCustomerWithBankingAccounts(id);
         CustomerWithAllDataDTO customerDTO = CustomerDTOMapper.toCustomerWithAllDataDTO(customer);
         return ResponseEntity
                 .status(HttpStatus.OK)
@@ -7,7 +7,6 @@ import com.damian.xBank.customer.Customer;
 import com.damian.xBank.customer.profile.ProfileDTO;
 import com.damian.xBank.customer.profile.ProfileDTOMapper;
 import com.damian.xBank.customer.profile.exception.ProfileNotFoundException;
-import org.springframework.data.domain.Page;
 
 import java.util.Collections;
 import java.util.List;
@@ -66,10 +65,4 @@ public class CustomerDTOMapper {
                         CustomerDTOMapper::toCustomerDTO
                 ).toList();
     }
-
-    public static Page<CustomerDTO> toCustomerDTOPage(Page<Customer> customers) {
-        return customers.map(
-                CustomerDTOMapper::toCustomerDTO
-        );
-    }
 }
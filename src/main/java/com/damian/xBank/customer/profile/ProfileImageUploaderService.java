@@ -6,8 +6,10 @@ import com.damian.xBank.customer.Customer;
 import com.damian.xBank.customer.profile.exception.ProfileAuthorizationException;
 import com.damian.xBank.customer.profile.exception.ProfileException;
 import com.damian.xBank.customer.profile.http.request.ProfileUpdateRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
@@ -24,17 +26,23 @@ import java.util.UUID;
 
 @Service
 public class ProfileImageUploaderService {
-    private final String PROFILE_IMAGE_PATH = "uploads/profile/images";
+    private final Path profileImagePath;
     private final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5 MB
     private final ProfileRepository profileRepository;
     private final ProfileService profileService;
+    private final BCryptPasswordEncoder bCryptPasswordEncoder;
 
     public ProfileImageUploaderService(
             ProfileRepository profileRepository,
-            ProfileService profileService
+            ProfileService profileService,
+            BCryptPasswordEncoder bCryptPasswordEncoder,
+            @Value("${customer.profile.image-dir:uploads/profile/images}")
+            String profileImageDir
     ) {
         this.profileRepository = profileRepository;
         this.profileService = profileService;
+        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.profileImagePath = Paths.get(profileImageDir);
     }
 
     public String getContentType(Resource resource) {
@@ -77,9 +85,8 @@ public class ProfileImageUploaderService {
     // stores the image
     private void storeFile(MultipartFile file, String filename) {
         try {
-            Path uploadPath = Paths.get(PROFILE_IMAGE_PATH);
-            Files.createDirectories(uploadPath);
-            Path filePath = uploadPath.resolve(filename);
+            Files.createDirectories(profileImagePath);
+            Path filePath = profileImagePath.resolve(filename);
             Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException e) {
             throw new ProfileAuthorizationException(
@@ -101,7 +108,7 @@ public class ProfileImageUploaderService {
 
     // returns the profile photo as Resource
     public Resource getImage(String filename) {
-        Path filePath = Paths.get(PROFILE_IMAGE_PATH).resolve(filename).normalize();
+        Path filePath = profileImagePath.resolve(filename).normalize();
         Resource resource = this.createResource(filePath);
 
         if (!resource.exists()) {
@@ -119,7 +126,7 @@ public class ProfileImageUploaderService {
         final Customer customerLogged = AuthHelper.getLoggedCustomer();
 
         // validate password
-        AuthHelper.validatePassword(customerLogged, currentPassword);
+        AuthHelper.validatePassword(customerLogged, currentPassword, bCryptPasswordEncoder);
 
         // run file validations
         this.validatePhotoOrElseThrow(file);
@@ -1,9 +1,16 @@
 package com.damian.xBank.customer.profile;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface ProfileRepository extends JpaRepository<Profile, Long> {
+    // the profile only when it belongs to the customer
+    @Query("SELECT p FROM Profile p WHERE p.id = :id AND p.customer.id = :customerId")
+    Optional<Profile> findByIdAndCustomer_Id(@Param("id") Long id, @Param("customerId") Long customerId);
 }
 
@@ -7,6 +7,7 @@ import com.damian.xBank.customer.CustomerGender;
 import com.damian.xBank.customer.profile.exception.ProfileAuthorizationException;
 import com.damian.xBank.customer.profile.exception.ProfileNotFoundException;
 import com.damian.xBank.customer.profile.http.request.ProfileUpdateRequest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -15,11 +16,14 @@ import java.time.LocalDate;
 @Service
 public class ProfileService {
     private final ProfileRepository profileRepository;
+    private final BCryptPasswordEncoder bCryptPasswordEncoder;
 
     public ProfileService(
-            ProfileRepository profileRepository
+            ProfileRepository profileRepository,
+            BCryptPasswordEncoder bCryptPasswordEncoder
     ) {
         this.profileRepository = profileRepository;
+        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
     }
 
     /**
@@ -45,22 +49,19 @@ public class ProfileService {
 
     // it updates a profile by id
     public Profile updateProfile(Long profileId, ProfileUpdateRequest request) {
-        // We get the profile we want to modify
-        Profile profile = profileRepository
-                .findById(profileId)
+        final Customer customerLogged = AuthHelper.getLoggedCustomer();
+        final boolean isAdmin = AuthHelper.isAdmin(customerLogged);
+
+        // We get the profile we want to modify, customers only get their own profile
+        Profile profile = (isAdmin
+                ? profileRepository.findById(profileId)
+                : profileRepository.findByIdAndCustomer_Id(profileId, customerLogged.getId()))
                 .orElseThrow(() -> new ProfileNotFoundException(
                         Exceptions.PROFILE.NOT_FOUND));
 
-        final Customer customerLogged = AuthHelper.getLoggedCustomer();
-
         // if the logged user is not admin
-        if (!AuthHelper.isAdmin(customerLogged)) {
-            // we make sure that this profile belongs to the customer logged
-            ProfileAuthorizationHelper
-                    .authorize(customerLogged, profile)
-                    .checkOwner();
-
-            AuthHelper.validatePassword(customerLogged, request.currentPassword());
+        if (!isAdmin) {
+            AuthHelper.validatePassword(customerLogged, request.currentPassword(), bCryptPasswordEncoder);
         }
 
         // we iterate over the fields (if any)
@@ -0,0 +1,135 @@
+package com.damian.xBank.auth;
+
+import com.damian.xBank.common.utils.JWTUtil;
+import com.damian.xBank.customer.Customer;
+import com.damian.xBank.customer.CustomerDetailsService;
+import com.damian.xBank.customer.CustomerPrincipalCache;
+import com.damian.xBank.customer.CustomerRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request with a bearer token.
+ * <p>
+ * "legacy" is the verification the filter did before, the token parsed four times with
+ * the key and the parser built on each parse. "uncached" runs the filter with a single
+ * parse per request and "cached" runs it with the verified claims cache. The customer
+ * always comes from the principal cache, so only the token handling differs.
+ * <p>
+ * Not part of the test run, start it with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *      com.damian.xBank.auth.AuthenticationFilterBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthenticationFilterBenchmark {
+    private static final String SECRET = "THIS-IS-A-BIG-SECRET!-KEEP-IT-SAFE-FOR-BENCHMARKS";
+    private static final String EMAIL = "customer@test.com";
+
+    private AuthenticationFilter cachedFilter;
+    private AuthenticationFilter uncachedFilter;
+    private CustomerDetailsService customerDetailsService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        final Customer customer = new Customer(1L, EMAIL, "123456");
+
+        // the only query the filter makes, answered without a database
+        final CustomerRepository customerRepository = (CustomerRepository) Proxy.newProxyInstance(
+                CustomerRepository.class.getClassLoader(),
+                new Class<?>[]{CustomerRepository.class},
+                (proxy, method, args) -> method.getName().equals("findByEmail") ? Optional.of(customer) : null
+        );
+
+        customerDetailsService = new CustomerDetailsService(
+                customerRepository,
+                new CustomerPrincipalCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry()),
+                Mockito.mock(PlatformTransactionManager.class)
+        );
+
+        final JWTUtil cachedJwtUtil = new JWTUtil(SECRET, 10_000);
+        final JWTUtil uncachedJwtUtil = new JWTUtil(SECRET, 0);
+
+        cachedFilter = new AuthenticationFilter(cachedJwtUtil, customerDetailsService, (request, response, e) -> {
+        });
+        uncachedFilter = new AuthenticationFilter(uncachedJwtUtil, customerDetailsService, (request, response, e) -> {
+        });
+
+        token = cachedJwtUtil.generateToken(EMAIL);
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Object legacy() {
+        // isTokenExpired, extractEmail and isTokenValid (extractEmail and isTokenExpired again)
+        boolean expired = legacyParse(token).getExpiration().before(new Date());
+        final String email = legacyParse(token).getSubject();
+        final Customer customer = (Customer) customerDetailsService.loadCustomerByEmail(email);
+        expired |= !legacyParse(token).getSubject().equals(customer.getEmail());
+        expired |= legacyParse(token).getExpiration().before(new Date());
+        return expired ? null : customer;
+    }
+
+    @Benchmark
+    public Object uncached() throws Exception {
+        return filter(uncachedFilter);
+    }
+
+    @Benchmark
+    public Object cached() throws Exception {
+        return filter(cachedFilter);
+    }
+
+    private Object filter(AuthenticationFilter filter) throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+        });
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts.parserBuilder()
+                   .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                   .build()
+                   .parseClaimsJws(token)
+                   .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthenticationFilterBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
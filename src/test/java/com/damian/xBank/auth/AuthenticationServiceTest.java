@@ -9,6 +9,7 @@ import com.damian.xBank.common.exception.PasswordMismatchException;
 import com.damian.xBank.common.utils.JWTUtil;
 import com.damian.xBank.customer.Customer;
 import com.damian.xBank.customer.CustomerGender;
+import com.damian.xBank.customer.CustomerPrincipalCache;
 import com.damian.xBank.customer.CustomerRepository;
 import com.damian.xBank.customer.CustomerService;
 import com.damian.xBank.customer.exception.CustomerNotFoundException;
@@ -22,6 +23,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.Authentication;
@@ -56,13 +58,16 @@ public class AuthenticationServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
-    @Mock
-    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    @Spy
+    private BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
     private BCryptPasswordEncoder passwordEncoder;
 
     @Mock
     private JWTUtil jwtUtil;
 
+    @Mock
+    private CustomerPrincipalCache customerPrincipalCache;
+
     private final String RAW_PASSWORD = "123456";
 
     @BeforeEach
@@ -250,6 +255,7 @@ public class AuthenticationServiceTest {
 
         // then
         verify(authenticationRepository, times(1)).save(customer.getAuth());
+        verify(customerPrincipalCache, times(1)).evict(customer.getId());
         assertThat(customer.getPassword()).isEqualTo(encodedNewPassword);
     }
 
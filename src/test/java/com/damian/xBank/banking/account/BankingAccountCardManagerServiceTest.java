@@ -1,10 +1,10 @@
 package com.damian.xBank.banking.account;
 
-import com.damian.xBank.banking.account.exception.BankingAccountAuthorizationException;
 import com.damian.xBank.banking.account.exception.BankingAccountNotFoundException;
 import com.damian.xBank.banking.card.BankingCard;
 import com.damian.xBank.banking.card.BankingCardRepository;
 import com.damian.xBank.banking.card.BankingCardService;
+import com.damian.xBank.banking.card.BankingCardStatus;
 import com.damian.xBank.banking.card.BankingCardType;
 import com.damian.xBank.banking.card.exception.BankingCardMaximumCardsPerAccountLimitReached;
 import com.damian.xBank.banking.card.http.BankingCardRequest;
@@ -100,7 +100,8 @@ public class BankingAccountCardManagerServiceTest {
         BankingCardRequest request = new BankingCardRequest(BankingCardType.CREDIT);
 
         // when
-        when(bankingAccountRepository.findById(anyLong())).thenReturn(Optional.of(givenBankAccount));
+        when(bankingAccountRepository.findWithBankingCardsByIdAndCustomer_Id(anyLong(), anyLong()))
+                .thenReturn(Optional.of(givenBankAccount));
         when(bankingCardService.createBankingCard(any(BankingAccount.class), any(BankingCardType.class)))
                 .thenReturn(givenBankingCard);
 
@@ -128,7 +129,8 @@ public class BankingAccountCardManagerServiceTest {
         BankingCardRequest request = new BankingCardRequest(BankingCardType.CREDIT);
 
         // when
-        when(bankingAccountRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(bankingAccountRepository.findWithBankingCardsByIdAndCustomer_Id(anyLong(), anyLong()))
+                .thenReturn(Optional.empty());
 
         BankingAccountNotFoundException exception = assertThrows(
                 BankingAccountNotFoundException.class,
@@ -155,10 +157,11 @@ public class BankingAccountCardManagerServiceTest {
         BankingCardRequest request = new BankingCardRequest(BankingCardType.CREDIT);
 
         // when
-        when(bankingAccountRepository.findById(anyLong())).thenReturn(Optional.of(givenBankAccount));
+        when(bankingAccountRepository.findWithBankingCardsByIdAndCustomer_Id(givenBankAccount.getId(), customerA.getId()))
+                .thenReturn(Optional.empty());
 
-        BankingAccountAuthorizationException exception = assertThrows(
-                BankingAccountAuthorizationException.class,
+        BankingAccountNotFoundException exception = assertThrows(
+                BankingAccountNotFoundException.class,
                 () -> bankingAccountCardManagerService.requestBankingCard(
                         givenBankAccount.getId(),
                         request
@@ -166,7 +169,7 @@ public class BankingAccountCardManagerServiceTest {
         );
 
         // then
-        assertEquals(Exceptions.ACCOUNT.ACCESS_FORBIDDEN, exception.getMessage());
+        assertEquals(Exceptions.ACCOUNT.NOT_FOUND, exception.getMessage());
     }
 
     @Test
@@ -186,7 +189,7 @@ public class BankingAccountCardManagerServiceTest {
         BankingCardRequest request = new BankingCardRequest(BankingCardType.CREDIT);
 
         // when
-        when(bankingAccountRepository.findById(anyLong())).thenReturn(Optional.of(givenBankAccount));
+        when(bankingAccountRepository.findWithBankingCardsById(anyLong())).thenReturn(Optional.of(givenBankAccount));
         when(bankingCardService.createBankingCard(any(BankingAccount.class), any(BankingCardType.class)))
                 .thenReturn(givenBankingCard);
 
@@ -210,16 +213,16 @@ public class BankingAccountCardManagerServiceTest {
         BankingAccount givenBankAccount = new BankingAccount(customerA);
         givenBankAccount.setId(1L);
         givenBankAccount.setAccountNumber("US9900001111112233334444");
-        givenBankAccount.addBankingCard(new BankingCard());
-        givenBankAccount.addBankingCard(new BankingCard());
-        givenBankAccount.addBankingCard(new BankingCard());
-        givenBankAccount.addBankingCard(new BankingCard());
-        givenBankAccount.addBankingCard(new BankingCard());
 
         BankingCardRequest request = new BankingCardRequest(BankingCardType.CREDIT);
 
         // when
-        when(bankingAccountRepository.findById(anyLong())).thenReturn(Optional.of(givenBankAccount));
+        when(bankingAccountRepository.findWithBankingCardsByIdAndCustomer_Id(anyLong(), anyLong()))
+                .thenReturn(Optional.of(givenBankAccount));
+        when(bankingCardRepository.countByBankingAccountIdAndCardStatus(
+                givenBankAccount.getId(),
+                BankingCardStatus.ENABLED
+        )).thenReturn(5L);
 
         BankingCardMaximumCardsPerAccountLimitReached exception = assertThrows(
                 BankingCardMaximumCardsPerAccountLimitReached.class,
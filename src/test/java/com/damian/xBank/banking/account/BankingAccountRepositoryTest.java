@@ -87,13 +87,77 @@ public class BankingAccountRepositoryTest {
         accountRepository.save(account);
 
         // when
-        final BigDecimal updatedBalance = BigDecimal.valueOf(600);
-        account.setBalance(updatedBalance);
+        account.setAccountStatus(BankingAccountStatus.CLOSED);
         accountRepository.save(account);
 
         // then
         Optional<BankingAccount> result = accountRepository.findById(account.getId());
         assertThat(result.isPresent());
-        assertThat(result.get().getBalance()).isEqualTo(updatedBalance);
+        assertThat(result.get().getAccountStatus()).isEqualTo(BankingAccountStatus.CLOSED);
+    }
+
+    @Test
+    void shouldDebitBalanceWhenEnoughFunds() {
+        // given
+        BankingAccount account = createBankingAccount(BigDecimal.valueOf(200));
+
+        // when
+        Optional<BigDecimal> balance = accountRepository.debitBalance(account.getId(), BigDecimal.valueOf(200));
+
+        // then
+        assertThat(balance.isPresent()).isTrue();
+        assertThat(balance.get()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void shouldNotDebitBalanceWhenInsufficientFunds() {
+        // given
+        BankingAccount account = createBankingAccount(BigDecimal.valueOf(200));
+
+        // when
+        Optional<BigDecimal> balance = accountRepository.debitBalance(account.getId(), BigDecimal.valueOf(201));
+
+        // then
+        assertThat(balance.isPresent()).isFalse();
+        assertThat(accountRepository.creditBalance(account.getId(), BigDecimal.ZERO).get())
+                .isEqualByComparingTo(BigDecimal.valueOf(200));
+    }
+
+    @Test
+    void shouldCreditBalance() {
+        // given
+        BankingAccount account = createBankingAccount(BigDecimal.valueOf(200));
+
+        // when
+        Optional<BigDecimal> balance = accountRepository.creditBalance(account.getId(), BigDecimal.valueOf(50));
+
+        // then
+        assertThat(balance.isPresent()).isTrue();
+        assertThat(balance.get()).isEqualByComparingTo(BigDecimal.valueOf(250));
+    }
+
+    @Test
+    void shouldNotCreditBalanceWhenAccountNotFound() {
+        // when
+        Optional<BigDecimal> balance = accountRepository.creditBalance(-1L, BigDecimal.valueOf(50));
+
+        // then
+        assertThat(balance.isPresent()).isFalse();
+    }
+
+    private BankingAccount createBankingAccount(BigDecimal balance) {
+        Customer customer = new Customer("customer@test.com", "123456");
+        customerRepository.save(customer);
+
+        BankingAccount account = new BankingAccount();
+        account.setOwner(customer);
+        account.setAccountNumber("US00 1111 2222 3333 4444 5555");
+        account.setAccountCurrency(BankingAccountCurrency.EUR);
+        account.setAccountStatus(BankingAccountStatus.OPEN);
+        account.setAccountType(BankingAccountType.SAVINGS);
+        account.setBalance(balance);
+
+        // flush so the insert is visible to the balance statements
+        return accountRepository.saveAndFlush(account);
     }
 }
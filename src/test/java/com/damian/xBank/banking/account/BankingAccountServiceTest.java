@@ -6,6 +6,11 @@ import com.damian.xBank.banking.account.http.request.BankingAccountAliasUpdateRe
 import com.damian.xBank.banking.account.http.request.BankingAccountCloseRequest;
 import com.damian.xBank.banking.account.http.request.BankingAccountCreateRequest;
 import com.damian.xBank.banking.account.http.request.BankingAccountOpenRequest;
+import com.damian.xBank.banking.card.BankingCardAuthorizationCache;
+import com.damian.xBank.banking.card.BankingCardDTO;
+import com.damian.xBank.banking.card.BankingCardRepository;
+import com.damian.xBank.banking.card.BankingCardStatus;
+import com.damian.xBank.banking.card.BankingCardType;
 import com.damian.xBank.common.exception.Exceptions;
 import com.damian.xBank.customer.Customer;
 import com.damian.xBank.customer.CustomerRepository;
@@ -23,6 +28,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -30,7 +36,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.math.BigDecimal;
-import java.util.HashSet;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -48,14 +55,20 @@ public class BankingAccountServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private BankingCardRepository bankingCardRepository;
+
+    @Mock
+    private BankingCardAuthorizationCache bankingCardAuthorizationCache;
+
     @Mock
     private Faker faker;
 
     @Mock
     private Finance finance;
 
-    @Mock
-    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    @Spy
+    private BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
 
     @InjectMocks
     private BankingAccountService bankingAccountService;
@@ -68,7 +81,6 @@ public class BankingAccountServiceTest {
 
     @BeforeEach
     void setUp() {
-        BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
         customerRepository.deleteAll();
         customerA = new Customer(99L, "customerA@test.com", bCryptPasswordEncoder.encode(rawPassword));
         customerB = new Customer(92L, "customerB@test.com", bCryptPasswordEncoder.encode(rawPassword));
@@ -169,7 +181,8 @@ public class BankingAccountServiceTest {
         givenBankingAccount.setAccountNumber("US9900001111112233334444");
 
         // when
-        when(bankingAccountRepository.findById(givenBankingAccount.getId())).thenReturn(Optional.of(givenBankingAccount));
+        when(bankingAccountRepository.findWithBankingCardsByIdAndCustomer_Id(givenBankingAccount.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccount));
         when(bankingAccountRepository.save(any(BankingAccount.class))).thenReturn(givenBankingAccount);
 
         BankingAccount savedAccount = bankingAccountService.closeBankingAccount(
@@ -200,7 +213,8 @@ public class BankingAccountServiceTest {
         givenBankingAccount.setAccountNumber(accountNumber);
 
         // when
-        when(bankingAccountRepository.findById(givenBankingAccount.getId())).thenReturn(Optional.of(givenBankingAccount));
+        when(bankingAccountRepository.findWithBankingCardsByIdAndCustomer_Id(givenBankingAccount.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccount));
 
         BankingAccountAuthorizationException exception = assertThrows(
                 BankingAccountAuthorizationException.class,
@@ -228,7 +242,8 @@ public class BankingAccountServiceTest {
         givenBankingAccount.setAccountNumber(accountNumber);
 
         // when
-        when(bankingAccountRepository.findById(givenBankingAccount.getId())).thenReturn(Optional.empty());
+        when(bankingAccountRepository.findWithBankingCardsByIdAndCustomer_Id(givenBankingAccount.getId(), customerA.getId()))
+                .thenReturn(Optional.empty());
 
         BankingAccountNotFoundException exception = assertThrows(
                 BankingAccountNotFoundException.class,
@@ -259,16 +274,17 @@ public class BankingAccountServiceTest {
         givenBankingAccount.setAccountNumber(accountNumber);
 
         // when
-        when(bankingAccountRepository.findById(givenBankingAccount.getId())).thenReturn(Optional.of(givenBankingAccount));
+        when(bankingAccountRepository.findWithBankingCardsByIdAndCustomer_Id(givenBankingAccount.getId(), customerA.getId()))
+                .thenReturn(Optional.empty());
 
-        BankingAccountAuthorizationException exception = assertThrows(
-                BankingAccountAuthorizationException.class,
+        BankingAccountNotFoundException exception = assertThrows(
+                BankingAccountNotFoundException.class,
                 () -> bankingAccountService.closeBankingAccount(givenBankingAccount.getId(), request)
         );
 
         // then
         assertTrue(exception.getMessage().contains(
-                Exceptions.ACCOUNT.ACCESS_FORBIDDEN
+                Exceptions.ACCOUNT.NOT_FOUND
         ));
     }
 
@@ -287,7 +303,7 @@ public class BankingAccountServiceTest {
         givenBankingAccount.setAccountNumber(accountNumber);
 
         // when
-        when(bankingAccountRepository.findById(givenBankingAccount.getId())).thenReturn(Optional.of(givenBankingAccount));
+        when(bankingAccountRepository.findWithBankingCardsById(givenBankingAccount.getId())).thenReturn(Optional.of(givenBankingAccount));
         when(bankingAccountRepository.save(any(BankingAccount.class))).thenReturn(givenBankingAccount);
 
         BankingAccount savedAccount = bankingAccountService.closeBankingAccount(
@@ -303,27 +319,67 @@ public class BankingAccountServiceTest {
     @DisplayName("Should get a customer with its banking account data")
     void shouldGetCustomerBankingAccountsFromCustomer() {
         // given
-        Set<BankingAccount> bankingAccounts = new HashSet<>();
-        BankingAccount bankingAccountA = new BankingAccount(customerA);
-        bankingAccountA.setAccountCurrency(BankingAccountCurrency.EUR);
-        bankingAccountA.setAccountType(BankingAccountType.SAVINGS);
-        bankingAccountA.setAccountNumber("US99 0000 1111 1122 3333 4444");
-        bankingAccounts.add(bankingAccountA);
-
-        BankingAccount bankingAccountB = new BankingAccount(customerA);
-        bankingAccountB.setAccountCurrency(BankingAccountCurrency.EUR);
-        bankingAccountB.setAccountType(BankingAccountType.SAVINGS);
-        bankingAccountB.setAccountNumber("US99 0000 1111 1122 3333 6666");
-        bankingAccounts.add(bankingAccountB);
+        BankingAccountSummary bankingAccountA = new BankingAccountSummary(
+                1L,
+                null,
+                "US99 0000 1111 1122 3333 4444",
+                BigDecimal.ZERO,
+                BankingAccountType.SAVINGS,
+                BankingAccountCurrency.EUR,
+                BankingAccountStatus.OPEN,
+                Instant.now(),
+                Instant.now()
+        );
+
+        BankingAccountSummary bankingAccountB = new BankingAccountSummary(
+                2L,
+                null,
+                "US99 0000 1111 1122 3333 6666",
+                BigDecimal.ZERO,
+                BankingAccountType.SAVINGS,
+                BankingAccountCurrency.EUR,
+                BankingAccountStatus.OPEN,
+                Instant.now(),
+                Instant.now()
+        );
+
+        BankingCardDTO bankingCard = new BankingCardDTO(
+                5L,
+                bankingAccountA.id(),
+                "alice wonderland",
+                "1234567890123456",
+                "123",
+                "1234",
+                BigDecimal.valueOf(300),
+                null,
+                BankingCardType.DEBIT,
+                BankingCardStatus.ENABLED,
+                null,
+                Instant.now(),
+                Instant.now()
+        );
 
         // when
-        when(bankingAccountRepository.findByCustomer_Id(anyLong())).thenReturn(bankingAccounts);
+        when(bankingAccountRepository.findSummariesByCustomerId(anyLong()))
+                .thenReturn(List.of(bankingAccountA, bankingAccountB));
+        when(bankingCardRepository.findCardDTOsByCustomerId(anyLong())).thenReturn(Set.of(bankingCard));
 
-        Set<BankingAccount> result = bankingAccountService.getCustomerBankingAccounts(customerA.getId());
+        Set<BankingAccountDTO> result = bankingAccountService.getCustomerBankingAccounts(customerA.getId());
 
         // then
         assertThat(result.size()).isEqualTo(2);
-        verify(bankingAccountRepository, times(1)).findByCustomer_Id(anyLong());
+        assertThat(result)
+                .filteredOn(bankingAccount -> bankingAccount.id().equals(bankingAccountA.id()))
+                .singleElement()
+                .extracting(BankingAccountDTO::accountCards)
+                .isEqualTo(Set.of(bankingCard));
+        assertThat(result)
+                .filteredOn(bankingAccount -> bankingAccount.id().equals(bankingAccountB.id()))
+                .singleElement()
+                .extracting(BankingAccountDTO::accountCards)
+                .isEqualTo(Set.of());
+        verify(bankingAccountRepository, times(1)).findSummariesByCustomerId(anyLong());
+        verify(bankingCardRepository, times(1)).findCardDTOsByCustomerId(anyLong());
     }
 
     @Test
@@ -343,7 +399,8 @@ public class BankingAccountServiceTest {
         givenBankingAccount.setAccountNumber("US9900001111112233334444");
 
         // when
-        when(bankingAccountRepository.findById(givenBankingAccount.getId())).thenReturn(Optional.of(givenBankingAccount));
+        when(bankingAccountRepository.findWithBankingCardsByIdAndCustomer_Id(givenBankingAccount.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccount));
         when(bankingAccountRepository.save(any(BankingAccount.class))).thenReturn(givenBankingAccount);
 
         BankingAccount savedAccount = bankingAccountService.setBankingAccountAlias(
@@ -374,7 +431,8 @@ public class BankingAccountServiceTest {
         givenBankingAccount.setAccountNumber(accountNumber);
 
         // when
-        when(bankingAccountRepository.findById(givenBankingAccount.getId())).thenReturn(Optional.of(givenBankingAccount));
+        when(bankingAccountRepository.findWithBankingCardsByIdAndCustomer_Id(givenBankingAccount.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccount));
 
         BankingAccountAuthorizationException exception = assertThrows(
                 BankingAccountAuthorizationException.class,
@@ -403,7 +461,8 @@ public class BankingAccountServiceTest {
         givenBankingAccount.setAccountNumber(accountNumber);
 
         // when
-        when(bankingAccountRepository.findById(givenBankingAccount.getId())).thenReturn(Optional.of(givenBankingAccount));
+        when(bankingAccountRepository.findWithBankingCardsByIdAndCustomer_Id(givenBankingAccount.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccount));
 
         BankingAccountAuthorizationException exception = assertThrows(
                 BankingAccountAuthorizationException.class,
@@ -0,0 +1,219 @@
+package com.damian.xBank.banking.card;
+
+import com.damian.xBank.auth.http.AuthenticationRequest;
+import com.damian.xBank.auth.http.AuthenticationResponse;
+import com.damian.xBank.banking.account.*;
+import com.damian.xBank.banking.card.http.BankingCardSetDailyLimitRequest;
+import com.damian.xBank.banking.card.http.BankingCardSetLockStatusRequest;
+import com.damian.xBank.banking.card.http.BankingCardSetPinRequest;
+import com.damian.xBank.banking.ledger.LedgerEntryRepository;
+import com.damian.xBank.banking.ledger.LedgerPostingRepository;
+import com.damian.xBank.banking.transactions.BankingTransactionType;
+import com.damian.xBank.banking.transactions.http.BankingCardTransactionRequest;
+import com.damian.xBank.customer.Customer;
+import com.damian.xBank.customer.CustomerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The other tests run with the card authorization cache disabled, this one turns it on and
+ * checks that a change made through the card endpoints is seen by the very next charge.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "banking.cards.authorization-cache.max-size=100")
+public class BankingCardAuthorizationCacheIntegrationTest {
+    private final String rawPassword = "123456";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private BankingAccountRepository bankingAccountRepository;
+
+    @Autowired
+    private LedgerPostingRepository ledgerPostingRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BCryptPasswordEncoder bCryptPasswordEncoder;
+
+    private BankingCard bankingCard;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        customerRepository.deleteAll();
+        bankingAccountRepository.deleteAll();
+
+        Customer customer = new Customer();
+        customer.setEmail("customer@test.com");
+        customer.setPassword(bCryptPasswordEncoder.encode(this.rawPassword));
+        customer.getProfile().setFirstName("alice");
+        customer.getProfile().setLastName("wonderland");
+        customer.getProfile().setBirthdate(LocalDate.of(1989, 1, 1));
+        customerRepository.save(customer);
+
+        BankingAccount bankingAccount = new BankingAccount(customer);
+        bankingAccount.setAccountNumber("ES1234567890123456789012");
+        bankingAccount.setAccountType(BankingAccountType.SAVINGS);
+        bankingAccount.setAccountCurrency(BankingAccountCurrency.EUR);
+        bankingAccount.setAccountStatus(BankingAccountStatus.OPEN);
+        bankingAccount.setBalance(BigDecimal.valueOf(1000));
+
+        bankingCard = new BankingCard();
+        bankingCard.setCardType(BankingCardType.CREDIT);
+        bankingCard.setCardPin("1234");
+        bankingCard.setCardNumber("1234567890123456");
+        bankingCard.setCardStatus(BankingCardStatus.ENABLED);
+        bankingCard.setAssociatedBankingAccount(bankingAccount);
+
+        bankingAccount.addBankingCard(bankingCard);
+        bankingAccountRepository.save(bankingAccount);
+
+        loginWithCustomer(customer);
+    }
+
+    void loginWithCustomer(Customer customer) throws Exception {
+        AuthenticationRequest authenticationRequest = new AuthenticationRequest(
+                customer.getEmail(), this.rawPassword
+        );
+
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/login")
+                                          .contentType(MediaType.APPLICATION_JSON)
+                                          .content(objectMapper.writeValueAsString(authenticationRequest)))
+                                  .andReturn();
+
+        AuthenticationResponse response = objectMapper.readValue(
+                result.getResponse().getContentAsString(),
+                AuthenticationResponse.class
+        );
+
+        token = response.token();
+    }
+
+    // the journal is never deleted with its accounts, it has to go before the next setUp deletes them
+    @AfterEach
+    void tearDownLedger() {
+        ledgerPostingRepository.deleteAllInBatch();
+        ledgerEntryRepository.deleteAllInBatch();
+    }
+
+    int charge(String pin, BigDecimal amount) throws Exception {
+        BankingCardTransactionRequest request = new BankingCardTransactionRequest(
+                BankingTransactionType.CARD_CHARGE,
+                "Amazon.com",
+                amount,
+                pin
+        );
+
+        return mockMvc.perform(post("/api/v1/customers/me/banking/cards/{id}/transactions", bankingCard.getId())
+                              .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                              .contentType(MediaType.APPLICATION_JSON)
+                              .content(objectMapper.writeValueAsString(request)))
+                      .andReturn()
+                      .getResponse()
+                      .getStatus();
+    }
+
+    void updateCard(String path, Object request) throws Exception {
+        mockMvc.perform(patch("/api/v1/customers/me/banking/cards/{id}/" + path, bankingCard.getId())
+                       .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(request)))
+               .andExpect(status().is(200));
+    }
+
+    double cacheHits() {
+        return meterRegistry
+                .get("cache.gets")
+                .tag("cache", "bankingCardAuthorizations")
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+    }
+
+    @Test
+    @DisplayName("Should charge with the new PIN right after it is changed")
+    void shouldChargeWithNewPinAfterChange() throws Exception {
+        // given
+        final double hits = cacheHits();
+        assertThat(charge("1234", BigDecimal.TEN)).isEqualTo(201);
+        assertThat(charge("1234", BigDecimal.TEN)).isEqualTo(201);
+        assertThat(cacheHits()).isGreaterThan(hits);
+
+        // when
+        updateCard("pin", new BankingCardSetPinRequest("9876", this.rawPassword));
+
+        // then
+        assertThat(charge("1234", BigDecimal.TEN)).isEqualTo(403);
+        assertThat(charge("9876", BigDecimal.TEN)).isEqualTo(201);
+    }
+
+    @Test
+    @DisplayName("Should reject the next charge right after the card is locked")
+    void shouldRejectChargeAfterLock() throws Exception {
+        // given
+        assertThat(charge("1234", BigDecimal.TEN)).isEqualTo(201);
+
+        // when
+        updateCard(
+                "lock-status",
+                new BankingCardSetLockStatusRequest(BankingCardLockStatus.LOCKED, this.rawPassword)
+        );
+
+        // then
+        assertThat(charge("1234", BigDecimal.TEN)).isEqualTo(403);
+    }
+
+    @Test
+    @DisplayName("Should apply the new daily limit to the next charge")
+    void shouldApplyNewDailyLimitToNextCharge() throws Exception {
+        // given
+        assertThat(charge("1234", BigDecimal.valueOf(100))).isEqualTo(201);
+
+        // when
+        updateCard(
+                "daily-limit",
+                new BankingCardSetDailyLimitRequest(BigDecimal.valueOf(150), this.rawPassword)
+        );
+
+        // then
+        assertThat(charge("1234", BigDecimal.valueOf(100))).isEqualTo(403);
+        assertThat(charge("1234", BigDecimal.valueOf(50))).isEqualTo(201);
+    }
+}
@@ -0,0 +1,129 @@
+package com.damian.xBank.banking.card;
+
+import com.damian.xBank.banking.account.BankingAccountStatus;
+import com.damian.xBank.banking.card.exception.BankingCardAuthorizationException;
+import com.damian.xBank.banking.card.exception.BankingCardNotFoundException;
+import com.damian.xBank.common.exception.Exceptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BankingCardAuthorizationCacheTest {
+
+    @Mock
+    private BankingCardRepository bankingCardRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BankingCardAuthorizationCache bankingCardAuthorizationCache;
+
+    @BeforeEach
+    void setUp() {
+        bankingCardAuthorizationCache = new BankingCardAuthorizationCache(
+                bankingCardRepository,
+                transactionManager,
+                100,
+                Duration.ofMinutes(5),
+                new SimpleMeterRegistry()
+        );
+    }
+
+    BankingCardAuthorizationSnapshot snapshot(Long cardId, Long accountId) {
+        return new BankingCardAuthorizationSnapshot(
+                cardId,
+                accountId,
+                1L,
+                BankingCardStatus.ENABLED,
+                BankingCardLockStatus.UNLOCKED,
+                BankingAccountStatus.OPEN,
+                "1234",
+                BigDecimal.valueOf(300)
+        );
+    }
+
+    @Test
+    @DisplayName("Should load the snapshot once and reload it after eviction")
+    void shouldLoadOnceAndReloadAfterEvict() {
+        // given
+        when(bankingCardRepository.findAuthorizationSnapshot(11L)).thenReturn(Optional.of(snapshot(11L, 5L)));
+
+        // when
+        BankingCardAuthorizationSnapshot first = bankingCardAuthorizationCache.get(11L);
+        BankingCardAuthorizationSnapshot second = bankingCardAuthorizationCache.get(11L);
+        bankingCardAuthorizationCache.evict(11L);
+        bankingCardAuthorizationCache.get(11L);
+
+        // then
+        assertThat(second).isSameAs(first);
+        verify(bankingCardRepository, times(2)).findAuthorizationSnapshot(11L);
+    }
+
+    @Test
+    @DisplayName("Should evict only the cards of the account")
+    void shouldEvictCardsOfAccount() {
+        // given
+        when(bankingCardRepository.findAuthorizationSnapshot(11L)).thenReturn(Optional.of(snapshot(11L, 5L)));
+        when(bankingCardRepository.findAuthorizationSnapshot(12L)).thenReturn(Optional.of(snapshot(12L, 6L)));
+        bankingCardAuthorizationCache.get(11L);
+        bankingCardAuthorizationCache.get(12L);
+
+        // when
+        bankingCardAuthorizationCache.evictByBankingAccount(5L);
+        bankingCardAuthorizationCache.get(11L);
+        bankingCardAuthorizationCache.get(12L);
+
+        // then
+        verify(bankingCardRepository, times(2)).findAuthorizationSnapshot(11L);
+        verify(bankingCardRepository, times(1)).findAuthorizationSnapshot(12L);
+    }
+
+    @Test
+    @DisplayName("Should fail when the card does not exist")
+    void shouldFailWhenCardNotFound() {
+        // given
+        when(bankingCardRepository.findAuthorizationSnapshot(11L)).thenReturn(Optional.empty());
+
+        // when
+        BankingCardNotFoundException exception = assertThrows(
+                BankingCardNotFoundException.class,
+                () -> bankingCardAuthorizationCache.get(11L)
+        );
+
+        // then
+        assertThat(exception.getMessage()).isEqualTo(Exceptions.CARD.NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("Should check the PIN against the verifier")
+    void shouldCheckPin() {
+        // given
+        BankingCardAuthorizationSnapshot snapshot = snapshot(11L, 5L);
+
+        // when
+        BankingCardAuthorizationException exception = assertThrows(
+                BankingCardAuthorizationException.class,
+                () -> snapshot.checkPIN("0000")
+        );
+
+        // then
+        assertThat(snapshot.checkPIN("1234")).isSameAs(snapshot);
+        assertThat(exception.getMessage()).isEqualTo(Exceptions.CARD.INVALID_PIN);
+    }
+}
@@ -4,7 +4,6 @@ import com.damian.xBank.auth.http.PasswordConfirmationRequest;
 import com.damian.xBank.banking.account.BankingAccount;
 import com.damian.xBank.banking.account.BankingAccountCurrency;
 import com.damian.xBank.banking.account.BankingAccountType;
-import com.damian.xBank.banking.card.exception.BankingCardAuthorizationException;
 import com.damian.xBank.banking.card.exception.BankingCardNotFoundException;
 import com.damian.xBank.banking.card.http.BankingCardSetDailyLimitRequest;
 import com.damian.xBank.banking.card.http.BankingCardSetLockStatusRequest;
@@ -23,6 +22,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -42,12 +42,18 @@ public class BankingCardServiceTest {
     @Mock
     private BankingCardRepository bankingCardRepository;
 
+    @Mock
+    private BankingCardAuthorizationCache bankingCardAuthorizationCache;
+
     @Mock
     private CustomerRepository customerRepository;
 
     @Mock
     private Faker faker;
 
+    @Spy
+    private BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
+
     @InjectMocks
     private BankingCardService bankingCardService;
 
@@ -59,7 +65,6 @@ public class BankingCardServiceTest {
 
     @BeforeEach
     void setUp() {
-        BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
         customerRepository.deleteAll();
         customerA = new Customer(99L, "customerA@test.com", bCryptPasswordEncoder.encode(RAW_PASSWORD));
         customerB = new Customer(92L, "customerB@test.com", bCryptPasswordEncoder.encode(RAW_PASSWORD));
@@ -130,7 +135,7 @@ public class BankingCardServiceTest {
         givenBankingCard.setAssociatedBankingAccount(givenBankAccount);
 
         // when
-        when(bankingCardRepository.findById(anyLong())).thenReturn(Optional.of(givenBankingCard));
+        when(bankingCardRepository.findByIdAndBankingAccount_Customer_Id(anyLong(), anyLong())).thenReturn(Optional.of(givenBankingCard));
         when(bankingCardRepository.save(any(BankingCard.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -198,7 +203,7 @@ public class BankingCardServiceTest {
         PasswordConfirmationRequest request = new PasswordConfirmationRequest(RAW_PASSWORD);
 
         // when
-        when(bankingCardRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(bankingCardRepository.findByIdAndBankingAccount_Customer_Id(anyLong(), anyLong())).thenReturn(Optional.empty());
 
         assertThrows(
                 BankingCardNotFoundException.class,
@@ -230,10 +235,11 @@ public class BankingCardServiceTest {
         PasswordConfirmationRequest request = new PasswordConfirmationRequest(RAW_PASSWORD);
 
         // when
-        when(bankingCardRepository.findById(anyLong())).thenReturn(Optional.of(givenBankingCard));
+        when(bankingCardRepository.findByIdAndBankingAccount_Customer_Id(givenBankingCard.getId(), customerA.getId()))
+                .thenReturn(Optional.empty());
 
         assertThrows(
-                BankingCardAuthorizationException.class,
+                BankingCardNotFoundException.class,
                 () -> bankingCardService.cancelCard(givenBankingCard.getId(), request)
         );
 
@@ -262,7 +268,7 @@ public class BankingCardServiceTest {
         PasswordConfirmationRequest request = new PasswordConfirmationRequest("1234567");
 
         // when
-        when(bankingCardRepository.findById(anyLong())).thenReturn(Optional.of(givenBankingCard));
+        when(bankingCardRepository.findByIdAndBankingAccount_Customer_Id(anyLong(), anyLong())).thenReturn(Optional.of(givenBankingCard));
 
         assertThrows(
                 PasswordMismatchException.class,
@@ -293,7 +299,7 @@ public class BankingCardServiceTest {
         BankingCardSetPinRequest request = new BankingCardSetPinRequest("7777", RAW_PASSWORD);
 
         // when
-        when(bankingCardRepository.findById(anyLong())).thenReturn(Optional.of(givenBankingCard));
+        when(bankingCardRepository.findByIdAndBankingAccount_Customer_Id(anyLong(), anyLong())).thenReturn(Optional.of(givenBankingCard));
         when(bankingCardRepository.save(any(BankingCard.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -328,7 +334,7 @@ public class BankingCardServiceTest {
         );
 
         // when
-        when(bankingCardRepository.findById(anyLong())).thenReturn(Optional.of(givenBankingCard));
+        when(bankingCardRepository.findByIdAndBankingAccount_Customer_Id(anyLong(), anyLong())).thenReturn(Optional.of(givenBankingCard));
         when(bankingCardRepository.save(any(BankingCard.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -364,7 +370,7 @@ public class BankingCardServiceTest {
         givenBankingCard.setAssociatedBankingAccount(givenBankAccount);
 
         // when
-        when(bankingCardRepository.findById(anyLong())).thenReturn(Optional.of(givenBankingCard));
+        when(bankingCardRepository.findByIdAndBankingAccount_Customer_Id(anyLong(), anyLong())).thenReturn(Optional.of(givenBankingCard));
         when(bankingCardRepository.save(any(BankingCard.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
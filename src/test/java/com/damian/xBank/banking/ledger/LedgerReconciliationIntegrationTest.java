@@ -0,0 +1,125 @@
+package com.damian.xBank.banking.ledger;
+
+import com.damian.xBank.banking.account.BankingAccount;
+import com.damian.xBank.banking.account.BankingAccountCurrency;
+import com.damian.xBank.banking.account.BankingAccountRepository;
+import com.damian.xBank.banking.account.BankingAccountStatus;
+import com.damian.xBank.customer.Customer;
+import com.damian.xBank.customer.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "banking.ledger.reconciliation.chunk-size=3")
+public class LedgerReconciliationIntegrationTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private BankingAccountRepository bankingAccountRepository;
+
+    @Autowired
+    private LedgerPostingRepository ledgerPostingRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private LedgerReconciliationService ledgerReconciliationService;
+
+    private final List<BankingAccount> bankingAccounts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        bankingAccountRepository.deleteAll();
+        bankingAccounts.clear();
+
+        Customer customer = new Customer();
+        customer.setEmail("customerA@test.com");
+        customer.setPassword("123456");
+        customer.getProfile().setFirstName("alice");
+        customer.getProfile().setLastName("wonderland");
+        customer.getProfile().setBirthdate(LocalDate.of(1989, 1, 1));
+        customerRepository.save(customer);
+
+        // every third account has a balance that is not in the ledger
+        for (int i = 0; i < 10; i++) {
+            BankingAccount bankingAccount = new BankingAccount(customer);
+            bankingAccount.setAccountNumber(String.format("ES12345678901234567890%02d", i));
+            bankingAccount.setAccountCurrency(BankingAccountCurrency.EUR);
+            bankingAccount.setAccountStatus(BankingAccountStatus.OPEN);
+            bankingAccount.setBalance(i % 3 == 0 ? BigDecimal.valueOf(100) : BigDecimal.ZERO);
+            bankingAccounts.add(bankingAccountRepository.save(bankingAccount));
+        }
+    }
+
+    LedgerReconciliation reconcile() throws InterruptedException {
+        LedgerReconciliation reconciliation = ledgerReconciliationService.start();
+        for (int i = 0; i < 100 && reconciliation.isRunning(); i++) {
+            Thread.sleep(50);
+        }
+        return reconciliation;
+    }
+
+    // the journal is never deleted with its accounts, it has to go before the next setUp deletes them
+    @AfterEach
+    void tearDownLedger() {
+        ledgerPostingRepository.deleteAllInBatch();
+        ledgerEntryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should report the accounts whose balance does not match the ledger")
+    void shouldReportMismatches() throws Exception {
+        // when
+        LedgerReconciliation reconciliation = reconcile();
+
+        // then
+        assertThat(reconciliation.getStatus()).isEqualTo(LedgerReconciliationStatus.COMPLETED);
+        assertThat(reconciliation.getAccountsChecked()).isEqualTo(10);
+        assertThat(reconciliation.getAccountsPerSecond()).isPositive();
+        assertThat(reconciliation.getMismatchCount()).isEqualTo(4);
+        assertThat(reconciliation.getMismatches())
+                .extracting(LedgerBalanceMismatch::bankingAccountId)
+                .containsExactlyInAnyOrder(
+                        bankingAccounts.get(0).getId(),
+                        bankingAccounts.get(3).getId(),
+                        bankingAccounts.get(6).getId(),
+                        bankingAccounts.get(9).getId()
+                );
+        assertThat(ledgerReconciliationService.getLatest()).contains(reconciliation);
+    }
+
+    @Test
+    @DisplayName("Should not report an account after its balance is rebuilt from the ledger")
+    void shouldNotReportRebuiltAccount() throws Exception {
+        // given
+        ledgerService.rebuildBalance(bankingAccounts.get(0).getId());
+
+        // when
+        LedgerReconciliation reconciliation = reconcile();
+
+        // then
+        assertThat(reconciliation.getStatus()).isEqualTo(LedgerReconciliationStatus.COMPLETED);
+        assertThat(reconciliation.getMismatchCount()).isEqualTo(3);
+        assertThat(bankingAccountRepository.findById(bankingAccounts.get(0).getId()).get().getBalance())
+                .isEqualByComparingTo(BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,98 @@
+package com.damian.xBank.banking.ledger;
+
+import com.damian.xBank.banking.account.BankingAccount;
+import com.damian.xBank.banking.account.BankingAccountRepository;
+import com.damian.xBank.banking.transactions.BankingTransaction;
+import com.damian.xBank.banking.transactions.BankingTransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+public class LedgerServiceTest {
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private LedgerPostingRepository ledgerPostingRepository;
+
+    @Mock
+    private BankingAccountRepository bankingAccountRepository;
+
+    @InjectMocks
+    private LedgerService ledgerService;
+
+    BankingTransaction transaction(Long bankingAccountId, BankingTransactionType type, long amount) {
+        BankingAccount bankingAccount = new BankingAccount();
+        bankingAccount.setId(bankingAccountId);
+
+        BankingTransaction transaction = new BankingTransaction(bankingAccount);
+        transaction.setTransactionType(type);
+        transaction.setAmount(BigDecimal.valueOf(amount));
+        return transaction;
+    }
+
+    @Test
+    @DisplayName("Should balance a transfer with its two legs")
+    void shouldBalanceTransferWithItsLegs() {
+        // given
+        BankingTransaction from = transaction(1L, BankingTransactionType.TRANSFER_TO, 100);
+        BankingTransaction to = transaction(2L, BankingTransactionType.TRANSFER_FROM, 100);
+
+        // when
+        LedgerEntry entry = ledgerService.createEntry("Transfer", from, to);
+
+        // then
+        assertThat(entry.getPostings()).hasSize(2);
+        assertThat(entry.getTotal()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(entry.getPostings())
+                .extracting(LedgerPosting::getLedgerAccount)
+                .containsOnly(LedgerAccount.BANKING_ACCOUNT);
+        assertThat(entry.getPostings().get(0).getAmount()).isEqualByComparingTo("-100");
+        assertThat(entry.getPostings().get(1).getAmount()).isEqualByComparingTo("100");
+    }
+
+    @Test
+    @DisplayName("Should balance a card charge against the external account")
+    void shouldBalanceCardChargeAgainstExternal() {
+        // given
+        BankingTransaction charge = transaction(1L, BankingTransactionType.CARD_CHARGE, 100);
+
+        // when
+        LedgerEntry entry = ledgerService.createEntry("Amazon.com", charge);
+
+        // then
+        assertThat(entry.getPostings()).hasSize(2);
+        assertThat(entry.getTotal()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(entry.getPostings().get(0).getLedgerAccount()).isEqualTo(LedgerAccount.BANKING_ACCOUNT);
+        assertThat(entry.getPostings().get(0).getAmount()).isEqualByComparingTo("-100");
+        assertThat(entry.getPostings().get(1).getLedgerAccount()).isEqualTo(LedgerAccount.EXTERNAL);
+        assertThat(entry.getPostings().get(1).getAmount()).isEqualByComparingTo("100");
+    }
+
+    @Test
+    @DisplayName("Should not create an entry when the transfer legs do not match")
+    void shouldFailWhenTransferIsUnbalanced() {
+        // given
+        BankingTransaction from = transaction(1L, BankingTransactionType.TRANSFER_TO, 100);
+        BankingTransaction to = transaction(2L, BankingTransactionType.TRANSFER_FROM, 90);
+
+        // when
+        IllegalStateException exception = assertThrows(
+                IllegalStateException.class,
+                () -> ledgerService.createEntry("Transfer", from, to)
+        );
+
+        // then
+        assertThat(exception.getMessage()).contains("Unbalanced");
+    }
+}
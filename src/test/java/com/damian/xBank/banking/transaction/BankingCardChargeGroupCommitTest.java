@@ -0,0 +1,171 @@
+package com.damian.xBank.banking.transaction;
+
+import com.damian.xBank.banking.account.BankingAccount;
+import com.damian.xBank.banking.account.BankingAccountCurrency;
+import com.damian.xBank.banking.account.BankingAccountRepository;
+import com.damian.xBank.banking.account.BankingAccountStatus;
+import com.damian.xBank.banking.card.BankingCard;
+import com.damian.xBank.banking.card.BankingCardRepository;
+import com.damian.xBank.banking.card.BankingCardStatus;
+import com.damian.xBank.banking.card.BankingCardType;
+import com.damian.xBank.banking.card.exception.BankingCardAuthorizationException;
+import com.damian.xBank.banking.ledger.LedgerEntryRepository;
+import com.damian.xBank.banking.ledger.LedgerPostingRepository;
+import com.damian.xBank.banking.transactions.BankingCardChargeGroupCommitter;
+import com.damian.xBank.banking.transactions.BankingTransaction;
+import com.damian.xBank.banking.transactions.BankingTransactionRepository;
+import com.damian.xBank.banking.transactions.BankingTransactionType;
+import com.damian.xBank.customer.Customer;
+import com.damian.xBank.customer.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends card charges from many threads at once through the group commit
+ * and checks that each batch debits and stores them like single charges would.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "banking.cards.group-commit.enabled=true",
+        "banking.cards.group-commit.batch-size=8",
+        "banking.cards.group-commit.max-linger=20ms"
+})
+public class BankingCardChargeGroupCommitTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private BankingAccountRepository bankingAccountRepository;
+
+    @Autowired
+    private LedgerPostingRepository ledgerPostingRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private BankingCardRepository bankingCardRepository;
+
+    @Autowired
+    private BankingTransactionRepository bankingTransactionRepository;
+
+    @Autowired
+    private BankingCardChargeGroupCommitter bankingCardChargeGroupCommitter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BankingAccount bankingAccount;
+    private BankingCard bankingCard;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        bankingAccountRepository.deleteAll();
+
+        Customer customer = new Customer();
+        customer.setEmail("customerA@test.com");
+        customer.setPassword("123456");
+        customer.getProfile().setFirstName("alice");
+        customer.getProfile().setLastName("wonderland");
+        customer.getProfile().setBirthdate(LocalDate.of(1989, 1, 1));
+        customerRepository.save(customer);
+
+        // the balance is not updatable through the entity, so it must be set before the insert
+        bankingAccount = new BankingAccount(customer);
+        bankingAccount.setAccountNumber("ES1234567890123456789012");
+        bankingAccount.setAccountCurrency(BankingAccountCurrency.EUR);
+        bankingAccount.setAccountStatus(BankingAccountStatus.OPEN);
+        bankingAccount.setBalance(BigDecimal.valueOf(100));
+        bankingAccountRepository.save(bankingAccount);
+
+        bankingCard = new BankingCard();
+        bankingCard.setCardType(BankingCardType.DEBIT);
+        bankingCard.setCardPin("1234");
+        bankingCard.setCardNumber("1234567890123456");
+        bankingCard.setCardStatus(BankingCardStatus.ENABLED);
+        bankingCard.setAssociatedBankingAccount(bankingAccount);
+        bankingCardRepository.save(bankingCard);
+    }
+
+    // the journal is never deleted with its accounts, it has to go before the next setUp deletes them
+    @AfterEach
+    void tearDownLedger() {
+        ledgerPostingRepository.deleteAllInBatch();
+        ledgerEntryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should commit concurrent card charges together without overdrawing the account")
+    void shouldCommitConcurrentChargesTogether() throws Exception {
+        // given
+        final int charges = 20;
+        final double chargesBefore = meterRegistry.summary("banking.cards.group-commit.batch.size").totalAmount();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Exception> unexpected = new CopyOnWriteArrayList<>();
+
+        // when
+        for (int i = 0; i < charges; i++) {
+            executor.submit(() -> {
+                try {
+                    startGate.await();
+                    BankingTransaction transaction = bankingCardChargeGroupCommitter.charge(
+                            bankingCard.getId(),
+                            bankingAccount.getId(),
+                            BigDecimal.valueOf(10),
+                            "Amazon.com"
+                    );
+                    assertThat(transaction.getId()).isNotNull();
+                    completed.incrementAndGet();
+                } catch (BankingCardAuthorizationException e) {
+                    rejected.incrementAndGet();
+                } catch (Exception e) {
+                    unexpected.add(e);
+                }
+                return null;
+            });
+        }
+
+        startGate.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+
+        // then
+        List<BigDecimal> balances = new ArrayList<>();
+        bankingTransactionRepository.findAll().forEach(transaction -> {
+            assertThat(transaction.getTransactionType()).isEqualTo(BankingTransactionType.CARD_CHARGE);
+            assertThat(transaction.getBankingCard().getId()).isEqualTo(bankingCard.getId());
+            balances.add(transaction.getAccountBalance());
+        });
+
+        assertThat(unexpected).isEmpty();
+        assertThat(completed.get()).isEqualTo(10);
+        assertThat(rejected.get()).isEqualTo(charges - 10);
+        assertThat(bankingAccountRepository.findById(bankingAccount.getId()).get().getBalance())
+                .isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(balances).hasSize(10);
+        assertThat(balances.stream().map(BigDecimal::intValue).distinct().count()).isEqualTo(10);
+        assertThat(meterRegistry.summary("banking.cards.group-commit.batch.size").totalAmount() - chargesBefore)
+                .isEqualTo(charges);
+    }
+}
@@ -0,0 +1,177 @@
+package com.damian.xBank.banking.transaction;
+
+import com.damian.xBank.banking.account.BankingAccountRepository;
+import com.damian.xBank.banking.card.BankingCardRepository;
+import com.damian.xBank.banking.card.exception.BankingCardAuthorizationException;
+import com.damian.xBank.banking.ledger.LedgerService;
+import com.damian.xBank.banking.transactions.BankingCardChargeGroupCommitter;
+import com.damian.xBank.banking.transactions.BankingTransaction;
+import com.damian.xBank.banking.transactions.BankingTransactionService;
+import com.damian.xBank.banking.transactions.exception.BankingTransactionBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BankingCardChargeGroupCommitterTest {
+
+    @Mock
+    private BankingAccountRepository bankingAccountRepository;
+
+    @Mock
+    private BankingCardRepository bankingCardRepository;
+
+    @Mock
+    private BankingTransactionService bankingTransactionService;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private BankingCardChargeGroupCommitter committer;
+
+    BankingCardChargeGroupCommitter committer(Duration chargeTimeout) {
+        committer = new BankingCardChargeGroupCommitter(
+                bankingAccountRepository,
+                bankingCardRepository,
+                bankingTransactionService,
+                ledgerService,
+                transactionTemplate,
+                true,
+                10,
+                Duration.ZERO,
+                100,
+                chargeTimeout,
+                new SimpleMeterRegistry()
+        );
+        return committer;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        committer.destroy();
+    }
+
+    @Test
+    @DisplayName("Should keep the writer running after a batch fails with an error")
+    void shouldKeepWriterRunningAfterError() {
+        // given
+        committer(Duration.ofSeconds(10));
+
+        // the first batch fails with an error, the next one commits without debiting anything
+        doThrow(new StackOverflowError())
+                .doNothing()
+                .when(transactionTemplate).executeWithoutResult(any());
+
+        // when
+        IllegalStateException failed = assertThrows(
+                IllegalStateException.class,
+                () -> committer.charge(1L, 1L, BigDecimal.TEN, "Amazon.com")
+        );
+
+        // then
+        assertThat(failed.getCause()).isInstanceOf(StackOverflowError.class);
+        assertThrows(
+                BankingCardAuthorizationException.class,
+                () -> committer.charge(1L, 1L, BigDecimal.TEN, "Amazon.com")
+        );
+    }
+
+    @Test
+    @DisplayName("Should fail the charge as busy when it is still queued after the timeout")
+    void shouldFailChargeAsBusyWhenNotCommittedInTime() throws Exception {
+        // given
+        committer(Duration.ofMillis(50));
+
+        // the first batch hangs until the test releases it, the next charge waits in the queue
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            inFlight.countDown();
+            release.await();
+            return null;
+        }).doNothing().when(transactionTemplate).executeWithoutResult(any());
+
+        CompletableFuture<BankingTransaction> first = CompletableFuture.supplyAsync(
+                () -> committer.charge(1L, 1L, BigDecimal.TEN, "Amazon.com")
+        );
+        assertThat(inFlight.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when
+        try {
+            assertThrows(
+                    BankingTransactionBusyException.class,
+                    () -> committer.charge(2L, 2L, BigDecimal.TEN, "Amazon.com")
+            );
+        } finally {
+            release.countDown();
+        }
+
+        // then
+        // the first charge was claimed by the writer, so it waited for its batch
+        assertThat(first)
+                .failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableThat()
+                .withCauseInstanceOf(BankingCardAuthorizationException.class);
+        assertThrows(
+                BankingCardAuthorizationException.class,
+                () -> committer.charge(1L, 1L, BigDecimal.TEN, "Amazon.com")
+        );
+    }
+
+    @Test
+    @DisplayName("Should return the stored charge when the wait times out after its batch started")
+    void shouldReturnStoredChargeWhenTimeoutHitsBatchInFlight() throws Exception {
+        // given
+        committer(Duration.ofMillis(50));
+        when(bankingAccountRepository.debitBalance(anyLong(), any()))
+                .thenReturn(Optional.of(new BigDecimal("90")));
+
+        // the batch holding the charge commits only after its caller timed out
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            inFlight.countDown();
+            release.await();
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        // when
+        CompletableFuture<BankingTransaction> result = CompletableFuture.supplyAsync(
+                () -> committer.charge(1L, 1L, BigDecimal.TEN, "Amazon.com")
+        );
+        assertThat(inFlight.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(200);
+        release.countDown();
+
+        // then
+        BankingTransaction transaction = result.get(5, TimeUnit.SECONDS);
+        assertThat(transaction.getAmount()).isEqualByComparingTo(BigDecimal.TEN);
+        assertThat(transaction.getAccountBalance()).isEqualByComparingTo("90");
+    }
+}
@@ -0,0 +1,119 @@
+package com.damian.xBank.banking.transaction;
+
+import com.damian.xBank.banking.transactions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BankingCardDailySpendCountersTest {
+    private final BigDecimal dailyLimit = BigDecimal.valueOf(300);
+
+    @Mock
+    private BankingTransactionRepository bankingTransactionRepository;
+
+    @Mock
+    private Clock clock;
+
+    private BankingCardDailySpendCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        setTime("2025-06-01T10:00:00Z");
+        counters = new BankingCardDailySpendCounters(bankingTransactionRepository, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    void setTime(String instant) {
+        when(clock.instant()).thenReturn(Instant.parse(instant));
+    }
+
+    @Test
+    @DisplayName("Should add the spend while it stays within the daily limit")
+    void shouldReserveWithinDailyLimit() {
+        // when
+        boolean first = counters.tryReserve(1L, BigDecimal.valueOf(200), dailyLimit);
+        boolean second = counters.tryReserve(1L, BigDecimal.valueOf(100), dailyLimit);
+        boolean third = counters.tryReserve(1L, BigDecimal.valueOf(1), dailyLimit);
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(counters.getSpentToday(1L)).isEqualByComparingTo(BigDecimal.valueOf(300));
+        assertThat(counters.getSpentToday(2L)).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    @DisplayName("Should start again from zero on a new day")
+    void shouldResetOnNewDay() {
+        // given
+        counters.tryReserve(1L, BigDecimal.valueOf(300), dailyLimit);
+
+        // when
+        setTime("2025-06-02T00:00:01Z");
+        boolean reserved = counters.tryReserve(1L, BigDecimal.valueOf(100), dailyLimit);
+
+        // then
+        assertThat(reserved).isTrue();
+        assertThat(counters.getSpentToday(1L)).isEqualByComparingTo(BigDecimal.valueOf(100));
+    }
+
+    @Test
+    @DisplayName("Should release the spend when the transaction rolls back")
+    void shouldReleaseWhenTransactionRollsBack() {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+        counters.tryReserve(1L, BigDecimal.valueOf(200), dailyLimit);
+        counters.tryReserve(1L, BigDecimal.valueOf(50), dailyLimit);
+
+        // when
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // then
+        assertThat(counters.getSpentToday(1L)).isEqualByComparingTo(BigDecimal.valueOf(200));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the counters from the transactions of the day")
+    void shouldRebuildFromTransactions() {
+        // given
+        when(bankingTransactionRepository.sumCardSpendSince(
+                any(),
+                any(BankingTransactionStatus.class),
+                any(Instant.class)
+        )).thenReturn(List.of(new BankingCardSpend(1L, BigDecimal.valueOf(250))));
+
+        // when
+        counters.rebuild();
+
+        // then
+        assertThat(counters.getSpentToday(1L)).isEqualByComparingTo(BigDecimal.valueOf(250));
+        assertThat(counters.tryReserve(1L, BigDecimal.valueOf(100), dailyLimit)).isFalse();
+    }
+}
@@ -0,0 +1,223 @@
+package com.damian.xBank.banking.transaction;
+
+import com.damian.xBank.banking.account.*;
+import com.damian.xBank.banking.account.exception.BankingAccountAuthorizationException;
+import com.damian.xBank.banking.ledger.LedgerEntryRepository;
+import com.damian.xBank.banking.ledger.LedgerPostingRepository;
+import com.damian.xBank.banking.transactions.BankingTransaction;
+import com.damian.xBank.banking.transactions.BankingTransactionAccountService;
+import com.damian.xBank.banking.transactions.BankingTransactionRepository;
+import com.damian.xBank.banking.transactions.BankingTransactionType;
+import com.damian.xBank.customer.Customer;
+import com.damian.xBank.customer.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers the same accounts from many threads at once and checks
+ * that no money is created or lost by concurrent transfers.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+public class BankingTransactionAccountConcurrencyTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private BankingAccountRepository bankingAccountRepository;
+
+    @Autowired
+    private LedgerPostingRepository ledgerPostingRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private BankingTransactionRepository bankingTransactionRepository;
+
+    @Autowired
+    private BankingTransactionAccountService bankingTransactionAccountService;
+
+    private Customer customerA;
+    private Customer customerB;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        bankingAccountRepository.deleteAll();
+
+        customerA = new Customer();
+        customerA.setEmail("customerA@test.com");
+        customerA.setPassword("123456");
+        customerA.getProfile().setFirstName("alice");
+        customerA.getProfile().setLastName("wonderland");
+        customerA.getProfile().setBirthdate(LocalDate.of(1989, 1, 1));
+        customerRepository.save(customerA);
+
+        customerB = new Customer();
+        customerB.setEmail("customerB@test.com");
+        customerB.setPassword("123456");
+        customerB.getProfile().setFirstName("bob");
+        customerB.getProfile().setLastName("builder");
+        customerB.getProfile().setBirthdate(LocalDate.of(1995, 11, 11));
+        customerRepository.save(customerB);
+
+    }
+
+    // the balance is not updatable through the entity, so it must be set before the insert
+    BankingAccount createBankingAccount(Customer customer, String accountNumber, BigDecimal balance) {
+        BankingAccount bankingAccount = new BankingAccount(customer);
+        bankingAccount.setAccountNumber(accountNumber);
+        bankingAccount.setAccountCurrency(BankingAccountCurrency.EUR);
+        bankingAccount.setAccountStatus(BankingAccountStatus.OPEN);
+        bankingAccount.setBalance(balance);
+        return bankingAccountRepository.save(bankingAccount);
+    }
+
+    BigDecimal balanceOf(BankingAccount bankingAccount) {
+        return bankingAccountRepository.findById(bankingAccount.getId()).get().getBalance();
+    }
+
+    long countTransactions(BankingAccount bankingAccount, BankingTransactionType transactionType) {
+        return bankingTransactionRepository
+                .findAll()
+                .stream()
+                .filter(t -> t.getAssociatedBankingAccount().getId().equals(bankingAccount.getId()))
+                .map(BankingTransaction::getTransactionType)
+                .filter(transactionType::equals)
+                .count();
+    }
+
+    /**
+     * Runs all the tasks at the same time and returns how many of them
+     * failed with each kind of outcome.
+     */
+    Outcome runConcurrently(List<Runnable> tasks) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        Outcome outcome = new Outcome();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (Runnable task : tasks) {
+            futures.add(executor.submit(() -> {
+                try {
+                    startGate.await();
+                    task.run();
+                    outcome.completed.incrementAndGet();
+                } catch (BankingAccountAuthorizationException e) {
+                    outcome.rejected.incrementAndGet();
+                } catch (Exception e) {
+                    outcome.unexpected.add(e);
+                }
+                return null;
+            }));
+        }
+
+        startGate.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        futures.forEach(f -> assertThat(f).isDone());
+        return outcome;
+    }
+
+    // the journal is never deleted with its accounts, it has to go before the next setUp deletes them
+    @AfterEach
+    void tearDownLedger() {
+        ledgerPostingRepository.deleteAllInBatch();
+        ledgerEntryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should never overdraw a hot account under concurrent transfers")
+    void shouldNeverOverdrawHotAccount() throws Exception {
+        // given
+        final BigDecimal amount = BigDecimal.valueOf(10);
+        final int transfers = 40;
+        BankingAccount bankingAccountA = createBankingAccount(
+                customerA, "ES1234567890123456789012", BigDecimal.valueOf(100)
+        );
+        BankingAccount bankingAccountB = createBankingAccount(
+                customerB, "DE1234567890123456789012", BigDecimal.ZERO
+        );
+
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < transfers; i++) {
+            tasks.add(() -> bankingTransactionAccountService.transferTo(
+                    bankingAccountA, bankingAccountB, amount, "hot account"
+            ));
+        }
+
+        // when
+        Outcome outcome = runConcurrently(tasks);
+
+        // then
+        assertThat(outcome.unexpected).isEmpty();
+        assertThat(outcome.completed.get()).isEqualTo(10);
+        assertThat(outcome.rejected.get()).isEqualTo(transfers - 10);
+        assertThat(balanceOf(bankingAccountA)).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(balanceOf(bankingAccountB)).isEqualByComparingTo(BigDecimal.valueOf(100));
+        assertThat(countTransactions(bankingAccountA, BankingTransactionType.TRANSFER_TO)).isEqualTo(10);
+        assertThat(countTransactions(bankingAccountB, BankingTransactionType.TRANSFER_FROM)).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should not deadlock nor lose updates with transfers in opposite directions")
+    void shouldNotDeadlockWithOppositeTransfers() throws Exception {
+        // given
+        final BigDecimal amount = BigDecimal.valueOf(10);
+        final int transfersPerDirection = 30;
+        final BigDecimal initialBalance = BigDecimal.valueOf(1000);
+        BankingAccount bankingAccountA = createBankingAccount(
+                customerA, "ES1234567890123456789012", initialBalance
+        );
+        BankingAccount bankingAccountB = createBankingAccount(
+                customerB, "DE1234567890123456789012", initialBalance
+        );
+
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < transfersPerDirection; i++) {
+            tasks.add(() -> bankingTransactionAccountService.transferTo(
+                    bankingAccountA, bankingAccountB, amount, "A to B"
+            ));
+            tasks.add(() -> bankingTransactionAccountService.transferTo(
+                    bankingAccountB, bankingAccountA, amount, "B to A"
+            ));
+        }
+
+        // when
+        Outcome outcome = runConcurrently(tasks);
+
+        // then
+        assertThat(outcome.unexpected).isEmpty();
+        assertThat(outcome.rejected.get()).isZero();
+        assertThat(outcome.completed.get()).isEqualTo(transfersPerDirection * 2);
+        assertThat(balanceOf(bankingAccountA)).isEqualByComparingTo(initialBalance);
+        assertThat(balanceOf(bankingAccountB)).isEqualByComparingTo(initialBalance);
+        assertThat(countTransactions(bankingAccountA, BankingTransactionType.TRANSFER_TO))
+                .isEqualTo(transfersPerDirection);
+        assertThat(countTransactions(bankingAccountB, BankingTransactionType.TRANSFER_TO))
+                .isEqualTo(transfersPerDirection);
+    }
+
+    static class Outcome {
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final List<Exception> unexpected = new CopyOnWriteArrayList<>();
+    }
+}
@@ -3,20 +3,27 @@ package com.damian.xBank.banking.transaction;
 import com.damian.xBank.auth.http.AuthenticationRequest;
 import com.damian.xBank.auth.http.AuthenticationResponse;
 import com.damian.xBank.banking.account.*;
-import com.damian.xBank.banking.transactions.BankingTransaction;
-import com.damian.xBank.banking.transactions.BankingTransactionDTO;
-import com.damian.xBank.banking.transactions.BankingTransactionType;
+import com.damian.xBank.banking.ledger.LedgerEntryRepository;
+import com.damian.xBank.banking.ledger.LedgerPosting;
+import com.damian.xBank.banking.ledger.LedgerPostingRepository;
+import com.damian.xBank.banking.ledger.LedgerService;
+import com.damian.xBank.banking.transactions.*;
+import com.damian.xBank.banking.transactions.http.BankingAccountBatchTransferItem;
+import com.damian.xBank.banking.transactions.http.BankingAccountBatchTransferRequest;
 import com.damian.xBank.banking.transactions.http.BankingAccountTransactionRequest;
+import com.damian.xBank.common.exception.Exceptions;
 import com.damian.xBank.customer.Customer;
 import com.damian.xBank.customer.CustomerRepository;
 import com.damian.xBank.customer.CustomerRole;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -25,10 +32,13 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -51,12 +61,24 @@ public class BankingTransactionAccountIntegrationTest {
     @Autowired
     private BankingAccountRepository bankingAccountRepository;
 
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
     @Autowired
     private BCryptPasswordEncoder bCryptPasswordEncoder;
 
     @Autowired
     private BankingAccountService bankingAccountService;
 
+    @Autowired
+    private BankingTransactionRepository bankingTransactionRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private LedgerPostingRepository ledgerPostingRepository;
+
     private Customer customerA;
     private Customer customerB;
     private Customer customerAdmin;
@@ -118,6 +140,13 @@ public class BankingTransactionAccountIntegrationTest {
         token = response.token();
     }
 
+    // the journal is never deleted with its accounts, it has to go before the next setUp deletes them
+    @AfterEach
+    void tearDownLedger() {
+        ledgerPostingRepository.deleteAllInBatch();
+        ledgerEntryRepository.deleteAllInBatch();
+    }
+
     @Test
     @DisplayName("Should create a transaction account deposit")
     void shouldCreateTransactionAccountDeposit() throws Exception {
@@ -230,6 +259,13 @@ public class BankingTransactionAccountIntegrationTest {
         assertEquals(transaction.amount(), givenTransferAmount);
         assertEquals(transaction.description(), "Enjoy!");
         assertEquals(transaction.bankingAccountId(), bankingAccountA.getId());
+
+        // both legs are in one balanced journal entry
+        List<LedgerPosting> postings = ledgerPostingRepository
+                .findEntryPostingsByBankingTransactionId(transaction.id());
+        assertThat(postings).hasSize(2);
+        assertThat(postings.stream().map(LedgerPosting::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo(BigDecimal.ZERO);
     }
 
     @Test
@@ -365,4 +401,228 @@ public class BankingTransactionAccountIntegrationTest {
                 .andExpect(status().is(403))
                 .andReturn();
     }
-}
\ No newline at end of file
+
+    BankingAccount createBankingAccount(
+            Customer customer,
+            String accountNumber,
+            BankingAccountCurrency currency,
+            BigDecimal balance
+    ) {
+        BankingAccount bankingAccount = new BankingAccount(customer);
+        bankingAccount.setAccountNumber(accountNumber);
+        bankingAccount.setAccountType(BankingAccountType.SAVINGS);
+        bankingAccount.setAccountCurrency(currency);
+        bankingAccount.setAccountStatus(BankingAccountStatus.OPEN);
+        bankingAccount.setBalance(balance);
+        return bankingAccountRepository.save(bankingAccount);
+    }
+
+    @Test
+    @DisplayName("Should transfer a batch and report the result of each transfer")
+    void shouldTransferBatch() throws Exception {
+        // given
+        loginWithCustomer(customerA);
+
+        BankingAccount bankingAccountA = createBankingAccount(
+                customerA, "ES1234567890123456789012", BankingAccountCurrency.EUR, BigDecimal.valueOf(1000)
+        );
+        BankingAccount bankingAccountB = createBankingAccount(
+                customerB, "DE1234567890123456789012", BankingAccountCurrency.EUR, BigDecimal.valueOf(200)
+        );
+        BankingAccount bankingAccountC = createBankingAccount(
+                customerB, "US1234567890123456789012", BankingAccountCurrency.USD, BigDecimal.valueOf(200)
+        );
+
+        BankingAccountBatchTransferRequest request = new BankingAccountBatchTransferRequest(
+                List.of(
+                        new BankingAccountBatchTransferItem(bankingAccountB.getAccountNumber(), BigDecimal.valueOf(100)),
+                        new BankingAccountBatchTransferItem(bankingAccountC.getAccountNumber(), BigDecimal.valueOf(10)),
+                        new BankingAccountBatchTransferItem("FR0000000000000000000000", BigDecimal.valueOf(10)),
+                        new BankingAccountBatchTransferItem(bankingAccountB.getAccountNumber(), BigDecimal.valueOf(50))
+                ),
+                "Payroll",
+                RAW_PASSWORD
+        );
+
+        // when
+        MvcResult result = mockMvc
+                .perform(post(
+                        "/api/v1/customers/me/banking/accounts/{id}/transactions/batch", bankingAccountA.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andDo(print())
+                .andExpect(status().is(200))
+                .andReturn();
+
+        BankingTransactionBatchDTO batch = objectMapper.readValue(
+                result.getResponse().getContentAsString(),
+                BankingTransactionBatchDTO.class
+        );
+
+        // then
+        assertThat(batch.transfers())
+                .extracting(BankingTransactionBatchItemDTO::transactionStatus)
+                .containsExactly(
+                        BankingTransactionStatus.COMPLETED,
+                        BankingTransactionStatus.FAILED,
+                        BankingTransactionStatus.FAILED,
+                        BankingTransactionStatus.COMPLETED
+                );
+        assertThat(batch.transfers())
+                .extracting(BankingTransactionBatchItemDTO::error)
+                .containsExactly(
+                        null,
+                        Exceptions.TRANSACTION.DIFFERENT_CURRENCY,
+                        Exceptions.ACCOUNT.NOT_FOUND,
+                        null
+                );
+        assertThat(batch.transfers().get(0).transactionId()).isNotNull();
+        assertThat(batch.accountBalance()).isEqualByComparingTo(BigDecimal.valueOf(850));
+
+        assertThat(bankingAccountRepository.findById(bankingAccountA.getId()).get().getBalance())
+                .isEqualByComparingTo(BigDecimal.valueOf(850));
+        assertThat(bankingAccountRepository.findById(bankingAccountB.getId()).get().getBalance())
+                .isEqualByComparingTo(BigDecimal.valueOf(350));
+        assertThat(bankingAccountRepository.findById(bankingAccountC.getId()).get().getBalance())
+                .isEqualByComparingTo(BigDecimal.valueOf(200));
+        assertThat(bankingTransactionRepository.findByBankingAccountId(bankingAccountA.getId(), Pageable.unpaged()))
+                .extracting(BankingTransaction::getTransactionType)
+                .containsOnly(BankingTransactionType.TRANSFER_TO)
+                .hasSize(2);
+        assertThat(bankingTransactionRepository.findByBankingAccountId(bankingAccountB.getId(), Pageable.unpaged()))
+                .extracting(BankingTransaction::getTransactionType)
+                .containsOnly(BankingTransactionType.TRANSFER_FROM)
+                .hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should not transfer a batch when the total exceeds the funds")
+    void shouldNotTransferBatchWhenInsufficientFunds() throws Exception {
+        // given
+        loginWithCustomer(customerA);
+
+        BankingAccount bankingAccountA = createBankingAccount(
+                customerA, "ES1234567890123456789012", BankingAccountCurrency.EUR, BigDecimal.valueOf(100)
+        );
+        BankingAccount bankingAccountB = createBankingAccount(
+                customerB, "DE1234567890123456789012", BankingAccountCurrency.EUR, BigDecimal.valueOf(200)
+        );
+
+        BankingAccountBatchTransferRequest request = new BankingAccountBatchTransferRequest(
+                List.of(
+                        new BankingAccountBatchTransferItem(bankingAccountB.getAccountNumber(), BigDecimal.valueOf(60)),
+                        new BankingAccountBatchTransferItem(bankingAccountB.getAccountNumber(), BigDecimal.valueOf(60))
+                ),
+                "Payroll",
+                RAW_PASSWORD
+        );
+
+        // when
+        mockMvc.perform(post(
+                       "/api/v1/customers/me/banking/accounts/{id}/transactions/batch", bankingAccountA.getId())
+                       .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(request)))
+               .andDo(print())
+               .andExpect(status().is(403));
+
+        // then
+        assertThat(bankingAccountRepository.findById(bankingAccountB.getId()).get().getBalance())
+                .isEqualByComparingTo(BigDecimal.valueOf(200));
+        assertThat(bankingTransactionRepository.findByBankingAccountId(bankingAccountA.getId(), Pageable.unpaged()))
+                .isEmpty();
+    }
+
+    BankingAccount givenAccountWithHistory(Customer owner) {
+        BankingAccount bankingAccount = new BankingAccount(owner);
+        bankingAccount.setAccountNumber("ES1234567890123456789012");
+        bankingAccount.setAccountType(BankingAccountType.SAVINGS);
+        bankingAccount.setAccountCurrency(BankingAccountCurrency.EUR);
+        bankingAccount.setAccountStatus(BankingAccountStatus.OPEN);
+        bankingAccount.setBalance(BigDecimal.valueOf(300));
+        bankingAccountRepository.save(bankingAccount);
+
+        // one transaction per day, from the 1st to the 3rd of march
+        for (int day = 1; day <= 3; day++) {
+            BankingTransaction transaction = new BankingTransaction(bankingAccount);
+            transaction.setTransactionType(BankingTransactionType.DEPOSIT);
+            transaction.setTransactionStatus(BankingTransactionStatus.COMPLETED);
+            transaction.setAmount(BigDecimal.valueOf(100));
+            transaction.setAccountBalance(BigDecimal.valueOf(100L * day));
+            transaction.setDescription(day == 2 ? "Rent, \"march\"" : "Deposit " + day);
+            transaction.setCreatedAt(Instant.parse("2025-03-0" + day + "T10:00:00Z"));
+            bankingTransactionRepository.save(transaction);
+        }
+        return bankingAccount;
+    }
+
+    @Test
+    @DisplayName("Should export the account transactions as CSV")
+    void shouldExportTransactionsAsCsv() throws Exception {
+        // given
+        loginWithCustomer(customerA);
+        BankingAccount bankingAccount = givenAccountWithHistory(customerA);
+
+        // when
+        MvcResult result = mockMvc
+                .perform(get("/api/v1/customers/me/banking/accounts/" + bankingAccount.getId()
+                             + "/transactions/export")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().is(200))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+
+        // then
+        assertThat(result.getResponse().getContentType()).startsWith("text/csv");
+        assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION)).contains(".csv");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).startsWith("id,created_at");
+        assertThat(lines[1]).contains("2025-03-01T10:00:00Z,DEPOSIT,COMPLETED,100.00,100.00,,Deposit 1");
+        assertThat(lines[2]).endsWith(",\"Rent, \"\"march\"\"\"");
+        assertThat(lines[3]).endsWith("Deposit 3");
+    }
+
+    @Test
+    @DisplayName("Should export the account transactions in the date range as NDJSON")
+    void shouldExportTransactionsInRangeAsNdjson() throws Exception {
+        // given
+        loginWithCustomer(customerA);
+        BankingAccount bankingAccount = givenAccountWithHistory(customerA);
+
+        // when
+        MvcResult result = mockMvc
+                .perform(get("/api/v1/customers/me/banking/accounts/" + bankingAccount.getId()
+                             + "/transactions/export")
+                        .param("format", "NDJSON")
+                        .param("from", "2025-03-02")
+                        .param("to", "2025-03-03")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().is(200))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+
+        // then
+        assertThat(result.getResponse().getContentType()).startsWith("application/x-ndjson");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("description").asText()).isEqualTo("Rent, \"march\"");
+        assertThat(objectMapper.readTree(lines[1]).get("accountBalance").decimalValue())
+                .isEqualByComparingTo(BigDecimal.valueOf(300));
+    }
+
+    @Test
+    @DisplayName("Should not export the transactions of an account from another customer")
+    void shouldNotExportTransactionsOfAnotherCustomer() throws Exception {
+        // given
+        loginWithCustomer(customerA);
+        BankingAccount bankingAccount = givenAccountWithHistory(customerB);
+
+        // when
+        mockMvc.perform(get("/api/v1/customers/me/banking/accounts/" + bankingAccount.getId()
+                            + "/transactions/export")
+                       .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+               .andExpect(status().is(404));
+    }
+}
@@ -6,6 +6,7 @@ import com.damian.xBank.banking.account.BankingAccountRepository;
 import com.damian.xBank.banking.account.BankingAccountStatus;
 import com.damian.xBank.banking.account.exception.BankingAccountAuthorizationException;
 import com.damian.xBank.banking.account.exception.BankingAccountNotFoundException;
+import com.damian.xBank.banking.ledger.LedgerService;
 import com.damian.xBank.banking.transactions.*;
 import com.damian.xBank.banking.transactions.http.BankingAccountTransactionRequest;
 import com.damian.xBank.common.exception.Exceptions;
@@ -23,6 +24,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -56,6 +58,12 @@ public class BankingTransactionAccountServiceTest {
     @Mock
     private BankingTransactionService bankingTransactionService;
 
+    @Mock
+    private LedgerService ledgerService;
+
+    @Spy
+    private BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
+
     @InjectMocks
     private BankingTransactionAccountService bankingTransactionAccountService;
 
@@ -67,7 +75,6 @@ public class BankingTransactionAccountServiceTest {
 
     @BeforeEach
     void setUp() {
-        BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
         customerRepository.deleteAll();
         customerA = new Customer(99L, "customerA@test.com", bCryptPasswordEncoder.encode(RAW_PASSWORD));
         customerB = new Customer(92L, "customerB@test.com", bCryptPasswordEncoder.encode(RAW_PASSWORD));
@@ -113,8 +120,10 @@ public class BankingTransactionAccountServiceTest {
                 RAW_PASSWORD
         );
 
-        when(bankingAccountRepository.findById(givenBankingAccount.getId())).thenReturn(Optional.of(
-                givenBankingAccount));
+        when(bankingAccountRepository.findByIdAndCustomer_Id(givenBankingAccount.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccount));
+        when(bankingAccountRepository.creditBalance(givenBankingAccount.getId(), givenDepositAmount))
+                .thenReturn(Optional.of(givenDepositAmount));
 
         when(bankingTransactionService.createTransaction(
                 any(BankingAccount.class),
@@ -170,10 +179,14 @@ public class BankingTransactionAccountServiceTest {
                 RAW_PASSWORD
         );
 
-        when(bankingAccountRepository.findById(givenBankingAccountA.getId())).thenReturn(Optional.of(
-                givenBankingAccountA));
+        when(bankingAccountRepository.findByIdAndCustomer_Id(givenBankingAccountA.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccountA));
         when(bankingAccountRepository.findByAccountNumber(givenBankingAccountB.getAccountNumber()))
                 .thenReturn(Optional.of(givenBankingAccountB));
+        when(bankingAccountRepository.debitBalance(givenBankingAccountA.getId(), givenTransferAmount))
+                .thenReturn(Optional.of(givenBalanceAccountA.subtract(givenTransferAmount)));
+        when(bankingAccountRepository.creditBalance(givenBankingAccountB.getId(), givenTransferAmount))
+                .thenReturn(Optional.of(givenBalanceAccountB.add(givenTransferAmount)));
 
         when(bankingTransactionService.createTransaction(
                 any(BankingAccount.class),
@@ -232,8 +245,8 @@ public class BankingTransactionAccountServiceTest {
                 RAW_PASSWORD
         );
 
-        when(bankingAccountRepository.findById(givenBankingAccountA.getId())).thenReturn(Optional.of(
-                givenBankingAccountA));
+        when(bankingAccountRepository.findByIdAndCustomer_Id(givenBankingAccountA.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccountA));
         when(bankingAccountRepository.findByAccountNumber(givenBankingAccountB.getAccountNumber()))
                 .thenReturn(Optional.of(givenBankingAccountB));
 
@@ -281,8 +294,8 @@ public class BankingTransactionAccountServiceTest {
                 RAW_PASSWORD
         );
 
-        when(bankingAccountRepository.findById(givenBankingAccountA.getId())).thenReturn(Optional.of(
-                givenBankingAccountA));
+        when(bankingAccountRepository.findByIdAndCustomer_Id(givenBankingAccountA.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccountA));
         when(bankingAccountRepository.findByAccountNumber(givenBankingAccountB.getAccountNumber()))
                 .thenReturn(Optional.of(givenBankingAccountB));
 
@@ -303,7 +316,7 @@ public class BankingTransactionAccountServiceTest {
     @DisplayName("Should process transaction and fail to transfer when account number is null")
     void shouldProcessTransactionRequestAndFailToTransferWhenAccountNumberIsNull() {
         // given
-        //        setUpContext(customerA);
+        setUpContext(customerA);
         BigDecimal givenBalanceAccountA = BigDecimal.valueOf(0);
         BigDecimal givenBalanceAccountB = BigDecimal.valueOf(0);
         BigDecimal givenTransferAmount = BigDecimal.valueOf(500);
@@ -329,8 +342,8 @@ public class BankingTransactionAccountServiceTest {
                 RAW_PASSWORD
         );
 
-        when(bankingAccountRepository.findById(givenBankingAccountA.getId())).thenReturn(Optional.of(
-                givenBankingAccountA));
+        when(bankingAccountRepository.findByIdAndCustomer_Id(givenBankingAccountA.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccountA));
         when(bankingAccountRepository.findByAccountNumber(givenBankingAccountB.getAccountNumber()))
                 .thenReturn(Optional.empty());
 
@@ -378,8 +391,8 @@ public class BankingTransactionAccountServiceTest {
                 RAW_PASSWORD
         );
 
-        when(bankingAccountRepository.findById(givenBankingAccountA.getId())).thenReturn(Optional.of(
-                givenBankingAccountA));
+        when(bankingAccountRepository.findByIdAndCustomer_Id(givenBankingAccountA.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccountA));
         when(bankingAccountRepository.findByAccountNumber(givenBankingAccountB.getAccountNumber()))
                 .thenReturn(Optional.of(givenBankingAccountB));
 
@@ -427,8 +440,8 @@ public class BankingTransactionAccountServiceTest {
                 RAW_PASSWORD
         );
 
-        when(bankingAccountRepository.findById(givenBankingAccountA.getId())).thenReturn(Optional.of(
-                givenBankingAccountA));
+        when(bankingAccountRepository.findByIdAndCustomer_Id(givenBankingAccountA.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccountA));
         when(bankingAccountRepository.findByAccountNumber(givenBankingAccountB.getAccountNumber()))
                 .thenReturn(Optional.of(givenBankingAccountB));
 
@@ -476,8 +489,8 @@ public class BankingTransactionAccountServiceTest {
                 RAW_PASSWORD
         );
 
-        when(bankingAccountRepository.findById(givenBankingAccountA.getId())).thenReturn(Optional.of(
-                givenBankingAccountA));
+        when(bankingAccountRepository.findByIdAndCustomer_Id(givenBankingAccountA.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccountA));
         when(bankingAccountRepository.findByAccountNumber(givenBankingAccountB.getAccountNumber()))
                 .thenReturn(Optional.of(givenBankingAccountB));
 
@@ -525,8 +538,8 @@ public class BankingTransactionAccountServiceTest {
                 RAW_PASSWORD
         );
 
-        when(bankingAccountRepository.findById(givenBankingAccountA.getId())).thenReturn(Optional.of(
-                givenBankingAccountA));
+        when(bankingAccountRepository.findByIdAndCustomer_Id(givenBankingAccountA.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccountA));
         when(bankingAccountRepository.findByAccountNumber(givenBankingAccountB.getAccountNumber()))
                 .thenReturn(Optional.of(givenBankingAccountB));
 
@@ -568,8 +581,8 @@ public class BankingTransactionAccountServiceTest {
                 RAW_PASSWORD
         );
 
-        when(bankingAccountRepository.findById(givenBankingAccountA.getId())).thenReturn(Optional.of(
-                givenBankingAccountA));
+        when(bankingAccountRepository.findByIdAndCustomer_Id(givenBankingAccountA.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccountA));
         when(bankingAccountRepository.findByAccountNumber(givenBankingAccountA.getAccountNumber()))
                 .thenReturn(Optional.of(givenBankingAccountA));
 
@@ -616,14 +629,12 @@ public class BankingTransactionAccountServiceTest {
                 RAW_PASSWORD
         );
 
-        when(bankingAccountRepository.findById(givenBankingAccountA.getId())).thenReturn(Optional.of(
-                givenBankingAccountA));
-        when(bankingAccountRepository.findByAccountNumber(givenBankingAccountB.getAccountNumber()))
-                .thenReturn(Optional.of(givenBankingAccountB));
+        when(bankingAccountRepository.findByIdAndCustomer_Id(givenBankingAccountA.getId(), customerA.getId()))
+                .thenReturn(Optional.empty());
 
         // then
-        BankingAccountAuthorizationException exception = assertThrows(
-                BankingAccountAuthorizationException.class,
+        BankingAccountNotFoundException exception = assertThrows(
+                BankingAccountNotFoundException.class,
                 () -> bankingTransactionAccountService.processTransactionRequest(
                         givenBankingAccountA.getId(),
                         givenRequest
@@ -631,7 +642,7 @@ public class BankingTransactionAccountServiceTest {
         );
 
         // then
-        assertEquals(Exceptions.ACCOUNT.ACCESS_FORBIDDEN, exception.getMessage());
+        assertEquals(Exceptions.ACCOUNT.NOT_FOUND, exception.getMessage());
     }
 
     @Test
@@ -664,8 +675,8 @@ public class BankingTransactionAccountServiceTest {
                 "WRONG_PASSWORD"
         );
 
-        when(bankingAccountRepository.findById(givenBankingAccountA.getId())).thenReturn(Optional.of(
-                givenBankingAccountA));
+        when(bankingAccountRepository.findByIdAndCustomer_Id(givenBankingAccountA.getId(), customerA.getId()))
+                .thenReturn(Optional.of(givenBankingAccountA));
         when(bankingAccountRepository.findByAccountNumber(givenBankingAccountB.getAccountNumber()))
                 .thenReturn(Optional.of(givenBankingAccountB));
 
@@ -6,12 +6,16 @@ import com.damian.xBank.banking.account.*;
 import com.damian.xBank.banking.card.BankingCard;
 import com.damian.xBank.banking.card.BankingCardStatus;
 import com.damian.xBank.banking.card.BankingCardType;
+import com.damian.xBank.banking.ledger.LedgerEntryRepository;
+import com.damian.xBank.banking.ledger.LedgerPostingRepository;
+import com.damian.xBank.banking.transactions.BankingTransactionDTO;
 import com.damian.xBank.banking.transactions.BankingTransactionType;
 import com.damian.xBank.banking.transactions.http.BankingCardTransactionRequest;
 import com.damian.xBank.customer.Customer;
 import com.damian.xBank.customer.CustomerRepository;
 import com.damian.xBank.customer.CustomerRole;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -28,6 +32,7 @@ import org.springframework.test.web.servlet.MvcResult;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -50,6 +55,12 @@ public class BankingTransactionCardIntegrationTest {
     @Autowired
     private BankingAccountRepository bankingAccountRepository;
 
+    @Autowired
+    private LedgerPostingRepository ledgerPostingRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
     @Autowired
     private BCryptPasswordEncoder bCryptPasswordEncoder;
 
@@ -117,6 +128,13 @@ public class BankingTransactionCardIntegrationTest {
         token = response.token();
     }
 
+    // the journal is never deleted with its accounts, it has to go before the next setUp deletes them
+    @AfterEach
+    void tearDownLedger() {
+        ledgerPostingRepository.deleteAllInBatch();
+        ledgerEntryRepository.deleteAllInBatch();
+    }
+
     @Test
     @DisplayName("Should create a transaction card charge")
     void shouldCreateTransactionCardCharge() throws Exception {
@@ -156,4 +174,129 @@ public class BankingTransactionCardIntegrationTest {
                .andDo(print())
                .andExpect(status().is(201));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should charge the card once when the request is retried with the same idempotency key")
+    void shouldChargeOnceWhenRetriedWithSameIdempotencyKey() throws Exception {
+        // given
+        loginWithCustomer(customerA);
+
+        BankingAccount bankingAccount = new BankingAccount(customerA);
+        bankingAccount.setAccountNumber("ES1234567890123456789012");
+        bankingAccount.setAccountType(BankingAccountType.SAVINGS);
+        bankingAccount.setAccountCurrency(BankingAccountCurrency.EUR);
+        bankingAccount.setAccountStatus(BankingAccountStatus.OPEN);
+        bankingAccount.setBalance(BigDecimal.valueOf(1000));
+
+        BankingCard bankingCard = new BankingCard();
+        bankingCard.setCardType(BankingCardType.CREDIT);
+        bankingCard.setCardPin("1234");
+        bankingCard.setCardNumber("1234567890123456");
+        bankingCard.setCardStatus(BankingCardStatus.ENABLED);
+        bankingCard.setAssociatedBankingAccount(bankingAccount);
+
+        bankingAccount.addBankingCard(bankingCard);
+        bankingAccountRepository.save(bankingAccount);
+
+        BankingCardTransactionRequest request = new BankingCardTransactionRequest(
+                BankingTransactionType.CARD_CHARGE,
+                "Amazon.com",
+                BigDecimal.valueOf(100),
+                bankingCard.getCardPin()
+        );
+
+        // the retry writes the same amount with another scale
+        BankingCardTransactionRequest retryRequest = new BankingCardTransactionRequest(
+                BankingTransactionType.CARD_CHARGE,
+                "Amazon.com",
+                new BigDecimal("100.00"),
+                bankingCard.getCardPin()
+        );
+
+        // when
+        BankingCardTransactionRequest[] requests = {request, retryRequest};
+        String[] responses = new String[requests.length];
+        for (int i = 0; i < responses.length; i++) {
+            responses[i] = mockMvc.perform(post("/api/v1/customers/me/banking/cards/{id}/transactions", bankingCard.getId())
+                                          .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                                          .header("Idempotency-Key", "charge-1")
+                                          .contentType(MediaType.APPLICATION_JSON)
+                                          .content(objectMapper.writeValueAsString(requests[i])))
+                                  .andExpect(status().is(201))
+                                  .andReturn()
+                                  .getResponse()
+                                  .getContentAsString();
+        }
+
+        // then
+        BankingTransactionDTO first = objectMapper.readValue(responses[0], BankingTransactionDTO.class);
+        BankingTransactionDTO second = objectMapper.readValue(responses[1], BankingTransactionDTO.class);
+        assertThat(second.id()).isEqualTo(first.id());
+        assertThat(bankingAccountRepository.findById(bankingAccount.getId()).get().getBalance())
+                .isEqualByComparingTo(BigDecimal.valueOf(900));
+
+        // the same key for another amount is rejected
+        BankingCardTransactionRequest otherRequest = new BankingCardTransactionRequest(
+                BankingTransactionType.CARD_CHARGE,
+                "Amazon.com",
+                BigDecimal.valueOf(200),
+                bankingCard.getCardPin()
+        );
+
+        mockMvc.perform(post("/api/v1/customers/me/banking/cards/{id}/transactions", bankingCard.getId())
+                       .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                       .header("Idempotency-Key", "charge-1")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(otherRequest)))
+               .andExpect(status().is(409));
+    }
+
+    @Test
+    @DisplayName("Should not charge the card over its daily limit")
+    void shouldNotChargeCardOverDailyLimit() throws Exception {
+        // given
+        loginWithCustomer(customerA);
+
+        BankingAccount bankingAccount = new BankingAccount(customerA);
+        bankingAccount.setAccountNumber("ES1234567890123456789012");
+        bankingAccount.setAccountType(BankingAccountType.SAVINGS);
+        bankingAccount.setAccountCurrency(BankingAccountCurrency.EUR);
+        bankingAccount.setAccountStatus(BankingAccountStatus.OPEN);
+        bankingAccount.setBalance(BigDecimal.valueOf(1000));
+
+        BankingCard bankingCard = new BankingCard();
+        bankingCard.setCardType(BankingCardType.CREDIT);
+        bankingCard.setCardPin("1234");
+        bankingCard.setCardNumber("1234567890123456");
+        bankingCard.setCardStatus(BankingCardStatus.ENABLED);
+        bankingCard.setDailyLimit(BigDecimal.valueOf(150));
+        bankingCard.setAssociatedBankingAccount(bankingAccount);
+
+        bankingAccount.addBankingCard(bankingCard);
+        bankingAccountRepository.save(bankingAccount);
+
+        BankingCardTransactionRequest request = new BankingCardTransactionRequest(
+                BankingTransactionType.CARD_CHARGE,
+                "Amazon.com",
+                BigDecimal.valueOf(100),
+                bankingCard.getCardPin()
+        );
+
+        // when
+        // then
+        mockMvc.perform(post("/api/v1/customers/me/banking/cards/{id}/transactions", bankingCard.getId())
+                       .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(request)))
+               .andExpect(status().is(201));
+
+        mockMvc.perform(post("/api/v1/customers/me/banking/cards/{id}/transactions", bankingCard.getId())
+                       .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(request)))
+               .andExpect(status().is(403));
+
+        assertThat(bankingAccountRepository.findById(bankingAccount.getId()).get().getBalance())
+                .isEqualByComparingTo(BigDecimal.valueOf(900));
+    }
+}
@@ -1,12 +1,16 @@
 package com.damian.xBank.banking.transaction;
 
 import com.damian.xBank.banking.account.BankingAccount;
+import com.damian.xBank.banking.account.BankingAccountRepository;
 import com.damian.xBank.banking.card.BankingCard;
+import com.damian.xBank.banking.card.BankingCardAuthorizationCache;
+import com.damian.xBank.banking.card.BankingCardAuthorizationSnapshot;
 import com.damian.xBank.banking.card.BankingCardLockStatus;
 import com.damian.xBank.banking.card.BankingCardRepository;
 import com.damian.xBank.banking.card.BankingCardStatus;
 import com.damian.xBank.banking.card.exception.BankingCardAuthorizationException;
 import com.damian.xBank.banking.card.exception.BankingCardNotFoundException;
+import com.damian.xBank.banking.ledger.LedgerService;
 import com.damian.xBank.banking.transactions.*;
 import com.damian.xBank.banking.transactions.http.BankingCardTransactionRequest;
 import com.damian.xBank.common.exception.Exceptions;
@@ -26,6 +30,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -35,6 +41,9 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,9 +55,27 @@ public class BankingTransactionCardServiceTest {
     @Mock
     private BankingCardRepository bankingCardRepository;
 
+    @Mock
+    private BankingAccountRepository bankingAccountRepository;
+
     @Mock
     private BankingTransactionService bankingTransactionService;
 
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private BankingCardDailySpendCounters bankingCardDailySpendCounters;
+
+    @Mock
+    private BankingCardAuthorizationCache bankingCardAuthorizationCache;
+
+    @Mock
+    private BankingCardChargeGroupCommitter bankingCardChargeGroupCommitter;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private BankingTransactionCardService bankingTransactionCardService;
 
@@ -66,6 +93,11 @@ public class BankingTransactionCardServiceTest {
         customerB = new Customer(92L, "customerB@test.com", bCryptPasswordEncoder.encode(RAW_PASSWORD));
         customerAdmin = new Customer(95L, "admin@test.com", bCryptPasswordEncoder.encode(RAW_PASSWORD));
         customerAdmin.setRole(CustomerRole.ADMIN);
+
+        // runs the callback as if it were in a transaction
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null)
+        );
     }
 
     @AfterEach
@@ -81,6 +113,20 @@ public class BankingTransactionCardServiceTest {
         Mockito.when(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).thenReturn(customer);
     }
 
+    BankingCardAuthorizationSnapshot snapshotOf(BankingCard card) {
+        BankingAccount account = card.getAssociatedBankingAccount();
+        return new BankingCardAuthorizationSnapshot(
+                card.getId(),
+                account.getId(),
+                account.getOwner().getId(),
+                card.getCardStatus(),
+                card.getLockStatus(),
+                account.getAccountStatus(),
+                card.getCardPin(),
+                card.getDailyLimit()
+        );
+    }
+
     @Test
     @DisplayName("Should process card transaction and spend")
     void shouldProcessTransactionRequestAndSpend() {
@@ -113,17 +159,19 @@ public class BankingTransactionCardServiceTest {
                 givenBankingCard.getCardPin()
         );
 
-        when(bankingCardRepository.findById(givenBankingCard.getId())).thenReturn(Optional.of(givenBankingCard));
-        when(bankingTransactionService.createTransaction(
-                any(BankingCard.class),
-                any(BankingTransactionType.class),
-                any(BigDecimal.class),
-                any(String.class)
-        )).thenReturn(givenBankingTransaction);
-
+        when(bankingCardAuthorizationCache.get(givenBankingCard.getId())).thenReturn(snapshotOf(givenBankingCard));
+        when(bankingCardDailySpendCounters.tryReserve(
+                givenBankingCard.getId(),
+                givenRequest.amount(),
+                givenBankingCard.getDailyLimit()
+        )).thenReturn(true);
+        when(bankingAccountRepository.debitBalance(givenBankAccount.getId(), givenRequest.amount()))
+                .thenReturn(Optional.of(givenBalance.subtract(givenRequest.amount())));
+        when(bankingAccountRepository.getReferenceById(givenBankAccount.getId())).thenReturn(givenBankAccount);
+        when(bankingCardRepository.getReferenceById(givenBankingCard.getId())).thenReturn(givenBankingCard);
         when(bankingTransactionService.persistTransaction(
                 any(BankingTransaction.class)
-        )).thenReturn(givenBankingTransaction);
+        )).thenAnswer(invocation -> invocation.getArgument(0));
 
         // then
         BankingTransaction transaction = bankingTransactionCardService.processTransactionRequest(
@@ -136,7 +184,8 @@ public class BankingTransactionCardServiceTest {
         assertThat(transaction.getTransactionType()).isEqualTo(givenBankingTransaction.getTransactionType());
         assertThat(transaction.getDescription()).isEqualTo(givenBankingTransaction.getDescription());
         assertThat(transaction.getTransactionStatus()).isEqualTo(BankingTransactionStatus.COMPLETED);
-        assertThat(givenBankingCard.getBalance()).isEqualTo(
+        assertThat(transaction.getBankingCard()).isEqualTo(givenBankingCard);
+        assertThat(transaction.getAccountBalance()).isEqualTo(
                 givenBalance.subtract(givenRequest.amount())
         );
     }
@@ -152,7 +201,9 @@ public class BankingTransactionCardServiceTest {
                 "1234"
         );
 
-        when(bankingCardRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(bankingCardAuthorizationCache.get(anyLong())).thenThrow(
+                new BankingCardNotFoundException(Exceptions.CARD.NOT_FOUND)
+        );
 
         // then
         BankingCardNotFoundException exception = assertThrows(
@@ -199,7 +250,7 @@ public class BankingTransactionCardServiceTest {
                 givenBankingCard.getCardPin()
         );
 
-        when(bankingCardRepository.findById(givenBankingCard.getId())).thenReturn(Optional.of(givenBankingCard));
+        when(bankingCardAuthorizationCache.get(givenBankingCard.getId())).thenReturn(snapshotOf(givenBankingCard));
 
         // then
         BankingCardAuthorizationException exception = assertThrows(
@@ -246,7 +297,7 @@ public class BankingTransactionCardServiceTest {
                 givenBankingCard.getCardPin()
         );
 
-        when(bankingCardRepository.findById(givenBankingCard.getId())).thenReturn(Optional.of(givenBankingCard));
+        when(bankingCardAuthorizationCache.get(givenBankingCard.getId())).thenReturn(snapshotOf(givenBankingCard));
 
         // then
         BankingCardAuthorizationException exception = assertThrows(
@@ -294,7 +345,7 @@ public class BankingTransactionCardServiceTest {
                 givenBankingCard.getCardPin()
         );
 
-        when(bankingCardRepository.findById(givenBankingCard.getId())).thenReturn(Optional.of(givenBankingCard));
+        when(bankingCardAuthorizationCache.get(givenBankingCard.getId())).thenReturn(snapshotOf(givenBankingCard));
 
         // then
         BankingCardAuthorizationException exception = assertThrows(
@@ -341,7 +392,14 @@ public class BankingTransactionCardServiceTest {
                 givenBankingCard.getCardPin()
         );
 
-        when(bankingCardRepository.findById(givenBankingCard.getId())).thenReturn(Optional.of(givenBankingCard));
+        when(bankingCardAuthorizationCache.get(givenBankingCard.getId())).thenReturn(snapshotOf(givenBankingCard));
+        when(bankingCardDailySpendCounters.tryReserve(
+                givenBankingCard.getId(),
+                givenRequest.amount(),
+                givenBankingCard.getDailyLimit()
+        )).thenReturn(true);
+        when(bankingAccountRepository.debitBalance(givenBankAccount.getId(), givenRequest.amount()))
+                .thenReturn(Optional.empty());
 
         // then
         BankingCardAuthorizationException exception = assertThrows(
@@ -356,4 +414,107 @@ public class BankingTransactionCardServiceTest {
         assertTrue(exception.getMessage().contains(Exceptions.CARD.INSUFFICIENT_FUNDS));
     }
 
+    @Test
+    @DisplayName("Should fail to process card transaction when card daily limit is exceeded")
+    void shouldFailToProcessCardTransactionWhenDailyLimitExceededRequest() {
+        // given
+        setUpContext(customerA);
+
+        BigDecimal givenBalance = new BigDecimal("1000");
+
+        BankingAccount givenBankAccount = new BankingAccount(customerA);
+        givenBankAccount.setId(5L);
+        givenBankAccount.setBalance(givenBalance);
+        givenBankAccount.setAccountNumber("US9900001111112233334444");
+
+        BankingCard givenBankingCard = new BankingCard();
+        givenBankingCard.setId(11L);
+        givenBankingCard.setCardPin("1234");
+        givenBankingCard.setCardNumber("1234567890123456");
+        givenBankingCard.setCardStatus(BankingCardStatus.ENABLED);
+        givenBankingCard.setDailyLimit(BigDecimal.valueOf(50));
+        givenBankingCard.setAssociatedBankingAccount(givenBankAccount);
+
+        BankingCardTransactionRequest givenRequest = new BankingCardTransactionRequest(
+                BankingTransactionType.CARD_CHARGE,
+                "Amazon.com",
+                BigDecimal.valueOf(100),
+                givenBankingCard.getCardPin()
+        );
+
+        when(bankingCardAuthorizationCache.get(givenBankingCard.getId())).thenReturn(snapshotOf(givenBankingCard));
+        when(bankingCardDailySpendCounters.tryReserve(
+                givenBankingCard.getId(),
+                givenRequest.amount(),
+                givenBankingCard.getDailyLimit()
+        )).thenReturn(false);
+
+        // then
+        BankingCardAuthorizationException exception = assertThrows(
+                BankingCardAuthorizationException.class,
+                () -> bankingTransactionCardService.processTransactionRequest(
+                        givenBankingCard.getId(),
+                        givenRequest
+                )
+        );
+
+        // then
+        assertTrue(exception.getMessage().contains(Exceptions.CARD.DAILY_LIMIT_EXCEEDED));
+        verify(bankingAccountRepository, never()).debitBalance(anyLong(), any(BigDecimal.class));
+    }
+
+    @Test
+    @DisplayName("Should queue the card charge when the group commit is enabled")
+    void shouldQueueCardChargeWhenGroupCommitEnabled() {
+        // given
+        setUpContext(customerA);
+
+        BankingAccount givenBankAccount = new BankingAccount(customerA);
+        givenBankAccount.setId(5L);
+        givenBankAccount.setBalance(new BigDecimal("1000"));
+        givenBankAccount.setAccountNumber("US9900001111112233334444");
+
+        BankingCard givenBankingCard = new BankingCard();
+        givenBankingCard.setId(11L);
+        givenBankingCard.setCardPin("1234");
+        givenBankingCard.setCardNumber("1234567890123456");
+        givenBankingCard.setCardStatus(BankingCardStatus.ENABLED);
+        givenBankingCard.setAssociatedBankingAccount(givenBankAccount);
+
+        BankingTransaction givenBankingTransaction = new BankingTransaction(givenBankAccount);
+        givenBankingTransaction.setTransactionType(BankingTransactionType.CARD_CHARGE);
+        givenBankingTransaction.setTransactionStatus(BankingTransactionStatus.COMPLETED);
+
+        BankingCardTransactionRequest givenRequest = new BankingCardTransactionRequest(
+                BankingTransactionType.CARD_CHARGE,
+                "Amazon.com",
+                BigDecimal.valueOf(100),
+                givenBankingCard.getCardPin()
+        );
+
+        when(bankingCardAuthorizationCache.get(givenBankingCard.getId())).thenReturn(snapshotOf(givenBankingCard));
+        when(bankingCardChargeGroupCommitter.isEnabled()).thenReturn(true);
+        when(bankingCardDailySpendCounters.tryReserve(
+                givenBankingCard.getId(),
+                givenRequest.amount(),
+                givenBankingCard.getDailyLimit()
+        )).thenReturn(true);
+        when(bankingCardChargeGroupCommitter.charge(
+                givenBankingCard.getId(),
+                givenBankAccount.getId(),
+                givenRequest.amount(),
+                givenRequest.description()
+        )).thenReturn(givenBankingTransaction);
+
+        // when
+        BankingTransaction transaction = bankingTransactionCardService.processTransactionRequest(
+                givenBankingCard.getId(),
+                givenRequest
+        );
+
+        // then
+        assertThat(transaction).isEqualTo(givenBankingTransaction);
+        verify(bankingAccountRepository, never()).debitBalance(anyLong(), any(BigDecimal.class));
+        verify(bankingTransactionService, never()).persistTransaction(any(BankingTransaction.class));
+    }
 }
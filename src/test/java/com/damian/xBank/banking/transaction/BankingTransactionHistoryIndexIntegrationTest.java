@@ -0,0 +1,261 @@
+package com.damian.xBank.banking.transaction;
+
+import com.damian.xBank.banking.account.BankingAccount;
+import com.damian.xBank.banking.account.BankingAccountCurrency;
+import com.damian.xBank.banking.account.BankingAccountRepository;
+import com.damian.xBank.banking.account.BankingAccountStatus;
+import com.damian.xBank.banking.card.BankingCard;
+import com.damian.xBank.banking.card.BankingCardRepository;
+import com.damian.xBank.banking.card.BankingCardStatus;
+import com.damian.xBank.banking.card.BankingCardType;
+import com.damian.xBank.banking.transactions.*;
+import com.damian.xBank.customer.Customer;
+import com.damian.xBank.customer.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN on the SQL of each history filter combination, exactly as Hibernate
+ * prepared it, and checks that the transactions are read through an index.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+@Import(BankingTransactionHistoryIndexIntegrationTest.StatementRecorderConfig.class)
+public class BankingTransactionHistoryIndexIntegrationTest {
+    private static final Instant FROM = Instant.parse("2025-03-01T00:00:00Z");
+    private static final Instant TO = Instant.parse("2025-04-01T00:00:00Z");
+    // H2 shows an index lookup as "/* PUBLIC.INDEX_NAME: CONDITION */" and a full scan as "tableScan"
+    private static final String INDEX_LOOKUP = "/\\* PUBLIC\\.\\S+: ";
+    private static volatile RecordedStatement lastHistoryStatement;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private BankingAccountRepository bankingAccountRepository;
+
+    @Autowired
+    private BankingCardRepository bankingCardRepository;
+
+    @Autowired
+    private BankingTransactionRepository bankingTransactionRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Customer customer;
+    private BankingAccount bankingAccount;
+    private BankingCard bankingCard;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        bankingAccountRepository.deleteAll();
+
+        customer = new Customer();
+        customer.setEmail("customerA@test.com");
+        customer.setPassword("123456");
+        customer.getProfile().setFirstName("alice");
+        customer.getProfile().setLastName("wonderland");
+        customer.getProfile().setBirthdate(LocalDate.of(1989, 1, 1));
+        customerRepository.save(customer);
+
+        bankingAccount = new BankingAccount(customer);
+        bankingAccount.setAccountNumber("ES1234567890123456789012");
+        bankingAccount.setAccountCurrency(BankingAccountCurrency.EUR);
+        bankingAccount.setAccountStatus(BankingAccountStatus.OPEN);
+        bankingAccountRepository.save(bankingAccount);
+
+        bankingCard = new BankingCard();
+        bankingCard.setCardType(BankingCardType.DEBIT);
+        bankingCard.setCardNumber("1234567890123456");
+        bankingCard.setCardStatus(BankingCardStatus.ENABLED);
+        bankingCard.setAssociatedBankingAccount(bankingAccount);
+        bankingCardRepository.save(bankingCard);
+
+        for (int i = 0; i < 20; i++) {
+            BankingTransaction transaction = new BankingTransaction(bankingAccount);
+            transaction.setBankingCard(i % 2 == 0 ? bankingCard : null);
+            transaction.setTransactionType(i % 2 == 0 ? BankingTransactionType.CARD_CHARGE : BankingTransactionType.DEPOSIT);
+            transaction.setTransactionStatus(i % 5 == 0 ? BankingTransactionStatus.PENDING : BankingTransactionStatus.COMPLETED);
+            transaction.setAmount(BigDecimal.valueOf(10L * i));
+            transaction.setAccountBalance(BigDecimal.ZERO);
+            transaction.setCreatedAt(FROM.plusSeconds(3600L * i));
+            bankingTransactionRepository.save(transaction);
+        }
+    }
+
+    List<BankingTransactionFilter> filterCombinations() {
+        return List.of(
+                BankingTransactionFilter.none(),
+                new BankingTransactionFilter(FROM, TO, null, null, null, null),
+                new BankingTransactionFilter(null, null, BankingTransactionType.DEPOSIT, null, null, null),
+                new BankingTransactionFilter(null, null, null, BankingTransactionStatus.PENDING, null, null),
+                new BankingTransactionFilter(null, null, null, null, BigDecimal.TEN, BigDecimal.valueOf(100)),
+                new BankingTransactionFilter(FROM, TO, BankingTransactionType.DEPOSIT, BankingTransactionStatus.COMPLETED, null, null),
+                new BankingTransactionFilter(FROM, TO, null, null, BigDecimal.ONE, null),
+                new BankingTransactionFilter(FROM, TO, BankingTransactionType.CARD_CHARGE,
+                        BankingTransactionStatus.PENDING, BigDecimal.ONE, BigDecimal.valueOf(500))
+        );
+    }
+
+    // the plan of the last history query, as the database would run it
+    String explainLastHistoryQuery() throws Exception {
+        RecordedStatement statement = lastHistoryStatement;
+        assertThat(statement).isNotNull();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+            for (Map.Entry<Method, Object[]> parameter : statement.parameters()) {
+                parameter.getKey().invoke(explain, parameter.getValue());
+            }
+
+            try (ResultSet result = explain.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (result.next()) {
+                    plan.append(result.getString(1));
+                }
+                return plan.toString();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should read the account history through an index with every filter combination")
+    void shouldUseIndexForAccountHistoryFilters() throws Exception {
+        for (BankingTransactionFilter filter : filterCombinations()) {
+            // when
+            lastHistoryStatement = null;
+            bankingTransactionRepository.findAccountHistory(bankingAccount.getId(), customer.getId(), filter, null, 10);
+            String plan = explainLastHistoryQuery();
+
+            // then
+            assertThat(plan).as("plan for %s", filter).doesNotContainIgnoringCase("tableScan");
+            assertThat(plan).as("plan for %s", filter).containsPattern(INDEX_LOOKUP);
+        }
+    }
+
+    @Test
+    @DisplayName("Should read the card history through an index with every filter combination")
+    void shouldUseIndexForCardHistoryFilters() throws Exception {
+        for (BankingTransactionFilter filter : filterCombinations()) {
+            // when
+            lastHistoryStatement = null;
+            bankingTransactionRepository.findCardHistory(bankingCard.getId(), customer.getId(), filter, null, 10);
+            String plan = explainLastHistoryQuery();
+
+            // then
+            assertThat(plan).as("plan for %s", filter).doesNotContainIgnoringCase("tableScan");
+            assertThat(plan).as("plan for %s", filter).containsPattern(INDEX_LOOKUP);
+        }
+    }
+
+    @Test
+    @DisplayName("Should only return the transactions that match every filter")
+    void shouldApplyEveryFilter() {
+        // given
+        BankingTransactionFilter filter = new BankingTransactionFilter(
+                FROM.plusSeconds(3600L * 2),
+                FROM.plusSeconds(3600L * 16),
+                BankingTransactionType.CARD_CHARGE,
+                BankingTransactionStatus.COMPLETED,
+                BigDecimal.valueOf(40),
+                BigDecimal.valueOf(120)
+        );
+
+        // when
+        List<BankingTransactionDTO> transactions = bankingTransactionRepository
+                .findAccountHistory(bankingAccount.getId(), customer.getId(), filter, null, 10)
+                .getContent();
+
+        // then
+        // charges are the even ones, 0, 10 and 20 ... are pending, 40 to 120 leaves 40, 60, 80 and 120
+        assertThat(transactions)
+                .extracting(transaction -> transaction.amount().intValue())
+                .containsExactly(120, 80, 60, 40);
+    }
+
+    record RecordedStatement(String sql, List<Map.Entry<Method, Object[]>> parameters) {
+    }
+
+    /**
+     * Wraps the pool to keep the SQL and the parameters of the last history query.
+     */
+    @TestConfiguration
+    static class StatementRecorderConfig {
+        @Bean
+        static BeanPostProcessor statementRecorder() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return proxy(DataSource.class, dataSource, null);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        static boolean isHistoryQuery(String sql) {
+            final String normalized = sql.toLowerCase().replaceAll("\\s+", " ");
+            return normalized.startsWith("select")
+                   && normalized.contains("from banking_transactions")
+                   && normalized.contains("order by");
+        }
+
+        static <T> T proxy(Class<T> type, T target, RecordedStatement recording) {
+            return type.cast(Proxy.newProxyInstance(
+                    type.getClassLoader(),
+                    new Class<?>[]{type},
+                    (proxy, method, args) -> {
+                        // the setters of the statement are replayed on the EXPLAIN
+                        if (recording != null && method.getName().startsWith("set")
+                            && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                            recording.parameters().add(Map.entry(method, args));
+                        }
+
+                        try {
+                            Object result = method.invoke(target, args);
+                            if (result instanceof Connection connection) {
+                                return proxy(Connection.class, connection, null);
+                            }
+
+                            if (result instanceof PreparedStatement statement
+                                && args[0] instanceof String sql && isHistoryQuery(sql)) {
+                                RecordedStatement recorded = new RecordedStatement(sql, new ArrayList<>());
+                                lastHistoryStatement = recorded;
+                                return proxy(PreparedStatement.class, statement, recorded);
+                            }
+                            return result;
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+            ));
+        }
+    }
+}
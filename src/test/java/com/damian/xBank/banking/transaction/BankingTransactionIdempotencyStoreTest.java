@@ -0,0 +1,122 @@
+package com.damian.xBank.banking.transaction;
+
+import com.damian.xBank.banking.account.exception.BankingAccountAuthorizationException;
+import com.damian.xBank.banking.transactions.BankingTransactionDTO;
+import com.damian.xBank.banking.transactions.BankingTransactionIdempotencyStore;
+import com.damian.xBank.banking.transactions.BankingTransactionStatus;
+import com.damian.xBank.banking.transactions.BankingTransactionType;
+import com.damian.xBank.banking.transactions.exception.BankingTransactionIdempotencyKeyReusedException;
+import com.damian.xBank.common.exception.Exceptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BankingTransactionIdempotencyStoreTest {
+    private BankingTransactionIdempotencyStore idempotencyStore;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new BankingTransactionIdempotencyStore(
+                100,
+                Duration.ofMinutes(5),
+                new SimpleMeterRegistry()
+        );
+        executions = new AtomicInteger();
+    }
+
+    BankingTransactionDTO process() {
+        return new BankingTransactionDTO(
+                (long) executions.incrementAndGet(),
+                1L,
+                2L,
+                BigDecimal.valueOf(100),
+                BigDecimal.valueOf(900),
+                BankingTransactionType.CARD_CHARGE,
+                BankingTransactionStatus.COMPLETED,
+                "Amazon.com",
+                Instant.now(),
+                Instant.now()
+        );
+    }
+
+    @Test
+    @DisplayName("Should run the transaction once and replay it for the same key")
+    void shouldReplayTransactionForSameKey() {
+        // when
+        BankingTransactionDTO first = idempotencyStore.execute(1L, "key-1", List.of(100), this::process);
+        BankingTransactionDTO second = idempotencyStore.execute(1L, "key-1", List.of(100), this::process);
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should run the transaction every time without key")
+    void shouldRunTransactionWithoutKey() {
+        // when
+        idempotencyStore.execute(1L, null, List.of(100), this::process);
+        idempotencyStore.execute(1L, null, List.of(100), this::process);
+
+        // then
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep the keys of each customer apart")
+    void shouldKeepKeysPerCustomer() {
+        // when
+        idempotencyStore.execute(1L, "key-1", List.of(100), this::process);
+        idempotencyStore.execute(2L, "key-1", List.of(100), this::process);
+
+        // then
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should not replay a key used for a different request")
+    void shouldNotReplayKeyForDifferentRequest() {
+        // given
+        idempotencyStore.execute(1L, "key-1", List.of(100), this::process);
+
+        // when
+        BankingTransactionIdempotencyKeyReusedException exception = assertThrows(
+                BankingTransactionIdempotencyKeyReusedException.class,
+                () -> idempotencyStore.execute(1L, "key-1", List.of(200), this::process)
+        );
+
+        // then
+        assertThat(exception.getMessage()).isEqualTo(Exceptions.TRANSACTION.IDEMPOTENCY_KEY_REUSED);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should run the transaction again when the first attempt failed")
+    void shouldRunAgainWhenFirstAttemptFailed() {
+        // given
+        assertThrows(
+                BankingAccountAuthorizationException.class,
+                () -> idempotencyStore.execute(1L, "key-1", List.of(100), () -> {
+                    executions.incrementAndGet();
+                    throw new BankingAccountAuthorizationException(Exceptions.ACCOUNT.INSUFFICIENT_FUNDS);
+                })
+        );
+
+        // when
+        idempotencyStore.execute(1L, "key-1", List.of(100), this::process);
+
+        // then
+        assertThat(executions.get()).isEqualTo(2);
+    }
+}
@@ -6,9 +6,11 @@ import com.damian.xBank.banking.account.*;
 import com.damian.xBank.banking.card.BankingCard;
 import com.damian.xBank.banking.card.BankingCardStatus;
 import com.damian.xBank.banking.card.BankingCardType;
+import com.damian.xBank.banking.transactions.*;
 import com.damian.xBank.customer.Customer;
 import com.damian.xBank.customer.CustomerRepository;
 import com.damian.xBank.customer.CustomerRole;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -24,8 +26,12 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -50,6 +56,9 @@ public class BankingTransactionIntegrationTest {
     @Autowired
     private BankingAccountRepository bankingAccountRepository;
 
+    @Autowired
+    private BankingTransactionRepository bankingTransactionRepository;
+
     @Autowired
     private BCryptPasswordEncoder bCryptPasswordEncoder;
 
@@ -178,4 +187,282 @@ public class BankingTransactionIntegrationTest {
                 .andExpect(jsonPath("$.content.length()").value(0)) // o el número que esperás
                 .andExpect(jsonPath("$.totalPages").value(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should fetch the whole banking account history following the cursor")
+    void shouldFetchBankingAccountTransactionHistoryWithCursor() throws Exception {
+        // given
+        loginWithCustomer(customerA);
+
+        BankingAccount bankingAccount = new BankingAccount(customerA);
+        bankingAccount.setAccountNumber("ES1234567890123456789012");
+        bankingAccount.setAccountType(BankingAccountType.SAVINGS);
+        bankingAccount.setAccountCurrency(BankingAccountCurrency.EUR);
+        bankingAccount.setAccountStatus(BankingAccountStatus.OPEN);
+        bankingAccount.setBalance(BigDecimal.valueOf(1000));
+        bankingAccountRepository.save(bankingAccount);
+
+        // some transactions share the same timestamp, so the id must break the tie
+        final Instant now = Instant.parse("2025-01-01T10:00:00Z");
+        for (int i = 0; i < 5; i++) {
+            BankingTransaction transaction = new BankingTransaction(bankingAccount);
+            transaction.setTransactionType(BankingTransactionType.DEPOSIT);
+            transaction.setAccountBalance(BigDecimal.valueOf(1000));
+            transaction.setAmount(BigDecimal.valueOf(10));
+            transaction.setCreatedAt(now.plusSeconds(i / 2));
+            bankingTransactionRepository.save(transaction);
+        }
+
+        // when
+        List<Long> fetchedIds = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get(
+                    "/api/v1/customers/me/banking/accounts/{id}/transactions/history",
+                    bankingAccount.getId()
+            )
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .param("size", "2");
+
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+
+            MvcResult result = mockMvc
+                    .perform(request)
+                    .andExpect(status().is(200))
+                    .andReturn();
+
+            JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+            body.get("content").forEach(transaction -> fetchedIds.add(transaction.get("id").asLong()));
+            pageSizes.add(body.get("content").size());
+            cursor = body.get("nextCursor").isNull() ? null : body.get("nextCursor").asText();
+        } while (cursor != null);
+
+        // then
+        assertThat(pageSizes).containsExactly(2, 2, 1);
+        assertThat(fetchedIds).hasSize(5).doesNotHaveDuplicates();
+        assertThat(fetchedIds).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+
+    @Test
+    @DisplayName("Should fail to fetch the banking account history when the cursor is invalid")
+    void shouldFailToFetchBankingAccountTransactionHistoryWhenInvalidCursor() throws Exception {
+        // given
+        loginWithCustomer(customerA);
+
+        BankingAccount bankingAccount = new BankingAccount(customerA);
+        bankingAccount.setAccountNumber("ES1234567890123456789012");
+        bankingAccount.setAccountType(BankingAccountType.SAVINGS);
+        bankingAccount.setAccountCurrency(BankingAccountCurrency.EUR);
+        bankingAccount.setAccountStatus(BankingAccountStatus.OPEN);
+        bankingAccountRepository.save(bankingAccount);
+
+        // when
+        // then
+        mockMvc
+                .perform(
+                        get("/api/v1/customers/me/banking/accounts/{id}/transactions/history", bankingAccount.getId())
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                                .param("cursor", "not-a-cursor"))
+                .andDo(print())
+                .andExpect(status().is(400));
+    }
+
+    @Test
+    @DisplayName("Should fetch the banking account history filtered by date, type, status and amount")
+    void shouldFetchBankingAccountTransactionHistoryWithFilters() throws Exception {
+        // given
+        loginWithCustomer(customerA);
+
+        BankingAccount bankingAccount = new BankingAccount(customerA);
+        bankingAccount.setAccountNumber("ES1234567890123456789012");
+        bankingAccount.setAccountType(BankingAccountType.SAVINGS);
+        bankingAccount.setAccountCurrency(BankingAccountCurrency.EUR);
+        bankingAccount.setAccountStatus(BankingAccountStatus.OPEN);
+        bankingAccount.setBalance(BigDecimal.valueOf(1000));
+        bankingAccountRepository.save(bankingAccount);
+
+        // a deposit and a withdrawal a day, from the 1st to the 4th of march
+        for (int day = 1; day <= 4; day++) {
+            for (BankingTransactionType type : List.of(BankingTransactionType.DEPOSIT, BankingTransactionType.WITHDRAWAL)) {
+                BankingTransaction transaction = new BankingTransaction(bankingAccount);
+                transaction.setTransactionType(type);
+                transaction.setTransactionStatus(BankingTransactionStatus.COMPLETED);
+                transaction.setAccountBalance(BigDecimal.valueOf(1000));
+                transaction.setAmount(BigDecimal.valueOf(day * 10L));
+                transaction.setCreatedAt(Instant.parse("2025-03-0" + day + "T10:00:00Z"));
+                bankingTransactionRepository.save(transaction);
+            }
+        }
+
+        // when
+        MvcResult result = mockMvc
+                .perform(
+                        get("/api/v1/customers/me/banking/accounts/{id}/transactions/history", bankingAccount.getId())
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                                .param("from", "2025-03-02")
+                                .param("to", "2025-03-04")
+                                .param("type", "DEPOSIT")
+                                .param("status", "COMPLETED")
+                                .param("minAmount", "25"))
+                .andExpect(status().is(200))
+                .andReturn();
+
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+
+        // then
+        assertThat(body.get("content")).hasSize(2);
+        assertThat(body.get("content").get(0).get("amount").asInt()).isEqualTo(40);
+        assertThat(body.get("content").get(1).get("amount").asInt()).isEqualTo(30);
+        assertThat(body.get("content").findValuesAsText("transactionType")).containsOnly("DEPOSIT");
+    }
+
+    @Test
+    @DisplayName("Should not fetch the history nor the transactions of an account from another customer")
+    void shouldNotFetchBankingAccountTransactionHistoryOfAnotherCustomer() throws Exception {
+        // given
+        loginWithCustomer(customerA);
+        BankingAccount bankingAccount = givenAccountWithDescriptions(
+                customerB,
+                "ES1234567890123456789012",
+                "Netflix may",
+                "Amazon june"
+        );
+
+        // when
+        // then
+        mockMvc
+                .perform(
+                        get("/api/v1/customers/me/banking/accounts/{id}/transactions/history", bankingAccount.getId())
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().is(200))
+                .andExpect(jsonPath("$.content.length()").value(0))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+
+        mockMvc
+                .perform(
+                        get("/api/v1/customers/me/banking/accounts/{id}/transactions", bankingAccount.getId())
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().is(200))
+                .andExpect(jsonPath("$.content.length()").value(0))
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    BankingAccount givenAccountWithDescriptions(Customer owner, String accountNumber, String... descriptions) {
+        BankingAccount bankingAccount = new BankingAccount(owner);
+        bankingAccount.setAccountNumber(accountNumber);
+        bankingAccount.setAccountType(BankingAccountType.SAVINGS);
+        bankingAccount.setAccountCurrency(BankingAccountCurrency.EUR);
+        bankingAccount.setAccountStatus(BankingAccountStatus.OPEN);
+        bankingAccountRepository.save(bankingAccount);
+
+        // one transaction a day, in the order given
+        for (int i = 0; i < descriptions.length; i++) {
+            BankingTransaction transaction = new BankingTransaction(bankingAccount);
+            transaction.setTransactionType(BankingTransactionType.WITHDRAWAL);
+            transaction.setAccountBalance(BigDecimal.ZERO);
+            transaction.setAmount(BigDecimal.TEN);
+            transaction.setDescription(descriptions[i]);
+            transaction.setCreatedAt(Instant.parse("2025-01-01T10:00:00Z").plusSeconds(86400L * i));
+            bankingTransactionRepository.save(transaction);
+        }
+        return bankingAccount;
+    }
+
+    @Test
+    @DisplayName("Should search the banking account transactions by description following the cursor")
+    void shouldSearchBankingAccountTransactionsWithCursor() throws Exception {
+        // given
+        loginWithCustomer(customerA);
+        BankingAccount bankingAccount = givenAccountWithDescriptions(
+                customerA,
+                "ES1234567890123456789012",
+                "Payment to Bob Builder",
+                "Netflix subscription",
+                "payment to bob, dinner",
+                "Bob payment 100%",
+                "Rent"
+        );
+
+        // when
+        List<String> descriptions = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get(
+                    "/api/v1/customers/me/banking/accounts/{id}/transactions/search",
+                    bankingAccount.getId()
+            )
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .param("q", "PAYMENT bob")
+                    .param("order", "RECENCY")
+                    .param("size", "2");
+
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+
+            MvcResult result = mockMvc
+                    .perform(request)
+                    .andExpect(status().is(200))
+                    .andReturn();
+
+            JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+            body.get("content").forEach(transaction -> descriptions.add(transaction.get("description").asText()));
+            cursor = body.get("nextCursor").isNull() ? null : body.get("nextCursor").asText();
+        } while (cursor != null);
+
+        // then
+        assertThat(descriptions).containsExactly(
+                "Bob payment 100%",
+                "payment to bob, dinner",
+                "Payment to Bob Builder"
+        );
+    }
+
+    @Test
+    @DisplayName("Should search the transactions of every account of the customer and only theirs")
+    void shouldSearchCustomerTransactions() throws Exception {
+        // given
+        loginWithCustomer(customerA);
+        givenAccountWithDescriptions(customerA, "ES1234567890123456789012", "Netflix march", "Rent");
+        givenAccountWithDescriptions(customerA, "ES1234567890123456789013", "Netflix april");
+        givenAccountWithDescriptions(customerB, "ES1234567890123456789014", "Netflix may");
+
+        // when
+        MvcResult result = mockMvc
+                .perform(get("/api/v1/customers/me/banking/transactions/search")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .param("q", "netflix"))
+                .andExpect(status().is(200))
+                .andReturn();
+
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+
+        // then
+        assertThat(body.get("content").findValuesAsText("description"))
+                .containsExactlyInAnyOrder("Netflix march", "Netflix april");
+        assertThat(body.get("nextCursor").isNull()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not search the transactions of an account from another customer")
+    void shouldNotSearchTransactionsOfAnotherCustomer() throws Exception {
+        // given
+        loginWithCustomer(customerA);
+        BankingAccount bankingAccount = givenAccountWithDescriptions(
+                customerB,
+                "ES1234567890123456789012",
+                "Netflix may"
+        );
+
+        // when
+        // then
+        mockMvc
+                .perform(get("/api/v1/customers/me/banking/accounts/{id}/transactions/search", bankingAccount.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .param("q", "netflix"))
+                .andExpect(status().is(404));
+    }
+}
@@ -0,0 +1,77 @@
+package com.damian.xBank.banking.transaction;
+
+import com.damian.xBank.banking.transactions.BankingTransactionPartition;
+import com.damian.xBank.banking.transactions.BankingTransactionPartitionManager;
+import com.damian.xBank.banking.transactions.exception.BankingTransactionNotFoundException;
+import com.damian.xBank.common.exception.Exceptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BankingTransactionPartitionTest {
+
+    @TempDir
+    Path archiveDir;
+
+    @Test
+    @DisplayName("Should name the partition and its bounds after the month")
+    void shouldNamePartitionAfterMonth() {
+        // given
+        BankingTransactionPartition partition = new BankingTransactionPartition(YearMonth.of(2024, 12));
+
+        // when
+        // then
+        assertThat(partition.tableName()).isEqualTo("banking_transactions_y2024m12");
+        assertThat(partition.archiveFileName()).isEqualTo("banking_transactions_y2024m12.csv.gz");
+        assertThat(partition.from()).isEqualTo(LocalDate.of(2024, 12, 1));
+        assertThat(partition.to()).isEqualTo(LocalDate.of(2025, 1, 1));
+        assertThat(BankingTransactionPartition.fromTableName(partition.tableName())).contains(partition);
+        assertThat(BankingTransactionPartition.fromTableName("banking_transactions")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should list the archived months in order")
+    void shouldListArchives() throws IOException {
+        // given
+        Files.createFile(archiveDir.resolve("banking_transactions_y2023m02.csv.gz"));
+        Files.createFile(archiveDir.resolve("banking_transactions_y2022m11.csv.gz"));
+        Files.createFile(archiveDir.resolve("banking_transactions_y2023m03.csv.gz.tmp"));
+        BankingTransactionPartitionManager manager = new BankingTransactionPartitionManager(
+                null, false, 3, 24, archiveDir.toString()
+        );
+
+        // when
+        // then
+        assertThat(manager.getArchives()).containsExactly(
+                new BankingTransactionPartition(YearMonth.of(2022, 11)),
+                new BankingTransactionPartition(YearMonth.of(2023, 2))
+        );
+    }
+
+    @Test
+    @DisplayName("Should fail to restore a month that is not archived")
+    void shouldFailToRestoreWhenArchiveNotFound() {
+        // given
+        BankingTransactionPartitionManager manager = new BankingTransactionPartitionManager(
+                null, false, 3, 24, archiveDir.toString()
+        );
+
+        // when
+        BankingTransactionNotFoundException exception = assertThrows(
+                BankingTransactionNotFoundException.class,
+                () -> manager.restorePartition(YearMonth.of(2020, 1))
+        );
+
+        // then
+        assertThat(exception.getMessage()).isEqualTo(Exceptions.TRANSACTION.ARCHIVE_NOT_FOUND);
+    }
+}
@@ -0,0 +1,452 @@
+package com.damian.xBank.banking.transaction;
+
+import com.damian.xBank.auth.http.AuthenticationRequest;
+import com.damian.xBank.auth.http.AuthenticationResponse;
+import com.damian.xBank.banking.account.*;
+import com.damian.xBank.banking.card.BankingCard;
+import com.damian.xBank.banking.card.BankingCardRepository;
+import com.damian.xBank.banking.card.BankingCardStatus;
+import com.damian.xBank.banking.card.BankingCardType;
+import com.damian.xBank.banking.ledger.LedgerEntryRepository;
+import com.damian.xBank.banking.ledger.LedgerPostingRepository;
+import com.damian.xBank.banking.transactions.BankingTransaction;
+import com.damian.xBank.banking.transactions.BankingTransactionRepository;
+import com.damian.xBank.banking.transactions.BankingTransactionStatus;
+import com.damian.xBank.banking.transactions.BankingTransactionType;
+import com.damian.xBank.banking.transactions.http.BankingAccountTransactionRequest;
+import com.damian.xBank.banking.transactions.http.BankingCardTransactionRequest;
+import com.damian.xBank.customer.Customer;
+import com.damian.xBank.customer.CustomerRepository;
+import com.damian.xBank.customer.CustomerGender;
+import com.damian.xBank.customer.CustomerRole;
+import com.damian.xBank.customer.http.request.CustomerRegistrationRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Counts the SQL statements issued by the hot endpoints, so a mapping change that
+ * brings back an N+1 or loads the whole account history on every request fails here.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(BankingTransactionStatementCountIntegrationTest.StatementCounterConfig.class)
+public class BankingTransactionStatementCountIntegrationTest {
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+    private static final int HISTORY_SIZE = 50;
+    private final String rawPassword = "123456";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private BankingAccountRepository bankingAccountRepository;
+
+    @Autowired
+    private LedgerPostingRepository ledgerPostingRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private BankingCardRepository bankingCardRepository;
+
+    @Autowired
+    private BankingTransactionRepository bankingTransactionRepository;
+
+    @Autowired
+    private BCryptPasswordEncoder bCryptPasswordEncoder;
+
+    private Customer customerA;
+    private Customer customerB;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        customerRepository.deleteAll();
+        bankingAccountRepository.deleteAll();
+
+        customerA = new Customer();
+        customerA.setEmail("customerA@test.com");
+        customerA.setPassword(bCryptPasswordEncoder.encode(this.rawPassword));
+        customerA.getProfile().setFirstName("alice");
+        customerA.getProfile().setLastName("wonderland");
+        customerA.getProfile().setBirthdate(LocalDate.of(1989, 1, 1));
+        customerRepository.save(customerA);
+
+        customerB = new Customer();
+        customerB.setEmail("customerB@test.com");
+        customerB.setPassword(bCryptPasswordEncoder.encode(this.rawPassword));
+        customerB.getProfile().setFirstName("bob");
+        customerB.getProfile().setLastName("builder");
+        customerB.getProfile().setBirthdate(LocalDate.of(1995, 11, 11));
+        customerRepository.save(customerB);
+
+        loginWithCustomer(customerA);
+    }
+
+    void loginWithCustomer(Customer customer) throws Exception {
+        AuthenticationRequest authenticationRequest = new AuthenticationRequest(
+                customer.getEmail(), this.rawPassword
+        );
+
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/login")
+                                          .contentType(MediaType.APPLICATION_JSON)
+                                          .content(objectMapper.writeValueAsString(authenticationRequest)))
+                                  .andReturn();
+
+        AuthenticationResponse response = objectMapper.readValue(
+                result.getResponse().getContentAsString(),
+                AuthenticationResponse.class
+        );
+
+        token = response.token();
+    }
+
+    BankingAccount createBankingAccount(Customer customer, String accountNumber) {
+        BankingAccount bankingAccount = new BankingAccount(customer);
+        bankingAccount.setAccountNumber(accountNumber);
+        bankingAccount.setAccountType(BankingAccountType.SAVINGS);
+        bankingAccount.setAccountCurrency(BankingAccountCurrency.EUR);
+        bankingAccount.setAccountStatus(BankingAccountStatus.OPEN);
+        bankingAccount.setBalance(BigDecimal.valueOf(1000));
+        return bankingAccountRepository.save(bankingAccount);
+    }
+
+    BankingCard createBankingCard(BankingAccount bankingAccount, String cardNumber) {
+        BankingCard bankingCard = new BankingCard();
+        bankingCard.setCardType(BankingCardType.CREDIT);
+        bankingCard.setCardPin("1234");
+        bankingCard.setCardNumber(cardNumber);
+        bankingCard.setCardStatus(BankingCardStatus.ENABLED);
+        bankingCard.setAssociatedBankingAccount(bankingAccount);
+        return bankingCardRepository.save(bankingCard);
+    }
+
+    // fills the account with old transactions, which must not be loaded by the endpoints
+    void createHistory(BankingAccount bankingAccount) {
+        List<BankingTransaction> history = new ArrayList<>();
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            BankingTransaction transaction = new BankingTransaction(bankingAccount);
+            transaction.setTransactionType(BankingTransactionType.DEPOSIT);
+            transaction.setTransactionStatus(BankingTransactionStatus.COMPLETED);
+            transaction.setAmount(BigDecimal.ONE);
+            transaction.setDescription("old deposit");
+            history.add(transaction);
+        }
+        bankingTransactionRepository.saveAll(history);
+    }
+
+    int countStatements(RequestBuilder request, int expectedStatus) throws Exception {
+        STATEMENTS.set(0);
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertThat(result.getResponse().getStatus()).isEqualTo(expectedStatus);
+        return STATEMENTS.get();
+    }
+
+    // the journal is never deleted with its accounts, it has to go before the next setUp deletes them
+    @AfterEach
+    void tearDownLedger() {
+        ledgerPostingRepository.deleteAllInBatch();
+        ledgerEntryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should charge a card with a fixed number of statements")
+    void shouldChargeCardWithFixedNumberOfStatements() throws Exception {
+        // given
+        BankingAccount bankingAccount = createBankingAccount(customerA, "ES1234567890123456789012");
+        BankingCard bankingCard = createBankingCard(bankingAccount, "1234567890123456");
+        createHistory(bankingAccount);
+
+        BankingCardTransactionRequest request = new BankingCardTransactionRequest(
+                BankingTransactionType.CARD_CHARGE,
+                "Amazon.com",
+                BigDecimal.valueOf(100),
+                bankingCard.getCardPin()
+        );
+
+        // when
+        int statements = countStatements(
+                post("/api/v1/customers/me/banking/cards/{id}/transactions", bankingCard.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)),
+                201
+        );
+
+        // then
+        assertThat(statements).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Should transfer between accounts with a fixed number of statements")
+    void shouldTransferWithFixedNumberOfStatements() throws Exception {
+        // given
+        BankingAccount bankingAccountA = createBankingAccount(customerA, "ES1234567890123456789012");
+        BankingAccount bankingAccountB = createBankingAccount(customerB, "DE1234567890123456789012");
+        createHistory(bankingAccountA);
+        createHistory(bankingAccountB);
+
+        BankingAccountTransactionRequest request = new BankingAccountTransactionRequest(
+                bankingAccountB.getAccountNumber(),
+                BankingTransactionType.TRANSFER_TO,
+                "a gift!",
+                BigDecimal.valueOf(100),
+                rawPassword
+        );
+
+        // when
+        int statements = countStatements(
+                post("/api/v1/customers/me/banking/accounts/{id}/transactions", bankingAccountA.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)),
+                201
+        );
+
+        // then
+        assertThat(statements).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should list the accounts with their cards without a query per account")
+    void shouldListAccountsWithFixedNumberOfStatements() throws Exception {
+        // given
+        for (String accountNumber : Set.of("ES1234567890123456789012", "ES1234567890123456789013")) {
+            BankingAccount bankingAccount = createBankingAccount(customerA, accountNumber);
+            createBankingCard(bankingAccount, "1234" + accountNumber.substring(12));
+            createHistory(bankingAccount);
+        }
+
+        // when
+        int statements = countStatements(
+                get("/api/v1/customers/me/banking/accounts")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token),
+                200
+        );
+
+        // then
+        // the logged customer with its auth and profile, the cards of all the accounts and the accounts
+        assertThat(statements).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should list the cards with their holder without a query per card")
+    void shouldListCardsWithFixedNumberOfStatements() throws Exception {
+        // given
+        for (String accountNumber : Set.of("ES1234567890123456789012", "ES1234567890123456789013")) {
+            BankingAccount bankingAccount = createBankingAccount(customerA, accountNumber);
+            createBankingCard(bankingAccount, "1234" + accountNumber.substring(12));
+        }
+
+        // when
+        int statements = countStatements(
+                get("/api/v1/customers/me/banking/cards")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token),
+                200
+        );
+
+        // then
+        // the logged customer and then the cards with their accounts and holders in one query
+        assertThat(statements).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should get a customer with its accounts and cards in a fixed number of statements")
+    void shouldGetCustomerWithAllDataWithFixedNumberOfStatements() throws Exception {
+        // given
+        for (String accountNumber : Set.of("ES1234567890123456789012", "ES1234567890123456789013")) {
+            BankingAccount bankingAccount = createBankingAccount(customerA, accountNumber);
+            createBankingCard(bankingAccount, "1234" + accountNumber.substring(12));
+            createHistory(bankingAccount);
+        }
+
+        Customer admin = new Customer();
+        admin.setEmail("admin@test.com");
+        admin.setPassword(bCryptPasswordEncoder.encode(this.rawPassword));
+        admin.setRole(CustomerRole.ADMIN);
+        customerRepository.save(admin);
+        loginWithCustomer(admin);
+
+        // when
+        int statements = countStatements(
+                get("/api/v1/admin/customers/{id}", customerA.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token),
+                200
+        );
+
+        // then
+        // the logged admin and then the customer with its profile, accounts and cards in one query
+        assertThat(statements).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should list the customers without a query per customer")
+    void shouldListCustomersWithFixedNumberOfStatements() throws Exception {
+        // given
+        for (int i = 0; i < 5; i++) {
+            Customer customer = new Customer();
+            customer.setEmail("customer" + i + "@test.com");
+            customer.setPassword(bCryptPasswordEncoder.encode(this.rawPassword));
+            customer.getProfile().setFirstName("customer" + i);
+            customer.getProfile().setLastName("test");
+            customer.getProfile().setBirthdate(LocalDate.of(1989, 1, 1));
+            customerRepository.save(customer);
+        }
+
+        Customer admin = new Customer();
+        admin.setEmail("admin@test.com");
+        admin.setPassword(bCryptPasswordEncoder.encode(this.rawPassword));
+        admin.setRole(CustomerRole.ADMIN);
+        customerRepository.save(admin);
+        loginWithCustomer(admin);
+
+        // when
+        int statements = countStatements(
+                get("/api/v1/admin/customers")
+                        .param("size", "5")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token),
+                200
+        );
+
+        // then
+        // the logged admin, the page and the total, the auth and profile of each customer are not loaded
+        assertThat(statements).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should register a customer with a fixed number of statements")
+    void shouldRegisterCustomerWithFixedNumberOfStatements() throws Exception {
+        // given
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest(
+                "david@gmail.com",
+                "12345678X$",
+                "david",
+                "white",
+                "123 123 123",
+                LocalDate.of(1989, 1, 1),
+                CustomerGender.MALE,
+                "",
+                "Fake AV",
+                "50120",
+                "USA",
+                "123123123Z"
+        );
+
+        // when
+        int statements = countStatements(
+                post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)),
+                201
+        );
+
+        // then
+        // email check and one insert per table
+        assertThat(statements).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should store many transactions with one batch of inserts")
+    void shouldStoreTransactionsInOneBatch() {
+        // given
+        BankingAccount bankingAccount = createBankingAccount(customerA, "ES1234567890123456789012");
+
+        // when
+        STATEMENTS.set(0);
+        createHistory(bankingAccount);
+
+        // then
+        // one batch of inserts for the 50 rows
+        assertThat(STATEMENTS.get()).isEqualTo(1);
+    }
+
+    /**
+     * Wraps the pool so every statement prepared on any of its connections is counted.
+     */
+    @TestConfiguration
+    static class StatementCounterConfig {
+        @Bean
+        static BeanPostProcessor statementCounter() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return proxy(DataSource.class, dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        // the ids are taken from the sequences once every 50 rows, so whether a request
+        // pays for one depends on what ran before it
+        static boolean isSequenceCall(Object[] args) {
+            return args != null
+                   && args[0] instanceof String sql
+                   && sql.startsWith("select next value for");
+        }
+
+        static <T> T proxy(Class<T> type, T target) {
+            return type.cast(Proxy.newProxyInstance(
+                    type.getClassLoader(),
+                    new Class<?>[]{type},
+                    (proxy, method, args) -> {
+                        if (type == Connection.class
+                            && method.getName().matches("prepareStatement|prepareCall|createStatement")
+                            && !isSequenceCall(args)) {
+                            STATEMENTS.incrementAndGet();
+                        }
+                        try {
+                            Object result = method.invoke(target, args);
+                            if (result instanceof Connection connection) {
+                                return proxy(Connection.class, connection);
+                            }
+                            return result;
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+            ));
+        }
+    }
+}
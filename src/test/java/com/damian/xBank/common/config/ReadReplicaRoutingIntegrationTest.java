@@ -0,0 +1,170 @@
+package com.damian.xBank.common.config;
+
+import com.damian.xBank.banking.card.BankingCardAuthorizationCache;
+import com.damian.xBank.banking.card.BankingCardService;
+import com.damian.xBank.banking.card.exception.BankingCardNotFoundException;
+import com.damian.xBank.customer.Customer;
+import com.damian.xBank.customer.CustomerDetailsService;
+import com.damian.xBank.customer.CustomerRepository;
+import com.damian.xBank.customer.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Two pools over the same in-memory database, stand-ins for the primary and the replica.
+ * The connections taken from each one are told apart by the routing counters.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "datasource.replica.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "datasource.replica.read-your-writes-window=300ms"
+})
+public class ReadReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private BankingCardService bankingCardService;
+
+    @Autowired
+    private CustomerDetailsService customerDetailsService;
+
+    @Autowired
+    private BankingCardAuthorizationCache bankingCardAuthorizationCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+
+        customer = new Customer();
+        customer.setEmail("customer@test.com");
+        customer.setPassword("123456");
+        customerRepository.save(customer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    double connections(String target) {
+        return meterRegistry.counter("datasource.routing.connections", "target", target).count();
+    }
+
+    void login(Customer customer) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(customer, null, customer.getAuthorities())
+        );
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to the replica and writes to the primary")
+    void shouldRouteReadsToReplica() {
+        // given
+        final double primaryBefore = connections("primary");
+        final double replicaBefore = connections("replica");
+
+        // when
+        customerService.getCustomers(Pageable.ofSize(10));
+
+        // then
+        assertThat(connections("replica") - replicaBefore).isEqualTo(1);
+        assertThat(connections("primary") - primaryBefore).isZero();
+
+        // when
+        customer.setEmail("customer2@test.com");
+        customerRepository.save(customer);
+
+        // then
+        assertThat(connections("primary") - primaryBefore).isEqualTo(1);
+        assertThat(connections("replica") - replicaBefore).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep the reads of a customer on the primary right after its own write")
+    void shouldReadYourWrites() throws InterruptedException {
+        // given
+        login(customer);
+        customer.setEmail("customer2@test.com");
+        customerRepository.save(customer);
+        final double primaryBefore = connections("primary");
+        final double replicaBefore = connections("replica");
+
+        // when
+        bankingCardService.getCustomerBankingCards();
+
+        // then
+        assertThat(connections("primary") - primaryBefore).isEqualTo(1);
+        assertThat(connections("replica") - replicaBefore).isZero();
+
+        // when
+        Thread.sleep(500);
+        bankingCardService.getCustomerBankingCards();
+
+        // then
+        assertThat(connections("replica") - replicaBefore).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should load the customer and the card authorization from the primary")
+    void shouldLoadSecurityLookupsFromPrimary() {
+        // given
+        final double primaryBefore = connections("primary");
+        final double replicaBefore = connections("replica");
+
+        // when
+        customerDetailsService.loadUserByUsername(customer.getEmail());
+        assertThrows(
+                BankingCardNotFoundException.class,
+                () -> bankingCardAuthorizationCache.get(-1L)
+        );
+
+        // then
+        assertThat(connections("primary") - primaryBefore).isEqualTo(2);
+        assertThat(connections("replica") - replicaBefore).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep reading from the replica after the customer and card lookups")
+    void shouldNotOpenReadYourWritesWindowOnLookups() {
+        // given
+        login(customer);
+        customerDetailsService.loadCustomerByEmail(customer.getEmail());
+        assertThrows(
+                BankingCardNotFoundException.class,
+                () -> bankingCardAuthorizationCache.get(-1L)
+        );
+        final double primaryBefore = connections("primary");
+        final double replicaBefore = connections("replica");
+
+        // when
+        bankingCardService.getCustomerBankingCards();
+
+        // then
+        // the lookups read from the primary but did not write anything
+        assertThat(connections("replica") - replicaBefore).isEqualTo(1);
+        assertThat(connections("primary") - primaryBefore).isZero();
+    }
+}
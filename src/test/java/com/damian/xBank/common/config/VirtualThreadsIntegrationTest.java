@@ -0,0 +1,124 @@
+package com.damian.xBank.common.config;
+
+import com.damian.xBank.auth.http.AuthenticationRequest;
+import com.damian.xBank.auth.http.AuthenticationResponse;
+import com.damian.xBank.customer.Customer;
+import com.damian.xBank.customer.CustomerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles({"test", "virtual"})
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        // keep the small test pool so requests have to wait for a connection
+        properties = "spring.datasource.hikari.maximum-pool-size=2"
+)
+public class VirtualThreadsIntegrationTest {
+    private final String email = "customer@test.com";
+    private final String rawPassword = "123456";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ServletWebServerApplicationContext applicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private BCryptPasswordEncoder bCryptPasswordEncoder;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        customerRepository.save(new Customer(email, bCryptPasswordEncoder.encode(rawPassword)));
+    }
+
+    String login() throws Exception {
+        String jsonRequest = objectMapper.writeValueAsString(new AuthenticationRequest(email, rawPassword));
+
+        HttpResponse<String> response = httpClient.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/auth/login"))
+                           .header("Content-Type", "application/json")
+                           .POST(HttpRequest.BodyPublishers.ofString(jsonRequest))
+                           .build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        return objectMapper.readValue(response.body(), AuthenticationResponse.class).token();
+    }
+
+    @Test
+    @DisplayName("Should run tomcat requests on virtual threads")
+    void shouldRunRequestsOnVirtualThreads() {
+        // given
+        TomcatWebServer webServer = (TomcatWebServer) applicationContext.getWebServer();
+
+        // when
+        Object executor = webServer.getTomcat().getConnector().getProtocolHandler().getExecutor();
+
+        // then
+        assertThat(executor).isInstanceOf(VirtualThreadExecutor.class);
+    }
+
+    @Test
+    @DisplayName("Should serve concurrent requests sharing a small connection pool")
+    void shouldServeConcurrentRequests() throws Exception {
+        // given
+        final String token = login();
+        final int requests = 100;
+        List<Future<Integer>> statusCodes = new ArrayList<>();
+
+        // when
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                statusCodes.add(clients.submit(() -> httpClient.send(
+                        HttpRequest.newBuilder(URI.create(
+                                           "http://localhost:" + port + "/api/v1/customers/me/banking/accounts"
+                                   ))
+                                   .header("Authorization", "Bearer " + token)
+                                   // a stuck carrier fails the test instead of hanging the build
+                                   .timeout(Duration.ofSeconds(30))
+                                   .GET()
+                                   .build(),
+                        HttpResponse.BodyHandlers.discarding()
+                ).statusCode()));
+            }
+        }
+
+        // then
+        for (Future<Integer> statusCode : statusCodes) {
+            assertThat(statusCode.get()).isEqualTo(200);
+        }
+    }
+}
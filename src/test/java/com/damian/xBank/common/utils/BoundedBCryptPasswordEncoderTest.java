@@ -0,0 +1,79 @@
+package com.damian.xBank.common.utils;
+
+import com.damian.xBank.common.exception.PasswordEncoderBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BoundedBCryptPasswordEncoderTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedBCryptPasswordEncoder passwordEncoder;
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    @DisplayName("Should encode and match passwords on the pool")
+    void shouldEncodeAndMatchPasswords() {
+        // given
+        passwordEncoder = new BoundedBCryptPasswordEncoder(4, 2, 10, meterRegistry);
+
+        // when
+        String encodedPassword = passwordEncoder.encode("123456");
+
+        // then
+        assertThat(passwordEncoder.matches("123456", encodedPassword)).isTrue();
+        assertThat(passwordEncoder.matches("654321", encodedPassword)).isFalse();
+        assertThat(meterRegistry.find("executor.completed").tag("name", "passwordEncoder").functionCounter())
+                .isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should reject password operations when the pool and queue are full")
+    void shouldRejectWhenPoolIsFull() throws Exception {
+        // given
+        // a high cost keeps the only worker busy while the other calls arrive
+        passwordEncoder = new BoundedBCryptPasswordEncoder(14, 1, 1, meterRegistry);
+        final String encodedPassword = new BoundedBCryptPasswordEncoder(4, 1, 0, new SimpleMeterRegistry())
+                .encode("123456");
+
+        final int calls = 6;
+        ExecutorService callers = Executors.newFixedThreadPool(calls);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < calls; i++) {
+            results.add(callers.submit(() -> {
+                startGate.await();
+                return passwordEncoder.matches("123456", encodedPassword);
+            }));
+        }
+        startGate.countDown();
+
+        int rejected = 0;
+        for (Future<Boolean> result : results) {
+            try {
+                assertThat(result.get(60, TimeUnit.SECONDS)).isTrue();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(PasswordEncoderBusyException.class);
+                rejected++;
+            }
+        }
+        callers.shutdown();
+
+        // then
+        // at most one call is running and one is waiting, the rest are rejected
+        assertThat(rejected).isGreaterThanOrEqualTo(calls - 2);
+        assertThat(meterRegistry.get("password.encoder.rejected").counter().count()).isEqualTo(rejected);
+    }
+}
@@ -0,0 +1,122 @@
+package com.damian.xBank.common.utils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JWTUtilTest {
+    private final String secretKey = "THIS-IS-A-BIG-SECRET!-KEEP-IT-SAFE-FOR-TESTS";
+
+    private JWTUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JWTUtil(secretKey, 2);
+    }
+
+    @Test
+    @DisplayName("Should verify a token and return its claims")
+    void shouldVerifyToken() {
+        // given
+        final String token = jwtUtil.generateToken("customer@test.com");
+
+        // when
+        Claims claims = jwtUtil.verifyToken(token);
+
+        // then
+        assertThat(claims.getSubject()).isEqualTo("customer@test.com");
+        assertThat(jwtUtil.extractEmail(token)).isEqualTo("customer@test.com");
+        assertThat(jwtUtil.isTokenExpired(token)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should return the cached claims when the same token is verified again")
+    void shouldReturnCachedClaimsForSameToken() {
+        // given
+        final String token = jwtUtil.generateToken("customer@test.com");
+
+        // when
+        Claims first = jwtUtil.verifyToken(token);
+        Claims second = jwtUtil.verifyToken(token);
+
+        // then
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Should keep verifying tokens when the cache is full")
+    void shouldVerifyTokensWhenCacheIsFull() {
+        // given
+        final String tokenA = jwtUtil.generateToken("customerA@test.com");
+        final String tokenB = jwtUtil.generateToken("customerB@test.com");
+        final String tokenC = jwtUtil.generateToken("customerC@test.com");
+
+        // when
+        jwtUtil.verifyToken(tokenA);
+        jwtUtil.verifyToken(tokenB);
+        jwtUtil.verifyToken(tokenC);
+
+        // then
+        // whichever token was evicted is verified again
+        assertThat(jwtUtil.verifyToken(tokenA).getSubject()).isEqualTo("customerA@test.com");
+        assertThat(jwtUtil.verifyToken(tokenB).getSubject()).isEqualTo("customerB@test.com");
+        assertThat(jwtUtil.verifyToken(tokenC).getSubject()).isEqualTo("customerC@test.com");
+    }
+
+    @Test
+    @DisplayName("Should drop the cached claims when the ticker passes the token expiration")
+    void shouldDropCachedClaimsWhenTokenExpires() {
+        // given
+        final AtomicLong now = new AtomicLong(TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()));
+        final JWTUtil tickingJwtUtil = new JWTUtil(secretKey, 2, now::get);
+        final String token = tickingJwtUtil.generateToken("customer@test.com");
+        final Claims first = tickingJwtUtil.verifyToken(token);
+        final long expiration = TimeUnit.MILLISECONDS.toNanos(first.getExpiration().getTime());
+
+        // when
+        now.set(expiration - TimeUnit.MINUTES.toNanos(1));
+        Claims beforeExpiration = tickingJwtUtil.verifyToken(token);
+        now.set(expiration + TimeUnit.MINUTES.toNanos(1));
+        Claims afterExpiration = tickingJwtUtil.verifyToken(token);
+
+        // then
+        // the token is still valid for the real clock, so it is parsed again instead of failing
+        assertThat(beforeExpiration).isSameAs(first);
+        assertThat(afterExpiration).isNotSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Should fail to verify an expired token")
+    void shouldFailToVerifyExpiredToken() {
+        // given
+        final String token = jwtUtil.generateToken(
+                "customer@test.com",
+                new Date(System.currentTimeMillis() - 1000 * 60)
+        );
+
+        // when
+        // then
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verifyToken(token));
+    }
+
+    @Test
+    @DisplayName("Should fail to verify a token signed with another key")
+    void shouldFailToVerifyTokenSignedWithAnotherKey() {
+        // given
+        final String token = new JWTUtil(secretKey + "-OTHER", 2).generateToken("customer@test.com");
+
+        // when
+        // then
+        assertThrows(SignatureException.class, () -> jwtUtil.verifyToken(token));
+    }
+}
@@ -0,0 +1,223 @@
+package com.damian.xBank.customer;
+
+import com.damian.xBank.auth.exception.AuthenticationBadCredentialsException;
+import com.damian.xBank.auth.http.AuthenticationRequest;
+import com.damian.xBank.auth.http.AuthenticationResponse;
+import com.damian.xBank.banking.account.BankingAccountRepository;
+import com.damian.xBank.customer.http.request.CustomerEmailUpdateRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * The other tests run with the principal cache disabled, this one turns it on and checks
+ * that the authentication filter serves the customer from memory and that changing or
+ * deleting a customer through the endpoints evicts it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "customer.principal-cache.max-size=100")
+@Import(CustomerPrincipalCacheIntegrationTest.CustomerLookupCounterConfig.class)
+public class CustomerPrincipalCacheIntegrationTest {
+    private static final AtomicInteger LOOKUPS = new AtomicInteger();
+    private final String rawPassword = "123456";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private BankingAccountRepository bankingAccountRepository;
+
+    @Autowired
+    private CustomerPrincipalCache customerPrincipalCache;
+
+    @Autowired
+    private BCryptPasswordEncoder bCryptPasswordEncoder;
+
+    private Customer customer;
+    private Customer admin;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        bankingAccountRepository.deleteAll();
+
+        customer = new Customer();
+        customer.setEmail("customer@test.com");
+        customer.setPassword(bCryptPasswordEncoder.encode(this.rawPassword));
+        customer.getProfile().setFirstName("alice");
+        customer.getProfile().setLastName("wonderland");
+        customer.getProfile().setBirthdate(LocalDate.of(1989, 1, 1));
+        customerRepository.save(customer);
+
+        admin = new Customer();
+        admin.setEmail("admin@test.com");
+        admin.setPassword(bCryptPasswordEncoder.encode(this.rawPassword));
+        admin.setRole(CustomerRole.ADMIN);
+        customerRepository.save(admin);
+    }
+
+    // the customers are deleted through the repository by the next setUp, which does not evict them
+    @AfterEach
+    void tearDown() {
+        customerPrincipalCache.evict(customer.getId());
+        customerPrincipalCache.evict(admin.getId());
+    }
+
+    String loginWithCustomer(String email) throws Exception {
+        AuthenticationRequest authenticationRequest = new AuthenticationRequest(
+                email, this.rawPassword
+        );
+
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/login")
+                                          .contentType(MediaType.APPLICATION_JSON)
+                                          .content(objectMapper.writeValueAsString(authenticationRequest)))
+                                  .andReturn();
+
+        AuthenticationResponse response = objectMapper.readValue(
+                result.getResponse().getContentAsString(),
+                AuthenticationResponse.class
+        );
+
+        return response.token();
+    }
+
+    int getLoggedCustomer(String token) throws Exception {
+        return mockMvc.perform(get("/api/v1/customers/me")
+                              .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                      .andReturn()
+                      .getResponse()
+                      .getStatus();
+    }
+
+    @Test
+    @DisplayName("Should authenticate the next requests without loading the customer again")
+    void shouldAuthenticateFromCache() throws Exception {
+        // given
+        final String token = loginWithCustomer(customer.getEmail());
+
+        // when
+        LOOKUPS.set(0);
+        int firstStatus = getLoggedCustomer(token);
+        int secondStatus = getLoggedCustomer(token);
+
+        // then
+        // only the first request loads the customer by its email
+        assertThat(firstStatus).isEqualTo(200);
+        assertThat(secondStatus).isEqualTo(200);
+        assertThat(LOOKUPS.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should load the customer again after its email is changed")
+    void shouldEvictCustomerWhenEmailChanges() throws Exception {
+        // given
+        final String token = loginWithCustomer(customer.getEmail());
+        assertThat(getLoggedCustomer(token)).isEqualTo(200);
+
+        CustomerEmailUpdateRequest request = new CustomerEmailUpdateRequest(
+                this.rawPassword,
+                "customer2@test.com"
+        );
+
+        mockMvc.perform(patch("/api/v1/customers/me/email")
+                       .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(request)))
+               .andReturn();
+
+        LOOKUPS.set(0);
+
+        // when
+        // then
+        // the token of the old email is checked against the database and no longer matches a customer
+        assertThrows(AuthenticationBadCredentialsException.class, () -> getLoggedCustomer(token));
+        assertThat(LOOKUPS.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should load the customer again after it is deleted")
+    void shouldEvictCustomerWhenDeleted() throws Exception {
+        // given
+        final String token = loginWithCustomer(customer.getEmail());
+        assertThat(getLoggedCustomer(token)).isEqualTo(200);
+
+        final String adminToken = loginWithCustomer(admin.getEmail());
+        mockMvc.perform(delete("/api/v1/admin/customers/{id}", customer.getId())
+                       .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken))
+               .andReturn();
+
+        LOOKUPS.set(0);
+
+        // when
+        // then
+        assertThrows(AuthenticationBadCredentialsException.class, () -> getLoggedCustomer(token));
+        assertThat(LOOKUPS.get()).isEqualTo(1);
+    }
+
+    /**
+     * Wraps the customer repository so every lookup by email is counted.
+     */
+    @TestConfiguration
+    static class CustomerLookupCounterConfig {
+        @Bean
+        static BeanPostProcessor customerLookupCounter() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof CustomerRepository customerRepository) {
+                        return proxy(customerRepository);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        static CustomerRepository proxy(CustomerRepository target) {
+            return (CustomerRepository) Proxy.newProxyInstance(
+                    CustomerRepository.class.getClassLoader(),
+                    new Class<?>[]{CustomerRepository.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("findByEmail")) {
+                            LOOKUPS.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+            );
+        }
+    }
+}
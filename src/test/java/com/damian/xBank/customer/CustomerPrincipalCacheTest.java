@@ -0,0 +1,87 @@
+package com.damian.xBank.customer;
+
+import com.damian.xBank.auth.exception.AuthenticationBadCredentialsException;
+import com.damian.xBank.common.exception.Exceptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CustomerPrincipalCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private CustomerPrincipalCache customerPrincipalCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        customerPrincipalCache = new CustomerPrincipalCache(100, Duration.ofMinutes(5), meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    Customer load(String email) {
+        loads.incrementAndGet();
+        return new Customer(10L, email, "123456");
+    }
+
+    double cacheGets(String result) {
+        return meterRegistry
+                .get("cache.gets")
+                .tag("cache", "customerPrincipals")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    @Test
+    @DisplayName("Should load the customer once and then serve it from the cache")
+    void shouldServeCustomerFromCache() {
+        // when
+        Customer first = customerPrincipalCache.get("customer@test.com", this::load);
+        Customer second = customerPrincipalCache.get("customer@test.com", this::load);
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cacheGets("miss")).isEqualTo(1);
+        assertThat(cacheGets("hit")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should load the customer again after it is evicted")
+    void shouldLoadCustomerAgainWhenEvicted() {
+        // given
+        customerPrincipalCache.get("customer@test.com", this::load);
+
+        // when
+        customerPrincipalCache.evict(10L);
+        customerPrincipalCache.get("customer@test.com", this::load);
+
+        // then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should not cache anything when the customer does not exist")
+    void shouldNotCacheWhenCustomerNotFound() {
+        // when
+        for (int i = 0; i < 2; i++) {
+            assertThrows(
+                    AuthenticationBadCredentialsException.class,
+                    () -> customerPrincipalCache.get("customer@test.com", email -> {
+                        loads.incrementAndGet();
+                        throw new AuthenticationBadCredentialsException(Exceptions.AUTH.BAD_CREDENTIALS);
+                    })
+            );
+        }
+
+        // then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+}
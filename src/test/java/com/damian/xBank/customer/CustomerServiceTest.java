@@ -1,7 +1,12 @@
 package com.damian.xBank.customer;
 
+import com.damian.xBank.auth.AuthAccountStatus;
+import com.damian.xBank.banking.account.BankingAccount;
+import com.damian.xBank.banking.account.BankingAccountService;
+import com.damian.xBank.banking.ledger.LedgerPostingRepository;
 import com.damian.xBank.common.exception.Exceptions;
 import com.damian.xBank.common.exception.PasswordMismatchException;
+import com.damian.xBank.customer.dto.CustomerDTO;
 import com.damian.xBank.customer.exception.CustomerEmailTakenException;
 import com.damian.xBank.customer.exception.CustomerNotFoundException;
 import com.damian.xBank.customer.http.request.CustomerEmailUpdateRequest;
@@ -15,6 +20,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -25,9 +31,11 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,10 +47,19 @@ public class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
-    @Mock
-    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    @Spy
+    private BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Mock
+    private CustomerPrincipalCache customerPrincipalCache;
+
+    @Mock
+    private LedgerPostingRepository ledgerPostingRepository;
+
+    @Mock
+    private BankingAccountService bankingAccountService;
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -69,23 +86,23 @@ public class CustomerServiceTest {
     @DisplayName("Should get all customers")
     void shouldGetAllCustomers() {
         // given
-        List<Customer> customerList = List.of(
-                new Customer(1L, "customer1@test.com", "password1"),
-                new Customer(2L, "customer2@test.com", "password2")
+        List<CustomerDTO> customerList = List.of(
+                new CustomerDTO(1L, "customer1@test.com", CustomerRole.CUSTOMER, Instant.now(), Instant.now()),
+                new CustomerDTO(2L, "customer2@test.com", CustomerRole.CUSTOMER, Instant.now(), Instant.now())
         );
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Customer> customerPage = new PageImpl<>(customerList, pageable, customerList.size());
+        Page<CustomerDTO> customerPage = new PageImpl<>(customerList, pageable, customerList.size());
 
         // when
-        when(customerRepository.findAll(pageable)).thenReturn(customerPage);
-        Page<Customer> result = customerService.getCustomers(pageable);
+        when(customerRepository.findAllDTOs(pageable)).thenReturn(customerPage);
+        Page<CustomerDTO> result = customerService.getCustomers(pageable);
 
         // then
         assertNotNull(result);
         assertEquals(2, result.getTotalElements());
-        assertEquals("customer1@test.com", result.getContent().get(0).getEmail());
-        assertEquals("customer2@test.com", result.getContent().get(1).getEmail());
-        verify(customerRepository, times(1)).findAll(pageable);
+        assertEquals("customer1@test.com", result.getContent().get(0).email());
+        assertEquals("customer2@test.com", result.getContent().get(1).email());
+        verify(customerRepository, times(1)).findAllDTOs(pageable);
     }
 
     @Test
@@ -108,6 +125,25 @@ public class CustomerServiceTest {
         assertEquals(customer.getEmail(), storedCustomer.getEmail());
     }
 
+    @Test
+    @DisplayName("Should find customer with its banking accounts")
+    void shouldFindCustomerWithBankingAccounts() {
+        // given
+        Customer customer = new Customer(
+                1L,
+                "customer@test.com",
+                "1234"
+        );
+
+        // when
+        when(customerRepository.findWithBankingAccountsById(customer.getId())).thenReturn(Optional.of(customer));
+        Customer storedCustomer = customerService.getCustomerWithBankingAccounts(customer.getId());
+
+        // then
+        verify(customerRepository, times(1)).findWithBankingAccountsById(customer.getId());
+        assertEquals(customer.getId(), storedCustomer.getId());
+    }
+
     @Test
     @DisplayName("Should not find customer when not exist")
     void shouldNotFindCustomerWhenNotExist() {
@@ -204,6 +240,33 @@ public class CustomerServiceTest {
         // then
         verify(customerRepository, times(1)).deleteById(id);
         verify(customerRepository).deleteById(id);
+        verify(customerPrincipalCache, times(1)).evict(id);
+        assertThat(isDeleted).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should close customer instead of deleting it when its accounts have ledger postings")
+    void shouldCloseCustomerWithLedgerPostings() {
+        // given
+        Customer customer = new Customer(7L, "customer@test.com", "123456");
+
+        BankingAccount bankingAccount = new BankingAccount(customer);
+        bankingAccount.setId(3L);
+        customer.setBankingAccounts(Set.of(bankingAccount));
+
+        when(customerRepository.existsById(customer.getId())).thenReturn(true);
+        when(ledgerPostingRepository.existsByBankingAccountCustomerId(customer.getId())).thenReturn(true);
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
+
+        // when
+        boolean isDeleted = customerService.deleteCustomer(customer.getId());
+
+        // then
+        verify(customerRepository, never()).deleteById(anyLong());
+        verify(bankingAccountService, times(1)).closeBankingAccount(bankingAccount.getId());
+        verify(customerRepository, times(1)).save(customer);
+        verify(customerPrincipalCache, times(1)).evict(customer.getId());
+        assertThat(customer.getAuth().getAuthAccountStatus()).isEqualTo(AuthAccountStatus.DISABLED);
         assertThat(isDeleted).isTrue();
     }
 
@@ -254,6 +317,7 @@ public class CustomerServiceTest {
 
         // then
         verify(customerRepository, times(1)).save(customer);
+        verify(customerPrincipalCache, times(1)).evict(customer.getId());
         assertThat(customer.getEmail()).isEqualTo(updateRequest.newEmail());
         assertThat(customer.getPassword()).isEqualTo(currentEncodedPassword);
     }
@@ -9,9 +9,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.io.Resource;
 import org.springframework.mock.web.MockMultipartFile;
@@ -24,7 +25,6 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,14 +36,16 @@ public class ProfileImageUploaderServiceTest {
     @Mock
     private ProfileRepository profileRepository;
 
-    @Mock
-    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    @Spy
+    private BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
     private BCryptPasswordEncoder passwordEncoder;
 
     @Mock
     private ProfileService profileService;
 
-    @InjectMocks
+    @TempDir
+    private Path imageDir;
+
     private ProfileImageUploaderService profileImageUploaderService;
 
     private Customer customer;
@@ -53,6 +55,12 @@ public class ProfileImageUploaderServiceTest {
     void setUp() {
         passwordEncoder = new BCryptPasswordEncoder();
         profileRepository.deleteAll();
+        profileImageUploaderService = new ProfileImageUploaderService(
+                profileRepository,
+                profileService,
+                bCryptPasswordEncoder,
+                imageDir.toString()
+        );
 
         customer = new Customer();
         customer.setId(2L);
@@ -88,9 +96,7 @@ public class ProfileImageUploaderServiceTest {
     void shouldGetProfileImage() throws IOException {
         // given
         String filename = "image.jpg";
-        Path directoryPath = Paths.get("uploads/profile/images");
-        Files.createDirectories(directoryPath); // ensure path exists
-        Path filePath = directoryPath.resolve(filename);
+        Path filePath = imageDir.resolve(filename);
         Files.write(filePath, "test".getBytes()); // create dummy file
 
         // when
@@ -99,9 +105,6 @@ public class ProfileImageUploaderServiceTest {
         // then
         assertNotNull(resource);
         assertTrue(resource.exists());
-
-        // cleanup
-        Files.deleteIfExists(filePath);
     }
 
     @Test
@@ -15,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -38,8 +39,8 @@ public class ProfileServiceTest {
     @Mock
     private ProfileRepository profileRepository;
 
-    @Mock
-    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    @Spy
+    private BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
     private BCryptPasswordEncoder passwordEncoder;
 
     @InjectMocks
@@ -103,7 +104,8 @@ public class ProfileServiceTest {
         );
 
         // when
-        when(profileRepository.findById(customer.getProfile().getId())).thenReturn(Optional.of(customer.getProfile()));
+        when(profileRepository.findByIdAndCustomer_Id(customer.getProfile().getId(), customer.getId()))
+                .thenReturn(Optional.of(customer.getProfile()));
         when(profileRepository.save(any(Profile.class))).thenReturn(customer.getProfile());
 
         Profile result = profileService.updateProfile(givenRequest);
@@ -135,7 +137,8 @@ public class ProfileServiceTest {
         );
 
         // when
-        when(profileRepository.findById(customer.getProfile().getId())).thenReturn(Optional.of(customer.getProfile()));
+        when(profileRepository.findByIdAndCustomer_Id(customer.getProfile().getId(), customer.getId()))
+                .thenReturn(Optional.of(customer.getProfile()));
         PasswordMismatchException exception = assertThrows(
                 PasswordMismatchException.class,
                 () -> profileService.updateProfile(givenRequest)
@@ -159,7 +162,8 @@ public class ProfileServiceTest {
         );
 
         // when
-        when(profileRepository.findById(customer.getProfile().getId())).thenReturn(Optional.empty());
+        when(profileRepository.findByIdAndCustomer_Id(customer.getProfile().getId(), customer.getId()))
+                .thenReturn(Optional.empty());
         ProfileNotFoundException exception = assertThrows(
                 ProfileNotFoundException.class,
                 () -> profileService.updateProfile(givenRequest)
@@ -170,7 +174,7 @@ public class ProfileServiceTest {
     }
 
     @Test
-    @DisplayName("Should not update profile when profile not found")
+    @DisplayName("Should not update profile when profile not yours")
     void shouldNotUpdateProfileWhenProfileNotYours() {
         // given
         setUpContext(customer);
@@ -183,17 +187,19 @@ public class ProfileServiceTest {
         );
 
         Profile givenProfile = new Profile();
+        givenProfile.setId(7L);
         givenProfile.setCustomer(new Customer(5L, "customer@test.com", "12345"));
 
         // when
-        when(profileRepository.findById(customer.getProfile().getId())).thenReturn(Optional.of(givenProfile));
-        ProfileAuthorizationException exception = assertThrows(
-                ProfileAuthorizationException.class,
-                () -> profileService.updateProfile(givenRequest)
+        when(profileRepository.findByIdAndCustomer_Id(givenProfile.getId(), customer.getId()))
+                .thenReturn(Optional.empty());
+        ProfileNotFoundException exception = assertThrows(
+                ProfileNotFoundException.class,
+                () -> profileService.updateProfile(givenProfile.getId(), givenRequest)
         );
 
         // Then
-        assertEquals(Exceptions.PROFILE.ACCESS_FORBIDDEN, exception.getMessage());
+        assertEquals(Exceptions.PROFILE.NOT_FOUND, exception.getMessage());
     }
 
     @Test
@@ -211,7 +217,8 @@ public class ProfileServiceTest {
         );
 
         // when
-        when(profileRepository.findById(customer.getProfile().getId())).thenReturn(Optional.of(customer.getProfile()));
+        when(profileRepository.findByIdAndCustomer_Id(customer.getProfile().getId(), customer.getId()))
+                .thenReturn(Optional.of(customer.getProfile()));
         ProfileAuthorizationException exception = assertThrows(
                 ProfileAuthorizationException.class,
                 () -> profileService.updateProfile(givenRequest)